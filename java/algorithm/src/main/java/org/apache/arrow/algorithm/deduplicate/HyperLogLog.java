@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.deduplicate;
+
+import java.util.Arrays;
+
+import org.apache.arrow.memory.util.hash.ArrowBufHasher;
+import org.apache.arrow.memory.util.hash.MurmurHasher;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * Estimates the number of distinct values by the HyperLogLog algorithm.
+ * Details of the algorithm can be found in
+ * https://en.wikipedia.org/wiki/HyperLogLog
+ * <p>
+ *   The estimation is based on the 32-bit hash codes computed by an {@link ArrowBufHasher},
+ *   and takes constant memory of 2^precision bytes. The relative standard error is
+ *   about 1.04 / sqrt(2^precision). Estimators built with the same precision and hasher
+ *   can be merged, so vectors can be processed in parallel or in batches.
+ * </p>
+ * <p>
+ *   Null values are ignored.
+ * </p>
+ */
+public class HyperLogLog {
+
+  /**
+   * The minimum precision.
+   */
+  public static final int MIN_PRECISION = 4;
+
+  /**
+   * The maximum precision.
+   */
+  public static final int MAX_PRECISION = 16;
+
+  /**
+   * The default precision, with a relative standard error of about 0.8%.
+   */
+  public static final int DEFAULT_PRECISION = 14;
+
+  private static final double TWO_POW_32 = 4294967296.0;
+
+  private final int precision;
+
+  private final ArrowBufHasher hasher;
+
+  /**
+   * The maximum rank observed for each register.
+   */
+  private final byte[] registers;
+
+  /**
+   * Constructs an estimator with the default precision.
+   */
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * Constructs an estimator.
+   * @param precision the number of bits used to select a register.
+   */
+  public HyperLogLog(int precision) {
+    this(precision, new MurmurHasher());
+  }
+
+  /**
+   * Constructs an estimator.
+   * @param precision the number of bits used to select a register.
+   * @param hasher the hasher used to compute the hash code.
+   */
+  public HyperLogLog(int precision, ArrowBufHasher hasher) {
+    Preconditions.checkArgument(precision >= MIN_PRECISION && precision <= MAX_PRECISION,
+        "Precision must be in range [%s, %s]", MIN_PRECISION, MAX_PRECISION);
+    this.precision = precision;
+    this.hasher = hasher;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * Adds all values of a vector.
+   * @param vector the vector.
+   */
+  public void addValues(ValueVector vector) {
+    for (int i = 0; i < vector.getValueCount(); i++) {
+      addValue(vector, i);
+    }
+  }
+
+  /**
+   * Adds a value of a vector.
+   * @param vector the vector.
+   * @param index the index of the value in the vector.
+   */
+  public void addValue(ValueVector vector, int index) {
+    if (!vector.isNull(index)) {
+      addHash(vector.hashCode(index, hasher));
+    }
+  }
+
+  /**
+   * Adds a value by its hash code.
+   * @param hashCode the hash code of the value.
+   */
+  public void addHash(int hashCode) {
+    // spread the bits with the murmur3 finalizer, as a hasher may not distribute all bits uniformly.
+    int hash = MurmurHasher.finalizeHashCode(hashCode, 0);
+    int index = hash >>> (Integer.SIZE - precision);
+    // the rank is the position of the first 1 bit in the remaining bits.
+    int rank = Math.min(Integer.numberOfLeadingZeros(hash << precision), Integer.SIZE - precision) + 1;
+    if (rank > registers[index]) {
+      registers[index] = (byte) rank;
+    }
+  }
+
+  /**
+   * Merges the values added to another estimator into this one.
+   * @param other the other estimator. It must have the same precision and hasher.
+   */
+  public void merge(HyperLogLog other) {
+    Preconditions.checkArgument(other.precision == precision, "Cannot merge estimators of different precisions");
+    Preconditions.checkArgument(other.hasher.equals(hasher), "Cannot merge estimators of different hashers");
+    for (int i = 0; i < registers.length; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * Gets the estimated number of distinct values added.
+   * @return the estimated distinct count.
+   */
+  public long estimate() {
+    final int m = registers.length;
+    double sum = 0;
+    int zeroCount = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeroCount += 1;
+      }
+    }
+
+    double estimate = alpha(m) * m * m / sum;
+    if (estimate <= 2.5 * m && zeroCount > 0) {
+      // small range correction by linear counting
+      estimate = m * Math.log((double) m / zeroCount);
+    } else if (estimate > TWO_POW_32 / 30 && estimate < TWO_POW_32) {
+      // large range correction for 32-bit hash codes
+      estimate = -TWO_POW_32 * Math.log(1 - estimate / TWO_POW_32);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * Clears all values added.
+   */
+  public void reset() {
+    Arrays.fill(registers, (byte) 0);
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / m);
+    }
+  }
+}
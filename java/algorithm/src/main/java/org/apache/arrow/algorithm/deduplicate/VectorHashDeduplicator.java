@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.deduplicate;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.algorithm.hash.MultiColumnHashTable;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.hash.ArrowBufHasher;
+import org.apache.arrow.memory.util.hash.SimpleHasher;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * Remove all duplicated elements from a vector, based on a hash table.
+ * Unlike {@link VectorRunDeduplicator}, the vector does not need to be sorted,
+ * and the distinct values are found in a single pass, in the order of their first occurrences.
+ * Null is regarded as a distinct value.
+ * @param <V> vector type.
+ */
+public class VectorHashDeduplicator<V extends ValueVector> implements AutoCloseable {
+
+  /**
+   * The vector to deduplicate.
+   */
+  private final V vector;
+
+  private final BufferAllocator allocator;
+
+  private final ArrowBufHasher hasher;
+
+  /**
+   * The hash table of distinct values, which is built lazily.
+   */
+  private MultiColumnHashTable hashTable;
+
+  /**
+   * The index of the first occurrence of each distinct value.
+   */
+  private IntVector firstIndices;
+
+  /**
+   * The number of occurrences of each distinct value.
+   */
+  private IntVector counts;
+
+  /**
+   * Constructs a vector hash deduplicator for a given vector.
+   * @param vector the vector to deduplicate.  Ownership is NOT taken.
+   * @param allocator the allocator used for allocating the hash table and index buffers.
+   */
+  public VectorHashDeduplicator(V vector, BufferAllocator allocator) {
+    this(vector, allocator, SimpleHasher.INSTANCE);
+  }
+
+  /**
+   * Constructs a vector hash deduplicator for a given vector.
+   * @param vector the vector to deduplicate.  Ownership is NOT taken.
+   * @param allocator the allocator used for allocating the hash table and index buffers.
+   * @param hasher the hasher used to compute the hash code.
+   */
+  public VectorHashDeduplicator(V vector, BufferAllocator allocator, ArrowBufHasher hasher) {
+    this.vector = vector;
+    this.allocator = allocator;
+    this.hasher = hasher;
+  }
+
+  private void deduplicate() {
+    // built into locals, so a failure leaves this deduplicator untouched
+    final MultiColumnHashTable newHashTable = new MultiColumnHashTable(allocator,
+        Collections.singletonList(vector.getField()), MultiColumnHashTable.DEFAULT_INITIAL_CAPACITY, hasher);
+    IntVector newFirstIndices = null;
+    IntVector newCounts = null;
+    try {
+      newFirstIndices = new IntVector("first indices", allocator);
+      newCounts = new IntVector("counts", allocator);
+      newFirstIndices.allocateNew();
+      newCounts.allocateNew();
+
+      List<V> columns = Collections.singletonList(vector);
+      for (int i = 0; i < vector.getValueCount(); i++) {
+        int distinctCount = newHashTable.size();
+        int groupId = newHashTable.add(columns, i);
+        if (groupId == distinctCount) {
+          // the first occurrence of a value
+          newFirstIndices.setSafe(groupId, i);
+          newCounts.setSafe(groupId, 1);
+        } else {
+          newCounts.set(groupId, newCounts.get(groupId) + 1);
+        }
+      }
+      newFirstIndices.setValueCount(newHashTable.size());
+      newCounts.setValueCount(newHashTable.size());
+    } catch (RuntimeException e) {
+      AutoCloseables.close(e, newHashTable, newFirstIndices, newCounts);
+      throw e;
+    }
+    hashTable = newHashTable;
+    firstIndices = newFirstIndices;
+    counts = newCounts;
+  }
+
+  private void ensureDeduplicated() {
+    if (hashTable == null) {
+      deduplicate();
+    }
+  }
+
+  /**
+   * Gets the number of distinct values in the vector.
+   * @return the distinct count.
+   */
+  public int getDistinctCount() {
+    ensureDeduplicated();
+    return hashTable.size();
+  }
+
+  /**
+   * Gets the distinct values, in the order of their first occurrences.
+   * @param outVector the output vector.
+   */
+  public void populateDistinctValues(V outVector) {
+    ensureDeduplicated();
+    for (int i = 0; i < firstIndices.getValueCount(); i++) {
+      outVector.copyFromSafe(firstIndices.get(i), i, vector);
+    }
+    outVector.setValueCount(firstIndices.getValueCount());
+  }
+
+  /**
+   * Gets the index of the first occurrence of each distinct value.
+   * @param indexVector the vector for holding the indices.
+   */
+  public void populateFirstOccurrenceIndices(IntVector indexVector) {
+    ensureDeduplicated();
+    copyIntVector(firstIndices, indexVector);
+  }
+
+  /**
+   * Gets the number of occurrences of each distinct value.
+   * @param countVector the vector for holding the counts.
+   */
+  public void populateCounts(IntVector countVector) {
+    ensureDeduplicated();
+    copyIntVector(counts, countVector);
+  }
+
+  private static void copyIntVector(IntVector source, IntVector target) {
+    for (int i = 0; i < source.getValueCount(); i++) {
+      target.setSafe(i, source.get(i));
+    }
+    target.setValueCount(source.getValueCount());
+  }
+
+  @Override
+  public void close() {
+    AutoCloseables.closeNoChecked(() -> AutoCloseables.close(hashTable, firstIndices, counts));
+    hashTable = null;
+    firstIndices = null;
+    counts = null;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.dictionary;
+
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * Dictionary encoder for a stream of batches, whose dictionary is not known a priori.
+ * <p>
+ *   The dictionary is maintained by a {@link DictionaryBuilder} across successive batches.
+ *   Each batch is encoded against the dictionary built so far, and values not seen before
+ *   are appended to the end of the dictionary. So existing dictionary entries never change
+ *   their indices, and the entries appended by each batch make up a delta dictionary,
+ *   which can be sent to the consumer incrementally (e.g. by a
+ *   {@link org.apache.arrow.vector.ipc.ArrowStreamWriter} with delta dictionaries enabled),
+ *   instead of re-sending the full dictionary.
+ * </p>
+ * <p>Below gives the sample code for using the encoder
+ * <pre>{@code
+ * StreamingDictionaryEncoder<IntVector, VarCharVector> encoder = new StreamingDictionaryEncoder<>(
+ *     new HashTableBasedDictionaryBuilder<>(dictionary));
+ * for (VarCharVector batch : batches) {
+ *   encoder.encode(batch, encodedVector);
+ *   // entries [getDeltaStart(), getDeltaStart() + getDeltaCount()) of the dictionary are new.
+ *   ...
+ * }
+ * }</pre>
+ * </p>
+ *
+ * @param <E> encoded vector type.
+ * @param <D> decoded vector type, which is also the dictionary type.
+ */
+public class StreamingDictionaryEncoder<E extends BaseIntVector, D extends ValueVector> {
+
+  /**
+   * The builder maintaining the dictionary.
+   */
+  private final DictionaryBuilder<D> dictionaryBuilder;
+
+  /**
+   * A flag indicating if null should be encoded.
+   * It must be consistent with the dictionary builder.
+   */
+  private final boolean encodeNull;
+
+  /**
+   * The index of the first dictionary entry added by the last batch.
+   */
+  private int deltaStart;
+
+  /**
+   * Constructs a streaming dictionary encoder, which does not encode null values.
+   * @param dictionaryBuilder the builder maintaining the dictionary.
+   */
+  public StreamingDictionaryEncoder(DictionaryBuilder<D> dictionaryBuilder) {
+    this(dictionaryBuilder, false);
+  }
+
+  /**
+   * Constructs a streaming dictionary encoder.
+   * @param dictionaryBuilder the builder maintaining the dictionary.
+   * @param encodeNull a flag indicating if null should be encoded.
+   *     If set to true, null is added to the dictionary like other values (the builder must be
+   *     created to encode null as well). Otherwise, the encoder simply produces a null in the output.
+   */
+  public StreamingDictionaryEncoder(DictionaryBuilder<D> dictionaryBuilder, boolean encodeNull) {
+    this.dictionaryBuilder = dictionaryBuilder;
+    this.encodeNull = encodeNull;
+    this.deltaStart = dictionaryBuilder.getDictionary().getValueCount();
+  }
+
+  /**
+   * Encodes a batch, adding the values not in the dictionary yet to the end of the dictionary.
+   * This takes O(n) time with a hash table based dictionary builder,
+   * where n is the length of the input vector.
+   *
+   * @param input the input vector.
+   * @param output the output vector.
+   * @return the number of entries added to the dictionary by this batch.
+   */
+  public int encode(D input, E output) {
+    deltaStart = dictionaryBuilder.getDictionary().getValueCount();
+    for (int i = 0; i < input.getValueCount(); i++) {
+      if (!encodeNull && input.isNull(i)) {
+        // the safe set makes sure the output has enough capacity,
+        // as the base int vector interface has no safe method to set null.
+        output.setWithPossibleTruncate(i, 0);
+        BitVectorHelper.unsetBit(output.getValidityBuffer(), i);
+        continue;
+      }
+      int index = dictionaryBuilder.addValue(input, i);
+      output.setWithPossibleTruncate(i, index);
+    }
+    output.setValueCount(input.getValueCount());
+    return getDeltaCount();
+  }
+
+  /**
+   * Gets the dictionary built so far.
+   * @return the dictionary.
+   */
+  public D getDictionary() {
+    return dictionaryBuilder.getDictionary();
+  }
+
+  /**
+   * Gets the index of the first dictionary entry added by the last encoded batch.
+   * @return the start index of the delta dictionary.
+   */
+  public int getDeltaStart() {
+    return deltaStart;
+  }
+
+  /**
+   * Gets the number of dictionary entries added by the last encoded batch.
+   * @return the length of the delta dictionary.
+   */
+  public int getDeltaCount() {
+    return dictionaryBuilder.getDictionary().getValueCount() - deltaStart;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+import java.util.Locale;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.FloatingPointVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+
+/**
+ * Accumulates the values of an aggregate function, one slot per group id.
+ * The accumulated values are stored in a vector, which is also the result of the aggregation.
+ */
+abstract class Accumulator implements AutoCloseable {
+
+  /**
+   * Creates an accumulator for the aggregate function.
+   * @param function the aggregate function.
+   * @param inputField the field of the input column.
+   * @param allocator the allocator for the result vector.
+   * @return the newly created accumulator.
+   */
+  static Accumulator create(AggregateFunction function, Field inputField, BufferAllocator allocator) {
+    String name = function.name().toLowerCase(Locale.ROOT) + "(" + inputField.getName() + ")";
+    if (function == AggregateFunction.COUNT) {
+      return new CountAccumulator(new BigIntVector(name, allocator));
+    }
+
+    ArrowType type = inputField.getType();
+    if (type instanceof ArrowType.Int) {
+      return new LongAccumulator(function, new BigIntVector(name, allocator));
+    } else if (type instanceof ArrowType.FloatingPoint) {
+      return new DoubleAccumulator(function, new Float8Vector(name, allocator));
+    }
+    throw new UnsupportedOperationException("Unsupported input type for " + function + ": " + type);
+  }
+
+  /**
+   * Initializes the slot for a new group.
+   * @param groupId the id of the new group.
+   */
+  abstract void addGroup(int groupId);
+
+  /**
+   * Accumulates an input value to a group.
+   * @param groupId the id of the group.
+   * @param input the input vector.
+   * @param index the index of the value in the input vector.
+   */
+  abstract void accumulate(int groupId, ValueVector input, int index);
+
+  /**
+   * Gets the vector holding the accumulated values.
+   */
+  abstract FieldVector getResult();
+
+  @Override
+  public void close() {
+    getResult().close();
+  }
+
+  /**
+   * Accumulator for {@link AggregateFunction#COUNT}.
+   */
+  static class CountAccumulator extends Accumulator {
+
+    private final BigIntVector result;
+
+    CountAccumulator(BigIntVector result) {
+      this.result = result;
+      result.allocateNew();
+    }
+
+    @Override
+    void addGroup(int groupId) {
+      result.setSafe(groupId, 0L);
+      result.setValueCount(groupId + 1);
+    }
+
+    @Override
+    void accumulate(int groupId, ValueVector input, int index) {
+      if (!input.isNull(index)) {
+        result.set(groupId, result.get(groupId) + 1);
+      }
+    }
+
+    @Override
+    FieldVector getResult() {
+      return result;
+    }
+  }
+
+  /**
+   * Accumulator for integer inputs.
+   */
+  static class LongAccumulator extends Accumulator {
+
+    private final AggregateFunction function;
+
+    private final BigIntVector result;
+
+    LongAccumulator(AggregateFunction function, BigIntVector result) {
+      this.function = function;
+      this.result = result;
+      result.allocateNew();
+    }
+
+    @Override
+    void addGroup(int groupId) {
+      result.setNull(groupId);
+      result.setValueCount(groupId + 1);
+    }
+
+    @Override
+    void accumulate(int groupId, ValueVector input, int index) {
+      if (input.isNull(index)) {
+        return;
+      }
+      long value = ((BaseIntVector) input).getValueAsLong(index);
+      if (result.isNull(groupId)) {
+        result.set(groupId, value);
+        return;
+      }
+
+      long current = result.get(groupId);
+      switch (function) {
+        case SUM:
+          result.set(groupId, current + value);
+          break;
+        case MIN:
+          result.set(groupId, Math.min(current, value));
+          break;
+        case MAX:
+          result.set(groupId, Math.max(current, value));
+          break;
+        default:
+          throw new UnsupportedOperationException("Unsupported aggregate function: " + function);
+      }
+    }
+
+    @Override
+    FieldVector getResult() {
+      return result;
+    }
+  }
+
+  /**
+   * Accumulator for floating point inputs.
+   */
+  static class DoubleAccumulator extends Accumulator {
+
+    private final AggregateFunction function;
+
+    private final Float8Vector result;
+
+    DoubleAccumulator(AggregateFunction function, Float8Vector result) {
+      this.function = function;
+      this.result = result;
+      result.allocateNew();
+    }
+
+    @Override
+    void addGroup(int groupId) {
+      result.setNull(groupId);
+      result.setValueCount(groupId + 1);
+    }
+
+    @Override
+    void accumulate(int groupId, ValueVector input, int index) {
+      if (input.isNull(index)) {
+        return;
+      }
+      double value = ((FloatingPointVector) input).getValueAsDouble(index);
+      if (result.isNull(groupId)) {
+        result.set(groupId, value);
+        return;
+      }
+
+      double current = result.get(groupId);
+      switch (function) {
+        case SUM:
+          result.set(groupId, current + value);
+          break;
+        case MIN:
+          result.set(groupId, Math.min(current, value));
+          break;
+        case MAX:
+          result.set(groupId, Math.max(current, value));
+          break;
+        default:
+          throw new UnsupportedOperationException("Unsupported aggregate function: " + function);
+      }
+    }
+
+    @Override
+    FieldVector getResult() {
+      return result;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+/**
+ * The aggregate functions supported by {@link HashAggregator}.
+ * Null input values are ignored by all functions. For {@link #SUM}, {@link #MIN} and {@link #MAX},
+ * the result of a group without non-null input values is null.
+ * Integer inputs are accumulated as 64-bit integers, and floating point inputs
+ * are accumulated as doubles.
+ */
+public enum AggregateFunction {
+
+  /**
+   * The sum of input values.
+   */
+  SUM,
+
+  /**
+   * The number of non-null input values. It accepts inputs of any type.
+   */
+  COUNT,
+
+  /**
+   * The minimum input value.
+   */
+  MIN,
+
+  /**
+   * The maximum input value.
+   */
+  MAX
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.hash.ArrowBufHasher;
+import org.apache.arrow.memory.util.hash.SimpleHasher;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.Field;
+
+/**
+ * Group-by aggregation based on a {@link MultiColumnHashTable}.
+ * <p>
+ * Batches of key columns and input columns are fed by {@link #aggregate(List, List)}.
+ * Each distinct key forms a group, and for each group, the aggregate functions are
+ * accumulated in result vectors, indexed by group id. So the i-th element of the key
+ * vectors and the i-th element of the result vectors make up one output row.
+ * Null keys form a group of their own.
+ * </p>
+ */
+public class HashAggregator implements AutoCloseable {
+
+  private final MultiColumnHashTable hashTable;
+
+  private final List<Accumulator> accumulators;
+
+  /**
+   * Constructs a hash aggregator.
+   * @param allocator the allocator for the hash table and result vectors.
+   * @param keyFields the fields of the key columns.
+   * @param functions the aggregate functions.
+   * @param inputFields the fields of the input columns, one for each aggregate function.
+   */
+  public HashAggregator(BufferAllocator allocator, List<Field> keyFields,
+      List<AggregateFunction> functions, List<Field> inputFields) {
+    this(allocator, keyFields, functions, inputFields, SimpleHasher.INSTANCE);
+  }
+
+  /**
+   * Constructs a hash aggregator.
+   * @param allocator the allocator for the hash table and result vectors.
+   * @param keyFields the fields of the key columns.
+   * @param functions the aggregate functions.
+   * @param inputFields the fields of the input columns, one for each aggregate function.
+   * @param hasher the hasher used to compute the hash code of key columns.
+   */
+  public HashAggregator(BufferAllocator allocator, List<Field> keyFields,
+      List<AggregateFunction> functions, List<Field> inputFields, ArrowBufHasher hasher) {
+    Preconditions.checkArgument(functions.size() == inputFields.size(),
+        "Expecting one input field for each aggregate function");
+    this.accumulators = new ArrayList<>(functions.size());
+    this.hashTable = new MultiColumnHashTable(
+        allocator, keyFields, MultiColumnHashTable.DEFAULT_INITIAL_CAPACITY, hasher);
+    try {
+      for (int i = 0; i < functions.size(); i++) {
+        accumulators.add(Accumulator.create(functions.get(i), inputFields.get(i), allocator));
+      }
+    } catch (RuntimeException e) {
+      AutoCloseables.close(e, accumulators);
+      hashTable.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Aggregates a batch of data.
+   * @param keyColumns the key columns of the batch.
+   * @param inputColumns the input columns of the batch, one for each aggregate function.
+   */
+  public void aggregate(List<? extends ValueVector> keyColumns, List<? extends ValueVector> inputColumns) {
+    Preconditions.checkArgument(inputColumns.size() == accumulators.size(),
+        "Expecting %s input columns, but got %s", accumulators.size(), inputColumns.size());
+    final int rowCount = keyColumns.get(0).getValueCount();
+    for (int row = 0; row < rowCount; row++) {
+      int groupCount = hashTable.size();
+      int groupId = hashTable.add(keyColumns, row);
+      if (groupId == groupCount) {
+        for (int i = 0; i < accumulators.size(); i++) {
+          accumulators.get(i).addGroup(groupId);
+        }
+      }
+      for (int i = 0; i < accumulators.size(); i++) {
+        accumulators.get(i).accumulate(groupId, inputColumns.get(i), row);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of groups.
+   */
+  public int getGroupCount() {
+    return hashTable.size();
+  }
+
+  /**
+   * Gets the vectors holding the distinct keys, indexed by group id.
+   * They are owned by the aggregator, and are released when the aggregator is closed,
+   * unless they are transferred away.
+   */
+  public List<FieldVector> getKeyVectors() {
+    return hashTable.getKeyVectors();
+  }
+
+  /**
+   * Gets the vectors holding the aggregation results, indexed by group id.
+   * They are owned by the aggregator, and are released when the aggregator is closed,
+   * unless they are transferred away.
+   */
+  public List<FieldVector> getResultVectors() {
+    List<FieldVector> results = new ArrayList<>(accumulators.size());
+    for (Accumulator accumulator : accumulators) {
+      results.add(accumulator.getResult());
+    }
+    return results;
+  }
+
+  @Override
+  public void close() {
+    hashTable.close();
+    accumulators.forEach(Accumulator::close);
+  }
+}
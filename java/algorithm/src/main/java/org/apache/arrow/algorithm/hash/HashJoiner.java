@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.hash.ArrowBufHasher;
+import org.apache.arrow.memory.util.hash.SimpleHasher;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * Equi-join based on a {@link MultiColumnHashTable}.
+ * <p>
+ * The build side is hashed once when the joiner is constructed. Build rows sharing the same
+ * key are chained in off-heap index vectors, in their original order. Then any number of
+ * probe batches can be joined against the build side. The results are expressed as row indices,
+ * which can be used to gather the output columns from the probe and build sides.
+ * </p>
+ * <p>
+ * Rows with a null in any key column never match, as in SQL semantics.
+ * </p>
+ */
+public class HashJoiner implements AutoCloseable {
+
+  private static final int END_OF_CHAIN = -1;
+
+  private final MultiColumnHashTable hashTable;
+
+  /**
+   * The first build row for each group id.
+   */
+  private final IntVector firstRows;
+
+  /**
+   * The last build row for each group id.
+   */
+  private final IntVector lastRows;
+
+  /**
+   * The next build row with the same key for each build row, or -1 for the end of the chain.
+   */
+  private final IntVector nextRows;
+
+  /**
+   * Constructs a hash joiner, and builds the hash table from the build side.
+   * @param allocator the allocator for the hash table and index vectors.
+   * @param buildKeys the key columns of the build side.
+   */
+  public HashJoiner(BufferAllocator allocator, List<? extends ValueVector> buildKeys) {
+    this(allocator, buildKeys, SimpleHasher.INSTANCE);
+  }
+
+  /**
+   * Constructs a hash joiner, and builds the hash table from the build side.
+   * @param allocator the allocator for the hash table and index vectors.
+   * @param buildKeys the key columns of the build side.
+   * @param hasher the hasher used to compute the hash code of key columns.
+   */
+  public HashJoiner(BufferAllocator allocator, List<? extends ValueVector> buildKeys, ArrowBufHasher hasher) {
+    final int buildCount = buildKeys.get(0).getValueCount();
+    this.hashTable = new MultiColumnHashTable(allocator,
+        buildKeys.stream().map(ValueVector::getField).collect(Collectors.toList()),
+        Math.max(1, buildCount * 2), hasher);
+    this.firstRows = new IntVector("first rows", allocator);
+    this.lastRows = new IntVector("last rows", allocator);
+    this.nextRows = new IntVector("next rows", allocator);
+
+    try {
+      build(buildKeys, buildCount);
+    } catch (RuntimeException e) {
+      AutoCloseables.close(e, hashTable, firstRows, lastRows, nextRows);
+      throw e;
+    }
+  }
+
+  private void build(List<? extends ValueVector> buildKeys, int buildCount) {
+    nextRows.allocateNew(buildCount);
+    nextRows.setValueCount(buildCount);
+    firstRows.allocateNew();
+    lastRows.allocateNew();
+
+    for (int row = 0; row < buildCount; row++) {
+      nextRows.set(row, END_OF_CHAIN);
+      if (hasNullKey(buildKeys, row)) {
+        continue;
+      }
+
+      int groupCount = hashTable.size();
+      int groupId = hashTable.add(buildKeys, row);
+      if (groupId == groupCount) {
+        // a new key
+        firstRows.setSafe(groupId, row);
+        lastRows.setSafe(groupId, row);
+      } else {
+        // append to the chain of the key
+        nextRows.set(lastRows.get(groupId), row);
+        lastRows.set(groupId, row);
+      }
+    }
+    firstRows.setValueCount(hashTable.size());
+    lastRows.setValueCount(hashTable.size());
+  }
+
+  /**
+   * Joins a probe batch against the build side.
+   * @param probeKeys the key columns of the probe side.
+   * @param joinType the join type.
+   * @param probeIndices the vector to hold the indices of output rows in the probe side.
+   * @param buildIndices the vector to hold the indices of output rows in the build side.
+   *     It is ignored for {@link JoinType#SEMI} and {@link JoinType#ANTI} joins, and can be null for them.
+   * @return the number of output rows.
+   */
+  public int probe(
+      List<? extends ValueVector> probeKeys, JoinType joinType, IntVector probeIndices, IntVector buildIndices) {
+    Preconditions.checkArgument(buildIndices != null || joinType == JoinType.SEMI || joinType == JoinType.ANTI,
+        "Build indices are required for %s join", joinType);
+    final int probeCount = probeKeys.get(0).getValueCount();
+    int outIdx = 0;
+    for (int row = 0; row < probeCount; row++) {
+      int groupId = hasNullKey(probeKeys, row) ? MultiColumnHashTable.NULL_GROUP_ID : hashTable.find(probeKeys, row);
+      switch (joinType) {
+        case INNER:
+        case LEFT:
+          if (groupId != MultiColumnHashTable.NULL_GROUP_ID) {
+            for (int buildRow = firstRows.get(groupId); buildRow != END_OF_CHAIN; buildRow = nextRows.get(buildRow)) {
+              probeIndices.setSafe(outIdx, row);
+              buildIndices.setSafe(outIdx, buildRow);
+              outIdx += 1;
+            }
+          } else if (joinType == JoinType.LEFT) {
+            probeIndices.setSafe(outIdx, row);
+            buildIndices.setNull(outIdx);
+            outIdx += 1;
+          }
+          break;
+        case SEMI:
+          if (groupId != MultiColumnHashTable.NULL_GROUP_ID) {
+            probeIndices.setSafe(outIdx++, row);
+          }
+          break;
+        case ANTI:
+          if (groupId == MultiColumnHashTable.NULL_GROUP_ID) {
+            probeIndices.setSafe(outIdx++, row);
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported join type: " + joinType);
+      }
+    }
+
+    probeIndices.setValueCount(outIdx);
+    if (buildIndices != null && (joinType == JoinType.INNER || joinType == JoinType.LEFT)) {
+      buildIndices.setValueCount(outIdx);
+    }
+    return outIdx;
+  }
+
+  /**
+   * Gets the number of distinct keys in the build side.
+   */
+  public int getDistinctKeyCount() {
+    return hashTable.size();
+  }
+
+  private static boolean hasNullKey(List<? extends ValueVector> keys, int row) {
+    for (int i = 0; i < keys.size(); i++) {
+      if (keys.get(i).isNull(row)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void close() {
+    hashTable.close();
+    firstRows.close();
+    lastRows.close();
+    nextRows.close();
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+/**
+ * The types of joins supported by {@link HashJoiner}.
+ */
+public enum JoinType {
+
+  /**
+   * Outputs a pair of indices for each pair of matched probe and build rows.
+   */
+  INNER,
+
+  /**
+   * Like {@link #INNER}, but each probe row without a match is also output once,
+   * with a null build index.
+   */
+  LEFT,
+
+  /**
+   * Outputs the index of each probe row that has at least one match.
+   */
+  SEMI,
+
+  /**
+   * Outputs the index of each probe row that has no match.
+   */
+  ANTI
+}
@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.ByteFunctionHelpers;
+import org.apache.arrow.memory.util.hash.ArrowBufHasher;
+import org.apache.arrow.memory.util.hash.MurmurHasher;
+import org.apache.arrow.memory.util.hash.SimpleHasher;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.compare.Range;
+import org.apache.arrow.vector.compare.RangeEqualsVisitor;
+import org.apache.arrow.vector.types.pojo.Field;
+
+/**
+ * An open-addressing hash table whose keys are made up of multiple columns.
+ * <p>
+ * Each distinct key is assigned a group id, which is consecutive from 0. The keys
+ * are copied into key vectors owned by the table, so the group id is also the index
+ * of the key in the key vectors. The slots of the table live in off-heap memory, and each slot
+ * holds the hash code of the key together with its group id, so the table can grow by
+ * re-distributing slots, without recomputing hash codes or comparing keys.
+ * </p>
+ * <p>
+ * Collisions are resolved by linear probing. The table is not thread safe.
+ * </p>
+ */
+public class MultiColumnHashTable implements AutoCloseable {
+
+  /**
+   * Result returned when a key is not found.
+   */
+  public static final int NULL_GROUP_ID = -1;
+
+  /**
+   * The default initial capacity - MUST be a power of two.
+   */
+  public static final int DEFAULT_INITIAL_CAPACITY = 1 << 10;
+
+  /**
+   * The maximum capacity.
+   */
+  static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  /**
+   * The load factor, after which the table grows.
+   */
+  static final float LOAD_FACTOR = 0.5f;
+
+  /**
+   * Each slot stores the hash code and the group id (plus one, so that zero marks an empty slot).
+   */
+  static final int SLOT_WIDTH = 8;
+
+  private static final int GROUP_ID_OFFSET = 4;
+
+  private final BufferAllocator allocator;
+
+  private final ArrowBufHasher hasher;
+
+  /**
+   * Vectors holding the distinct keys, indexed by group id.
+   */
+  private final List<FieldVector> keyVectors;
+
+  /**
+   * Visitors for comparing input rows with stored keys, one for each key column.
+   */
+  private final RangeEqualsVisitor[] visitors;
+
+  private final Range range = new Range(0, 0, 1);
+
+  private ArrowBuf slots;
+
+  private int capacity;
+
+  private int threshold;
+
+  private int size;
+
+  /**
+   * Constructs a hash table.
+   * @param allocator the allocator for the slots and key vectors.
+   * @param keyFields the fields of the key columns.
+   */
+  public MultiColumnHashTable(BufferAllocator allocator, List<Field> keyFields) {
+    this(allocator, keyFields, DEFAULT_INITIAL_CAPACITY, SimpleHasher.INSTANCE);
+  }
+
+  /**
+   * Constructs a hash table.
+   * @param allocator the allocator for the slots and key vectors.
+   * @param keyFields the fields of the key columns.
+   * @param initialCapacity the initial number of slots, rounded up to a power of two.
+   * @param hasher the hasher used to compute the hash code of key columns.
+   */
+  public MultiColumnHashTable(
+      BufferAllocator allocator, List<Field> keyFields, int initialCapacity, ArrowBufHasher hasher) {
+    Preconditions.checkArgument(!keyFields.isEmpty(), "At least one key column is required");
+    Preconditions.checkArgument(initialCapacity > 0, "Illegal initial capacity: %s", initialCapacity);
+    this.allocator = allocator;
+    this.hasher = hasher;
+    this.visitors = new RangeEqualsVisitor[keyFields.size()];
+
+    this.keyVectors = new ArrayList<>(keyFields.size());
+    try {
+      for (Field field : keyFields) {
+        FieldVector vector = field.createVector(allocator);
+        keyVectors.add(vector);
+        vector.allocateNew();
+      }
+      allocateSlots(roundUpToPowerOf2(initialCapacity));
+    } catch (RuntimeException e) {
+      AutoCloseables.close(e, keyVectors);
+      throw e;
+    }
+  }
+
+  /**
+   * Finds the key of a row in the table, and adds it if it is absent.
+   * @param keyColumns the key columns of the row.
+   * @param rowIndex the index of the row in the key columns.
+   * @return the group id of the key.
+   */
+  public int add(List<? extends ValueVector> keyColumns, int rowIndex) {
+    final int hash = hashRow(keyColumns, rowIndex);
+    long slot = findSlot(keyColumns, rowIndex, hash);
+    int groupId = getGroupId(slot);
+    if (groupId != NULL_GROUP_ID) {
+      return groupId;
+    }
+
+    // a new key is found, copy it to the key vectors.
+    groupId = size;
+    for (int i = 0; i < keyVectors.size(); i++) {
+      FieldVector keyVector = keyVectors.get(i);
+      keyVector.copyFromSafe(rowIndex, groupId, keyColumns.get(i));
+      keyVector.setValueCount(groupId + 1);
+    }
+    slots.setInt(slot, hash);
+    slots.setInt(slot + GROUP_ID_OFFSET, groupId + 1);
+    size += 1;
+
+    if (size > threshold) {
+      grow();
+    }
+    return groupId;
+  }
+
+  /**
+   * Finds the key of a row in the table.
+   * @param keyColumns the key columns of the row.
+   * @param rowIndex the index of the row in the key columns.
+   * @return the group id of the key, or -1 if it is absent.
+   */
+  public int find(List<? extends ValueVector> keyColumns, int rowIndex) {
+    final int hash = hashRow(keyColumns, rowIndex);
+    return getGroupId(findSlot(keyColumns, rowIndex, hash));
+  }
+
+  /**
+   * Gets the number of distinct keys in the table.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the number of slots in the table.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the vectors holding distinct keys. The index of a key is its group id.
+   * The vectors are owned by the table, and are released when the table is closed,
+   * unless they are transferred away.
+   */
+  public List<FieldVector> getKeyVectors() {
+    return Collections.unmodifiableList(keyVectors);
+  }
+
+  /**
+   * Gets the hash code for a row of the key columns.
+   */
+  private int hashRow(List<? extends ValueVector> keyColumns, int rowIndex) {
+    int hash = 0;
+    for (int i = 0; i < keyColumns.size(); i++) {
+      hash = ByteFunctionHelpers.combineHash(hash, keyColumns.get(i).hashCode(rowIndex, hasher));
+    }
+    return hash;
+  }
+
+  /**
+   * Gets the address of the slot holding the key, or the empty slot where the key should be placed.
+   */
+  private long findSlot(List<? extends ValueVector> keyColumns, int rowIndex, int hash) {
+    Preconditions.checkArgument(keyColumns.size() == keyVectors.size(),
+        "Expecting %s key columns, but got %s", keyVectors.size(), keyColumns.size());
+    final int mask = capacity - 1;
+    int index = mix(hash) & mask;
+    while (true) {
+      long slot = (long) index * SLOT_WIDTH;
+      int groupId = getGroupId(slot);
+      if (groupId == NULL_GROUP_ID) {
+        return slot;
+      }
+      if (slots.getInt(slot) == hash && keyEquals(groupId, keyColumns, rowIndex)) {
+        return slot;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private int getGroupId(long slot) {
+    return slots.getInt(slot + GROUP_ID_OFFSET) - 1;
+  }
+
+  private boolean keyEquals(int groupId, List<? extends ValueVector> keyColumns, int rowIndex) {
+    range.setLeftStart(groupId).setRightStart(rowIndex);
+    for (int i = 0; i < visitors.length; i++) {
+      ValueVector column = keyColumns.get(i);
+      if (visitors[i] == null || visitors[i].getRight() != column) {
+        visitors[i] = new RangeEqualsVisitor(keyVectors.get(i), column, null);
+      }
+      if (!visitors[i].rangeEquals(range)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void allocateSlots(int newCapacity) {
+    slots = allocator.buffer((long) newCapacity * SLOT_WIDTH);
+    slots.setZero(0, slots.capacity());
+    capacity = newCapacity;
+    threshold = (int) (newCapacity * LOAD_FACTOR);
+  }
+
+  /**
+   * Doubles the number of slots. Slots are re-distributed by their stored hash codes.
+   */
+  private void grow() {
+    Preconditions.checkState(capacity < MAXIMUM_CAPACITY, "Hash table capacity exceeded");
+    ArrowBuf oldSlots = slots;
+    int oldCapacity = capacity;
+    // if the allocation fails, the table keeps the old slots
+    allocateSlots(capacity * 2);
+    try {
+      final int mask = capacity - 1;
+      for (int i = 0; i < oldCapacity; i++) {
+        long oldSlot = (long) i * SLOT_WIDTH;
+        int groupIdPlusOne = oldSlots.getInt(oldSlot + GROUP_ID_OFFSET);
+        if (groupIdPlusOne == 0) {
+          continue;
+        }
+        int hash = oldSlots.getInt(oldSlot);
+        int index = mix(hash) & mask;
+        while (slots.getInt((long) index * SLOT_WIDTH + GROUP_ID_OFFSET) != 0) {
+          index = (index + 1) & mask;
+        }
+        long slot = (long) index * SLOT_WIDTH;
+        slots.setInt(slot, hash);
+        slots.setInt(slot + GROUP_ID_OFFSET, groupIdPlusOne);
+      }
+    } finally {
+      oldSlots.close();
+    }
+  }
+
+  /**
+   * Spreads the bits of the hash code with the murmur3 finalizer, so that the lower bits used for
+   * locating the slot are affected by all bits.
+   */
+  private static int mix(int hash) {
+    return MurmurHasher.finalizeHashCode(hash, 0);
+  }
+
+  static int roundUpToPowerOf2(int size) {
+    int n = size - 1;
+    n |= n >>> 1;
+    n |= n >>> 2;
+    n |= n >>> 4;
+    n |= n >>> 8;
+    n |= n >>> 16;
+    return (n < 0) ? 1 : (n >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : n + 1;
+  }
+
+  @Override
+  public void close() {
+    slots.close();
+    keyVectors.forEach(FieldVector::close);
+  }
+}
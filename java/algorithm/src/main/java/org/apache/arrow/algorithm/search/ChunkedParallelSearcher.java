@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.arrow.algorithm.sort.VectorValueComparator;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.compare.Range;
+import org.apache.arrow.vector.compare.RangeEqualsVisitor;
+
+/**
+ * A reusable parallel searcher, which splits the target vector into chunks.
+ * <p>
+ * Compared with {@link ParallelSearcher}, this searcher
+ * </p>
+ * <ul>
+ * <li>keeps one search context (visitor or comparator) per task, and reuses them across searches;</li>
+ * <li>splits the work into chunks of a fixed size, which are claimed dynamically by the tasks,
+ * so a fast task takes over the work left by slow ones;</li>
+ * <li>performs the search in the calling thread when the work fits in a single chunk,
+ * so short vectors do not pay the overhead of the thread pool;</li>
+ * <li>supports searching for all matches, the first match, or a batch of keys;</li>
+ * <li>uses binary search when the target vector is known to be sorted.</li>
+ * </ul>
+ * <p>
+ * The searcher is not thread safe: searches on the same searcher must not run concurrently.
+ * </p>
+ * @param <V> the vector type.
+ */
+public class ChunkedParallelSearcher<V extends ValueVector> {
+
+  /**
+   * The default number of elements in a chunk. For fixed width vectors of
+   * common types, the data of a chunk fits in the L2 cache.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+  /**
+   * The target vector to search.
+   */
+  private final V vector;
+
+  /**
+   * The thread pool.
+   */
+  private final ExecutorService threadPool;
+
+  /**
+   * The number of elements in a chunk.
+   */
+  private final int chunkSize;
+
+  /**
+   * If the target vector is sorted according to the comparator.
+   */
+  private final boolean sorted;
+
+  /**
+   * The search contexts, one for each task. The first one is used by the calling thread.
+   */
+  private final List<SearchContext> contexts;
+
+  /**
+   * Constructs a chunked parallel searcher. The element-wise comparison is based on
+   * {@link RangeEqualsVisitor}.
+   * @param vector the vector to search.
+   * @param threadPool the thread pool to use.
+   * @param numThreads the number of threads to use, including the calling thread.
+   */
+  public ChunkedParallelSearcher(V vector, ExecutorService threadPool, int numThreads) {
+    this(vector, threadPool, numThreads, DEFAULT_CHUNK_SIZE, null, false);
+  }
+
+  /**
+   * Constructs a chunked parallel searcher.
+   * @param vector the vector to search.
+   * @param threadPool the thread pool to use.
+   * @param numThreads the number of threads to use, including the calling thread.
+   * @param chunkSize the number of elements in a chunk.
+   * @param comparator the comparator for comparing keys against vector elements.
+   *     If it is null, the element-wise comparison is based on {@link RangeEqualsVisitor}.
+   * @param sorted if the target vector is sorted according to the comparator.
+   *     If it is true, the comparator must be provided, and binary search is used.
+   */
+  public ChunkedParallelSearcher(V vector, ExecutorService threadPool, int numThreads,
+      int chunkSize, VectorValueComparator<V> comparator, boolean sorted) {
+    Preconditions.checkArgument(numThreads > 0, "The number of threads must be positive");
+    Preconditions.checkArgument(chunkSize > 0, "The chunk size must be positive");
+    Preconditions.checkArgument(!sorted || comparator != null, "A comparator is required for sorted vectors");
+    this.vector = vector;
+    this.threadPool = threadPool;
+    this.chunkSize = chunkSize;
+    this.sorted = sorted;
+
+    this.contexts = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      contexts.add(new SearchContext(comparator == null ? null : comparator.createNew()));
+    }
+  }
+
+  /**
+   * Search for the first match of the key in the target vector.
+   * @param keyVector the vector containing the search key.
+   * @param keyIndex the index of the search key in the key vector.
+   * @return the position of the first matched value in the target vector, or -1 if none is found.
+   * @throws ExecutionException if an exception occurs in a thread.
+   * @throws InterruptedException if a thread is interrupted.
+   */
+  public int searchFirst(V keyVector, int keyIndex) throws ExecutionException, InterruptedException {
+    if (sorted) {
+      SearchContext context = contexts.get(0);
+      return VectorRangeSearcher.getFirstMatch(vector, context.comparator, keyVector, keyIndex);
+    }
+
+    final int valueCount = vector.getValueCount();
+    final int chunkCount = getChunkCount(valueCount);
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final AtomicInteger firstMatch = new AtomicInteger(Integer.MAX_VALUE);
+
+    runTasks(chunkCount, context -> {
+      context.attach(keyVector);
+      int chunk;
+      while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+        int start = chunk * chunkSize;
+        if (start > firstMatch.get()) {
+          // chunks are claimed in order, so all remaining chunks are after the match.
+          return;
+        }
+        int end = (int) Math.min((long) start + chunkSize, valueCount);
+        for (int pos = start; pos < end; pos++) {
+          if (context.equals(pos, keyIndex)) {
+            firstMatch.accumulateAndGet(pos, Math::min);
+            break;
+          }
+        }
+      }
+    });
+
+    int result = firstMatch.get();
+    return result == Integer.MAX_VALUE ? VectorSearcher.SEARCH_FAIL_RESULT : result;
+  }
+
+  /**
+   * Search for all matches of the key in the target vector.
+   * @param keyVector the vector containing the search key.
+   * @param keyIndex the index of the search key in the key vector.
+   * @param result the vector to hold the positions of all matched values, in ascending order.
+   * @return the number of matches.
+   * @throws ExecutionException if an exception occurs in a thread.
+   * @throws InterruptedException if a thread is interrupted.
+   */
+  public int searchAll(V keyVector, int keyIndex, IntVector result) throws ExecutionException, InterruptedException {
+    if (sorted) {
+      SearchContext context = contexts.get(0);
+      int first = VectorRangeSearcher.getFirstMatch(vector, context.comparator, keyVector, keyIndex);
+      int count = 0;
+      if (first != VectorRangeSearcher.SEARCH_FAIL_RESULT) {
+        int last = VectorRangeSearcher.getLastMatch(vector, context.comparator, keyVector, keyIndex);
+        for (int pos = first; pos <= last; pos++) {
+          result.setSafe(count++, pos);
+        }
+      }
+      result.setValueCount(count);
+      return count;
+    }
+
+    final int valueCount = vector.getValueCount();
+    final int chunkCount = getChunkCount(valueCount);
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final int[][] chunkMatches = new int[chunkCount][];
+    final int[] chunkMatchCounts = new int[chunkCount];
+
+    runTasks(chunkCount, context -> {
+      context.attach(keyVector);
+      int chunk;
+      while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+        int start = chunk * chunkSize;
+        int end = (int) Math.min((long) start + chunkSize, valueCount);
+        int[] matches = null;
+        int matchCount = 0;
+        for (int pos = start; pos < end; pos++) {
+          if (context.equals(pos, keyIndex)) {
+            if (matches == null) {
+              matches = new int[end - start];
+            }
+            matches[matchCount++] = pos;
+          }
+        }
+        chunkMatches[chunk] = matches;
+        chunkMatchCounts[chunk] = matchCount;
+      }
+    });
+
+    // the completion of the tasks makes the per-chunk results visible to this thread.
+    int count = 0;
+    for (int chunk = 0; chunk < chunkCount; chunk++) {
+      for (int i = 0; i < chunkMatchCounts[chunk]; i++) {
+        result.setSafe(count++, chunkMatches[chunk][i]);
+      }
+    }
+    result.setValueCount(count);
+    return count;
+  }
+
+  /**
+   * Search for the first matches of a batch of keys in the target vector.
+   * The keys are distributed among the tasks.
+   * @param keyVector the vector containing the search keys.
+   * @param result the vector to hold the results. For each key, it holds the position
+   *     of the first matched value in the target vector if any, and -1 otherwise.
+   * @throws ExecutionException if an exception occurs in a thread.
+   * @throws InterruptedException if a thread is interrupted.
+   */
+  public void searchFirst(V keyVector, IntVector result) throws ExecutionException, InterruptedException {
+    final int valueCount = vector.getValueCount();
+    final int keyCount = keyVector.getValueCount();
+
+    // each chunk of keys takes about chunkSize comparisons.
+    final int costPerKey = sorted ? 32 - Integer.numberOfLeadingZeros(valueCount) : valueCount;
+    final int keysPerChunk = Math.max(1, chunkSize / Math.max(1, costPerKey));
+    final int chunkCount = (int) ((keyCount + (long) keysPerChunk - 1) / keysPerChunk);
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final int[] positions = new int[keyCount];
+
+    runTasks(chunkCount, context -> {
+      context.attach(keyVector);
+      int chunk;
+      while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+        int start = chunk * keysPerChunk;
+        int end = (int) Math.min((long) start + keysPerChunk, keyCount);
+        for (int keyIndex = start; keyIndex < end; keyIndex++) {
+          positions[keyIndex] = sorted ?
+              VectorRangeSearcher.getFirstMatch(vector, context.comparator, keyVector, keyIndex) :
+              context.linearSearch(valueCount, keyIndex);
+        }
+      }
+    });
+
+    // the results are set in this thread, as validity bits of different keys may share a byte.
+    for (int i = 0; i < keyCount; i++) {
+      result.setSafe(i, positions[i]);
+    }
+    result.setValueCount(keyCount);
+  }
+
+  private int getChunkCount(int valueCount) {
+    return (int) ((valueCount + (long) chunkSize - 1) / chunkSize);
+  }
+
+  /**
+   * Runs the search with as many tasks as needed for the chunks, but no more than the number of threads.
+   * The first task always runs in the calling thread.
+   */
+  private void runTasks(int chunkCount, Consumer<SearchContext> task) throws ExecutionException, InterruptedException {
+    final int taskCount = Math.min(chunkCount, contexts.size());
+    if (taskCount == 0) {
+      return;
+    }
+
+    final CompletableFuture<?>[] futures = new CompletableFuture[taskCount - 1];
+    for (int i = 1; i < taskCount; i++) {
+      final SearchContext context = contexts.get(i);
+      futures[i - 1] = CompletableFuture.runAsync(() -> task.accept(context), threadPool);
+    }
+
+    try {
+      task.accept(contexts.get(0));
+    } finally {
+      // the contexts must not be reused before all tasks finish.
+      CompletableFuture.allOf(futures).get();
+    }
+  }
+
+  /**
+   * The state used by a single task to compare the key with vector elements.
+   */
+  private final class SearchContext {
+
+    /**
+     * The comparator, or null if the comparison is based on the equality visitor.
+     */
+    private final VectorValueComparator<V> comparator;
+
+    private final Range range = new Range(0, 0, 1);
+
+    private RangeEqualsVisitor visitor;
+
+    SearchContext(VectorValueComparator<V> comparator) {
+      this.comparator = comparator;
+    }
+
+    void attach(V keyVector) {
+      if (comparator != null) {
+        comparator.attachVectors(vector, keyVector);
+      } else if (visitor == null || visitor.getRight() != keyVector) {
+        visitor = new RangeEqualsVisitor(vector, keyVector, null);
+      }
+    }
+
+    boolean equals(int pos, int keyIndex) {
+      if (comparator != null) {
+        return comparator.compare(pos, keyIndex) == 0;
+      }
+      range.setLeftStart(pos).setRightStart(keyIndex);
+      return visitor.rangeEquals(range);
+    }
+
+    int linearSearch(int valueCount, int keyIndex) {
+      for (int pos = 0; pos < valueCount; pos++) {
+        if (equals(pos, keyIndex)) {
+          return pos;
+        }
+      }
+      return VectorSearcher.SEARCH_FAIL_RESULT;
+    }
+  }
+}
@@ -51,8 +51,9 @@ public class ParallelSearcher<V extends ValueVector> {
 
   /**
    * The position of the key in the target vector, if any.
+   * It is volatile, as it is polled by all tasks for early termination.
    */
-  private int keyPosition = -1;
+  private volatile int keyPosition = -1;
 
   /**
    * Constructs a parallel searcher.
@@ -98,7 +99,7 @@ public class ParallelSearcher<V extends ValueVector> {
       threadPool.submit(() -> {
         // convert to long to avoid overflow
         int start = (int) (((long) valueCount) * tid / numThreads);
-        int end = (int) ((long) valueCount) * (tid + 1) / numThreads;
+        int end = (int) (((long) valueCount) * (tid + 1) / numThreads);
 
         if (start >= end) {
           // no data assigned to this task.
@@ -156,7 +157,7 @@ public class ParallelSearcher<V extends ValueVector> {
       threadPool.submit(() -> {
         // convert to long to avoid overflow
         int start = (int) (((long) valueCount) * tid / numThreads);
-        int end = (int) ((long) valueCount) * (tid + 1) / numThreads;
+        int end = (int) (((long) valueCount) * (tid + 1) / numThreads);
 
         if (start >= end) {
           // no data assigned to this task.
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.search;
+
+import org.apache.arrow.algorithm.sort.VectorValueComparator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * Search for all elements of a key vector in a sorted target vector.
+ * <p>
+ * Compared with calling {@link VectorSearcher} or {@link VectorRangeSearcher} once per key,
+ * the comparator is attached only once for the whole batch. In addition, if a key is not smaller
+ * than the previous one, the search starts from the position of the previous key, and proceeds
+ * with galloping (exponential) search. So a sorted key vector is processed like a merge, and
+ * takes O(m log(n / m)) comparisons, where m is the number of keys, and n is the length of the target vector.
+ * Unsorted keys fall back to a plain binary search over the whole target vector.
+ * </p>
+ */
+public final class VectorBatchSearcher {
+
+  /**
+   * Result returned when a search fails.
+   */
+  public static final int SEARCH_FAIL_RESULT = -1;
+
+  /**
+   * Search for all elements of the key vector in the target vector.
+   * The target vector must be sorted.
+   * @param targetVector the vector from which to perform the search.
+   * @param comparator the criterion for the comparison.
+   * @param keyVector the vector containing the elements to search.
+   * @param result the vector to hold the results. For each key, it holds the index of the first
+   *     matched element in the target vector if any, and -1 otherwise.
+   * @param <V> the vector type.
+   */
+  public static <V extends ValueVector> void binarySearch(
+      V targetVector, VectorValueComparator<V> comparator, V keyVector, IntVector result) {
+    BoundFinder<V> finder = new BoundFinder<>(targetVector, comparator, keyVector);
+    final int keyCount = keyVector.getValueCount();
+    for (int i = 0; i < keyCount; i++) {
+      int lowerBound = finder.lowerBound(i);
+      result.setSafe(i, finder.matches(i, lowerBound) ? lowerBound : SEARCH_FAIL_RESULT);
+    }
+    result.setValueCount(keyCount);
+  }
+
+  /**
+   * Search for the ranges of all elements of the key vector in the target vector.
+   * The target vector must be sorted.
+   * @param targetVector the vector from which to perform the search.
+   * @param comparator the criterion for the comparison.
+   * @param keyVector the vector containing the elements to search.
+   * @param firstMatches the vector to hold the index of the first matched element
+   *     for each key if any, and -1 otherwise.
+   * @param lastMatches the vector to hold the index of the last matched element
+   *     for each key if any, and -1 otherwise.
+   * @param <V> the vector type.
+   */
+  public static <V extends ValueVector> void getMatchRanges(
+      V targetVector, VectorValueComparator<V> comparator, V keyVector,
+      IntVector firstMatches, IntVector lastMatches) {
+    BoundFinder<V> finder = new BoundFinder<>(targetVector, comparator, keyVector);
+    final int keyCount = keyVector.getValueCount();
+    for (int i = 0; i < keyCount; i++) {
+      int lowerBound = finder.lowerBound(i);
+      if (finder.matches(i, lowerBound)) {
+        firstMatches.setSafe(i, lowerBound);
+        lastMatches.setSafe(i, finder.upperBound(i, lowerBound) - 1);
+      } else {
+        firstMatches.setSafe(i, SEARCH_FAIL_RESULT);
+        lastMatches.setSafe(i, SEARCH_FAIL_RESULT);
+      }
+    }
+    firstMatches.setValueCount(keyCount);
+    lastMatches.setValueCount(keyCount);
+  }
+
+  /**
+   * Performs an inner equi-join between a probe vector and a sorted build vector.
+   * For each pair of equal elements, the probe index and build index are appended to
+   * the output vectors. Null values never match, as in SQL semantics.
+   * If the probe vector is also sorted, this is a sort-merge join.
+   * @param probeVector the vector whose elements are looked up.
+   * @param buildVector the vector to probe. It must be sorted.
+   * @param comparator the criterion for the comparison.
+   * @param probeIndices the vector to hold the indices of matched elements in the probe vector.
+   * @param buildIndices the vector to hold the indices of matched elements in the build vector.
+   * @param <V> the vector type.
+   * @return the number of matched pairs.
+   */
+  public static <V extends ValueVector> int sortMergeJoin(
+      V probeVector, V buildVector, VectorValueComparator<V> comparator,
+      IntVector probeIndices, IntVector buildIndices) {
+    BoundFinder<V> finder = new BoundFinder<>(buildVector, comparator, probeVector);
+    final int probeCount = probeVector.getValueCount();
+    int outIdx = 0;
+    for (int i = 0; i < probeCount; i++) {
+      if (probeVector.isNull(i)) {
+        continue;
+      }
+      int lowerBound = finder.lowerBound(i);
+      if (!finder.matches(i, lowerBound)) {
+        continue;
+      }
+      int upperBound = finder.upperBound(i, lowerBound);
+      for (int j = lowerBound; j < upperBound; j++) {
+        probeIndices.setSafe(outIdx, i);
+        buildIndices.setSafe(outIdx, j);
+        outIdx += 1;
+      }
+    }
+    probeIndices.setValueCount(outIdx);
+    buildIndices.setValueCount(outIdx);
+    return outIdx;
+  }
+
+  /**
+   * Finds the bounds of keys in the target vector, keeping track of the
+   * previous key, so that ascending keys can be searched incrementally.
+   * @param <V> the vector type.
+   */
+  private static final class BoundFinder<V extends ValueVector> {
+
+    /**
+     * Comparator attached to the key vector and the target vector.
+     */
+    private final VectorValueComparator<V> comparator;
+
+    /**
+     * Comparator attached to the key vector only, used to detect ascending keys.
+     */
+    private final VectorValueComparator<V> keyComparator;
+
+    private final int targetCount;
+
+    /**
+     * Index of the previously searched key, or -1 if no key has been searched.
+     */
+    private int prevKeyIndex = -1;
+
+    /**
+     * Lower bound of the previously searched key.
+     */
+    private int prevLowerBound = 0;
+
+    BoundFinder(V targetVector, VectorValueComparator<V> comparator, V keyVector) {
+      this.comparator = comparator;
+      this.keyComparator = comparator.createNew();
+      this.targetCount = targetVector.getValueCount();
+
+      keyComparator.attachVector(keyVector);
+      comparator.attachVectors(keyVector, targetVector);
+    }
+
+    /**
+     * Gets the index of the first element in the target vector that is not smaller than the key.
+     */
+    int lowerBound(int keyIndex) {
+      int bound;
+      if (prevKeyIndex != -1 && keyComparator.compare(prevKeyIndex, keyIndex) <= 0) {
+        // the key is not smaller than the previous one, so its bound cannot be on the left.
+        bound = gallop(keyIndex, prevLowerBound, false);
+      } else {
+        bound = search(keyIndex, 0, targetCount, false);
+      }
+      prevKeyIndex = keyIndex;
+      prevLowerBound = bound;
+      return bound;
+    }
+
+    /**
+     * Gets the index of the first element in the target vector that is greater than the key.
+     */
+    int upperBound(int keyIndex, int lowerBound) {
+      return gallop(keyIndex, lowerBound, true);
+    }
+
+    boolean matches(int keyIndex, int lowerBound) {
+      return lowerBound < targetCount && comparator.compare(keyIndex, lowerBound) == 0;
+    }
+
+    /**
+     * Checks if the target element precedes the bound for the key.
+     */
+    private boolean precedes(int keyIndex, int targetIndex, boolean upper) {
+      int result = comparator.compare(keyIndex, targetIndex);
+      return upper ? result >= 0 : result > 0;
+    }
+
+    /**
+     * Galloping search for the bound in [start, targetCount].
+     * The probed positions are start, start + 1, start + 2, start + 4, etc.,
+     * followed by a binary search in the last interval.
+     */
+    private int gallop(int keyIndex, int start, boolean upper) {
+      int low = start;
+      int probe = start;
+      long step = 1;
+      while (probe < targetCount && precedes(keyIndex, probe, upper)) {
+        low = probe + 1;
+        probe = (int) Math.min(targetCount, start + step);
+        step <<= 1;
+      }
+      return search(keyIndex, low, Math.min(probe, targetCount), upper);
+    }
+
+    /**
+     * Binary search for the bound in [low, high].
+     */
+    private int search(int keyIndex, int low, int high, boolean upper) {
+      while (low < high) {
+        int mid = low + (high - low) / 2;
+        if (precedes(keyIndex, mid, upper)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  private VectorBatchSearcher() {
+
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.deduplicate;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link HyperLogLog}.
+ */
+public class TestHyperLogLog {
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024 * 16);
+  }
+
+  @After
+  public void shutdown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testEstimateInt() {
+    final int distinctCount = 100000;
+    try (IntVector vector = new IntVector("int vec", allocator)) {
+      vector.allocateNew(distinctCount * 2 + 1);
+      for (int i = 0; i < distinctCount * 2; i++) {
+        vector.set(i, i % distinctCount);
+      }
+      vector.setNull(distinctCount * 2);
+      vector.setValueCount(distinctCount * 2 + 1);
+
+      HyperLogLog hll = new HyperLogLog();
+      hll.addValues(vector);
+      assertEquals(distinctCount, hll.estimate(), distinctCount * 0.03);
+    }
+  }
+
+  @Test
+  public void testEstimateSmallCardinality() {
+    try (VarCharVector vector = new VarCharVector("str vec", allocator)) {
+      vector.allocateNew();
+      for (int i = 0; i < 1000; i++) {
+        vector.setSafe(i, ("value" + (i % 10)).getBytes());
+      }
+      vector.setValueCount(1000);
+
+      HyperLogLog hll = new HyperLogLog();
+      hll.addValues(vector);
+      assertEquals(10, hll.estimate());
+
+      hll.reset();
+      assertEquals(0, hll.estimate());
+    }
+  }
+
+  @Test
+  public void testMerge() {
+    final int batchSize = 50000;
+    try (IntVector vector1 = new IntVector("vec1", allocator);
+         IntVector vector2 = new IntVector("vec2", allocator)) {
+      vector1.allocateNew(batchSize);
+      vector2.allocateNew(batchSize);
+      for (int i = 0; i < batchSize; i++) {
+        vector1.set(i, i);
+        // half of the values overlap with the first vector
+        vector2.set(i, i + batchSize / 2);
+      }
+      vector1.setValueCount(batchSize);
+      vector2.setValueCount(batchSize);
+
+      HyperLogLog hll1 = new HyperLogLog();
+      HyperLogLog hll2 = new HyperLogLog();
+      hll1.addValues(vector1);
+      hll2.addValues(vector2);
+      hll1.merge(hll2);
+
+      final int expected = batchSize * 3 / 2;
+      assertEquals(expected, hll1.estimate(), expected * 0.03);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPrecision() {
+    new HyperLogLog(10).merge(new HyperLogLog(12));
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.deduplicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link VectorHashDeduplicator}.
+ */
+public class TestVectorHashDeduplicator {
+
+  private static final int VECTOR_LENGTH = 100;
+
+  private static final int REPETITION_COUNT = 3;
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024);
+  }
+
+  @After
+  public void shutdown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testDeduplicateFixedWidth() {
+    try (IntVector origVec = new IntVector("original vec", allocator);
+         IntVector dedupVec = new IntVector("deduplicated vec", allocator);
+         IntVector indexVec = new IntVector("index vec", allocator);
+         IntVector countVec = new IntVector("count vec", allocator);
+         VectorHashDeduplicator<IntVector> deduplicator =
+             new VectorHashDeduplicator<>(origVec, allocator)) {
+      origVec.allocateNew(VECTOR_LENGTH * REPETITION_COUNT);
+      origVec.setValueCount(VECTOR_LENGTH * REPETITION_COUNT);
+
+      // prepare data, the duplicated values are not adjacent
+      for (int j = 0; j < REPETITION_COUNT; j++) {
+        for (int i = 0; i < VECTOR_LENGTH; i++) {
+          if (i == 0) {
+            origVec.setNull(j * VECTOR_LENGTH + i);
+          } else {
+            origVec.set(j * VECTOR_LENGTH + i, i);
+          }
+        }
+      }
+
+      assertEquals(VECTOR_LENGTH, deduplicator.getDistinctCount());
+
+      deduplicator.populateDistinctValues(dedupVec);
+      deduplicator.populateFirstOccurrenceIndices(indexVec);
+      deduplicator.populateCounts(countVec);
+      assertEquals(VECTOR_LENGTH, dedupVec.getValueCount());
+      assertEquals(VECTOR_LENGTH, indexVec.getValueCount());
+      assertEquals(VECTOR_LENGTH, countVec.getValueCount());
+
+      assertTrue(dedupVec.isNull(0));
+      for (int i = 0; i < VECTOR_LENGTH; i++) {
+        if (i > 0) {
+          assertEquals(i, dedupVec.get(i));
+        }
+        assertEquals(i, indexVec.get(i));
+        assertEquals(REPETITION_COUNT, countVec.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testDeduplicateVariableWidth() {
+    try (VarCharVector origVec = new VarCharVector("original vec", allocator);
+         VarCharVector dedupVec = new VarCharVector("deduplicated vec", allocator);
+         IntVector countVec = new IntVector("count vec", allocator);
+         VectorHashDeduplicator<VarCharVector> deduplicator =
+             new VectorHashDeduplicator<>(origVec, allocator)) {
+      origVec.allocateNew(VECTOR_LENGTH * REPETITION_COUNT * 10, VECTOR_LENGTH * REPETITION_COUNT);
+
+      // prepare data, value i appears (i % REPETITION_COUNT + 1) times
+      int index = 0;
+      for (int j = 0; j < REPETITION_COUNT; j++) {
+        for (int i = 0; i < VECTOR_LENGTH; i++) {
+          if (i % REPETITION_COUNT >= j) {
+            origVec.set(index++, String.valueOf(i).getBytes());
+          }
+        }
+      }
+      origVec.setValueCount(index);
+
+      assertEquals(VECTOR_LENGTH, deduplicator.getDistinctCount());
+
+      deduplicator.populateDistinctValues(dedupVec);
+      deduplicator.populateCounts(countVec);
+      for (int i = 0; i < VECTOR_LENGTH; i++) {
+        assertEquals(String.valueOf(i), new String(dedupVec.get(i)));
+        assertEquals(i % REPETITION_COUNT + 1, countVec.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testDeduplicateOutOfMemory() {
+    final int valueCount = 20000;
+    try (IntVector origVec = new IntVector("original vec", allocator);
+         BufferAllocator childAllocator = allocator.newChildAllocator("deduplicator", 0, 32 * 1024)) {
+      origVec.allocateNew(valueCount);
+      for (int i = 0; i < valueCount; i++) {
+        origVec.set(i, i);
+      }
+      origVec.setValueCount(valueCount);
+
+      VectorHashDeduplicator<IntVector> deduplicator = new VectorHashDeduplicator<>(origVec, childAllocator);
+      assertThrows(OutOfMemoryException.class, deduplicator::getDistinctCount);
+      // the partially built state is released, and closing the deduplicator is still safe
+      assertEquals(0, childAllocator.getAllocatedMemory());
+      deduplicator.close();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.arrow.algorithm.sort.DefaultVectorComparators;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link StreamingDictionaryEncoder}.
+ */
+public class TestStreamingDictionaryEncoder {
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024);
+  }
+
+  @After
+  public void shutdown() {
+    allocator.close();
+  }
+
+  private static void setValues(VarCharVector vector, String... values) {
+    vector.allocateNew();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        vector.setNull(i);
+      } else {
+        vector.setSafe(i, values[i].getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    vector.setValueCount(values.length);
+  }
+
+  private static void assertDictionary(VarCharVector dictionary, String... expected) {
+    assertEquals(expected.length, dictionary.getValueCount());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], new String(dictionary.get(i), StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void assertEncoded(IntVector encoded, Integer... expected) {
+    assertEquals(expected.length, encoded.getValueCount());
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] == null) {
+        assertTrue(encoded.isNull(i));
+      } else {
+        assertEquals(expected[i].intValue(), encoded.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testEncodeBatches() {
+    try (VarCharVector dictionary = new VarCharVector("dictionary", allocator);
+         VarCharVector input = new VarCharVector("input", allocator);
+         IntVector encoded = new IntVector("encoded", allocator)) {
+      dictionary.allocateNew();
+      StreamingDictionaryEncoder<IntVector, VarCharVector> encoder =
+          new StreamingDictionaryEncoder<>(new HashTableBasedDictionaryBuilder<>(dictionary));
+
+      setValues(input, "b", "a", null, "b");
+      assertEquals(2, encoder.encode(input, encoded));
+      assertEquals(0, encoder.getDeltaStart());
+      assertEncoded(encoded, 0, 1, null, 0);
+      assertDictionary(dictionary, "b", "a");
+
+      // existing entries keep their indices, and new entries are appended
+      setValues(input, "c", "a", "d", "c");
+      assertEquals(2, encoder.encode(input, encoded));
+      assertEquals(2, encoder.getDeltaStart());
+      assertEquals(2, encoder.getDeltaCount());
+      assertEncoded(encoded, 2, 1, 3, 2);
+      assertDictionary(dictionary, "b", "a", "c", "d");
+
+      setValues(input, "d", null, "b");
+      assertEquals(0, encoder.encode(input, encoded));
+      assertEquals(4, encoder.getDeltaStart());
+      assertEncoded(encoded, 3, null, 0);
+      assertDictionary(dictionary, "b", "a", "c", "d");
+    }
+  }
+
+  @Test
+  public void testEncodeWithSearchTreeBuilder() {
+    try (VarCharVector dictionary = new VarCharVector("dictionary", allocator);
+         VarCharVector input = new VarCharVector("input", allocator);
+         IntVector encoded = new IntVector("encoded", allocator)) {
+      dictionary.allocateNew();
+      StreamingDictionaryEncoder<IntVector, VarCharVector> encoder =
+          new StreamingDictionaryEncoder<>(new SearchTreeBasedDictionaryBuilder<>(
+              dictionary, DefaultVectorComparators.createDefaultComparator(dictionary)));
+
+      setValues(input, "x", "y", "x");
+      assertEquals(2, encoder.encode(input, encoded));
+      assertEncoded(encoded, 0, 1, 0);
+
+      setValues(input, "a", "y", "a");
+      assertEquals(1, encoder.encode(input, encoded));
+      assertEncoded(encoded, 2, 1, 2);
+      assertDictionary(dictionary, "x", "y", "a");
+    }
+  }
+
+  @Test
+  public void testEncodeNull() {
+    try (VarCharVector dictionary = new VarCharVector("dictionary", allocator);
+         VarCharVector input = new VarCharVector("input", allocator);
+         IntVector encoded = new IntVector("encoded", allocator)) {
+      dictionary.allocateNew();
+      StreamingDictionaryEncoder<IntVector, VarCharVector> encoder = new StreamingDictionaryEncoder<>(
+          new HashTableBasedDictionaryBuilder<>(dictionary, /*encodeNull*/ true), /*encodeNull*/ true);
+
+      setValues(input, null, "a", null);
+      assertEquals(2, encoder.encode(input, encoded));
+      assertEncoded(encoded, 0, 1, 0);
+      assertTrue(dictionary.isNull(0));
+    }
+  }
+}
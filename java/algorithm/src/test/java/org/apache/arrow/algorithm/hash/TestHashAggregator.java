@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link HashAggregator}.
+ */
+public class TestHashAggregator {
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024);
+  }
+
+  @After
+  public void shutdown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testAggregate() {
+    final int batchSize = 100;
+    try (VarCharVector keyVector = new VarCharVector("key", allocator);
+         IntVector intVector = new IntVector("int", allocator);
+         Float8Vector doubleVector = new Float8Vector("double", allocator)) {
+      keyVector.allocateNew();
+      intVector.allocateNew(batchSize);
+      doubleVector.allocateNew(batchSize);
+
+      try (HashAggregator aggregator = new HashAggregator(allocator,
+          Arrays.asList(keyVector.getField()),
+          Arrays.asList(AggregateFunction.SUM, AggregateFunction.COUNT, AggregateFunction.MIN,
+              AggregateFunction.MAX, AggregateFunction.SUM),
+          Arrays.asList(intVector.getField(), intVector.getField(), intVector.getField(),
+              intVector.getField(), doubleVector.getField()))) {
+
+        // feed two batches, keys are "k0" to "k3", and values of key "k3" are all null.
+        for (int batch = 0; batch < 2; batch++) {
+          for (int i = 0; i < batchSize; i++) {
+            int value = batch * batchSize + i;
+            keyVector.setSafe(i, ("k" + (value % 4)).getBytes());
+            if (value % 4 == 3) {
+              intVector.setNull(i);
+              doubleVector.setNull(i);
+            } else {
+              intVector.set(i, value);
+              doubleVector.set(i, value / 2.0);
+            }
+          }
+          keyVector.setValueCount(batchSize);
+          intVector.setValueCount(batchSize);
+          doubleVector.setValueCount(batchSize);
+
+          aggregator.aggregate(Arrays.asList(keyVector),
+              Arrays.asList(intVector, intVector, intVector, intVector, doubleVector));
+        }
+
+        assertEquals(4, aggregator.getGroupCount());
+        VarCharVector keys = (VarCharVector) aggregator.getKeyVectors().get(0);
+        List<FieldVector> results = aggregator.getResultVectors();
+        BigIntVector sums = (BigIntVector) results.get(0);
+        BigIntVector counts = (BigIntVector) results.get(1);
+        BigIntVector mins = (BigIntVector) results.get(2);
+        BigIntVector maxs = (BigIntVector) results.get(3);
+        Float8Vector doubleSums = (Float8Vector) results.get(4);
+
+        for (int groupId = 0; groupId < 4; groupId++) {
+          assertEquals("k" + groupId, new String(keys.get(groupId)));
+          assertEquals(4, results.get(0).getValueCount());
+          if (groupId == 3) {
+            assertTrue(sums.isNull(groupId));
+            assertEquals(0L, counts.get(groupId));
+            assertTrue(mins.isNull(groupId));
+            assertTrue(maxs.isNull(groupId));
+            assertTrue(doubleSums.isNull(groupId));
+            continue;
+          }
+
+          long expectedSum = 0;
+          for (int value = groupId; value < 2 * batchSize; value += 4) {
+            expectedSum += value;
+          }
+          assertEquals(expectedSum, sums.get(groupId));
+          assertEquals(2 * batchSize / 4, counts.get(groupId));
+          assertEquals(groupId, mins.get(groupId));
+          assertEquals(2 * batchSize - 4 + groupId, maxs.get(groupId));
+          assertEquals(expectedSum / 2.0, doubleSums.get(groupId), 0.0001);
+        }
+      }
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnsupportedInput() {
+    try (VarCharVector vector = new VarCharVector("str", allocator);
+         HashAggregator aggregator = new HashAggregator(allocator, Arrays.asList(vector.getField()),
+             Arrays.asList(AggregateFunction.SUM), Arrays.asList(vector.getField()))) {
+      // the constructor should throw
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link HashJoiner}.
+ */
+public class TestHashJoiner {
+
+  private BufferAllocator allocator;
+
+  private IntVector buildVector;
+
+  private IntVector probeVector;
+
+  private IntVector probeIndices;
+
+  private IntVector buildIndices;
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024);
+
+    // build side: 1, 2, 2, null, 3, 3, 3
+    buildVector = new IntVector("build", allocator);
+    buildVector.allocateNew(7);
+    buildVector.set(0, 1);
+    buildVector.set(1, 2);
+    buildVector.set(2, 2);
+    buildVector.setNull(3);
+    buildVector.set(4, 3);
+    buildVector.set(5, 3);
+    buildVector.set(6, 3);
+    buildVector.setValueCount(7);
+
+    // probe side: 3, null, 4, 2, 1
+    probeVector = new IntVector("probe", allocator);
+    probeVector.allocateNew(5);
+    probeVector.set(0, 3);
+    probeVector.setNull(1);
+    probeVector.set(2, 4);
+    probeVector.set(3, 2);
+    probeVector.set(4, 1);
+    probeVector.setValueCount(5);
+
+    probeIndices = new IntVector("probe indices", allocator);
+    buildIndices = new IntVector("build indices", allocator);
+  }
+
+  @After
+  public void shutdown() {
+    buildIndices.close();
+    probeIndices.close();
+    probeVector.close();
+    buildVector.close();
+    allocator.close();
+  }
+
+  private void probe(JoinType joinType) {
+    List<ValueVector> buildKeys = Arrays.asList(buildVector);
+    try (HashJoiner joiner = new HashJoiner(allocator, buildKeys)) {
+      assertEquals(3, joiner.getDistinctKeyCount());
+      joiner.probe(Arrays.asList(probeVector), joinType, probeIndices, buildIndices);
+    }
+  }
+
+  @Test
+  public void testInnerJoin() {
+    probe(JoinType.INNER);
+
+    int[] expectedProbe = {0, 0, 0, 3, 3, 4};
+    int[] expectedBuild = {4, 5, 6, 1, 2, 0};
+    assertEquals(expectedProbe.length, probeIndices.getValueCount());
+    assertEquals(expectedBuild.length, buildIndices.getValueCount());
+    for (int i = 0; i < expectedProbe.length; i++) {
+      assertEquals(expectedProbe[i], probeIndices.get(i));
+      assertEquals(expectedBuild[i], buildIndices.get(i));
+    }
+  }
+
+  @Test
+  public void testLeftJoin() {
+    probe(JoinType.LEFT);
+
+    int[] expectedProbe = {0, 0, 0, 1, 2, 3, 3, 4};
+    int[] expectedBuild = {4, 5, 6, -1, -1, 1, 2, 0};
+    assertEquals(expectedProbe.length, probeIndices.getValueCount());
+    for (int i = 0; i < expectedProbe.length; i++) {
+      assertEquals(expectedProbe[i], probeIndices.get(i));
+      if (expectedBuild[i] == -1) {
+        assertTrue(buildIndices.isNull(i));
+      } else {
+        assertEquals(expectedBuild[i], buildIndices.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testSemiJoin() {
+    probe(JoinType.SEMI);
+
+    int[] expectedProbe = {0, 3, 4};
+    assertEquals(expectedProbe.length, probeIndices.getValueCount());
+    for (int i = 0; i < expectedProbe.length; i++) {
+      assertEquals(expectedProbe[i], probeIndices.get(i));
+    }
+  }
+
+  @Test
+  public void testAntiJoin() {
+    probe(JoinType.ANTI);
+
+    int[] expectedProbe = {1, 2};
+    assertEquals(expectedProbe.length, probeIndices.getValueCount());
+    for (int i = 0; i < expectedProbe.length; i++) {
+      assertEquals(expectedProbe[i], probeIndices.get(i));
+    }
+  }
+}
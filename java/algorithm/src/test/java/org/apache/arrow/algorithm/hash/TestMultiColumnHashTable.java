@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.memory.util.hash.SimpleHasher;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link MultiColumnHashTable}.
+ */
+public class TestMultiColumnHashTable {
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024 * 16);
+  }
+
+  @After
+  public void shutdown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testAddAndFind() {
+    final int rowCount = 10000;
+    try (IntVector intVector = new IntVector("int", allocator);
+         VarCharVector strVector = new VarCharVector("str", allocator)) {
+      intVector.allocateNew(rowCount);
+      strVector.allocateNew();
+      for (int i = 0; i < rowCount; i++) {
+        if (i % 100 == 0) {
+          intVector.setNull(i);
+        } else {
+          intVector.set(i, i % 50);
+        }
+        strVector.setSafe(i, ("str" + (i % 3)).getBytes());
+      }
+      intVector.setValueCount(rowCount);
+      strVector.setValueCount(rowCount);
+      List<FieldVector> keys = Arrays.asList(intVector, strVector);
+
+      // start with a small capacity, so that the table must grow
+      try (MultiColumnHashTable table = new MultiColumnHashTable(allocator,
+          Arrays.asList(intVector.getField(), strVector.getField()), 4, SimpleHasher.INSTANCE)) {
+        for (int i = 0; i < rowCount; i++) {
+          table.add(keys, i);
+        }
+
+        // 50 int values x 3 strings, where 0 and null are both present.
+        assertEquals(50 * 3 + 3, table.size());
+        assertTrue(table.getCapacity() >= table.size() * 2);
+
+        List<FieldVector> keyVectors = table.getKeyVectors();
+        for (int i = 0; i < rowCount; i++) {
+          int groupId = table.find(keys, i);
+          assertEquals(intVector.isNull(i), keyVectors.get(0).isNull(groupId));
+          if (!intVector.isNull(i)) {
+            assertEquals(intVector.get(i), ((IntVector) keyVectors.get(0)).get(groupId));
+          }
+          assertEquals(new String(strVector.get(i)), new String(((VarCharVector) keyVectors.get(1)).get(groupId)));
+
+          // adding an existing key returns the same group id
+          assertEquals(groupId, table.add(keys, i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFindAbsent() {
+    try (IntVector build = new IntVector("build", allocator);
+         IntVector probe = new IntVector("probe", allocator)) {
+      build.allocateNew(10);
+      probe.allocateNew(10);
+      for (int i = 0; i < 10; i++) {
+        build.set(i, i);
+        probe.set(i, i + 5);
+      }
+      build.setValueCount(10);
+      probe.setValueCount(10);
+
+      try (MultiColumnHashTable table = new MultiColumnHashTable(allocator, Arrays.asList(build.getField()))) {
+        for (int i = 0; i < 10; i++) {
+          assertEquals(i, table.add(Arrays.asList(build), i));
+        }
+        for (int i = 0; i < 10; i++) {
+          int expected = i < 5 ? i + 5 : MultiColumnHashTable.NULL_GROUP_ID;
+          assertEquals(expected, table.find(Arrays.asList(probe), i));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.arrow.algorithm.sort.DefaultVectorComparators;
+import org.apache.arrow.algorithm.sort.VectorValueComparator;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Test cases for {@link ChunkedParallelSearcher}.
+ */
+@RunWith(Parameterized.class)
+public class TestChunkedParallelSearcher {
+
+  private enum SearchMode {
+    Equality,
+    Ordering,
+    Sorted
+  }
+
+  private static final int VECTOR_LENGTH = 10000;
+
+  /**
+   * Each value in the target vector is repeated this number of times.
+   */
+  private static final int REPEAT = 3;
+
+  private final SearchMode searchMode;
+
+  private final int threadCount;
+
+  private final int chunkSize;
+
+  private BufferAllocator allocator;
+
+  private ExecutorService threadPool;
+
+  public TestChunkedParallelSearcher(SearchMode searchMode, int threadCount, int chunkSize) {
+    this.searchMode = searchMode;
+    this.threadCount = threadCount;
+    this.chunkSize = chunkSize;
+  }
+
+  @Parameterized.Parameters(name = "search mode = {0}, thread count = {1}, chunk size = {2}")
+  public static Collection<Object[]> getParameters() {
+    List<Object[]> params = new ArrayList<>();
+    int[] threadCounts = {1, 2, 5, 10};
+    int[] chunkSizes = {1, 100, ChunkedParallelSearcher.DEFAULT_CHUNK_SIZE};
+    for (SearchMode mode : SearchMode.values()) {
+      for (int threadCount : threadCounts) {
+        for (int chunkSize : chunkSizes) {
+          params.add(new Object[] {mode, threadCount, chunkSize});
+        }
+      }
+    }
+    return params;
+  }
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024);
+    threadPool = Executors.newFixedThreadPool(threadCount);
+  }
+
+  @After
+  public void shutdown() {
+    allocator.close();
+    threadPool.shutdown();
+  }
+
+  private ChunkedParallelSearcher<VarCharVector> createSearcher(VarCharVector target) {
+    VectorValueComparator<VarCharVector> comparator = searchMode == SearchMode.Equality ? null :
+        DefaultVectorComparators.createDefaultComparator(target);
+    return new ChunkedParallelSearcher<>(
+        target, threadPool, threadCount, chunkSize, comparator, searchMode == SearchMode.Sorted);
+  }
+
+  private ChunkedParallelSearcher<IntVector> createSearcher(IntVector target) {
+    VectorValueComparator<IntVector> comparator = searchMode == SearchMode.Equality ? null :
+        DefaultVectorComparators.createDefaultComparator(target);
+    return new ChunkedParallelSearcher<>(
+        target, threadPool, threadCount, chunkSize, comparator, searchMode == SearchMode.Sorted);
+  }
+
+  @Test
+  public void testSearchFirstInt() throws ExecutionException, InterruptedException {
+    try (IntVector targetVector = new IntVector("targetVector", allocator);
+         IntVector keyVector = new IntVector("keyVector", allocator)) {
+      targetVector.allocateNew(VECTOR_LENGTH);
+      keyVector.allocateNew(VECTOR_LENGTH);
+
+      // sorted data, each value is repeated
+      for (int i = 0; i < VECTOR_LENGTH; i++) {
+        targetVector.set(i, i / REPEAT);
+        keyVector.set(i, i);
+      }
+      targetVector.setValueCount(VECTOR_LENGTH);
+      keyVector.setValueCount(VECTOR_LENGTH);
+
+      ChunkedParallelSearcher<IntVector> searcher = createSearcher(targetVector);
+      for (int i = 0; i < VECTOR_LENGTH; i += 7) {
+        int expected = i * REPEAT < VECTOR_LENGTH ? i * REPEAT : -1;
+        assertEquals(expected, searcher.searchFirst(keyVector, i));
+      }
+    }
+  }
+
+  @Test
+  public void testSearchAllInt() throws ExecutionException, InterruptedException {
+    try (IntVector targetVector = new IntVector("targetVector", allocator);
+         IntVector keyVector = new IntVector("keyVector", allocator);
+         IntVector result = new IntVector("result", allocator)) {
+      targetVector.allocateNew(VECTOR_LENGTH);
+      keyVector.allocateNew(VECTOR_LENGTH);
+
+      for (int i = 0; i < VECTOR_LENGTH; i++) {
+        targetVector.set(i, i / REPEAT);
+        keyVector.set(i, i);
+      }
+      targetVector.setValueCount(VECTOR_LENGTH);
+      keyVector.setValueCount(VECTOR_LENGTH);
+
+      ChunkedParallelSearcher<IntVector> searcher = createSearcher(targetVector);
+      for (int i = 0; i < VECTOR_LENGTH; i += 13) {
+        int count = searcher.searchAll(keyVector, i, result);
+        int expectedCount = Math.max(0, Math.min(REPEAT, VECTOR_LENGTH - i * REPEAT));
+        assertEquals(expectedCount, count);
+        assertEquals(expectedCount, result.getValueCount());
+        for (int j = 0; j < count; j++) {
+          assertEquals(i * REPEAT + j, result.get(j));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBatchSearchString() throws ExecutionException, InterruptedException {
+    try (VarCharVector targetVector = new VarCharVector("targetVector", allocator);
+         VarCharVector keyVector = new VarCharVector("keyVector", allocator);
+         IntVector result = new IntVector("result", allocator)) {
+      targetVector.allocateNew(VECTOR_LENGTH);
+      keyVector.allocateNew(VECTOR_LENGTH);
+
+      // sorted data in lexicographic order
+      final int keyCount = 1000;
+      for (int i = 0; i < VECTOR_LENGTH; i++) {
+        targetVector.setSafe(i, String.format("%05d", i * 2).getBytes());
+      }
+      for (int i = 0; i < keyCount; i++) {
+        keyVector.setSafe(i, String.format("%05d", keyCount - i).getBytes());
+      }
+      targetVector.setValueCount(VECTOR_LENGTH);
+      keyVector.setValueCount(keyCount);
+
+      ChunkedParallelSearcher<VarCharVector> searcher = createSearcher(targetVector);
+      searcher.searchFirst(keyVector, result);
+      assertEquals(keyCount, result.getValueCount());
+      for (int i = 0; i < keyCount; i++) {
+        int key = keyCount - i;
+        assertEquals(key % 2 == 0 ? key / 2 : -1, result.get(i));
+      }
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.algorithm.search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.apache.arrow.algorithm.sort.DefaultVectorComparators;
+import org.apache.arrow.algorithm.sort.VectorValueComparator;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link VectorBatchSearcher}.
+ */
+public class TestVectorBatchSearcher {
+
+  private static final int MAX_VALUE = 100;
+
+  private static final int REPEAT = 3;
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void prepare() {
+    allocator = new RootAllocator(1024 * 1024);
+  }
+
+  @After
+  public void shutdown() {
+    allocator.close();
+  }
+
+  /**
+   * Populates a sorted vector, where value 0 is replaced by null, and each
+   * value is repeated {@link #REPEAT} times. Odd values are absent.
+   */
+  private void populateTarget(IntVector target) {
+    target.allocateNew(MAX_VALUE * REPEAT);
+    int idx = 0;
+    for (int i = 0; i < MAX_VALUE; i += 2) {
+      for (int j = 0; j < REPEAT; j++) {
+        if (i == 0) {
+          target.setNull(idx++);
+        } else {
+          target.set(idx++, i);
+        }
+      }
+    }
+    target.setValueCount(idx);
+  }
+
+  @Test
+  public void testBinarySearchSortedKeys() {
+    try (IntVector target = new IntVector("target", allocator);
+         IntVector keys = new IntVector("keys", allocator);
+         IntVector result = new IntVector("result", allocator)) {
+      populateTarget(target);
+
+      keys.allocateNew(MAX_VALUE + 1);
+      for (int i = 0; i <= MAX_VALUE; i++) {
+        keys.set(i, i);
+      }
+      keys.setValueCount(MAX_VALUE + 1);
+
+      VectorValueComparator<IntVector> comparator = DefaultVectorComparators.createDefaultComparator(target);
+      VectorBatchSearcher.binarySearch(target, comparator, keys, result);
+
+      assertEquals(MAX_VALUE + 1, result.getValueCount());
+      for (int i = 0; i <= MAX_VALUE; i++) {
+        int expected = (i % 2 == 0 && i > 0 && i < MAX_VALUE) ? i / 2 * REPEAT : -1;
+        assertEquals(expected, result.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testBinarySearchUnsortedKeys() {
+    final int keyCount = 1000;
+    try (IntVector target = new IntVector("target", allocator);
+         IntVector keys = new IntVector("keys", allocator);
+         IntVector result = new IntVector("result", allocator)) {
+      populateTarget(target);
+
+      Random random = new Random(0);
+      keys.allocateNew(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+        if (i % 10 == 0) {
+          keys.setNull(i);
+        } else {
+          keys.set(i, random.nextInt(MAX_VALUE + 10) - 5);
+        }
+      }
+      keys.setValueCount(keyCount);
+
+      VectorValueComparator<IntVector> comparator = DefaultVectorComparators.createDefaultComparator(target);
+      VectorBatchSearcher.binarySearch(target, comparator, keys, result);
+
+      VectorValueComparator<IntVector> singleComparator = DefaultVectorComparators.createDefaultComparator(target);
+      for (int i = 0; i < keyCount; i++) {
+        assertEquals(VectorRangeSearcher.getFirstMatch(target, singleComparator, keys, i), result.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testGetMatchRanges() {
+    final int keyCount = 500;
+    try (IntVector target = new IntVector("target", allocator);
+         IntVector keys = new IntVector("keys", allocator);
+         IntVector firstMatches = new IntVector("first", allocator);
+         IntVector lastMatches = new IntVector("last", allocator)) {
+      populateTarget(target);
+
+      // mostly ascending keys, with some descending steps
+      keys.allocateNew(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+        keys.set(i, (i % 7 == 0) ? MAX_VALUE - i % MAX_VALUE : i % MAX_VALUE);
+      }
+      keys.setValueCount(keyCount);
+
+      VectorValueComparator<IntVector> comparator = DefaultVectorComparators.createDefaultComparator(target);
+      VectorBatchSearcher.getMatchRanges(target, comparator, keys, firstMatches, lastMatches);
+
+      VectorValueComparator<IntVector> singleComparator = DefaultVectorComparators.createDefaultComparator(target);
+      for (int i = 0; i < keyCount; i++) {
+        assertEquals(VectorRangeSearcher.getFirstMatch(target, singleComparator, keys, i), firstMatches.get(i));
+        assertEquals(VectorRangeSearcher.getLastMatch(target, singleComparator, keys, i), lastMatches.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testSortMergeJoin() {
+    try (IntVector build = new IntVector("build", allocator);
+         IntVector probe = new IntVector("probe", allocator);
+         IntVector probeIndices = new IntVector("probe indices", allocator);
+         IntVector buildIndices = new IntVector("build indices", allocator)) {
+      populateTarget(build);
+
+      // probe: null, 0, 1, 2, ..., 9
+      probe.allocateNew(11);
+      probe.setNull(0);
+      for (int i = 0; i < 10; i++) {
+        probe.set(i + 1, i);
+      }
+      probe.setValueCount(11);
+
+      VectorValueComparator<IntVector> comparator = DefaultVectorComparators.createDefaultComparator(build);
+      int matchCount = VectorBatchSearcher.sortMergeJoin(probe, build, comparator, probeIndices, buildIndices);
+
+      // values 2, 4, 6, 8 match, each with REPEAT elements, and null never matches
+      assertEquals(4 * REPEAT, matchCount);
+      assertEquals(matchCount, probeIndices.getValueCount());
+      assertEquals(matchCount, buildIndices.getValueCount());
+      for (int i = 0; i < matchCount; i++) {
+        assertEquals(probe.get(probeIndices.get(i)), build.get(buildIndices.get(i)));
+      }
+      assertEquals(3, probeIndices.get(0));
+      assertEquals(REPEAT, buildIndices.get(0));
+    }
+  }
+
+  @Test
+  public void testBinarySearchVarChar() {
+    try (VarCharVector target = new VarCharVector("target", allocator);
+         VarCharVector keys = new VarCharVector("keys", allocator);
+         IntVector result = new IntVector("result", allocator)) {
+      target.allocateNew();
+      keys.allocateNew();
+      for (int i = 0; i < 10; i++) {
+        target.setSafe(i, String.valueOf((char) ('a' + 2 * i)).getBytes());
+      }
+      target.setValueCount(10);
+      for (int i = 0; i < 20; i++) {
+        keys.setSafe(i, String.valueOf((char) ('a' + i)).getBytes());
+      }
+      keys.setValueCount(20);
+
+      VectorValueComparator<VarCharVector> comparator = DefaultVectorComparators.createDefaultComparator(target);
+      VectorBatchSearcher.binarySearch(target, comparator, keys, result);
+      for (int i = 0; i < 20; i++) {
+        assertEquals(i % 2 == 0 ? i / 2 : -1, result.get(i));
+      }
+    }
+  }
+}
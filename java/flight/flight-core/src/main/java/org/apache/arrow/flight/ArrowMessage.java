@@ -17,6 +17,7 @@
 
 package org.apache.arrow.flight;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -95,6 +96,11 @@ class ArrowMessage implements AutoCloseable {
       (FlightData.DATA_HEADER_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
   private static final int APP_METADATA_TAG =
       (FlightData.APP_METADATA_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+  // Not part of Flight.proto: the location of a body in shared memory, only sent to clients which asked for it.
+  // See SharedMemoryTransport.
+  private static final int SHARED_BODY_FIELD_NUMBER = 100000;
+  private static final int SHARED_BODY_TAG =
+      (SHARED_BODY_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
 
   private static final Marshaller<FlightData> NO_BODY_MARSHALLER =
       ProtoUtils.marshaller(FlightData.getDefaultInstance());
@@ -146,6 +152,8 @@ class ArrowMessage implements AutoCloseable {
   private final List<ArrowBuf> bufs;
   private final ArrowBodyCompression bodyCompression;
   private final boolean tryZeroCopyWrite;
+  // The body, if it was moved to shared memory. Released by the receiver once the message is sent.
+  private SharedMemoryRegion.Slot sharedBody;
 
   public ArrowMessage(FlightDescriptor descriptor, Schema schema, IpcOption option) {
     this.writeOption = option;
@@ -277,7 +285,112 @@ class ArrowMessage implements AutoCloseable {
     return Iterables.unmodifiableIterable(bufs);
   }
 
-  private static ArrowMessage frame(BufferAllocator allocator, final InputStream stream) {
+  /**
+   * Create a message from an encoded IPC message.
+   *
+   * @param descriptor The descriptor to send along, or null. Only allowed for schema messages.
+   * @param header The serialized flatbuffer Message.
+   * @param appMetadata The application metadata, or null. Ownership is transferred to the message.
+   * @param body The body of the message, laid out as in the IPC format, or null. Ownership is transferred to the
+   *     message.
+   */
+  static ArrowMessage fromIpc(FlightDescriptor descriptor, MessageMetadataResult header, ArrowBuf appMetadata,
+                              ArrowBuf body) {
+    return new ArrowMessage(descriptor, header, appMetadata, body);
+  }
+
+  /**
+   * Hand the content of this message over to an {@link IpcMessage}. The buffers are retained, not copied.
+   */
+  IpcMessage toIpcMessage() {
+    // Messages read from the network hold their whole body in a single buffer
+    Preconditions.checkState(bufs.size() <= 1, "Message body is not contiguous");
+    final ArrowBuf body = bufs.isEmpty() ? null : bufs.get(0);
+    if (body != null) {
+      body.getReferenceManager().retain();
+    }
+    if (appMetadata != null) {
+      appMetadata.getReferenceManager().retain();
+    }
+    return new IpcMessage(message, body, appMetadata);
+  }
+
+  /** Copy the serialized flatbuffer Message of this message, or return null for a pure metadata message. */
+  byte[] copyIpcHeader() {
+    if (message == null) {
+      return null;
+    }
+    final ByteBuffer header = message.getMessageBuffer().duplicate();
+    final byte[] bytes = new byte[header.remaining()];
+    header.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Copy the body of this message into a single buffer, laid out as it is sent: each buffer is padded to a multiple
+   * of 8 bytes. Returns null if the message has no body.
+   */
+  ArrowBuf copyIpcBody(BufferAllocator allocator) {
+    if (bufs.isEmpty()) {
+      return null;
+    }
+    long size = 0;
+    for (ArrowBuf buf : bufs) {
+      size += (buf.readableBytes() + 7) & ~7L;
+    }
+    final ArrowBuf body = allocator.buffer(size);
+    body.setZero(0, size);
+    long offset = 0;
+    for (ArrowBuf buf : bufs) {
+      body.setBytes(offset, buf, buf.readerIndex(), buf.readableBytes());
+      offset += (buf.readableBytes() + 7) & ~7L;
+    }
+    body.writerIndex(size);
+    return body;
+  }
+
+  /**
+   * Move the body of this record batch or dictionary batch into a slot of a shared memory region, for a connection.
+   *
+   * @return A new message carrying the location of the body instead of the body, or null if the body was not moved,
+   *     e.g. because it is small or the region is full. This message is left unchanged.
+   */
+  ArrowMessage toSharedMemory(SharedMemoryRegion.Connection connection) {
+    if (message == null || bufs.isEmpty() || getMessageType() == HeaderType.SCHEMA) {
+      return null;
+    }
+    final SharedMemoryRegion.Slot slot = connection.write(bufs);
+    if (slot == null) {
+      return null;
+    }
+    if (appMetadata != null) {
+      appMetadata.getReferenceManager().retain();
+    }
+    return new ArrowMessage(this, slot);
+  }
+
+  private ArrowMessage(ArrowMessage source, SharedMemoryRegion.Slot sharedBody) {
+    this.writeOption = source.writeOption;
+    this.descriptor = source.descriptor;
+    this.message = source.message;
+    this.appMetadata = source.appMetadata;
+    this.bufs = ImmutableList.of();
+    this.bodyCompression = source.bodyCompression;
+    this.tryZeroCopyWrite = false;
+    this.sharedBody = sharedBody;
+  }
+
+  /** Get the number of bytes held by the buffers of this message, including the application metadata. */
+  long getBufferSize() {
+    long size = appMetadata == null ? 0 : appMetadata.capacity();
+    for (ArrowBuf buf : bufs) {
+      size += buf.capacity();
+    }
+    return size;
+  }
+
+  private static ArrowMessage frame(BufferAllocator allocator, final InputStream stream,
+      boolean acceptSharedBodies) {
 
     try {
       FlightDescriptor descriptor = null;
@@ -308,6 +421,20 @@ class ArrowMessage implements AutoCloseable {
             GetReadableBuffer.readIntoBuffer(stream, appMetadata, size, ENABLE_ZERO_COPY_READ);
             break;
           }
+          case SHARED_BODY_TAG: {
+            if (!acceptSharedBodies) {
+              AutoCloseables.close(body, appMetadata);
+              throw new IllegalArgumentException("Received a shared memory body on a call which did not ask for it");
+            }
+            if (body != null) {
+              body.getReferenceManager().release();
+            }
+            final int size = readRawVarint32(stream);
+            final byte[] encodedSlot = new byte[size];
+            ByteStreams.readFully(stream, encodedSlot);
+            body = SharedMemoryTransport.wrapSlot(encodedSlot, allocator);
+            break;
+          }
           case BODY_TAG:
             if (body != null) {
               // only read last body.
@@ -414,6 +541,14 @@ class ArrowMessage implements AutoCloseable {
         cos.writeByteBuffer(FlightData.APP_METADATA_FIELD_NUMBER, appMetadata.nioBuffer().slice());
       }
 
+      if (sharedBody != null) {
+        cos.writeByteArray(SHARED_BODY_FIELD_NUMBER, sharedBody.encode());
+        cos.flush();
+        // The receiver now releases the slot
+        sharedBody = null;
+        return new ByteArrayInputStream(baos.toByteArray());
+      }
+
       cos.writeTag(FlightData.DATA_BODY_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
       int size = 0;
       List<ByteBuf> allBufs = new ArrayList<>();
@@ -530,15 +665,27 @@ class ArrowMessage implements AutoCloseable {
   }
 
   public static Marshaller<ArrowMessage> createMarshaller(BufferAllocator allocator) {
-    return new ArrowMessageHolderMarshaller(allocator);
+    return new ArrowMessageHolderMarshaller(allocator, false);
+  }
+
+  /**
+   * Create a marshaller for messages, which may have their body in shared memory.
+   *
+   * @param acceptSharedBodies Whether to accept bodies in shared memory. Only set for the responses of client calls
+   *     which advertised {@link FlightConstants#SHARED_MEMORY_HEADER}.
+   */
+  static Marshaller<ArrowMessage> createMarshaller(BufferAllocator allocator, boolean acceptSharedBodies) {
+    return new ArrowMessageHolderMarshaller(allocator, acceptSharedBodies);
   }
 
   private static class ArrowMessageHolderMarshaller implements Marshaller<ArrowMessage> {
 
     private final BufferAllocator allocator;
+    private final boolean acceptSharedBodies;
 
-    public ArrowMessageHolderMarshaller(BufferAllocator allocator) {
+    public ArrowMessageHolderMarshaller(BufferAllocator allocator, boolean acceptSharedBodies) {
       this.allocator = allocator;
+      this.acceptSharedBodies = acceptSharedBodies;
     }
 
     @Override
@@ -548,13 +695,18 @@ class ArrowMessage implements AutoCloseable {
 
     @Override
     public ArrowMessage parse(InputStream stream) {
-      return ArrowMessage.frame(allocator, stream);
+      return ArrowMessage.frame(allocator, stream, acceptSharedBodies);
     }
 
   }
 
   @Override
   public void close() throws Exception {
+    if (sharedBody != null) {
+      // Never sent
+      sharedBody.release();
+      sharedBody = null;
+    }
     AutoCloseables.close(Iterables.concat(bufs, Collections.singletonList(appMetadata)));
   }
 }
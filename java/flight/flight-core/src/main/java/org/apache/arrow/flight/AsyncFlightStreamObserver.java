@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.flight.grpc.StatusUtils;
+import org.apache.arrow.flight.impl.Flight;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.message.ArrowDictionaryBatch;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.MetadataVersion;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.DictionaryUtility;
+import org.apache.arrow.vector.util.VectorBatchAppender;
+import org.apache.arrow.vector.validate.MetadataV4UnionChecker;
+
+import io.grpc.ClientCall;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ClientResponseObserver;
+
+/**
+ * Decodes the messages of a DoGet call and pushes them to a {@link FlightStreamListener}.
+ *
+ * <p>Automatic inbound flow control is disabled, so gRPC only requests the first message (the schema) by itself.
+ * Every further message is requested by the listener through this subscription, except for dictionary batches,
+ * which are not visible to the listener and are replenished here.
+ */
+final class AsyncFlightStreamObserver implements ClientResponseObserver<Flight.Ticket, ArrowMessage>,
+    FlightStreamListener.StreamSubscription {
+
+  private final BufferAllocator allocator;
+  private final CompressionCodec.Factory compressionFactory;
+  private final ClientCall<Flight.Ticket, ArrowMessage> call;
+  private final FlightStreamListener listener;
+  private final FlightStreamTracer tracer;
+
+  // Guarded by this: requests and cancellation made before the call is started.
+  private boolean started;
+  private int pendingRequests;
+  private CallStatus cancelledBeforeStart;
+
+  // Only accessed from gRPC callbacks, which are never concurrent.
+  private boolean done;
+  private Exception failure;
+  private VectorSchemaRoot root;
+  private VectorLoader loader;
+  private final DictionaryProvider.MapDictionaryProvider dictionaries = new DictionaryProvider.MapDictionaryProvider();
+
+  AsyncFlightStreamObserver(BufferAllocator allocator, CompressionCodec.Factory compressionFactory,
+      ClientCall<Flight.Ticket, ArrowMessage> call, FlightStreamListener listener, FlightStreamTracer tracer) {
+    this.allocator = allocator;
+    this.compressionFactory = compressionFactory;
+    this.call = call;
+    this.listener = listener;
+    this.tracer = tracer;
+  }
+
+  /**
+   * Hand the subscription to the listener and start the call.
+   */
+  void start(Flight.Ticket ticket) {
+    listener.onStart(this);
+    final CallStatus cancelled;
+    final int requests;
+    synchronized (this) {
+      cancelled = cancelledBeforeStart;
+      if (cancelled == null) {
+        ClientCalls.asyncServerStreamingCall(call, ticket, this);
+        started = true;
+      }
+      requests = pendingRequests;
+      pendingRequests = 0;
+    }
+    if (cancelled != null) {
+      done = true;
+      listener.onError(cancelled.toRuntimeException());
+    } else if (requests > 0) {
+      call.request(requests);
+    }
+  }
+
+  @Override
+  public void request(int count) {
+    synchronized (this) {
+      if (!started) {
+        pendingRequests += count;
+        return;
+      }
+    }
+    call.request(count);
+  }
+
+  @Override
+  public void cancel(String message, Throwable exception) {
+    synchronized (this) {
+      if (!started) {
+        cancelledBeforeStart = CallStatus.CANCELLED.withDescription(message).withCause(exception);
+        return;
+      }
+    }
+    call.cancel(message, exception);
+  }
+
+  @Override
+  public void beforeStart(ClientCallStreamObserver<Flight.Ticket> requestStream) {
+    requestStream.disableAutoInboundFlowControl();
+  }
+
+  @Override
+  public void onNext(ArrowMessage msg) {
+    try (final ArrowMessage message = msg) {
+      if (done) {
+        return;
+      }
+      switch (message.getMessageType()) {
+        case NONE:
+          if (message.getApplicationMetadata() == null) {
+            call.request(1);
+          } else {
+            if (root != null) {
+              root.clear();
+            }
+            listener.onNext(root, message.getApplicationMetadata());
+          }
+          break;
+        case SCHEMA:
+          onSchema(message);
+          break;
+        case RECORD_BATCH:
+          if (loader == null) {
+            throw CallStatus.INTERNAL.withDescription("Received a record batch before the schema").toRuntimeException();
+          }
+          root.clear();
+          try (ArrowRecordBatch arb = message.asRecordBatch()) {
+            tracer.onBatchReceived(arb.getLength(), arb.computeBodyLength());
+            loader.load(arb);
+          }
+          listener.onNext(root, message.getApplicationMetadata());
+          break;
+        case DICTIONARY_BATCH:
+          loadDictionary(message);
+          call.request(1);
+          break;
+        case TENSOR:
+        default:
+          throw CallStatus.INTERNAL
+              .withDescription("Unable to handle message of type: " + message.getMessageType())
+              .toRuntimeException();
+      }
+    } catch (Exception e) {
+      // The call will end with an error carrying this exception, which is then reported to the listener.
+      done = true;
+      failure = e;
+      call.cancel("Failed to process message", e);
+    }
+  }
+
+  private void onSchema(ArrowMessage message) throws IOException {
+    Schema schema = message.asSchema();
+    final List<Field> fields = new ArrayList<>();
+    final Map<Long, Dictionary> dictionaryMap = new HashMap<>();
+    for (final Field originalField : schema.getFields()) {
+      fields.add(DictionaryUtility.toMemoryFormat(originalField, allocator, dictionaryMap));
+    }
+    dictionaryMap.values().forEach(dictionaries::put);
+    schema = new Schema(fields, schema.getCustomMetadata());
+    MetadataV4UnionChecker.checkRead(schema,
+        MetadataVersion.fromFlatbufID(message.asSchemaMessage().getMessage().version()));
+    root = VectorSchemaRoot.create(schema, allocator);
+    loader = new VectorLoader(root, compressionFactory);
+    listener.onSchema(root, dictionaries);
+  }
+
+  private void loadDictionary(ArrowMessage message) {
+    try (ArrowDictionaryBatch arb = message.asDictionaryBatch()) {
+      final long id = arb.getDictionaryId();
+      final Dictionary dictionary = dictionaries.lookup(id);
+      if (dictionary == null) {
+        throw new IllegalArgumentException("Dictionary not defined in schema: ID " + id);
+      }
+      final FieldVector vector = dictionary.getVector();
+      // a delta batch is appended to the dictionary, rather than replacing it
+      if (arb.isDelta()) {
+        try (FieldVector deltaVector = vector.getField().createVector(allocator)) {
+          loadDictionaryVector(arb, deltaVector);
+          VectorBatchAppender.batchAppend(vector, deltaVector);
+        }
+        return;
+      }
+      loadDictionaryVector(arb, vector);
+    }
+  }
+
+  private void loadDictionaryVector(ArrowDictionaryBatch arb, FieldVector vector) {
+    final VectorSchemaRoot dictionaryRoot = new VectorSchemaRoot(Collections.singletonList(vector.getField()),
+        Collections.singletonList(vector), 0);
+    new VectorLoader(dictionaryRoot, compressionFactory).load(arb.getDictionary());
+  }
+
+  @Override
+  public void onError(Throwable t) {
+    try {
+      listener.onError(StatusUtils.fromThrowable(t));
+    } finally {
+      cleanup();
+    }
+  }
+
+  @Override
+  public void onCompleted() {
+    try {
+      if (failure != null) {
+        // The server finished before the cancellation took effect.
+        listener.onError(StatusUtils.fromThrowable(failure));
+      } else {
+        listener.onCompleted();
+      }
+    } finally {
+      cleanup();
+    }
+  }
+
+  private void cleanup() {
+    done = true;
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    if (root != null) {
+      closeables.add(root);
+      root = null;
+    }
+    dictionaries.getDictionaryIds().forEach(id -> closeables.add(dictionaries.lookup(id).getVector()));
+    AutoCloseables.closeNoChecked(() -> AutoCloseables.close(closeables));
+  }
+}
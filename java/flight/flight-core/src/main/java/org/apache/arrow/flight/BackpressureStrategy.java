@@ -17,6 +17,13 @@
 
 package org.apache.arrow.flight;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
 import org.apache.arrow.vector.VectorSchemaRoot;
 
 import com.google.common.base.Preconditions;
@@ -86,6 +93,15 @@ public interface BackpressureStrategy {
     @Override
     public WaitResult waitForListener(long timeout) {
       Preconditions.checkNotNull(listener);
+      final long start = System.nanoTime();
+      try {
+        return waitForListenerState(timeout);
+      } finally {
+        StreamTracers.forListener(listener).onBackpressureWait(System.nanoTime() - start);
+      }
+    }
+
+    private WaitResult waitForListenerState(long timeout) {
       long remainingTimeout = timeout;
       final long startTime = System.currentTimeMillis();
       synchronized (lock) {
@@ -169,4 +185,180 @@ public interface BackpressureStrategy {
       }
     }
   }
+
+  /**
+   * A back pressure strategy that never blocks the producer.
+   *
+   * <p>Instead of waiting, the producer hands a continuation to {@link #whenReady(Consumer)}, which runs it on the
+   * given executor once the client can accept more data (or has cancelled the call). A producer writes while
+   * {@link #isReady()}, then registers a continuation that resumes writing, so that a small pool of threads can
+   * serve many streams at once.
+   *
+   * <p>gRPC reports a stream as not ready as soon as a single message is waiting to be flushed, so a producer of
+   * large batches ends up waiting on the network after every batch. A high watermark lets the producer keep
+   * writing until that many bytes of batch bodies have been written since gRPC last reported the stream as ready.
+   *
+   * <p>There is no configurable low watermark: gRPC does not expose how much of the data it holds has been flushed,
+   * so the strategy cannot tell when the bytes ahead drop below a given level. Writing resumes once gRPC reports
+   * the stream as ready again, i.e. its own queue dropped below its internal threshold (32 KiB in grpc-java), which
+   * acts as the low watermark.
+   *
+   * <p>Only batches written with {@link OutboundStreamListener#putNext()} count towards the watermark, and they can
+   * only be counted on the listener Flight passed to the producer: a high watermark cannot be used with a listener
+   * wrapping it.
+   */
+  class AsyncBackpressureStrategy implements BackpressureStrategy {
+    private final Object lock = new Object();
+    private final Executor executor;
+    private final long highWatermark;
+    private FlightProducer.ServerStreamListener listener;
+    private long bytesAhead;
+    private Consumer<WaitResult> continuation;
+    private long continuationStart;
+
+    /**
+     * Create a strategy that follows the readiness reported by gRPC.
+     *
+     * @param executor The executor to run continuations on.
+     */
+    public AsyncBackpressureStrategy(Executor executor) {
+      this(executor, 0);
+    }
+
+    /**
+     * Create a strategy that lets the producer get ahead of the client.
+     *
+     * @param executor The executor to run continuations on.
+     * @param highWatermark The number of bytes that may be written while gRPC reports the stream as not ready.
+     */
+    public AsyncBackpressureStrategy(Executor executor, long highWatermark) {
+      Preconditions.checkArgument(highWatermark >= 0, "High watermark must be non-negative");
+      this.executor = Preconditions.checkNotNull(executor);
+      this.highWatermark = highWatermark;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if a high watermark is set, and the listener is not the one Flight passed
+     *     to the producer, so the bytes written to it cannot be counted.
+     */
+    @Override
+    public void register(FlightProducer.ServerStreamListener listener) {
+      final boolean metered = StreamTracers.attach(listener, new FlightStreamTracer() {
+        @Override
+        public void onBatchSent(long rowCount, long bodyBytes, long serializationNanos) {
+          synchronized (lock) {
+            bytesAhead += bodyBytes;
+          }
+        }
+      });
+      // Without counting the bytes, the watermark would never be reached, and the producer never paused
+      Preconditions.checkArgument(metered || highWatermark == 0,
+          "A high watermark requires the listener passed to the producer, not %s", listener);
+      this.listener = listener;
+      listener.setOnReadyHandler(this::resume);
+      listener.setOnCancelHandler(this::resume);
+    }
+
+    /**
+     * Check whether the producer may write without waiting.
+     */
+    public boolean isReady() {
+      Preconditions.checkNotNull(listener);
+      synchronized (lock) {
+        return getState() == WaitResult.READY;
+      }
+    }
+
+    /**
+     * Run a continuation once the listener is ready or cancelled.
+     *
+     * <p>The continuation always runs on the executor, even if the listener is already ready, and is given
+     * either {@link WaitResult#READY} or {@link WaitResult#CANCELLED}. At most one continuation may be pending.
+     *
+     * @param continuation The continuation to run.
+     * @throws IllegalStateException if a continuation is already pending.
+     */
+    public void whenReady(Consumer<WaitResult> continuation) {
+      Preconditions.checkNotNull(listener);
+      Preconditions.checkNotNull(continuation);
+      final WaitResult result;
+      synchronized (lock) {
+        Preconditions.checkState(this.continuation == null, "A continuation is already pending");
+        result = getState();
+        if (result == null) {
+          this.continuation = continuation;
+          this.continuationStart = System.nanoTime();
+          return;
+        }
+      }
+      executor.execute(() -> continuation.accept(result));
+    }
+
+    /**
+     * Waits for the listener by blocking the calling thread, for producers that are not fully asynchronous.
+     */
+    @Override
+    public WaitResult waitForListener(long timeout) {
+      final CompletableFuture<WaitResult> future = new CompletableFuture<>();
+      final Consumer<WaitResult> complete = future::complete;
+      whenReady(complete);
+      try {
+        return timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.get();
+      } catch (TimeoutException e) {
+        return cancelContinuation(complete) ? WaitResult.TIMEOUT : future.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancelContinuation(complete);
+        return WaitResult.OTHER;
+      } catch (ExecutionException e) {
+        throw new RuntimeException(e.getCause());
+      }
+    }
+
+    private boolean cancelContinuation(Consumer<WaitResult> expected) {
+      synchronized (lock) {
+        if (continuation == expected) {
+          continuation = null;
+          return true;
+        }
+        return false;
+      }
+    }
+
+    /** Get the current state of the listener, or null if the producer has to wait. Must hold the lock. */
+    private WaitResult getState() {
+      if (listener.isCancelled()) {
+        return WaitResult.CANCELLED;
+      } else if (listener.isReady()) {
+        // gRPC flushed (almost) everything written so far
+        bytesAhead = 0;
+        return WaitResult.READY;
+      } else if (bytesAhead < highWatermark) {
+        return WaitResult.READY;
+      }
+      return null;
+    }
+
+    private void resume() {
+      final Consumer<WaitResult> ready;
+      final WaitResult result;
+      final long waited;
+      synchronized (lock) {
+        if (continuation == null) {
+          return;
+        }
+        result = getState();
+        if (result == null) {
+          return;
+        }
+        ready = continuation;
+        waited = System.nanoTime() - continuationStart;
+        continuation = null;
+      }
+      StreamTracers.forListener(listener).onBackpressureWait(waited);
+      executor.execute(() -> ready.accept(result));
+    }
+  }
 }
@@ -0,0 +1,672 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.flight.BackpressureStrategy.CallbackBackpressureStrategy;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.MemoryReclaimer;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
+
+/**
+ * A {@link FlightProducer} that caches the result of DoGet calls of another producer.
+ *
+ * <p>The first call for a ticket is served by the delegate, while the encoded IPC messages it sends are recorded
+ * into off-heap buffers. Later calls for the same ticket are answered by writing the recorded messages to the
+ * client directly, without calling the delegate or encoding the data again. Entries are evicted in least recently
+ * used order once the cache exceeds its size limit, and expire after a fixed time to live. Streams that fail, are
+ * cancelled, or are larger than the whole cache are not cached.
+ *
+ * <p>By default, entries are keyed by the ticket and the {@link CallContext#peerIdentity() peer identity}, so that
+ * a result the delegate produced for one peer is never served to another. If the delegate authorizes or filters
+ * based on anything else about the caller, e.g. headers read by a middleware, a {@link KeyFunction} including it
+ * must be given. {@link KeyFunction#TICKET} shares entries between all callers, and must only be used if the
+ * result of the delegate does not depend on the caller at all.
+ *
+ * <p>A successful DoPut invalidates the whole cache, as the delegate may have changed the data behind any ticket.
+ * Other changes to the data must be signalled with {@link #invalidate(Ticket)} or {@link #invalidateAll()}. Streams
+ * being recorded when the cache is invalidated are not cached, as they may hold data from before the change.
+ *
+ * <p>The cache can be registered with a {@link org.apache.arrow.memory.MemoryPressureListener} to shed entries when
+ * the server runs low on memory.
+ */
+public class CachingFlightProducer implements FlightProducer, MemoryReclaimer, AutoCloseable {
+  private final FlightProducer delegate;
+  private final BufferAllocator allocator;
+  private final long maxBytes;
+  private final long ttlNanos;
+  private final KeyFunction keyFunction;
+
+  // Access-ordered, so iteration starts with the least recently used entry
+  private final LinkedHashMap<Object, CachedStream> cache = new LinkedHashMap<>(16, 0.75f, true);
+  // Incremented on each invalidation, so that streams recorded meanwhile are not cached
+  private long generation;
+  private long bytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private boolean closed;
+
+  /**
+   * Create a cache without a time to live.
+   *
+   * @param delegate The producer to cache. It is not closed by this producer.
+   * @param allocator The allocator to take the cache memory from.
+   * @param maxBytes The maximum number of bytes held by the cache.
+   */
+  public CachingFlightProducer(FlightProducer delegate, BufferAllocator allocator, long maxBytes) {
+    this(delegate, allocator, maxBytes, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Create a cache.
+   *
+   * @param delegate The producer to cache. It is not closed by this producer.
+   * @param allocator The allocator to take the cache memory from.
+   * @param maxBytes The maximum number of bytes held by the cache.
+   * @param ttl How long an entry may be served after it was recorded.
+   * @param unit The unit of ttl.
+   */
+  public CachingFlightProducer(FlightProducer delegate, BufferAllocator allocator, long maxBytes, long ttl,
+      TimeUnit unit) {
+    this(delegate, allocator, maxBytes, ttl, unit, KeyFunction.PEER_AND_TICKET);
+  }
+
+  /**
+   * Create a cache.
+   *
+   * @param delegate The producer to cache. It is not closed by this producer.
+   * @param allocator The allocator to take the cache memory from.
+   * @param maxBytes The maximum number of bytes held by the cache.
+   * @param ttl How long an entry may be served after it was recorded.
+   * @param unit The unit of ttl.
+   * @param keyFunction Computes the cache key of a call. Calls with equal keys share the cached result.
+   */
+  public CachingFlightProducer(FlightProducer delegate, BufferAllocator allocator, long maxBytes, long ttl,
+      TimeUnit unit, KeyFunction keyFunction) {
+    Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+    Preconditions.checkArgument(ttl > 0, "ttl must be positive");
+    this.delegate = Preconditions.checkNotNull(delegate);
+    this.keyFunction = Preconditions.checkNotNull(keyFunction);
+    this.allocator = allocator.newChildAllocator("flight-result-cache", 0, Long.MAX_VALUE);
+    this.maxBytes = maxBytes;
+    this.ttlNanos = unit.toNanos(ttl);
+  }
+
+  @Override
+  public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+    final Object key = keyFunction.getKey(context, ticket);
+    // Cached messages can only be written to the built-in listener
+    final CachedStream stream = listener instanceof OutboundStreamListenerImpl ? acquire(key) : null;
+    if (stream == null) {
+      delegate.getStream(context, ticket, new RecordingListener(key, ticket, getGeneration(), listener));
+      return;
+    }
+    try {
+      replay(stream, listener);
+    } finally {
+      release(stream);
+    }
+  }
+
+  private void replay(CachedStream stream, ServerStreamListener listener) {
+    final OutboundStreamListenerImpl outbound = (OutboundStreamListenerImpl) listener;
+    final BackpressureStrategy backpressure = new CallbackBackpressureStrategy();
+    backpressure.register(listener);
+    for (CachedMessage message : stream.messages) {
+      final BackpressureStrategy.WaitResult result = backpressure.waitForListener(0);
+      if (result == BackpressureStrategy.WaitResult.CANCELLED) {
+        return;
+      } else if (result != BackpressureStrategy.WaitResult.READY) {
+        listener.error(CallStatus.INTERNAL.withDescription("Interrupted while sending cached stream: " + result)
+            .toRuntimeException());
+        return;
+      }
+      outbound.putMessage(message.toArrowMessage());
+    }
+    listener.completed();
+  }
+
+  @Override
+  public void listFlights(CallContext context, Criteria criteria, StreamListener<FlightInfo> listener) {
+    delegate.listFlights(context, criteria, listener);
+  }
+
+  @Override
+  public FlightInfo getFlightInfo(CallContext context, FlightDescriptor descriptor) {
+    return delegate.getFlightInfo(context, descriptor);
+  }
+
+  @Override
+  public SchemaResult getSchema(CallContext context, FlightDescriptor descriptor) {
+    return delegate.getSchema(context, descriptor);
+  }
+
+  @Override
+  public Runnable acceptPut(CallContext context, FlightStream flightStream, StreamListener<PutResult> ackStream) {
+    final Runnable put = delegate.acceptPut(context, flightStream, ackStream);
+    return () -> {
+      try {
+        put.run();
+      } finally {
+        invalidateAll();
+      }
+    };
+  }
+
+  @Override
+  public void doExchange(CallContext context, FlightStream reader, ServerStreamListener writer) {
+    delegate.doExchange(context, reader, writer);
+  }
+
+  @Override
+  public void doAction(CallContext context, Action action, StreamListener<Result> listener) {
+    delegate.doAction(context, action, listener);
+  }
+
+  @Override
+  public void listActions(CallContext context, StreamListener<ActionType> listener) {
+    delegate.listActions(context, listener);
+  }
+
+  /**
+   * Remove the entries for a ticket, if any. Calls currently reading an entry are not affected, but no stream being
+   * recorded is cached.
+   */
+  public synchronized void invalidate(Ticket ticket) {
+    generation++;
+    final Iterator<CachedStream> iterator = cache.values().iterator();
+    while (iterator.hasNext()) {
+      final CachedStream stream = iterator.next();
+      if (stream.ticket.equals(ticket)) {
+        iterator.remove();
+        discard(stream);
+      }
+    }
+  }
+
+  /**
+   * Remove all entries. Calls currently reading an entry are not affected, but no stream being recorded is cached.
+   */
+  public synchronized void invalidateAll() {
+    generation++;
+    cache.values().forEach(this::discard);
+    cache.clear();
+  }
+
+  /**
+   * Evict least recently used entries until they add up to the given number of bytes. Entries still read by a
+   * call are freed once the call completes.
+   */
+  @Override
+  public synchronized long reclaim(long bytes) {
+    long released = 0;
+    final Iterator<CachedStream> iterator = cache.values().iterator();
+    while (released < bytes && iterator.hasNext()) {
+      final CachedStream eldest = iterator.next();
+      iterator.remove();
+      released += eldest.bytes;
+      discard(eldest);
+      evictions++;
+    }
+    return released;
+  }
+
+  /**
+   * Get a snapshot of the cache statistics.
+   */
+  public synchronized Stats getStats() {
+    return new Stats(cache.size(), bytes, hits, misses, evictions);
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      invalidateAll();
+    }
+    allocator.close();
+  }
+
+  private synchronized long getGeneration() {
+    return generation;
+  }
+
+  private synchronized CachedStream acquire(Object key) {
+    CachedStream stream = cache.get(key);
+    if (stream != null && System.nanoTime() - stream.createdNanos >= ttlNanos) {
+      cache.remove(key);
+      discard(stream);
+      evictions++;
+      stream = null;
+    }
+    if (stream == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    stream.readers++;
+    return stream;
+  }
+
+  private synchronized void release(CachedStream stream) {
+    stream.readers--;
+    if (stream.readers == 0 && stream.removed) {
+      stream.close();
+    }
+  }
+
+  private synchronized void insert(Object key, CachedStream stream, long recordingGeneration) {
+    // the data may have changed while the stream was recorded
+    if (closed || stream.bytes > maxBytes || recordingGeneration != generation) {
+      stream.close();
+      return;
+    }
+    final CachedStream previous = cache.put(key, stream);
+    if (previous != null) {
+      discard(previous);
+    }
+    bytes += stream.bytes;
+    final Iterator<CachedStream> iterator = cache.values().iterator();
+    while (bytes > maxBytes && iterator.hasNext()) {
+      final CachedStream eldest = iterator.next();
+      if (eldest == stream) {
+        break;
+      }
+      iterator.remove();
+      discard(eldest);
+      evictions++;
+    }
+  }
+
+  /** Account for an entry that was removed from the map, and free it unless a call is still reading it. */
+  private void discard(CachedStream stream) {
+    bytes -= stream.bytes;
+    stream.removed = true;
+    if (stream.readers == 0) {
+      stream.close();
+    }
+  }
+
+  /**
+   * A single encoded IPC message.
+   */
+  private static final class CachedMessage implements AutoCloseable {
+    private final byte[] header; // null for metadata-only messages
+    private final ArrowBuf body; // nullable
+    private final ArrowBuf appMetadata; // nullable
+
+    CachedMessage(byte[] header, ArrowBuf body, ArrowBuf appMetadata) {
+      this.header = header;
+      this.body = body;
+      this.appMetadata = appMetadata;
+    }
+
+    long getSize() {
+      return (header == null ? 0 : header.length) + (body == null ? 0 : body.capacity()) +
+          (appMetadata == null ? 0 : appMetadata.capacity());
+    }
+
+    /** Create a message to send, sharing the cached buffers. */
+    ArrowMessage toArrowMessage() {
+      if (body != null) {
+        body.getReferenceManager().retain();
+      }
+      if (appMetadata != null) {
+        appMetadata.getReferenceManager().retain();
+      }
+      if (header == null) {
+        return new ArrowMessage(appMetadata);
+      }
+      return ArrowMessage.fromIpc(null, MessageMetadataResult.create(ByteBuffer.wrap(header), header.length),
+          appMetadata, body);
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(body, appMetadata);
+    }
+  }
+
+  /**
+   * The recorded messages of a stream.
+   */
+  private static final class CachedStream {
+    private final Ticket ticket;
+    private final List<CachedMessage> messages;
+    private final long bytes;
+    private final long createdNanos;
+    // Guarded by the producer
+    private int readers;
+    private boolean removed;
+
+    CachedStream(Ticket ticket, List<CachedMessage> messages, long bytes) {
+      this.ticket = ticket;
+      this.messages = messages;
+      this.bytes = bytes;
+      this.createdNanos = System.nanoTime();
+    }
+
+    void close() {
+      try {
+        AutoCloseables.close(messages);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  /**
+   * Forwards a stream to the client, recording the messages sent.
+   */
+  private final class RecordingListener implements ServerStreamListener {
+    private final Object key;
+    private final Ticket ticket;
+    private final long recordingGeneration;
+    private final ServerStreamListener listener;
+    private List<CachedMessage> messages = new ArrayList<>();
+    private long recordedBytes;
+    private VectorUnloader unloader;
+    private IpcOption option;
+
+    RecordingListener(Object key, Ticket ticket, long recordingGeneration, ServerStreamListener listener) {
+      this.key = key;
+      this.ticket = ticket;
+      this.recordingGeneration = recordingGeneration;
+      this.listener = listener;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return listener.isCancelled();
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable handler) {
+      listener.setOnCancelHandler(handler);
+    }
+
+    @Override
+    public boolean isReady() {
+      return listener.isReady();
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable handler) {
+      listener.setOnReadyHandler(handler);
+    }
+
+    @Override
+    public void setUseZeroCopy(boolean enabled) {
+      listener.setUseZeroCopy(enabled);
+    }
+
+    @Override
+    public void start(VectorSchemaRoot root, DictionaryProvider dictionaries, IpcOption option) {
+      listener.start(root, dictionaries, option);
+      this.option = option;
+      try {
+        DictionaryUtils.generateSchemaMessages(root.getSchema(), null, dictionaries, option,
+            NoCompressionCodec.INSTANCE, message -> record(message, null));
+      } catch (Exception e) {
+        abandon();
+      }
+      unloader = new VectorUnloader(root, /* includeNullCount */ true, NoCompressionCodec.INSTANCE,
+          /* alignBuffers */ true);
+    }
+
+    @Override
+    public void putNext() {
+      putNext(null);
+    }
+
+    @Override
+    public void putNext(ArrowBuf metadata) {
+      // Record before forwarding, as the listener takes ownership of the metadata
+      if (messages != null && unloader != null) {
+        try (final ArrowMessage message = new ArrowMessage(unloader.getRecordBatch(), null, false, option)) {
+          record(message, metadata);
+        } catch (Exception e) {
+          abandon();
+        }
+      }
+      listener.putNext(metadata);
+    }
+
+    @Override
+    public void putMetadata(ArrowBuf metadata) {
+      if (messages != null) {
+        record(null, metadata);
+      }
+      listener.putMetadata(metadata);
+    }
+
+    @Override
+    public void putIpcMessage(IpcMessage message) {
+      record(message);
+      listener.putIpcMessage(message);
+    }
+
+    @Override
+    public void error(Throwable ex) {
+      abandon();
+      listener.error(ex);
+    }
+
+    @Override
+    public void completed() {
+      listener.completed();
+      if (messages == null || listener.isCancelled()) {
+        abandon();
+        return;
+      }
+      insert(key, new CachedStream(ticket, messages, recordedBytes), recordingGeneration);
+      messages = null;
+    }
+
+    private void record(ArrowMessage message, ArrowBuf metadata) {
+      if (messages == null) {
+        return;
+      }
+      final ArrowBuf body;
+      try {
+        body = message == null ? null : message.copyIpcBody(allocator);
+      } catch (RuntimeException e) {
+        // The cache allocator may be out of memory; serving the stream still takes priority
+        abandon();
+        return;
+      }
+      record(message == null ? null : message.copyIpcHeader(), body, metadata);
+    }
+
+    private void record(IpcMessage message) {
+      if (messages == null) {
+        return;
+      }
+      byte[] header = null;
+      if (message.getMessage() != null) {
+        final ByteBuffer buffer = message.getMessage().getMessageBuffer().duplicate();
+        header = new byte[buffer.remaining()];
+        buffer.get(header);
+      }
+      final ArrowBuf body;
+      try {
+        body = copy(message.getBody());
+      } catch (RuntimeException e) {
+        abandon();
+        return;
+      }
+      record(header, body, message.getApplicationMetadata());
+    }
+
+    /** Record a message, taking ownership of the body, and copying the application metadata. */
+    private void record(byte[] header, ArrowBuf body, ArrowBuf metadata) {
+      final ArrowBuf appMetadata;
+      try {
+        appMetadata = copy(metadata);
+      } catch (RuntimeException e) {
+        AutoCloseables.closeNoChecked(body);
+        abandon();
+        return;
+      }
+      final CachedMessage cached = new CachedMessage(header, body, appMetadata);
+      messages.add(cached);
+      recordedBytes += cached.getSize();
+      if (recordedBytes > maxBytes) {
+        abandon();
+      }
+    }
+
+    private ArrowBuf copy(ArrowBuf source) {
+      if (source == null) {
+        return null;
+      }
+      final ArrowBuf copy = allocator.buffer(source.readableBytes());
+      copy.setBytes(0, source, source.readerIndex(), source.readableBytes());
+      copy.writerIndex(source.readableBytes());
+      return copy;
+    }
+
+    private void abandon() {
+      if (messages != null) {
+        AutoCloseables.closeNoChecked(() -> AutoCloseables.close(messages));
+        messages = null;
+      }
+    }
+  }
+
+  /**
+   * Computes the key under which the result of a DoGet call is cached. The key must include everything the result of
+   * the delegate depends on, including the identity of the caller if the delegate authorizes per caller. Keys must
+   * implement equals and hashCode.
+   */
+  @FunctionalInterface
+  public interface KeyFunction {
+    /** Keys results by the ticket and the peer identity, so that each peer only gets results produced for it. */
+    KeyFunction PEER_AND_TICKET = (context, ticket) -> new PeerTicketKey(context.peerIdentity(), ticket);
+
+    /**
+     * Keys results by the ticket alone, so that they are shared between all callers. Only use this if the delegate
+     * returns the same result for a ticket to every caller, and does not check who the caller is.
+     */
+    KeyFunction TICKET = (context, ticket) -> ticket;
+
+    Object getKey(CallContext context, Ticket ticket);
+  }
+
+  private static final class PeerTicketKey {
+    private final String peerIdentity;
+    private final Ticket ticket;
+
+    PeerTicketKey(String peerIdentity, Ticket ticket) {
+      this.peerIdentity = peerIdentity;
+      this.ticket = ticket;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PeerTicketKey)) {
+        return false;
+      }
+      final PeerTicketKey that = (PeerTicketKey) o;
+      return Objects.equals(peerIdentity, that.peerIdentity) && ticket.equals(that.ticket);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(peerIdentity, ticket);
+    }
+  }
+
+  /**
+   * A point-in-time view of the cache statistics.
+   */
+  public static final class Stats {
+    private final int entries;
+    private final long bytes;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    Stats(int entries, long bytes, long hits, long misses, long evictions) {
+      this.entries = entries;
+      this.bytes = bytes;
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+    }
+
+    /** The number of cached streams. */
+    public int getEntries() {
+      return entries;
+    }
+
+    /** The number of bytes held by the cached streams. */
+    public long getBytes() {
+      return bytes;
+    }
+
+    /** The number of DoGet calls served from the cache. */
+    public long getHits() {
+      return hits;
+    }
+
+    /** The number of DoGet calls served by the delegate. */
+    public long getMisses() {
+      return misses;
+    }
+
+    /** The number of entries removed because of the size limit or the time to live. */
+    public long getEvictions() {
+      return evictions;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{" +
+          "entries=" + entries +
+          ", bytes=" + bytes +
+          ", hits=" + hits +
+          ", misses=" + misses +
+          ", evictions=" + evictions +
+          '}';
+    }
+  }
+}
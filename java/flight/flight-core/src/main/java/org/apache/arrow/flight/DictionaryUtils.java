@@ -30,6 +30,7 @@ import org.apache.arrow.util.AutoCloseables;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.compression.CompressionCodec;
 import org.apache.arrow.vector.dictionary.Dictionary;
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.ipc.message.ArrowDictionaryBatch;
@@ -55,6 +56,7 @@ final class DictionaryUtils {
    */
   static Schema generateSchemaMessages(final Schema originalSchema, final FlightDescriptor descriptor,
                                        final DictionaryProvider provider, final IpcOption option,
+                                       final CompressionCodec codec,
                                        final Consumer<ArrowMessage> messageCallback) throws Exception {
     final Set<Long> dictionaryIds = new HashSet<>();
     final Schema schema = generateSchema(originalSchema, provider, dictionaryIds);
@@ -74,7 +76,8 @@ final class DictionaryUtils {
           Collections.singletonList(vector.getField()),
           Collections.singletonList(vector),
           count);
-      final VectorUnloader unloader = new VectorUnloader(dictRoot);
+      final VectorUnloader unloader = new VectorUnloader(dictRoot, /* includeNullCount */ true, codec,
+          /* alignBuffers */ true);
       try (final ArrowDictionaryBatch dictionaryBatch = new ArrowDictionaryBatch(
           id, unloader.getRecordBatch());
           final ArrowMessage message = new ArrowMessage(dictionaryBatch, option)) {
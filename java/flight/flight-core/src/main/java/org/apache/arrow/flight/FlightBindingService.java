@@ -25,6 +25,9 @@ import org.apache.arrow.flight.impl.Flight;
 import org.apache.arrow.flight.impl.Flight.PutResult;
 import org.apache.arrow.flight.impl.FlightServiceGrpc;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 
 import com.google.common.collect.ImmutableSet;
 
@@ -54,17 +57,41 @@ class FlightBindingService implements BindableService {
 
   public FlightBindingService(BufferAllocator allocator, FlightProducer producer,
       ServerAuthHandler authHandler, ExecutorService executor) {
+    this(allocator, producer, authHandler, executor, CompressionUtil.CodecType.NO_COMPRESSION,
+        NoCompressionCodec.Factory.INSTANCE);
+  }
+
+  public FlightBindingService(BufferAllocator allocator, FlightProducer producer,
+      ServerAuthHandler authHandler, ExecutorService executor, CompressionUtil.CodecType compressionType,
+      CompressionCodec.Factory compressionFactory) {
+    this(allocator, producer, authHandler, executor, compressionType, compressionFactory, null);
+  }
+
+  FlightBindingService(BufferAllocator allocator, FlightProducer producer,
+      ServerAuthHandler authHandler, ExecutorService executor, CompressionUtil.CodecType compressionType,
+      CompressionCodec.Factory compressionFactory, SharedMemoryRegion sharedMemory) {
     this.allocator = allocator;
-    this.delegate = new FlightService(allocator, producer, authHandler, executor);
+    this.delegate = new FlightService(allocator, producer, authHandler, executor, compressionType,
+        compressionFactory, sharedMemory);
   }
 
   public static MethodDescriptor<Flight.Ticket, ArrowMessage> getDoGetDescriptor(BufferAllocator allocator) {
+    return getDoGetDescriptor(allocator, false);
+  }
+
+  /**
+   * Get the DoGet method for a client, which may receive bodies in shared memory.
+   *
+   * @param acceptSharedBodies Whether the client advertises {@link FlightConstants#SHARED_MEMORY_HEADER}.
+   */
+  static MethodDescriptor<Flight.Ticket, ArrowMessage> getDoGetDescriptor(BufferAllocator allocator,
+      boolean acceptSharedBodies) {
     return MethodDescriptor.<Flight.Ticket, ArrowMessage>newBuilder()
         .setType(io.grpc.MethodDescriptor.MethodType.SERVER_STREAMING)
         .setFullMethodName(DO_GET)
         .setSampledToLocalTracing(false)
         .setRequestMarshaller(ProtoUtils.marshaller(Flight.Ticket.getDefaultInstance()))
-        .setResponseMarshaller(ArrowMessage.createMarshaller(allocator))
+        .setResponseMarshaller(ArrowMessage.createMarshaller(allocator, acceptSharedBodies))
         .setSchemaDescriptor(FlightServiceGrpc.getDoGetMethod().getSchemaDescriptor())
         .build();
   }
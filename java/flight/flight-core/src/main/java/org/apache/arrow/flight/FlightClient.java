@@ -23,9 +23,12 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 import javax.net.ssl.SSLException;
 
@@ -49,6 +52,9 @@ import org.apache.arrow.flight.impl.FlightServiceGrpc.FlightServiceStub;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.Preconditions;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.dictionary.DictionaryProvider.MapDictionaryProvider;
 
@@ -87,15 +93,56 @@ public class FlightClient implements AutoCloseable {
   private final MethodDescriptor<ArrowMessage, Flight.PutResult> doPutDescriptor;
   private final MethodDescriptor<ArrowMessage, ArrowMessage> doExchangeDescriptor;
   private final List<FlightClientMiddleware.Factory> middleware;
+  private final CompressionUtil.CodecType compressionType;
+  private final CompressionCodec.Factory compressionFactory;
+  // Null if compression is disabled.
+  private final FlightCompression.AcceptCompressionMiddleware.Factory compressionNegotiation;
+  // If set, the channel is shared with other clients, and this is run instead of shutting it down on close.
+  private final Runnable releaseChannel;
 
   /**
    * Create a Flight client from an allocator and a gRPC channel.
    */
   FlightClient(BufferAllocator incomingAllocator, ManagedChannel channel,
       List<FlightClientMiddleware.Factory> middleware) {
+    this(incomingAllocator, channel, middleware, CompressionUtil.CodecType.NO_COMPRESSION,
+        NoCompressionCodec.Factory.INSTANCE);
+  }
+
+  /**
+   * Create a Flight client from an allocator and a gRPC channel, compressing the data it sends with the given codec.
+   */
+  FlightClient(BufferAllocator incomingAllocator, ManagedChannel channel,
+      List<FlightClientMiddleware.Factory> middleware, CompressionUtil.CodecType compressionType,
+      CompressionCodec.Factory compressionFactory) {
+    this(incomingAllocator, channel, middleware, compressionType, compressionFactory, false, null);
+  }
+
+  /**
+   * Create a Flight client from an allocator and a gRPC channel, which may be shared with other clients.
+   *
+   * @param sharedMemory Whether to ask the server to send data through shared memory.
+   * @param releaseChannel If not null, the channel is not shut down when the client is closed, and this is run
+   *     instead.
+   */
+  FlightClient(BufferAllocator incomingAllocator, ManagedChannel channel,
+      List<FlightClientMiddleware.Factory> middleware, CompressionUtil.CodecType compressionType,
+      CompressionCodec.Factory compressionFactory, boolean sharedMemory, Runnable releaseChannel) {
+    this.releaseChannel = releaseChannel;
+    this.compressionType = compressionType;
+    this.compressionFactory = compressionFactory;
     this.allocator = incomingAllocator.newChildAllocator("flight-client", 0, Long.MAX_VALUE);
     this.channel = channel;
     this.middleware = middleware;
+    if (compressionType == CompressionUtil.CodecType.NO_COMPRESSION) {
+      this.compressionNegotiation = null;
+    } else {
+      this.compressionNegotiation = new FlightCompression.AcceptCompressionMiddleware.Factory(compressionType);
+      middleware.add(compressionNegotiation);
+    }
+    if (sharedMemory) {
+      middleware.add(new SharedMemoryTransport.AdvertiseMiddleware.Factory());
+    }
 
     final ClientInterceptor[] interceptors;
     interceptors = new ClientInterceptor[]{authInterceptor, new ClientInterceptorAdapter(middleware)};
@@ -105,11 +152,22 @@ public class FlightClient implements AutoCloseable {
 
     blockingStub = FlightServiceGrpc.newBlockingStub(interceptedChannel);
     asyncStub = FlightServiceGrpc.newStub(interceptedChannel);
-    doGetDescriptor = FlightBindingService.getDoGetDescriptor(allocator);
+    // Only calls advertising shared memory may receive bodies in shared memory
+    doGetDescriptor = FlightBindingService.getDoGetDescriptor(allocator, sharedMemory);
     doPutDescriptor = FlightBindingService.getDoPutDescriptor(allocator);
     doExchangeDescriptor = FlightBindingService.getDoExchangeDescriptor(allocator);
   }
 
+  /**
+   * Get the codec for compressing uploaded data. Data is only compressed once the server has accepted the codec.
+   */
+  private CompressionCodec uploadCodec() {
+    if (compressionNegotiation == null || !compressionNegotiation.serverAccepts()) {
+      return NoCompressionCodec.INSTANCE;
+    }
+    return FlightCompression.createCodec(compressionType, compressionFactory);
+  }
+
   /**
    * Get a list of available flights.
    *
@@ -164,6 +222,30 @@ public class FlightClient implements AutoCloseable {
         .wrapIterator(CallOptions.wrapStub(blockingStub, options).doAction(action.toProtocol()), Result::new);
   }
 
+  /**
+   * Get a list of available flights without blocking.
+   *
+   * @param criteria Criteria for selecting flights
+   * @param listener The listener for the results, called from the executor of the client.
+   * @param options RPC-layer hints for the call.
+   */
+  public void listFlightsAsync(Criteria criteria, StreamListener<FlightInfo> listener, CallOption... options) {
+    CallOptions.wrapStub(asyncStub, options)
+        .listFlights(criteria.asCriteria(), new MappingStreamObserver<>(listener, FlightClient::toFlightInfo));
+  }
+
+  /**
+   * Performs an action on the Flight service without blocking.
+   *
+   * @param action The action to perform.
+   * @param listener The listener for the results, called from the executor of the client.
+   * @param options RPC-layer hints for this call.
+   */
+  public void doActionAsync(Action action, StreamListener<Result> listener, CallOption... options) {
+    CallOptions.wrapStub(asyncStub, options)
+        .doAction(action.toProtocol(), new MappingStreamObserver<>(listener, Result::new));
+  }
+
   /**
    * Authenticates with a username and password.
    */
@@ -259,11 +341,15 @@ public class FlightClient implements AutoCloseable {
 
     try {
       final SetStreamObserver resultObserver = new SetStreamObserver(allocator, metadataListener);
+      final StreamTracers.ClientCallTracer tracer = new StreamTracers.ClientCallTracer();
       ClientCallStreamObserver<ArrowMessage> observer = (ClientCallStreamObserver<ArrowMessage>)
           ClientCalls.asyncBidiStreamingCall(
-              interceptedChannel.newCall(doPutDescriptor, callOptions), resultObserver);
-      return new PutObserver(
+              interceptedChannel.newCall(doPutDescriptor, tracer.attach(callOptions)), resultObserver);
+      final PutObserver writer = new PutObserver(
           descriptor, observer, metadataListener::isCancelled, metadataListener::getResult);
+      writer.setCompressionCodec(uploadCodec());
+      writer.setTracer(tracer.get());
+      return writer;
     } catch (StatusRuntimeException sre) {
       throw StatusUtils.fromGrpcRuntimeException(sre);
     }
@@ -295,6 +381,30 @@ public class FlightClient implements AutoCloseable {
     return SchemaResult.fromProtocol(CallOptions.wrapStub(blockingStub, options).getSchema(descriptor.toProtocol()));
   }
 
+  /**
+   * Get info on a stream without blocking.
+   * @param descriptor The descriptor for the stream.
+   * @param options RPC-layer hints for this call.
+   * @return A future completed from the executor of the client. It fails with a {@link FlightRuntimeException}.
+   */
+  public CompletableFuture<FlightInfo> getInfoAsync(FlightDescriptor descriptor, CallOption... options) {
+    final UnaryStreamObserver<Flight.FlightInfo> observer = new UnaryStreamObserver<>();
+    CallOptions.wrapStub(asyncStub, options).getFlightInfo(descriptor.toProtocol(), observer);
+    return observer.result.thenApply(FlightClient::toFlightInfo);
+  }
+
+  /**
+   * Get schema for a stream without blocking.
+   * @param descriptor The descriptor for the stream.
+   * @param options RPC-layer hints for this call.
+   * @return A future completed from the executor of the client. It fails with a {@link FlightRuntimeException}.
+   */
+  public CompletableFuture<SchemaResult> getSchemaAsync(FlightDescriptor descriptor, CallOption... options) {
+    final UnaryStreamObserver<Flight.SchemaResult> observer = new UnaryStreamObserver<>();
+    CallOptions.wrapStub(asyncStub, options).getSchema(descriptor.toProtocol(), observer);
+    return observer.result.thenApply(SchemaResult::fromProtocol);
+  }
+
   /**
    * Retrieve a stream from the server.
    * @param ticket The ticket granting access to the data stream.
@@ -302,12 +412,16 @@ public class FlightClient implements AutoCloseable {
    */
   public FlightStream getStream(Ticket ticket, CallOption... options) {
     final io.grpc.CallOptions callOptions = CallOptions.wrapStub(asyncStub, options).getCallOptions();
-    ClientCall<Flight.Ticket, ArrowMessage> call = interceptedChannel.newCall(doGetDescriptor, callOptions);
+    final StreamTracers.ClientCallTracer tracer = new StreamTracers.ClientCallTracer();
+    ClientCall<Flight.Ticket, ArrowMessage> call = interceptedChannel.newCall(doGetDescriptor,
+        tracer.attach(callOptions));
     FlightStream stream = new FlightStream(
         allocator,
         PENDING_REQUESTS,
         (String message, Throwable cause) -> call.cancel(message, cause),
-        (count) -> call.request(count));
+        (count) -> call.request(count),
+        compressionFactory);
+    stream.setTracer(tracer.get());
 
     final StreamObserver<ArrowMessage> delegate = stream.asObserver();
     ClientResponseObserver<Flight.Ticket, ArrowMessage> clientResponseObserver =
@@ -339,6 +453,25 @@ public class FlightClient implements AutoCloseable {
     return stream;
   }
 
+  /**
+   * Retrieve a stream from the server without blocking.
+   *
+   * <p>The data is pushed to the listener as it requests it, so no thread is tied up waiting for the server.
+   *
+   * @param ticket The ticket granting access to the data stream.
+   * @param listener The listener for the data, called from the executor of the client.
+   * @param options RPC-layer hints for this call.
+   */
+  public void getStreamAsync(Ticket ticket, FlightStreamListener listener, CallOption... options) {
+    Preconditions.checkNotNull(listener, "listener must not be null");
+    final io.grpc.CallOptions callOptions = CallOptions.wrapStub(asyncStub, options).getCallOptions();
+    final StreamTracers.ClientCallTracer tracer = new StreamTracers.ClientCallTracer();
+    final ClientCall<Flight.Ticket, ArrowMessage> call = interceptedChannel.newCall(doGetDescriptor,
+        tracer.attach(callOptions));
+    new AsyncFlightStreamObserver(allocator, compressionFactory, call, listener, tracer.get())
+        .start(ticket.toProtocol());
+  }
+
   /**
    * Initiate a bidirectional data exchange with the server.
    *
@@ -351,11 +484,15 @@ public class FlightClient implements AutoCloseable {
     final io.grpc.CallOptions callOptions = CallOptions.wrapStub(asyncStub, options).getCallOptions();
 
     try {
-      final ClientCall<ArrowMessage, ArrowMessage> call = interceptedChannel.newCall(doExchangeDescriptor, callOptions);
-      final FlightStream stream = new FlightStream(allocator, PENDING_REQUESTS, call::cancel, call::request);
+      final StreamTracers.ClientCallTracer tracer = new StreamTracers.ClientCallTracer();
+      final ClientCall<ArrowMessage, ArrowMessage> call = interceptedChannel.newCall(doExchangeDescriptor,
+          tracer.attach(callOptions));
+      final FlightStream stream = new FlightStream(allocator, PENDING_REQUESTS, call::cancel, call::request,
+          compressionFactory);
+      stream.setTracer(tracer.get());
       final ClientCallStreamObserver<ArrowMessage> observer = (ClientCallStreamObserver<ArrowMessage>)
               ClientCalls.asyncBidiStreamingCall(call, stream.asObserver());
-      final ClientStreamListener writer = new PutObserver(
+      final PutObserver writer = new PutObserver(
           descriptor, observer, stream.cancelled::isDone,
           () -> {
             try {
@@ -373,6 +510,8 @@ public class FlightClient implements AutoCloseable {
                   .toRuntimeException();
             }
           });
+      writer.setCompressionCodec(uploadCodec());
+      writer.setTracer(tracer.get());
       // Send the descriptor to start.
       try (final ArrowMessage message = new ArrowMessage(descriptor.toProtocol())) {
         observer.onNext(message);
@@ -415,6 +554,72 @@ public class FlightClient implements AutoCloseable {
     }
   }
 
+  private static FlightInfo toFlightInfo(Flight.FlightInfo info) {
+    try {
+      return new FlightInfo(info);
+    } catch (URISyntaxException e) {
+      // We don't expect this will happen for conforming Flight implementations. For instance, a Java server
+      // itself wouldn't be able to construct an invalid Location.
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * A stream observer completing a future with the single response of a unary call.
+   */
+  private static class UnaryStreamObserver<T> implements StreamObserver<T> {
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private T value;
+
+    @Override
+    public void onNext(T value) {
+      this.value = value;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      result.completeExceptionally(StatusUtils.fromThrowable(t));
+    }
+
+    @Override
+    public void onCompleted() {
+      if (value == null) {
+        result.completeExceptionally(
+            CallStatus.INTERNAL.withDescription("Server sent no response").toRuntimeException());
+      } else {
+        result.complete(value);
+      }
+    }
+  }
+
+  /**
+   * A stream observer converting protocol messages for a {@link StreamListener}.
+   */
+  private static class MappingStreamObserver<T, R> implements StreamObserver<T> {
+    private final StreamListener<R> listener;
+    private final Function<T, R> mapper;
+
+    MappingStreamObserver(StreamListener<R> listener, Function<T, R> mapper) {
+      this.listener = Preconditions.checkNotNull(listener, "listener must not be null");
+      this.mapper = mapper;
+    }
+
+    @Override
+    public void onNext(T value) {
+      listener.onNext(mapper.apply(value));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      listener.onError(StatusUtils.fromThrowable(t));
+    }
+
+    @Override
+    public void onCompleted() {
+      listener.onCompleted();
+    }
+  }
+
   /**
    * A stream observer for Flight.PutResult
    */
@@ -537,7 +742,11 @@ public class FlightClient implements AutoCloseable {
    * Shut down this client.
    */
   public void close() throws InterruptedException {
-    channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    if (releaseChannel != null) {
+      releaseChannel.run();
+    } else {
+      channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    }
     allocator.close();
   }
 
@@ -571,6 +780,9 @@ public class FlightClient implements AutoCloseable {
     private String overrideHostname = null;
     private List<FlightClientMiddleware.Factory> middleware = new ArrayList<>();
     private boolean verifyServer = true;
+    private CompressionUtil.CodecType compressionType = CompressionUtil.CodecType.NO_COMPRESSION;
+    private CompressionCodec.Factory compressionFactory = NoCompressionCodec.Factory.INSTANCE;
+    private Executor executor = null;
 
     private Builder() {
     }
@@ -635,16 +847,66 @@ public class FlightClient implements AutoCloseable {
       return this;
     }
 
+    /**
+     * Enable compression of the IPC message bodies.
+     *
+     * <p>The codec is advertised to the server, which may then compress the data it sends back. Data sent by the
+     * client (DoPut, DoExchange) is only compressed with the codec once a previous call has shown that the server
+     * accepts it, so the first upload of a client is always uncompressed. Data received by the client is
+     * decompressed with codecs created by the factory.
+     *
+     * @param codecType The codec for compressing outgoing data.
+     * @param factory The factory for creating codecs, e.g. from the arrow-compression module.
+     */
+    public Builder compression(CompressionUtil.CodecType codecType, CompressionCodec.Factory factory) {
+      this.compressionType = Preconditions.checkNotNull(codecType);
+      this.compressionFactory = Preconditions.checkNotNull(factory);
+      return this;
+    }
+
+    /**
+     * Set the executor for running callbacks, e.g. of the asynchronous methods. It is not shut down by the client.
+     * By default, a shared cached thread pool is used.
+     */
+    public Builder executor(Executor executor) {
+      this.executor = Preconditions.checkNotNull(executor);
+      return this;
+    }
+
     /**
      * Create the client from this builder.
      */
     public FlightClient build() {
+      return new FlightClient(allocator, buildChannel(), new ArrayList<>(middleware), compressionType,
+          compressionFactory, isSharedMemory(), null);
+    }
+
+    /**
+     * Create a client using a channel shared with other clients, instead of creating its own.
+     *
+     * @param channel A channel created by {@link #buildChannel()} of a builder with the same location and settings.
+     * @param releaseChannel Run when the client is closed, instead of shutting down the channel.
+     */
+    FlightClient build(ManagedChannel channel, Runnable releaseChannel) {
+      return new FlightClient(allocator, channel, new ArrayList<>(middleware), compressionType, compressionFactory,
+          isSharedMemory(), releaseChannel);
+    }
+
+    private boolean isSharedMemory() {
+      return LocationSchemes.GRPC_SHARED_MEMORY.equals(location.getUri().getScheme());
+    }
+
+    /**
+     * Create the gRPC channel to the location of this builder.
+     */
+    ManagedChannel buildChannel() {
       final NettyChannelBuilder builder;
 
       switch (location.getUri().getScheme()) {
         case LocationSchemes.GRPC:
         case LocationSchemes.GRPC_INSECURE:
-        case LocationSchemes.GRPC_TLS: {
+        case LocationSchemes.GRPC_TLS:
+        case LocationSchemes.GRPC_SHARED_MEMORY: {
           builder = NettyChannelBuilder.forAddress(location.toSocketAddress());
           break;
         }
@@ -715,7 +977,10 @@ public class FlightClient implements AutoCloseable {
       builder
           .maxTraceEvents(MAX_CHANNEL_TRACE_EVENTS)
           .maxInboundMessageSize(maxInboundMessageSize);
-      return new FlightClient(allocator, builder.build(), middleware);
+      if (executor != null) {
+        builder.executor(executor);
+      }
+      return builder.build();
     }
   }
 }
@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.util.Preconditions;
+
+import io.grpc.ManagedChannel;
+
+/**
+ * Hands out {@link FlightClient}s that share their gRPC channels, so that short-lived clients do not pay for
+ * connection setup and TLS handshakes every time.
+ *
+ * <p>Channels are keyed by location and an opaque credentials object: clients for the same key share channels,
+ * while clients for different credentials (e.g. different client certificates) never do. Each key may use several
+ * channels, each carrying up to a given number of clients, to spread high-throughput streams over connections.
+ * Channels without clients are shut down once they have been idle for a while.
+ *
+ * <p>Each acquired client has its own middleware and authentication state, and must be closed, which releases its
+ * channel back to the pool.
+ */
+public class FlightClientPool implements AutoCloseable {
+  private final BiFunction<Location, Object, FlightClient.Builder> builderFactory;
+  private final int maxChannelsPerKey;
+  private final int maxClientsPerChannel;
+  private final long idleTimeoutNanos;
+  private final ScheduledExecutorService reaper;
+
+  // Guarded by this.
+  private final Map<Key, List<PooledChannel>> channels = new HashMap<>();
+  private boolean closed;
+  private long acquired;
+  private long channelsCreated;
+  private long channelsClosed;
+
+  private FlightClientPool(Builder builder) {
+    this.builderFactory = builder.builderFactory;
+    this.maxChannelsPerKey = builder.maxChannelsPerKey;
+    this.maxClientsPerChannel = builder.maxClientsPerChannel;
+    this.idleTimeoutNanos = builder.idleTimeoutNanos;
+    this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, "flight-client-pool-reaper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    final long period = Math.max(1, idleTimeoutNanos / 2);
+    reaper.scheduleWithFixedDelay(this::closeIdleChannels, period, period, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Create a builder for a pool whose clients use the given allocator and default settings.
+   */
+  public static Builder builder(BufferAllocator allocator) {
+    Preconditions.checkNotNull(allocator);
+    return new Builder((location, credentials) -> FlightClient.builder(allocator, location));
+  }
+
+  /**
+   * Create a builder for a pool configuring its clients with the given function.
+   *
+   * @param builderFactory Creates a client builder for a location and credentials, as passed to
+   *     {@link #acquire(Location, Object)}. It is called once per channel.
+   */
+  public static Builder builder(BiFunction<Location, Object, FlightClient.Builder> builderFactory) {
+    return new Builder(builderFactory);
+  }
+
+  /**
+   * Get a client for a location, with no credentials.
+   */
+  public FlightClient acquire(Location location) {
+    return acquire(location, null);
+  }
+
+  /**
+   * Get a client for a location and credentials. The client must be closed to release its channel.
+   *
+   * @param location The location to connect to.
+   * @param credentials An opaque key for the credentials of the channel, or null. It must implement equals and
+   *     hashCode.
+   */
+  public FlightClient acquire(Location location, Object credentials) {
+    Preconditions.checkNotNull(location);
+    final PooledChannel channel;
+    synchronized (this) {
+      Preconditions.checkState(!closed, "The pool is closed");
+      final Key key = new Key(location, credentials);
+      final List<PooledChannel> keyChannels = channels.computeIfAbsent(key, k -> new ArrayList<>());
+      PooledChannel leastLoaded = null;
+      for (PooledChannel candidate : keyChannels) {
+        if (leastLoaded == null || candidate.clients < leastLoaded.clients) {
+          leastLoaded = candidate;
+        }
+      }
+      if (leastLoaded == null ||
+          (leastLoaded.clients >= maxClientsPerChannel && keyChannels.size() < maxChannelsPerKey)) {
+        final FlightClient.Builder builder = builderFactory.apply(location, credentials);
+        leastLoaded = new PooledChannel(builder, builder.buildChannel());
+        keyChannels.add(leastLoaded);
+        channelsCreated++;
+      }
+      channel = leastLoaded;
+      channel.clients++;
+      acquired++;
+    }
+
+    final AtomicBoolean released = new AtomicBoolean();
+    final Runnable releaseChannel = () -> {
+      if (released.compareAndSet(false, true)) {
+        release(channel);
+      }
+    };
+    try {
+      return channel.builder.build(channel.channel, releaseChannel);
+    } catch (RuntimeException | Error e) {
+      // otherwise the channel would never be considered idle
+      releaseChannel.run();
+      throw e;
+    }
+  }
+
+  private synchronized void release(PooledChannel channel) {
+    channel.clients--;
+    channel.lastReleasedNanos = System.nanoTime();
+  }
+
+  /**
+   * Shut down channels that have had no clients for longer than the idle timeout.
+   */
+  void closeIdleChannels() {
+    final List<ManagedChannel> idle = new ArrayList<>();
+    synchronized (this) {
+      final long now = System.nanoTime();
+      final Iterator<List<PooledChannel>> keys = channels.values().iterator();
+      while (keys.hasNext()) {
+        final List<PooledChannel> keyChannels = keys.next();
+        final Iterator<PooledChannel> it = keyChannels.iterator();
+        while (it.hasNext()) {
+          final PooledChannel channel = it.next();
+          if (channel.clients == 0 && now - channel.lastReleasedNanos >= idleTimeoutNanos) {
+            idle.add(channel.channel);
+            it.remove();
+          }
+        }
+        if (keyChannels.isEmpty()) {
+          keys.remove();
+        }
+      }
+      channelsClosed += idle.size();
+    }
+    idle.forEach(ManagedChannel::shutdown);
+  }
+
+  /**
+   * Get statistics about the pool.
+   */
+  public synchronized Stats getStats() {
+    int channelCount = 0;
+    int clientCount = 0;
+    for (List<PooledChannel> keyChannels : channels.values()) {
+      channelCount += keyChannels.size();
+      for (PooledChannel channel : keyChannels) {
+        clientCount += channel.clients;
+      }
+    }
+    return new Stats(channelCount, clientCount, acquired, channelsCreated, channelsClosed);
+  }
+
+  /**
+   * Shut down all channels. Clients still in use fail once their channel is shut down.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    final List<ManagedChannel> all = new ArrayList<>();
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      channels.values().forEach(keyChannels -> keyChannels.forEach(channel -> all.add(channel.channel)));
+      channelsClosed += all.size();
+      channels.clear();
+    }
+    reaper.shutdownNow();
+    for (ManagedChannel channel : all) {
+      channel.shutdown();
+    }
+    for (ManagedChannel channel : all) {
+      channel.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * A point-in-time view of the state of the pool.
+   */
+  public static final class Stats {
+    private final int channels;
+    private final int clients;
+    private final long acquired;
+    private final long channelsCreated;
+    private final long channelsClosed;
+
+    Stats(int channels, int clients, long acquired, long channelsCreated, long channelsClosed) {
+      this.channels = channels;
+      this.clients = clients;
+      this.acquired = acquired;
+      this.channelsCreated = channelsCreated;
+      this.channelsClosed = channelsClosed;
+    }
+
+    /** The number of open channels. */
+    public int getChannels() {
+      return channels;
+    }
+
+    /** The number of clients in use. */
+    public int getClients() {
+      return clients;
+    }
+
+    /** The total number of clients handed out. */
+    public long getAcquired() {
+      return acquired;
+    }
+
+    /** The total number of channels created. */
+    public long getChannelsCreated() {
+      return channelsCreated;
+    }
+
+    /** The total number of channels shut down, because they were idle or the pool was closed. */
+    public long getChannelsClosed() {
+      return channelsClosed;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{" +
+          "channels=" + channels +
+          ", clients=" + clients +
+          ", acquired=" + acquired +
+          ", channelsCreated=" + channelsCreated +
+          ", channelsClosed=" + channelsClosed +
+          '}';
+    }
+  }
+
+  /** The key of a group of interchangeable channels. */
+  private static final class Key {
+    private final Location location;
+    private final Object credentials;
+
+    Key(Location location, Object credentials) {
+      this.location = location;
+      this.credentials = credentials;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return location.equals(key.location) && Objects.equals(credentials, key.credentials);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(location, credentials);
+    }
+  }
+
+  /** A channel and the number of clients using it. */
+  private static final class PooledChannel {
+    private final FlightClient.Builder builder;
+    private final ManagedChannel channel;
+    private int clients;
+    private long lastReleasedNanos = System.nanoTime();
+
+    PooledChannel(FlightClient.Builder builder, ManagedChannel channel) {
+      this.builder = builder;
+      this.channel = channel;
+    }
+  }
+
+  /**
+   * A builder for {@link FlightClientPool}.
+   */
+  public static final class Builder {
+    private final BiFunction<Location, Object, FlightClient.Builder> builderFactory;
+    private int maxChannelsPerKey = 1;
+    private int maxClientsPerChannel = Integer.MAX_VALUE;
+    private long idleTimeoutNanos = TimeUnit.MINUTES.toNanos(5);
+
+    private Builder(BiFunction<Location, Object, FlightClient.Builder> builderFactory) {
+      this.builderFactory = Preconditions.checkNotNull(builderFactory);
+    }
+
+    /**
+     * Set the number of channels per location and credentials. A new channel is only opened once all channels
+     * carry the maximum number of clients.
+     */
+    public Builder maxChannelsPerKey(int maxChannelsPerKey) {
+      Preconditions.checkArgument(maxChannelsPerKey > 0, "maxChannelsPerKey must be positive");
+      this.maxChannelsPerKey = maxChannelsPerKey;
+      return this;
+    }
+
+    /**
+     * Set the number of clients sharing a channel before another channel is opened. This is a soft limit: once
+     * the maximum number of channels is reached, clients are spread over the least loaded channels.
+     */
+    public Builder maxClientsPerChannel(int maxClientsPerChannel) {
+      Preconditions.checkArgument(maxClientsPerChannel > 0, "maxClientsPerChannel must be positive");
+      this.maxClientsPerChannel = maxClientsPerChannel;
+      return this;
+    }
+
+    /** Set how long a channel without clients is kept open. */
+    public Builder idleTimeout(long timeout, TimeUnit unit) {
+      Preconditions.checkArgument(timeout > 0, "timeout must be positive");
+      this.idleTimeoutNanos = unit.toNanos(timeout);
+      return this;
+    }
+
+    public FlightClientPool build() {
+      return new FlightClientPool(this);
+    }
+  }
+}
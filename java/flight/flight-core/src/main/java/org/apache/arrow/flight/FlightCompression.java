@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.MetadataVersion;
+
+/**
+ * Helpers for negotiating IPC body compression between Flight clients and servers.
+ *
+ * <p>A client configured with a codec advertises it in the {@link FlightConstants#ACCEPT_COMPRESSION_HEADER}
+ * header of every call. A server configured with a codec only compresses the data it sends (DoGet, DoExchange)
+ * if the client advertised the same codec, so clients without compression support keep working unchanged.
+ *
+ * <p>In the other direction, a server configured with a codec lists it in the
+ * {@link FlightConstants#COMPRESSION_ACCEPTED_HEADER} response header. A client only compresses the data it sends
+ * (DoPut, DoExchange) once a previous call has shown that the server accepts its codec, so uploads to servers
+ * without compression support stay uncompressed. Compressed data is always decompressed by the receiver based on
+ * the codec recorded in each message.
+ */
+final class FlightCompression {
+
+  private FlightCompression() {
+  }
+
+  /**
+   * Get the codec for compressing outgoing data, if compression is enabled.
+   */
+  static CompressionCodec createCodec(CompressionUtil.CodecType codecType, CompressionCodec.Factory factory) {
+    if (codecType == CompressionUtil.CodecType.NO_COMPRESSION) {
+      return NoCompressionCodec.INSTANCE;
+    }
+    return factory.createCodec(codecType);
+  }
+
+  /**
+   * Get the codec for compressing data sent to a client, based on the codecs accepted by the client.
+   *
+   * @param codecType The codec the server is configured with.
+   * @param factory The factory for creating the codec.
+   * @param headers The headers of the incoming call. May be null.
+   */
+  static CompressionCodec negotiateCodec(CompressionUtil.CodecType codecType, CompressionCodec.Factory factory,
+      CallHeaders headers) {
+    if (codecType == CompressionUtil.CodecType.NO_COMPRESSION ||
+        !listsCodec(codecType, headers, FlightConstants.ACCEPT_COMPRESSION_HEADER)) {
+      return NoCompressionCodec.INSTANCE;
+    }
+    return factory.createCodec(codecType);
+  }
+
+  /**
+   * Check whether a header lists the given codec.
+   */
+  private static boolean listsCodec(CompressionUtil.CodecType codecType, CallHeaders headers, String header) {
+    if (headers == null || !headers.containsKey(header)) {
+      return false;
+    }
+    for (String accepted : headers.getAll(header)) {
+      for (String name : accepted.split(",")) {
+        if (codecType.name().equalsIgnoreCase(name.trim())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the codec to actually use for a stream. Body compression requires the V5 metadata version,
+   * so it is disabled for streams written with older versions.
+   */
+  static CompressionCodec codecForOption(CompressionCodec codec, IpcOption option) {
+    if (option.metadataVersion == MetadataVersion.V4) {
+      return NoCompressionCodec.INSTANCE;
+    }
+    return codec;
+  }
+
+  /**
+   * Client middleware advertising the codec the client can decompress, and recording whether the server accepts
+   * the same codec for data sent by the client.
+   */
+  static class AcceptCompressionMiddleware implements FlightClientMiddleware {
+    private final CompressionUtil.CodecType codecType;
+    private final AtomicBoolean serverAccepts;
+
+    AcceptCompressionMiddleware(CompressionUtil.CodecType codecType, AtomicBoolean serverAccepts) {
+      this.codecType = codecType;
+      this.serverAccepts = serverAccepts;
+    }
+
+    @Override
+    public void onBeforeSendingHeaders(CallHeaders outgoingHeaders) {
+      outgoingHeaders.insert(FlightConstants.ACCEPT_COMPRESSION_HEADER, codecType.name());
+    }
+
+    @Override
+    public void onHeadersReceived(CallHeaders incomingHeaders) {
+      if (listsCodec(codecType, incomingHeaders, FlightConstants.COMPRESSION_ACCEPTED_HEADER)) {
+        serverAccepts.set(true);
+      }
+    }
+
+    @Override
+    public void onCallCompleted(CallStatus status) {
+    }
+
+    /**
+     * A factory for the middleware.
+     */
+    static class Factory implements FlightClientMiddleware.Factory {
+      private final CompressionUtil.CodecType codecType;
+      private final AtomicBoolean serverAccepts = new AtomicBoolean(false);
+
+      Factory(CompressionUtil.CodecType codecType) {
+        this.codecType = codecType;
+      }
+
+      /**
+       * Whether a previous call has shown that the server can decompress data sent with the codec.
+       */
+      boolean serverAccepts() {
+        return serverAccepts.get();
+      }
+
+      @Override
+      public FlightClientMiddleware onCallStarted(CallInfo info) {
+        return new AcceptCompressionMiddleware(codecType, serverAccepts);
+      }
+    }
+  }
+
+  /**
+   * Server middleware advertising the codec the server can decompress.
+   */
+  static class AdvertiseCompressionMiddleware implements FlightServerMiddleware {
+    static final Key<AdvertiseCompressionMiddleware> KEY =
+        Key.of("org.apache.arrow.flight.FlightCompression.AdvertiseCompressionMiddleware");
+
+    private final CompressionUtil.CodecType codecType;
+
+    AdvertiseCompressionMiddleware(CompressionUtil.CodecType codecType) {
+      this.codecType = codecType;
+    }
+
+    @Override
+    public void onBeforeSendingHeaders(CallHeaders outgoingHeaders) {
+      outgoingHeaders.insert(FlightConstants.COMPRESSION_ACCEPTED_HEADER, codecType.name());
+    }
+
+    @Override
+    public void onCallCompleted(CallStatus status) {
+    }
+
+    @Override
+    public void onCallErrored(Throwable err) {
+    }
+
+    /**
+     * A factory for the middleware.
+     */
+    static class Factory implements FlightServerMiddleware.Factory<AdvertiseCompressionMiddleware> {
+      private final CompressionUtil.CodecType codecType;
+
+      Factory(CompressionUtil.CodecType codecType) {
+        this.codecType = codecType;
+      }
+
+      @Override
+      public AdvertiseCompressionMiddleware onCallStarted(CallInfo info, CallHeaders incomingHeaders,
+          RequestContext context) {
+        return new AdvertiseCompressionMiddleware(codecType);
+      }
+    }
+  }
+}
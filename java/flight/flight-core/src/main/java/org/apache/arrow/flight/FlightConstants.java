@@ -26,4 +26,30 @@ public interface FlightConstants {
 
   FlightServerMiddleware.Key<ServerHeaderMiddleware> HEADER_KEY =
       FlightServerMiddleware.Key.of("org.apache.arrow.flight.ServerHeaderMiddleware");
+
+  /**
+   * The header listing the IPC body compression codecs a client can decompress, e.g. "LZ4_FRAME".
+   */
+  String ACCEPT_COMPRESSION_HEADER = "arrow-flight-accept-compression";
+
+  /**
+   * The response header listing the IPC body compression codecs a server can decompress, e.g. "LZ4_FRAME".
+   */
+  String COMPRESSION_ACCEPTED_HEADER = "arrow-flight-compression-accepted";
+
+  /**
+   * The header a client on a shared memory location uses to prove it runs on the same host as the server.
+   */
+  String SHARED_MEMORY_HEADER = "arrow-flight-shared-memory";
+
+  /**
+   * The response header a server uses to tell a client on the same host the path of its shared memory region.
+   */
+  String SHARED_MEMORY_REGION_HEADER = "arrow-flight-shared-memory-region";
+
+  /**
+   * The header a client uses to echo the token read from the shared memory region of the server, proving it can map
+   * the region.
+   */
+  String SHARED_MEMORY_TOKEN_HEADER = "arrow-flight-shared-memory-token";
 }
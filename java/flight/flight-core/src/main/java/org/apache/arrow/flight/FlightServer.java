@@ -44,6 +44,9 @@ import org.apache.arrow.flight.grpc.ServerInterceptorAdapter.KeyFactory;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.Preconditions;
 import org.apache.arrow.util.VisibleForTesting;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
@@ -67,15 +70,20 @@ public class FlightServer implements AutoCloseable {
   // May be null, if a user-supplied executor was provided (as we do not want to clean that up)
   @VisibleForTesting
   final ExecutorService grpcExecutor;
+  // The region for sending data through shared memory, or null
+  @VisibleForTesting
+  final SharedMemoryRegion sharedMemory;
 
   /** The maximum size of an individual gRPC message. This effectively disables the limit. */
   static final int MAX_GRPC_MESSAGE_SIZE = Integer.MAX_VALUE;
 
   /** Create a new instance from a gRPC server. For internal use only. */
-  private FlightServer(Location location, Server server, ExecutorService grpcExecutor) {
+  private FlightServer(Location location, Server server, ExecutorService grpcExecutor,
+      SharedMemoryRegion sharedMemory) {
     this.location = location;
     this.server = server;
     this.grpcExecutor = grpcExecutor;
+    this.sharedMemory = sharedMemory;
   }
 
   /** Start the server. */
@@ -116,6 +124,9 @@ public class FlightServer implements AutoCloseable {
     if (grpcExecutor != null) {
       grpcExecutor.shutdown();
     }
+    if (sharedMemory != null) {
+      sharedMemory.close();
+    }
   }
 
   /**
@@ -172,6 +183,9 @@ public class FlightServer implements AutoCloseable {
     private int maxInboundMessageSize = MAX_GRPC_MESSAGE_SIZE;
     private InputStream certChain;
     private InputStream key;
+    private CompressionUtil.CodecType compressionType = CompressionUtil.CodecType.NO_COMPRESSION;
+    private CompressionCodec.Factory compressionFactory = NoCompressionCodec.Factory.INSTANCE;
+    private long sharedMemorySize = SharedMemoryRegion.DEFAULT_SIZE;
     private final List<KeyFactory<?>> interceptors;
     // Keep track of inserted interceptors
     private final Set<String> interceptorKeys;
@@ -198,8 +212,13 @@ public class FlightServer implements AutoCloseable {
       }
 
       this.middleware(FlightConstants.HEADER_KEY, new ServerHeaderMiddleware.Factory());
+      if (compressionType != CompressionUtil.CodecType.NO_COMPRESSION) {
+        this.middleware(FlightCompression.AdvertiseCompressionMiddleware.KEY,
+            new FlightCompression.AdvertiseCompressionMiddleware.Factory(compressionType));
+      }
 
       final NettyServerBuilder builder;
+      SharedMemoryRegion sharedMemory = null;
       switch (location.getUri().getScheme()) {
         case LocationSchemes.GRPC_DOMAIN_SOCKET: {
           // The implementation is platform-specific, so we have to find the classes at runtime
@@ -233,6 +252,15 @@ public class FlightServer implements AutoCloseable {
           builder = NettyServerBuilder.forAddress(location.toSocketAddress());
           break;
         }
+        case LocationSchemes.GRPC_SHARED_MEMORY: {
+          builder = NettyServerBuilder.forAddress(location.toSocketAddress());
+          try {
+            sharedMemory = SharedMemoryRegion.create(SharedMemoryTransport.getDirectory(), sharedMemorySize);
+          } catch (IOException | RuntimeException e) {
+            logger.warn("Could not create shared memory region, sending all data over gRPC", e);
+          }
+          break;
+        }
         case LocationSchemes.GRPC_TLS: {
           if (certChain == null) {
             throw new IllegalArgumentException("Must provide a certificate and key to serve gRPC over TLS");
@@ -243,58 +271,72 @@ public class FlightServer implements AutoCloseable {
         default:
           throw new IllegalArgumentException("Scheme is not supported: " + location.getUri().getScheme());
       }
+      // The region file must not outlive a failed build
+      try {
+        if (certChain != null) {
+          builder.useTransportSecurity(certChain, key);
+        }
 
-      if (certChain != null) {
-        builder.useTransportSecurity(certChain, key);
-      }
-
-      // Share one executor between the gRPC service, DoPut, and Handshake
-      final ExecutorService exec;
-      // We only want to have FlightServer close the gRPC executor if we created it here. We should not close
-      // user-supplied executors.
-      final ExecutorService grpcExecutor;
-      if (executor != null) {
-        exec = executor;
-        grpcExecutor = null;
-      } else {
-        exec = Executors.newCachedThreadPool(
-            // Name threads for better debuggability
-            new ThreadFactoryBuilder().setNameFormat("flight-server-default-executor-%d").build());
-        grpcExecutor = exec;
+        // Share one executor between the gRPC service, DoPut, and Handshake
+        final ExecutorService exec;
+        // We only want to have FlightServer close the gRPC executor if we created it here. We should not close
+        // user-supplied executors.
+        final ExecutorService grpcExecutor;
+        if (executor != null) {
+          exec = executor;
+          grpcExecutor = null;
+        } else {
+          exec = Executors.newCachedThreadPool(
+              // Name threads for better debuggability
+              new ThreadFactoryBuilder().setNameFormat("flight-server-default-executor-%d").build());
+          grpcExecutor = exec;
+        }
+        final FlightBindingService flightService = new FlightBindingService(allocator, producer, authHandler, exec,
+            compressionType, compressionFactory, sharedMemory);
+        builder
+            .executor(exec)
+            .maxInboundMessageSize(maxInboundMessageSize)
+            .addService(
+                ServerInterceptors.intercept(
+                    flightService,
+                    new ServerAuthInterceptor(authHandler)));
+
+        // Allow hooking into the gRPC builder. This is not guaranteed to be available on all Arrow versions or
+        // Flight implementations.
+        builderOptions.computeIfPresent("grpc.builderConsumer", (key, builderConsumer) -> {
+          final Consumer<NettyServerBuilder> consumer = (Consumer<NettyServerBuilder>) builderConsumer;
+          consumer.accept(builder);
+          return null;
+        });
+
+        // Allow explicitly setting some Netty-specific options
+        builderOptions.computeIfPresent("netty.channelType", (key, channelType) -> {
+          builder.channelType((Class<? extends ServerChannel>) channelType);
+          return null;
+        });
+        builderOptions.computeIfPresent("netty.bossEventLoopGroup", (key, elg) -> {
+          builder.bossEventLoopGroup((EventLoopGroup) elg);
+          return null;
+        });
+        builderOptions.computeIfPresent("netty.workerEventLoopGroup", (key, elg) -> {
+          builder.workerEventLoopGroup((EventLoopGroup) elg);
+          return null;
+        });
+
+        builder.intercept(new ServerInterceptorAdapter(interceptors));
+        if (sharedMemory != null) {
+          final SharedMemoryTransport.ConnectionTracker connectionTracker =
+              new SharedMemoryTransport.ConnectionTracker(sharedMemory);
+          // Added last, so the connection is known before any other interceptor runs
+          builder.addTransportFilter(connectionTracker).intercept(connectionTracker);
+        }
+        return new FlightServer(location, builder.build(), grpcExecutor, sharedMemory);
+      } catch (RuntimeException | Error e) {
+        if (sharedMemory != null) {
+          sharedMemory.close();
+        }
+        throw e;
       }
-      final FlightBindingService flightService = new FlightBindingService(allocator, producer, authHandler, exec);
-      builder
-          .executor(exec)
-          .maxInboundMessageSize(maxInboundMessageSize)
-          .addService(
-              ServerInterceptors.intercept(
-                  flightService,
-                  new ServerAuthInterceptor(authHandler)));
-
-      // Allow hooking into the gRPC builder. This is not guaranteed to be available on all Arrow versions or
-      // Flight implementations.
-      builderOptions.computeIfPresent("grpc.builderConsumer", (key, builderConsumer) -> {
-        final Consumer<NettyServerBuilder> consumer = (Consumer<NettyServerBuilder>) builderConsumer;
-        consumer.accept(builder);
-        return null;
-      });
-
-      // Allow explicitly setting some Netty-specific options
-      builderOptions.computeIfPresent("netty.channelType", (key, channelType) -> {
-        builder.channelType((Class<? extends ServerChannel>) channelType);
-        return null;
-      });
-      builderOptions.computeIfPresent("netty.bossEventLoopGroup", (key, elg) -> {
-        builder.bossEventLoopGroup((EventLoopGroup) elg);
-        return null;
-      });
-      builderOptions.computeIfPresent("netty.workerEventLoopGroup", (key, elg) -> {
-        builder.workerEventLoopGroup((EventLoopGroup) elg);
-        return null;
-      });
-
-      builder.intercept(new ServerInterceptorAdapter(interceptors));
-      return new FlightServer(location, builder.build(), grpcExecutor);
     }
 
     /**
@@ -338,6 +380,34 @@ public class FlightServer implements AutoCloseable {
       return this;
     }
 
+    /**
+     * Enable compression of the IPC message bodies.
+     *
+     * <p>Data sent by the server (DoGet, DoExchange) is compressed with the given codec if the client advertises
+     * that it accepts the codec. Data received by the server is decompressed with codecs created by the factory,
+     * and the server advertises the codec to clients so they can compress the data they send (DoPut, DoExchange).
+     *
+     * @param codecType The codec for compressing outgoing data.
+     * @param factory The factory for creating codecs, e.g. from the arrow-compression module.
+     */
+    public Builder compression(CompressionUtil.CodecType codecType, CompressionCodec.Factory factory) {
+      this.compressionType = Preconditions.checkNotNull(codecType);
+      this.compressionFactory = Preconditions.checkNotNull(factory);
+      return this;
+    }
+
+    /**
+     * Set the size of the shared memory region used to send data to clients on the same host, when serving a
+     * {@link LocationSchemes#GRPC_SHARED_MEMORY} location. Batches which do not fit in the free space of the
+     * region are sent over gRPC.
+     */
+    public Builder sharedMemorySize(long sharedMemorySize) {
+      Preconditions.checkArgument(sharedMemorySize > 0 && sharedMemorySize % 8 == 0,
+          "The size must be a positive multiple of 8");
+      this.sharedMemorySize = sharedMemorySize;
+      return this;
+    }
+
     /**
      * Set the authentication handler.
      */
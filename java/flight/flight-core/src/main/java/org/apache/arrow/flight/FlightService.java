@@ -37,6 +37,9 @@ import org.apache.arrow.flight.impl.Flight;
 import org.apache.arrow.flight.impl.FlightServiceGrpc.FlightServiceImplBase;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,13 +60,32 @@ class FlightService extends FlightServiceImplBase {
   private final FlightProducer producer;
   private final ServerAuthHandler authHandler;
   private final ExecutorService executors;
+  private final CompressionUtil.CodecType compressionType;
+  private final CompressionCodec.Factory compressionFactory;
+  private final SharedMemoryRegion sharedMemory; // null unless serving a shared memory location
 
   FlightService(BufferAllocator allocator, FlightProducer producer, ServerAuthHandler authHandler,
       ExecutorService executors) {
+    this(allocator, producer, authHandler, executors, CompressionUtil.CodecType.NO_COMPRESSION,
+        NoCompressionCodec.Factory.INSTANCE);
+  }
+
+  FlightService(BufferAllocator allocator, FlightProducer producer, ServerAuthHandler authHandler,
+      ExecutorService executors, CompressionUtil.CodecType compressionType,
+      CompressionCodec.Factory compressionFactory) {
+    this(allocator, producer, authHandler, executors, compressionType, compressionFactory, null);
+  }
+
+  FlightService(BufferAllocator allocator, FlightProducer producer, ServerAuthHandler authHandler,
+      ExecutorService executors, CompressionUtil.CodecType compressionType,
+      CompressionCodec.Factory compressionFactory, SharedMemoryRegion sharedMemory) {
     this.allocator = allocator;
     this.producer = producer;
     this.authHandler = authHandler;
     this.executors = new ContextPropagatingExecutorService(executors);
+    this.compressionType = compressionType;
+    this.compressionFactory = compressionFactory;
+    this.sharedMemory = sharedMemory;
   }
 
   private CallContext makeContext(ServerCallStreamObserver<?> responseObserver) {
@@ -82,6 +104,30 @@ class FlightService extends FlightServiceImplBase {
     return new CallContext(peerIdentity, responseObserver::isCancelled);
   }
 
+  /**
+   * Get the codec for compressing the data sent in the current call, based on the codecs the client accepts.
+   */
+  private CompressionCodec negotiateCompressionCodec() {
+    return FlightCompression.negotiateCodec(compressionType, compressionFactory, incomingHeaders());
+  }
+
+  /**
+   * Get the shared memory connection to send the data of the current call through, if the client can read it.
+   */
+  private SharedMemoryRegion.Connection negotiateSharedMemory() {
+    return SharedMemoryTransport.negotiate(sharedMemory, incomingHeaders());
+  }
+
+  /**
+   * Get the headers of the current call, or null if they are unavailable.
+   */
+  private static CallHeaders incomingHeaders() {
+    final Map<Key<?>, FlightServerMiddleware> middleware = ServerInterceptorAdapter.SERVER_MIDDLEWARE_KEY.get();
+    final ServerHeaderMiddleware headerMiddleware = middleware == null ? null :
+        (ServerHeaderMiddleware) middleware.get(FlightConstants.HEADER_KEY);
+    return headerMiddleware == null ? null : headerMiddleware.headers();
+  }
+
   @Override
   public StreamObserver<Flight.HandshakeRequest> handshake(StreamObserver<Flight.HandshakeResponse> responseObserver) {
     // This method is not meaningful with the auth2 interfaces. Authentication would already
@@ -107,6 +153,9 @@ class FlightService extends FlightServiceImplBase {
         (ServerCallStreamObserver<ArrowMessage>) responseObserverSimple;
 
     final GetListener listener = new GetListener(responseObserver, this::handleExceptionWithMiddleware);
+    listener.setCompressionCodec(negotiateCompressionCodec());
+    listener.setSharedMemory(negotiateSharedMemory());
+    listener.setTracer(StreamTracers.forServerCall());
     try {
       producer.getStream(makeContext(responseObserver), new Ticket(ticket), listener);
     } catch (Exception ex) {
@@ -224,11 +273,16 @@ class FlightService extends FlightServiceImplBase {
         allocator,
         PENDING_REQUESTS,
         /* server-upload streams are not cancellable */null,
-        responseObserver::request);
+        responseObserver::request,
+        compressionFactory);
+    final FlightStreamTracer tracer = StreamTracers.forServerCall();
+    fs.setTracer(tracer);
     // When the ackStream is completed, the FlightStream will be closed with it
     ackStream.setAutoCloseable(fs);
     final StreamObserver<ArrowMessage> observer = fs.asObserver();
+    final long submitted = System.nanoTime();
     executors.submit(() -> {
+      tracer.onExecutorWait(System.nanoTime() - submitted);
       try {
         producer.acceptPut(makeContext(responseObserver), fs, ackStream).run();
       } catch (Exception ex) {
@@ -351,18 +405,25 @@ class FlightService extends FlightServiceImplBase {
     final ExchangeListener listener = new ExchangeListener(
         responseObserver,
         this::handleExceptionWithMiddleware);
+    listener.setCompressionCodec(negotiateCompressionCodec());
     final FlightStream fs = new FlightStream(
         allocator,
         PENDING_REQUESTS,
         /* server-upload streams are not cancellable */null,
-        responseObserver::request);
+        responseObserver::request,
+        compressionFactory);
+    final FlightStreamTracer tracer = StreamTracers.forServerCall();
+    listener.setTracer(tracer);
+    fs.setTracer(tracer);
     // When service completes the call, this cleans up the FlightStream
     listener.resource = fs;
     responseObserver.disableAutoInboundFlowControl();
     responseObserver.request(1);
     final StreamObserver<ArrowMessage> observer = fs.asObserver();
     try {
+      final long submitted = System.nanoTime();
       executors.submit(() -> {
+        tracer.onExecutorWait(System.nanoTime() - submitted);
         try {
           producer.doExchange(makeContext(responseObserver), fs, listener);
         } catch (Exception ex) {
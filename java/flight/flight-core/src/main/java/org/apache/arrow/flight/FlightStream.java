@@ -27,7 +27,9 @@ import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
+import org.apache.arrow.flatbuf.RecordBatch;
 import org.apache.arrow.flight.ArrowMessage.HeaderType;
 import org.apache.arrow.flight.grpc.StatusUtils;
 import org.apache.arrow.memory.ArrowBuf;
@@ -37,10 +39,14 @@ import org.apache.arrow.util.VisibleForTesting;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorLoader;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.dictionary.Dictionary;
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
 import org.apache.arrow.vector.ipc.message.ArrowDictionaryBatch;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
 import org.apache.arrow.vector.types.MetadataVersion;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -66,8 +72,9 @@ public class FlightStream implements AutoCloseable {
   private final LinkedBlockingQueue<AutoCloseable> queue = new LinkedBlockingQueue<>();
   private final SettableFuture<VectorSchemaRoot> root = SettableFuture.create();
   private final SettableFuture<FlightDescriptor> descriptor = SettableFuture.create();
-  private final int pendingTarget;
+  private final FlowControlWindow window;
   private final Requestor requestor;
+  private final CompressionCodec.Factory compressionFactory;
   // The completion flags.
   // This flag is only updated as the user iterates through the data, i.e. it tracks whether the user has read all the
   // data and closed the stream
@@ -82,6 +89,9 @@ public class FlightStream implements AutoCloseable {
   private volatile VectorLoader loader;
   private volatile Throwable ex;
   private volatile ArrowBuf applicationMetadata = null;
+  private volatile MessageMetadataResult schemaMessage;
+  private boolean schemaMessageTaken = false;
+  private volatile FlightStreamTracer tracer = FlightStreamTracer.NO_OP;
   @VisibleForTesting
   volatile MetadataVersion metadataVersion = null;
 
@@ -89,17 +99,34 @@ public class FlightStream implements AutoCloseable {
    * Constructs a new instance.
    *
    * @param allocator  The allocator to use for creating/reallocating buffers for Vectors.
-   * @param pendingTarget Target number of messages to receive.
+   * @param pendingTarget Initial target number of messages to receive.
    * @param cancellable Used to cancel mid-stream requests.
    * @param requestor A callback to determine how many pending items there are.
    */
   public FlightStream(BufferAllocator allocator, int pendingTarget, Cancellable cancellable, Requestor requestor) {
+    this(allocator, pendingTarget, cancellable, requestor, NoCompressionCodec.Factory.INSTANCE);
+  }
+
+  /**
+   * Constructs a new instance.
+   *
+   * @param allocator  The allocator to use for creating/reallocating buffers for Vectors.
+   * @param pendingTarget Initial target number of messages to receive. The target is adapted to the speed of the
+   *     consumer and the memory available in the allocator as the stream is read.
+   * @param cancellable Used to cancel mid-stream requests.
+   * @param requestor A callback to determine how many pending items there are.
+   * @param compressionFactory The factory for the codecs used to decompress incoming batches.
+   */
+  public FlightStream(BufferAllocator allocator, int pendingTarget, Cancellable cancellable, Requestor requestor,
+                      CompressionCodec.Factory compressionFactory) {
     Objects.requireNonNull(allocator);
     Objects.requireNonNull(requestor);
+    Objects.requireNonNull(compressionFactory);
     this.allocator = allocator;
-    this.pendingTarget = pendingTarget;
+    this.window = new FlowControlWindow(allocator, pendingTarget, FlowControlWindow.DEFAULT_MAX_TARGET);
     this.cancellable = cancellable;
     this.requestor = requestor;
+    this.compressionFactory = compressionFactory;
     this.dictionaries = new DictionaryProvider.MapDictionaryProvider();
     this.completed = new CompletableFuture<>();
     this.cancelled = new CompletableFuture<>();
@@ -220,6 +247,81 @@ public class FlightStream implements AutoCloseable {
    * @return Whether or not more data was found.
    */
   public boolean next() {
+    return next(null, null);
+  }
+
+  /**
+   * Blocking request for the next batch, which is handed to the caller instead of being loaded into the root.
+   *
+   * <p>The batch references the buffers received from the network without copying them, and is owned by the caller,
+   * who must close it before the allocator of the stream is closed. It can be handed to another thread while the
+   * stream keeps being read. The buffers are as sent by the other end: if they are compressed, the batch must be
+   * loaded with a codec factory supporting its {@link ArrowRecordBatch#getBodyCompression() compression}. The
+   * application metadata of the batch is available from {@link #getLatestMetadata()}, as with {@link #next()}.
+   *
+   * <p>A message without data yields a batch without rows.
+   *
+   * @return The batch, or null if there is no more data.
+   */
+  public ArrowRecordBatch takeNextBatch() {
+    final List<ArrowRecordBatch> taken = new ArrayList<>(1);
+    return next(taken::add, null) ? taken.get(0) : null;
+  }
+
+  /**
+   * Blocking request for the next batch, which is loaded into a new root owned by the caller instead of the root of
+   * the stream.
+   *
+   * <p>Like {@link #takeNextBatch()}, the root references the received buffers without copying them, and must be
+   * closed by the caller before the allocator of the stream is closed.
+   *
+   * @return The root, or null if there is no more data.
+   */
+  public VectorSchemaRoot takeNextRoot() {
+    try (final ArrowRecordBatch batch = takeNextBatch()) {
+      if (batch == null) {
+        return null;
+      }
+      final Schema schema = fulfilledRoot == null ? new Schema(Collections.emptyList()) : fulfilledRoot.getSchema();
+      final VectorSchemaRoot owned = VectorSchemaRoot.create(schema, allocator);
+      try {
+        new VectorLoader(owned, compressionFactory).load(batch);
+      } catch (RuntimeException e) {
+        owned.close();
+        throw e;
+      }
+      return owned;
+    }
+  }
+
+  /**
+   * Blocking request for the next message of the stream, as it was received, without decoding it.
+   *
+   * <p>The first message is the schema of the stream, followed by the dictionary batches, record batches and
+   * metadata-only messages in the order they were sent. Dictionary batches are not loaded into the dictionaries of
+   * the stream. This lets a proxy relay a stream with {@link OutboundStreamListener#putIpcMessage(IpcMessage)}
+   * without decoding and encoding the data again. As with {@link #takeNextBatch()}, the message references the
+   * received buffers without copying them, and must be closed by the caller before the allocator of the stream is
+   * closed.
+   *
+   * @return The message, or null if there is no more data.
+   * @throws FlightRuntimeException if there was an error reading the schema from the stream.
+   */
+  public IpcMessage takeNextIpcMessage() {
+    if (!schemaMessageTaken) {
+      // Blocks until the schema was received
+      getRoot();
+      schemaMessageTaken = true;
+      return new IpcMessage(schemaMessage, null, null);
+    }
+    final List<IpcMessage> taken = new ArrayList<>(1);
+    return next(null, taken::add) ? taken.get(0) : null;
+  }
+
+  /**
+   * Read the next message, loading batches into the root, or handing them to the given consumers if not null.
+   */
+  private boolean next(Consumer<ArrowRecordBatch> batchConsumer, Consumer<IpcMessage> messageConsumer) {
     try {
       if (completed.isDone() && queue.isEmpty()) {
         return false;
@@ -228,7 +330,15 @@ public class FlightStream implements AutoCloseable {
       pending--;
       requestOutstanding();
 
+      final boolean starved = queue.isEmpty();
+      final long waitStart = System.nanoTime();
       Object data = queue.take();
+      if (starved) {
+        tracer.onReadWait(System.nanoTime() - waitStart);
+      }
+      if (data instanceof ArrowMessage) {
+        window.onDequeue(((ArrowMessage) data).getBufferSize(), starved);
+      }
       if (DONE == data) {
         queue.put(DONE);
         // Other code ignores the value of this CompletableFuture, only whether it's completed (or has an exception)
@@ -243,18 +353,44 @@ public class FlightStream implements AutoCloseable {
         }
       } else {
         try (ArrowMessage msg = ((ArrowMessage) data)) {
-          if (msg.getMessageType() == HeaderType.NONE) {
+          if (messageConsumer != null) {
+            if (msg.getMessageType() != HeaderType.NONE) {
+              checkMetadataVersion(msg);
+            }
+            updateMetadata(msg);
+            // The message retains its buffers, so it outlives the message.
+            final IpcMessage ipcMessage = msg.toIpcMessage();
+            if (msg.getMessageType() == HeaderType.RECORD_BATCH) {
+              final RecordBatch header = (RecordBatch) ipcMessage.getMessage().getMessage().header(new RecordBatch());
+              tracer.onBatchReceived(header.length(), ipcMessage.getMessage().getMessageBodyLength());
+            }
+            messageConsumer.accept(ipcMessage);
+          } else if (msg.getMessageType() == HeaderType.NONE) {
             updateMetadata(msg);
             // We received a message without data, so erase any leftover data
             if (fulfilledRoot != null) {
               fulfilledRoot.clear();
             }
+            if (batchConsumer != null) {
+              batchConsumer.accept(fulfilledRoot == null ?
+                  new ArrowRecordBatch(0, Collections.emptyList(), Collections.emptyList()) :
+                  new VectorUnloader(fulfilledRoot).getRecordBatch());
+            }
           } else if (msg.getMessageType() == HeaderType.RECORD_BATCH) {
             checkMetadataVersion(msg);
             // Ensure we have the root
             root.get().clear();
-            try (ArrowRecordBatch arb = msg.asRecordBatch()) {
-              loader.load(arb);
+            final ArrowRecordBatch arb = msg.asRecordBatch();
+            tracer.onBatchReceived(arb.getLength(), arb.computeBodyLength());
+            if (batchConsumer != null) {
+              // The batch retains the body of the message, so it outlives the message.
+              batchConsumer.accept(arb);
+            } else {
+              try {
+                loader.load(arb);
+              } finally {
+                arb.close();
+              }
             }
             updateMetadata(msg);
           } else if (msg.getMessageType() == HeaderType.DICTIONARY_BATCH) {
@@ -274,10 +410,10 @@ public class FlightStream implements AutoCloseable {
               final FieldVector vector = dictionary.getVector();
               final VectorSchemaRoot dictionaryRoot = new VectorSchemaRoot(Collections.singletonList(vector.getField()),
                   Collections.singletonList(vector), 0);
-              final VectorLoader dictionaryLoader = new VectorLoader(dictionaryRoot);
+              final VectorLoader dictionaryLoader = new VectorLoader(dictionaryRoot, compressionFactory);
               dictionaryLoader.load(arb.getDictionary());
             }
-            return next();
+            return next(batchConsumer, null);
           } else {
             throw new UnsupportedOperationException("Message type is unsupported: " + msg.getMessageType());
           }
@@ -316,6 +452,13 @@ public class FlightStream implements AutoCloseable {
     }
   }
 
+  /**
+   * Set the tracer notified of the batches read and of the time spent waiting for them.
+   */
+  void setTracer(FlightStreamTracer tracer) {
+    this.tracer = tracer;
+  }
+
   /**
    * Get the current vector data from the stream.
    *
@@ -356,10 +499,43 @@ public class FlightStream implements AutoCloseable {
     return applicationMetadata;
   }
 
+  /**
+   * Get the current target number of messages to be requested ahead of the consumer.
+   */
+  public int getPendingTarget() {
+    return window.getTarget();
+  }
+
+  /**
+   * Get the number of messages received but not yet consumed by {@link #next()}.
+   */
+  public int getQueueDepth() {
+    return window.getQueuedMessages();
+  }
+
+  /**
+   * Get the number of bytes held by messages received but not yet consumed by {@link #next()}.
+   */
+  public long getBytesBuffered() {
+    return window.getQueuedBytes();
+  }
+
+  /**
+   * Limit the number of bytes the stream may buffer ahead of the consumer. By default, the stream may use up to
+   * half of the memory left in its allocator.
+   *
+   * <p>The limit is enforced by requesting fewer messages, so it is approximate: at least one message is always
+   * requested, and the size of a message is only known once it is received.
+   */
+  public void setMaxBytesBuffered(long maxBytesBuffered) {
+    window.setMaxBytesBuffered(maxBytesBuffered);
+  }
+
   private synchronized void requestOutstanding() {
-    if (pending < pendingTarget) {
-      requestor.request(pendingTarget - pending);
-      pending = pendingTarget;
+    final int target = window.getEffectiveTarget();
+    if (pending < target) {
+      requestor.request(target - pending);
+      pending = target;
     }
   }
 
@@ -376,6 +552,9 @@ public class FlightStream implements AutoCloseable {
           // The stream is already closed (RPC ended), discard the message
           AutoCloseables.closeNoChecked(message);
         } else {
+          if (message instanceof ArrowMessage) {
+            window.onEnqueue(((ArrowMessage) message).getBufferSize());
+          }
           queue.add(message);
         }
       }
@@ -421,7 +600,8 @@ public class FlightStream implements AutoCloseable {
           synchronized (completed) {
             if (!completed.isDone()) {
               fulfilledRoot = VectorSchemaRoot.create(schema, allocator);
-              loader = new VectorLoader(fulfilledRoot);
+              schemaMessage = msg.asSchemaMessage();
+              loader = new VectorLoader(fulfilledRoot, compressionFactory);
               if (msg.getDescriptor() != null) {
                 descriptor.set(new FlightDescriptor(msg.getDescriptor()));
               }
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+
+/**
+ * A push-based listener for reading a Flight data stream without blocking a thread.
+ *
+ * <p>Callbacks are invoked serially on the executor of the client, so one thread can drive many concurrent streams.
+ * They must not block. Data is only delivered as requested through the {@link StreamSubscription} passed to
+ * {@link #onStart(StreamSubscription)}, which provides backpressure: the server is not sent more flow control
+ * credit than the listener asked for.
+ *
+ * <p>The {@link VectorSchemaRoot} and dictionaries are owned by the stream and are reused for every batch. They are
+ * released after {@link #onCompleted()} or {@link #onError(Throwable)} returns, so the listener must transfer or copy
+ * any data it needs to retain.
+ */
+public interface FlightStreamListener {
+
+  /**
+   * Called once, before any other callback. No data is delivered until
+   * {@link StreamSubscription#request(int)} is called.
+   *
+   * @param subscription A handle to request more batches or cancel the stream. It may be used from any thread.
+   */
+  void onStart(StreamSubscription subscription);
+
+  /**
+   * Called once the schema of the stream has been received.
+   *
+   * @param root The root that will hold the data of each batch.
+   * @param dictionaries The dictionaries of the stream, which may be updated as the stream is read.
+   */
+  default void onSchema(VectorSchemaRoot root, DictionaryProvider dictionaries) {
+  }
+
+  /**
+   * Called for each batch received. Counts as one requested message.
+   *
+   * @param root The root holding the batch. It is empty if the server only sent application metadata.
+   * @param metadata The application metadata sent with the batch, or null. Only valid during this call.
+   */
+  void onNext(VectorSchemaRoot root, ArrowBuf metadata);
+
+  /**
+   * Called if the stream fails, or is cancelled. No further callbacks will be made.
+   */
+  void onError(Throwable t);
+
+  /**
+   * Called when the server has sent all data. No further callbacks will be made.
+   */
+  void onCompleted();
+
+  /**
+   * A handle to control the flow of data of a stream.
+   */
+  interface StreamSubscription extends FlightStream.Requestor, FlightStream.Cancellable {
+  }
+}
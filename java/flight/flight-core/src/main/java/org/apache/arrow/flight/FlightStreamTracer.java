@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+/**
+ * Observes the Arrow data of a call as it is written and read.
+ *
+ * <p>Middleware implementing this interface, on the client or on the server, are notified of the batches of the
+ * streams of the calls they were created for, and of the time those streams spend waiting. Comparing the time spent
+ * producing batches with the time spent waiting on the other end tells whether a stream is bound by the network or
+ * by the CPU.
+ *
+ * <p>Methods may be called from any thread, including concurrently for calls with streams in both directions, and
+ * must not block.
+ */
+public interface FlightStreamTracer {
+  /** A tracer that ignores everything. */
+  FlightStreamTracer NO_OP = new FlightStreamTracer() {
+  };
+
+  /**
+   * Called when a record batch was handed to the transport.
+   *
+   * @param rowCount The number of rows of the batch.
+   * @param bodyBytes The size of the body of the batch.
+   * @param serializationNanos The time spent unloading and serializing the batch.
+   */
+  default void onBatchSent(long rowCount, long bodyBytes, long serializationNanos) {
+  }
+
+  /**
+   * Called when a record batch was read from a {@link FlightStream}.
+   *
+   * @param rowCount The number of rows of the batch.
+   * @param bodyBytes The size of the body of the batch.
+   */
+  default void onBatchReceived(long rowCount, long bodyBytes) {
+  }
+
+  /**
+   * Called after waiting for the other end to accept more data, either in
+   * {@link BackpressureStrategy#waitForListener(long)} or, on the client, before sending a batch.
+   *
+   * @param nanos The time spent waiting.
+   */
+  default void onBackpressureWait(long nanos) {
+  }
+
+  /**
+   * Called after {@link FlightStream#next()}, or one of its variants, waited for data to arrive.
+   *
+   * @param nanos The time spent waiting.
+   */
+  default void onReadWait(long nanos) {
+  }
+
+  /**
+   * Called on the server when a streaming call starts running, after it waited for a thread of the executor.
+   *
+   * @param nanos The time spent waiting.
+   */
+  default void onExecutorWait(long nanos) {
+  }
+}
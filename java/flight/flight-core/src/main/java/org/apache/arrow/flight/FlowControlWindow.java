@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * Adapts the number of messages a {@link FlightStream} requests ahead of its consumer.
+ *
+ * <p>The window grows multiplicatively whenever the consumer finds the queue empty, i.e. it is waiting on the
+ * network, and shrinks additively while messages pile up in the queue, i.e. the consumer is the bottleneck. The
+ * window is further capped so that the estimated size of the outstanding messages stays within a byte budget, which
+ * by default is half of the headroom left in the allocator of the stream.
+ *
+ * <p>This class is thread-safe.
+ */
+final class FlowControlWindow {
+  static final int DEFAULT_MAX_TARGET = 64;
+
+  private final BufferAllocator allocator;
+  private final int maxTarget;
+  private long maxBytesBuffered = Long.MAX_VALUE;
+
+  private int target;
+  private int queuedMessages;
+  private long queuedBytes;
+  // Exponentially weighted moving average of the size of the received messages.
+  private long averageMessageSize;
+
+  FlowControlWindow(BufferAllocator allocator, int initialTarget, int maxTarget) {
+    Preconditions.checkArgument(initialTarget > 0, "The initial target must be positive");
+    this.allocator = allocator;
+    this.maxTarget = Math.max(initialTarget, maxTarget);
+    this.target = initialTarget;
+  }
+
+  /** A message of the given size was added to the queue. */
+  synchronized void onEnqueue(long bytes) {
+    queuedMessages++;
+    queuedBytes += bytes;
+    averageMessageSize = averageMessageSize == 0 ? bytes : (averageMessageSize * 7 + bytes) / 8;
+  }
+
+  /**
+   * A message of the given size was taken from the queue.
+   *
+   * @param starved Whether the consumer found the queue empty and had to wait for the message.
+   */
+  synchronized void onDequeue(long bytes, boolean starved) {
+    queuedMessages--;
+    queuedBytes -= bytes;
+    if (starved) {
+      target = Math.min(maxTarget, target * 2);
+    } else if (queuedMessages > target / 2) {
+      target = Math.max(1, target - 1);
+    }
+  }
+
+  /**
+   * Get the number of messages that should be requested but not yet consumed, considering the byte budget.
+   */
+  synchronized int getEffectiveTarget() {
+    // Always keep one message outstanding, so that a consumer with an empty queue is never stuck.
+    final long budget = getByteBudget();
+    if (queuedBytes >= budget) {
+      return 1;
+    }
+    if (averageMessageSize == 0) {
+      return target;
+    }
+    return (int) Math.max(1, Math.min(target, budget / averageMessageSize));
+  }
+
+  synchronized long getByteBudget() {
+    // Queued messages are already allocated, so they count towards the budget instead of reducing the headroom.
+    final long available = queuedBytes + allocator.getHeadroom() / 2;
+    return Math.min(maxBytesBuffered, available);
+  }
+
+  synchronized void setMaxBytesBuffered(long maxBytesBuffered) {
+    Preconditions.checkArgument(maxBytesBuffered > 0, "The byte budget must be positive");
+    this.maxBytesBuffered = maxBytesBuffered;
+  }
+
+  synchronized int getTarget() {
+    return target;
+  }
+
+  synchronized int getQueuedMessages() {
+    return queuedMessages;
+  }
+
+  synchronized long getQueuedBytes() {
+    return queuedBytes;
+  }
+}
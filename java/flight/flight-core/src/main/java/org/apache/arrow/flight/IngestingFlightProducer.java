@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * A {@link FlightProducer} that ingests DoPut streams on a pool of worker threads.
+ *
+ * <p>The thread handling a DoPut call only takes the batches off the stream, without loading them, and hands them to
+ * the workers, which pass them to a {@link BatchSink} to be decoded and persisted. The batches of a stream may thus
+ * be persisted concurrently and out of order. The bodies of the batches handed to the workers but not persisted yet
+ * are limited to a number of bytes over all calls: once it is reached, calls stop reading their stream, which in
+ * turn stops the clients through gRPC flow control.
+ *
+ * <p>Each time a batch is persisted, the client is sent an acknowledgement: a {@link PutResult} whose application
+ * metadata is the number of batches of the stream persisted so far, as an 8-byte little-endian integer (see
+ * {@link #getPersistedBatches(PutResult)}). Clients can use it to bound the data they have in flight, as
+ * {@link org.apache.arrow.flight.client.ParallelFlightWriter} does. Once all batches were persisted,
+ * {@link BatchSink#onStreamCompleted(CallContext, FlightDescriptor)} is called and the call completes. If a batch
+ * fails, the call fails and the rest of the stream is discarded.
+ *
+ * <p>All other calls are forwarded to a delegate producer. Dictionary-encoded streams are not supported.
+ */
+public class IngestingFlightProducer implements FlightProducer, AutoCloseable {
+  private static final int ACK_SIZE = 8;
+
+  private final FlightProducer delegate;
+  private final BufferAllocator allocator;
+  private final BatchSink sink;
+  private final ExecutorService workers;
+  private final long maxBytesInFlight;
+
+  private final Object lock = new Object();
+  private long bytesInFlight;
+
+  /**
+   * Create a producer.
+   *
+   * @param delegate The producer serving the calls other than DoPut. It is not closed by this producer.
+   * @param allocator The allocator for acknowledgements.
+   * @param sink Where the batches go.
+   * @param workers The number of worker threads.
+   * @param maxBytesInFlight The maximum size of the bodies of the batches received but not persisted yet.
+   */
+  public IngestingFlightProducer(FlightProducer delegate, BufferAllocator allocator, BatchSink sink, int workers,
+      long maxBytesInFlight) {
+    Preconditions.checkArgument(workers > 0, "workers must be positive");
+    Preconditions.checkArgument(maxBytesInFlight > 0, "maxBytesInFlight must be positive");
+    this.delegate = Preconditions.checkNotNull(delegate);
+    this.allocator = Preconditions.checkNotNull(allocator);
+    this.sink = Preconditions.checkNotNull(sink);
+    this.workers = Executors.newFixedThreadPool(workers);
+    this.maxBytesInFlight = maxBytesInFlight;
+  }
+
+  /**
+   * Decode an acknowledgement sent by this producer.
+   *
+   * @return The number of batches of the stream persisted so far, or -1 if the result is not an acknowledgement.
+   */
+  public static long getPersistedBatches(PutResult result) {
+    final ArrowBuf metadata = result.getApplicationMetadata();
+    if (metadata == null || metadata.readableBytes() != ACK_SIZE) {
+      return -1;
+    }
+    return metadata.getLong(metadata.readerIndex());
+  }
+
+  @Override
+  public Runnable acceptPut(CallContext context, FlightStream flightStream, StreamListener<PutResult> ackStream) {
+    return () -> new Ingestion(context, flightStream, ackStream).run();
+  }
+
+  @Override
+  public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+    delegate.getStream(context, ticket, listener);
+  }
+
+  @Override
+  public void listFlights(CallContext context, Criteria criteria, StreamListener<FlightInfo> listener) {
+    delegate.listFlights(context, criteria, listener);
+  }
+
+  @Override
+  public FlightInfo getFlightInfo(CallContext context, FlightDescriptor descriptor) {
+    return delegate.getFlightInfo(context, descriptor);
+  }
+
+  @Override
+  public SchemaResult getSchema(CallContext context, FlightDescriptor descriptor) {
+    return delegate.getSchema(context, descriptor);
+  }
+
+  @Override
+  public void doExchange(CallContext context, FlightStream reader, ServerStreamListener writer) {
+    delegate.doExchange(context, reader, writer);
+  }
+
+  @Override
+  public void doAction(CallContext context, Action action, StreamListener<Result> listener) {
+    delegate.doAction(context, action, listener);
+  }
+
+  @Override
+  public void listActions(CallContext context, StreamListener<ActionType> listener) {
+    delegate.listActions(context, listener);
+  }
+
+  /**
+   * Get the size of the bodies of the batches received but not persisted yet.
+   */
+  public long getBytesInFlight() {
+    synchronized (lock) {
+      return bytesInFlight;
+    }
+  }
+
+  /**
+   * Wait until there is room for a batch. A batch larger than the limit gets in once nothing else is in flight.
+   */
+  private void reserve(long bytes) throws InterruptedException {
+    synchronized (lock) {
+      while (bytesInFlight > 0 && bytesInFlight + bytes > maxBytesInFlight) {
+        lock.wait();
+      }
+      bytesInFlight += bytes;
+    }
+  }
+
+  private void release(long bytes) {
+    synchronized (lock) {
+      bytesInFlight -= bytes;
+      lock.notifyAll();
+    }
+  }
+
+  /**
+   * Stop the workers, waiting for the batches already handed to them. Calls still reading their stream fail.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    workers.shutdown();
+    workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Where an {@link IngestingFlightProducer} puts the batches it receives.
+   */
+  public interface BatchSink {
+    /**
+     * Decode and persist a batch. Called concurrently from the workers, possibly for several batches of the same
+     * stream at once.
+     *
+     * <p>The batch is as it was received: if the client compressed it, it must be loaded with a codec factory
+     * supporting its {@link ArrowRecordBatch#getBodyCompression() compression}. It is closed once this method
+     * returns, so its buffers must be retained, for instance by loading them into a root, to be kept.
+     *
+     * @param context The context of the DoPut call.
+     * @param descriptor The descriptor of the stream.
+     * @param schema The schema of the stream.
+     * @param batch The batch.
+     * @throws Exception to fail the call.
+     */
+    void accept(CallContext context, FlightDescriptor descriptor, Schema schema, ArrowRecordBatch batch)
+        throws Exception;
+
+    /**
+     * Called once all batches of a stream were persisted, before the call completes.
+     *
+     * @throws Exception to fail the call.
+     */
+    default void onStreamCompleted(CallContext context, FlightDescriptor descriptor) throws Exception {
+    }
+  }
+
+  /** The state of a DoPut call. */
+  private final class Ingestion {
+    private final CallContext context;
+    private final FlightStream stream;
+    private final StreamListener<PutResult> ackStream;
+    private FlightDescriptor descriptor;
+    private Schema schema;
+
+    // Guarded by this
+    private int pendingBatches;
+    private long persistedBatches;
+    private Throwable failure;
+
+    Ingestion(CallContext context, FlightStream stream, StreamListener<PutResult> ackStream) {
+      this.context = context;
+      this.stream = stream;
+      this.ackStream = ackStream;
+    }
+
+    void run() {
+      try {
+        schema = stream.getSchema();
+        checkNoDictionaries(schema.getFields());
+        descriptor = stream.getDescriptor();
+        ArrowRecordBatch batch;
+        while (getFailure() == null && (batch = stream.takeNextBatch()) != null) {
+          submit(batch);
+        }
+        awaitPendingBatches();
+        if (getFailure() == null) {
+          sink.onStreamCompleted(context, descriptor);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fail(e);
+      } catch (Exception e) {
+        fail(e);
+      }
+      final Throwable failure = getFailure();
+      if (failure == null) {
+        ackStream.onCompleted();
+      } else {
+        ackStream.onError(failure);
+      }
+    }
+
+    private void submit(ArrowRecordBatch batch) throws InterruptedException {
+      final long reserved;
+      try {
+        reserved = Math.min(batch.computeBodyLength(), maxBytesInFlight);
+        reserve(reserved);
+      } catch (InterruptedException | RuntimeException e) {
+        batch.close();
+        throw e;
+      }
+      synchronized (this) {
+        pendingBatches++;
+      }
+      try {
+        workers.execute(() -> persist(batch, reserved));
+      } catch (RejectedExecutionException e) {
+        done(batch, reserved);
+        throw CallStatus.UNAVAILABLE.withDescription("Server is shutting down").withCause(e).toRuntimeException();
+      }
+    }
+
+    private void persist(ArrowRecordBatch batch, long reserved) {
+      try {
+        if (getFailure() == null) {
+          sink.accept(context, descriptor, schema, batch);
+          acknowledge();
+        }
+      } catch (Exception e) {
+        fail(e);
+      } finally {
+        done(batch, reserved);
+      }
+    }
+
+    private synchronized void acknowledge() {
+      persistedBatches++;
+      try (final ArrowBuf metadata = allocator.buffer(ACK_SIZE)) {
+        metadata.writeLong(persistedBatches);
+        ackStream.onNext(PutResult.metadata(metadata));
+      }
+    }
+
+    private void done(ArrowRecordBatch batch, long reserved) {
+      batch.close();
+      release(reserved);
+      synchronized (this) {
+        pendingBatches--;
+        notifyAll();
+      }
+    }
+
+    private synchronized void awaitPendingBatches() throws InterruptedException {
+      while (pendingBatches > 0) {
+        wait();
+      }
+    }
+
+    private synchronized void fail(Throwable t) {
+      if (failure == null) {
+        failure = t;
+      }
+    }
+
+    private synchronized Throwable getFailure() {
+      return failure;
+    }
+  }
+
+  private static void checkNoDictionaries(List<Field> fields) {
+    for (Field field : fields) {
+      if (field.getDictionary() != null) {
+        throw CallStatus.INVALID_ARGUMENT
+            .withDescription("Dictionary-encoded field is not supported: " + field.getName())
+            .toRuntimeException();
+      }
+      checkNoDictionaries(field.getChildren());
+    }
+  }
+}
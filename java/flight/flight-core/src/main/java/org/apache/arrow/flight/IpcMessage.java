@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
+
+/**
+ * An Arrow IPC message as it is sent over Flight, without being decoded.
+ *
+ * <p>This allows relaying data that is already in the IPC format, e.g. read from a file with
+ * {@link org.apache.arrow.vector.ipc.message.MessageSerializer#readMessage} and
+ * {@link org.apache.arrow.vector.ipc.message.MessageSerializer#readMessageBody}, or received from another Flight
+ * stream with {@link FlightStream#takeNextIpcMessage()}.
+ *
+ * <p>A message owns its buffers, and releases them when closed.
+ */
+public final class IpcMessage implements AutoCloseable {
+  private final MessageMetadataResult message; // null for metadata-only messages
+  private final ArrowBuf body; // nullable
+  private final ArrowBuf applicationMetadata; // nullable
+
+  /**
+   * Create a message.
+   *
+   * @param message The flatbuffer Message, or null for a message only carrying application metadata.
+   * @param body The body, of the length given in the Message, or null if the message has no body. Ownership is
+   *     transferred to this message.
+   * @param applicationMetadata The application metadata to send along, or null. Ownership is transferred to this
+   *     message.
+   */
+  public IpcMessage(MessageMetadataResult message, ArrowBuf body, ArrowBuf applicationMetadata) {
+    this.message = message;
+    this.body = body;
+    this.applicationMetadata = applicationMetadata;
+  }
+
+  /**
+   * Get the flatbuffer Message, or null if this message only carries application metadata.
+   */
+  public MessageMetadataResult getMessage() {
+    return message;
+  }
+
+  /**
+   * Get the type of the message, as one of the constants of {@link MessageHeader}.
+   */
+  public byte getHeaderType() {
+    return message == null ? MessageHeader.NONE : message.headerType();
+  }
+
+  /**
+   * Get the body of the message, or null. The buffer is owned by this message.
+   */
+  public ArrowBuf getBody() {
+    return body;
+  }
+
+  /**
+   * Get the application metadata of the message, or null. The buffer is owned by this message.
+   */
+  public ArrowBuf getApplicationMetadata() {
+    return applicationMetadata;
+  }
+
+  @Override
+  public void close() {
+    AutoCloseables.closeNoChecked(body);
+    AutoCloseables.closeNoChecked(applicationMetadata);
+  }
+}
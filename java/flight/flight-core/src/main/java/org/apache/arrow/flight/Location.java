@@ -64,7 +64,8 @@ public class Location {
     switch (uri.getScheme()) {
       case LocationSchemes.GRPC:
       case LocationSchemes.GRPC_TLS:
-      case LocationSchemes.GRPC_INSECURE: {
+      case LocationSchemes.GRPC_INSECURE:
+      case LocationSchemes.GRPC_SHARED_MEMORY: {
         return new InetSocketAddress(uri.getHost(), uri.getPort());
       }
 
@@ -119,6 +120,20 @@ public class Location {
     }
   }
 
+  /**
+   * Construct a URI for a Flight+gRPC server without transport security, exchanging data through shared memory with
+   * clients on the same host.
+   *
+   * @throws IllegalArgumentException if the constructed URI is invalid.
+   */
+  public static Location forGrpcSharedMemory(String host, int port) {
+    try {
+      return new Location(new URI(LocationSchemes.GRPC_SHARED_MEMORY, null, host, port, null, null, null));
+    } catch (URISyntaxException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
   /**
    * Construct a URI for a Flight+gRPC server over a Unix domain socket.
    *
@@ -25,6 +25,11 @@ public final class LocationSchemes {
   public static final String GRPC_INSECURE = "grpc+tcp";
   public static final String GRPC_DOMAIN_SOCKET = "grpc+unix";
   public static final String GRPC_TLS = "grpc+tls";
+  /**
+   * gRPC over TCP, with record batch bodies exchanged through shared memory when client and server are on the same
+   * host.
+   */
+  public static final String GRPC_SHARED_MEMORY = "grpc+shm";
 
   private LocationSchemes() {
     throw new AssertionError("Do not instantiate this class.");
@@ -95,6 +95,23 @@ public interface OutboundStreamListener {
    */
   void putMetadata(ArrowBuf metadata);
 
+  /**
+   * Send a pre-serialized Arrow IPC message as is.
+   *
+   * <p>This relays data that is already in the IPC format without loading it into a {@link VectorSchemaRoot} and
+   * serializing it again. A stream written this way must not be started with {@link #start(VectorSchemaRoot)}:
+   * instead, the first message must be the schema, followed by dictionary batches and record batches, as in the IPC
+   * stream format. Metadata-only messages may be sent at any point. The messages are not validated against the
+   * schema.
+   *
+   * @param message The message to send. Ownership is transferred to the Flight implementation.
+   * @throws UnsupportedOperationException if this listener cannot send pre-serialized messages.
+   */
+  default void putIpcMessage(IpcMessage message) {
+    message.close();
+    throw new UnsupportedOperationException("This stream does not support pre-serialized messages");
+  }
+
   /**
    * Indicate an error to the client. Terminates the stream; do not call {@link #completed()} afterwards.
    */
@@ -17,13 +17,19 @@
 
 package org.apache.arrow.flight;
 
+import org.apache.arrow.flatbuf.MessageHeader;
 import org.apache.arrow.flight.grpc.StatusUtils;
 import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.util.AutoCloseables;
 import org.apache.arrow.util.Preconditions;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
 
 import io.grpc.stub.CallStreamObserver;
 
@@ -36,6 +42,10 @@ abstract class OutboundStreamListenerImpl implements OutboundStreamListener {
   protected volatile VectorUnloader unloader; // null until stream started
   protected IpcOption option; // null until stream started
   protected boolean tryZeroCopy = ArrowMessage.ENABLE_ZERO_COPY_WRITE;
+  protected CompressionCodec codec = NoCompressionCodec.INSTANCE;
+  // non-null if record batch bodies go through shared memory
+  protected SharedMemoryRegion.Connection sharedMemory = null;
+  protected FlightStreamTracer tracer = FlightStreamTracer.NO_OP;
 
   OutboundStreamListenerImpl(FlightDescriptor descriptor, CallStreamObserver<ArrowMessage> responseObserver) {
     Preconditions.checkNotNull(responseObserver, "responseObserver must be provided");
@@ -57,8 +67,9 @@ abstract class OutboundStreamListenerImpl implements OutboundStreamListener {
   @Override
   public void start(VectorSchemaRoot root, DictionaryProvider dictionaries, IpcOption option) {
     this.option = option;
+    final CompressionCodec streamCodec = FlightCompression.codecForOption(codec, option);
     try {
-      DictionaryUtils.generateSchemaMessages(root.getSchema(), descriptor, dictionaries, option,
+      DictionaryUtils.generateSchemaMessages(root.getSchema(), descriptor, dictionaries, option, streamCodec,
           responseObserver::onNext);
     } catch (RuntimeException e) {
       // Propagate runtime exceptions, like those raised when trying to write unions with V4 metadata
@@ -69,7 +80,7 @@ abstract class OutboundStreamListenerImpl implements OutboundStreamListener {
       throw new RuntimeException("Could not generate and send all schema messages", e);
     }
     // We include the null count and align buffers to be compatible with Flight/C++
-    unloader = new VectorUnloader(root, /* includeNullCount */ true, /* alignBuffers */ true);
+    unloader = new VectorUnloader(root, /* includeNullCount */ true, streamCodec, /* alignBuffers */ true);
   }
 
   @Override
@@ -90,12 +101,22 @@ abstract class OutboundStreamListenerImpl implements OutboundStreamListener {
       throw CallStatus.INTERNAL.withDescription("Stream was not started, call start()").toRuntimeException();
     }
 
+    final long waitStart = System.nanoTime();
     waitUntilStreamReady();
+    final long start = System.nanoTime();
+    if (start - waitStart > 0) {
+      tracer.onBackpressureWait(start - waitStart);
+    }
     // close is a no-op if the message has been written to gRPC, otherwise frees the associated buffers
     // in some code paths (e.g. if the call is cancelled), gRPC does not write the message, so we need to clean up
     // ourselves. Normally, writing the ArrowMessage will transfer ownership of the data to gRPC/Netty.
-    try (final ArrowMessage message = new ArrowMessage(unloader.getRecordBatch(), metadata, tryZeroCopy, option)) {
+    // The message takes over the buffers of the batch
+    final ArrowRecordBatch batch = unloader.getRecordBatch();
+    final long bodyBytes = batch.computeBodyLength();
+    final ArrowMessage unsent = new ArrowMessage(batch, metadata, tryZeroCopy, option);
+    try (final ArrowMessage message = toTransport(unsent)) {
       responseObserver.onNext(message);
+      tracer.onBatchSent(batch.getLength(), bodyBytes, System.nanoTime() - start);
     } catch (Exception e) {
       // This exception comes from ArrowMessage#close, not responseObserver#onNext.
       // Generally this should not happen - ArrowMessage's implementation only closes non-throwing things.
@@ -105,6 +126,74 @@ abstract class OutboundStreamListenerImpl implements OutboundStreamListener {
     }
   }
 
+  @Override
+  public void putIpcMessage(IpcMessage message) {
+    final ArrowMessage arrowMessage;
+    try {
+      final MessageMetadataResult header = message.getMessage();
+      final ArrowBuf body = message.getBody();
+      final ArrowBuf appMetadata = message.getApplicationMetadata();
+      if (header == null) {
+        Preconditions.checkArgument(appMetadata != null, "Message has neither header nor application metadata");
+        appMetadata.getReferenceManager().retain();
+        arrowMessage = new ArrowMessage(appMetadata);
+      } else {
+        final long bodyLength = body == null ? 0 : body.readableBytes();
+        Preconditions.checkArgument(header.getMessageBodyLength() == bodyLength,
+            "Expected a body of %s bytes, got %s", header.getMessageBodyLength(), bodyLength);
+        final boolean isSchema = header.headerType() == MessageHeader.Schema;
+        Preconditions.checkArgument(isSchema || header.headerType() == MessageHeader.DictionaryBatch ||
+            header.headerType() == MessageHeader.RecordBatch, "Unsupported message type: %s", header.headerType());
+        if (body != null && !isSchema) {
+          body.getReferenceManager().retain();
+        }
+        if (appMetadata != null) {
+          appMetadata.getReferenceManager().retain();
+        }
+        // As with start(), the descriptor goes along with the schema
+        arrowMessage = ArrowMessage.fromIpc(isSchema && descriptor != null ? descriptor.toProtocol() : null,
+            header, appMetadata, isSchema ? null : body);
+      }
+    } finally {
+      message.close();
+    }
+    putMessage(arrowMessage);
+  }
+
+  /**
+   * Send an already encoded message. Ownership of the message is transferred.
+   */
+  void putMessage(ArrowMessage message) {
+    waitUntilStreamReady();
+    try (final ArrowMessage m = toTransport(message)) {
+      responseObserver.onNext(m);
+    } catch (Exception e) {
+      throw StatusUtils.fromThrowable(e);
+    }
+  }
+
+  /**
+   * Move the body of a message to shared memory if enabled for this stream. Ownership of the message is transferred,
+   * so it is closed if this fails.
+   */
+  private ArrowMessage toTransport(ArrowMessage message) throws Exception {
+    if (sharedMemory == null) {
+      return message;
+    }
+    final ArrowMessage shared;
+    try {
+      shared = message.toSharedMemory(sharedMemory);
+    } catch (RuntimeException e) {
+      AutoCloseables.close(e, message);
+      throw e;
+    }
+    if (shared == null) {
+      return message;
+    }
+    message.close();
+    return shared;
+  }
+
   @Override
   public void putMetadata(ArrowBuf metadata) {
     waitUntilStreamReady();
@@ -129,4 +218,25 @@ abstract class OutboundStreamListenerImpl implements OutboundStreamListener {
   public void setUseZeroCopy(boolean enabled) {
     tryZeroCopy = enabled;
   }
+
+  /**
+   * Set the tracer notified of the batches sent and of the time spent waiting for the other end.
+   */
+  void setTracer(FlightStreamTracer tracer) {
+    this.tracer = tracer;
+  }
+
+  /**
+   * Set the connection to send record batch bodies through shared memory with, or null to send them over gRPC.
+   */
+  void setSharedMemory(SharedMemoryRegion.Connection sharedMemory) {
+    this.sharedMemory = sharedMemory;
+  }
+
+  /**
+   * Set the codec used to compress the record batches and dictionaries. Must be called before the stream is started.
+   */
+  void setCompressionCodec(CompressionCodec codec) {
+    this.codec = Preconditions.checkNotNull(codec);
+  }
 }
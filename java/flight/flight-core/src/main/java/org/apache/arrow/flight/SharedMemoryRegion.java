@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.util.MemoryUtil;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.util.VisibleForTesting;
+
+/**
+ * A memory-mapped file a server writes message bodies to, for clients on the same host to read them in place.
+ *
+ * <p>The region starts with a random token, which clients echo to prove they can map the region. The rest is
+ * divided into slots, each made of an 8-byte state followed by a message body. The server marks a slot in use when
+ * writing it, by setting its state to a unique id; the client marks it free once it released the body, after which
+ * the server can reuse the space. The client only frees the slot if it still has the same id, so a client releasing
+ * a body late never frees a slot that was reclaimed and reused meanwhile.
+ *
+ * <p>Slots are written for a {@link Connection} with a client. If the client never frees them, e.g. because the call
+ * was cancelled after a message was sent, or the client was killed, they are reclaimed when the connection closes.
+ * See {@link SharedMemoryTransport}.
+ */
+final class SharedMemoryRegion implements AutoCloseable {
+  /** The default size of a region. */
+  static final long DEFAULT_SIZE = 64L * 1024 * 1024;
+  /** Bodies smaller than this are cheaper to send inline. */
+  static final long MIN_BODY_SIZE = 64 * 1024;
+
+  /** The size of the token at the start of the region. */
+  static final int TOKEN_SIZE = 32;
+  /** The space reserved at the start of the region, before the first slot. */
+  static final long REGION_HEADER_SIZE = 64;
+  static final long SLOT_HEADER_SIZE = 8;
+  /** The state of a free slot. Slots in use have their id as state instead. */
+  static final long SLOT_FREE = 0;
+
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SharedMemoryRegion.class);
+
+  private final Path path;
+  private final byte[] encodedPath;
+  // Keeps the mapping alive
+  private final MappedByteBuffer buffer;
+  private final long address;
+  private final long size;
+  private final byte[] token;
+  // Offset -> slots that may still be in use. Guarded by this.
+  private final TreeMap<Long, SlotEntry> slots = new TreeMap<>();
+  // The open connections, which slots can be written for. Guarded by this.
+  private final Set<Connection> connections = new HashSet<>();
+  // The id of the next slot. Guarded by this.
+  private long nextSlotId = 1;
+
+  private SharedMemoryRegion(Path path, MappedByteBuffer buffer, long size) {
+    this.path = path;
+    this.encodedPath = path.toString().getBytes(StandardCharsets.UTF_8);
+    this.buffer = buffer;
+    this.address = MemoryUtil.getByteBufferAddress(buffer);
+    this.size = size;
+    this.token = new byte[TOKEN_SIZE];
+    new SecureRandom().nextBytes(token);
+    buffer.duplicate().put(token);
+  }
+
+  /**
+   * Create a region backed by a new file in the given directory.
+   */
+  static SharedMemoryRegion create(Path directory, long size) throws IOException {
+    Preconditions.checkArgument(size > REGION_HEADER_SIZE + SLOT_HEADER_SIZE && size % 8 == 0,
+        "Invalid region size: %s", size);
+    final Path path = Files.createTempFile(directory.toAbsolutePath(), SharedMemoryTransport.FILE_PREFIX,
+        SharedMemoryTransport.REGION_SUFFIX);
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return new SharedMemoryRegion(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), size);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(path);
+      throw e;
+    }
+  }
+
+  Path getDirectory() {
+    return path.getParent();
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  /**
+   * Check a token echoed by a client, which proves the client could map this region.
+   *
+   * @param encodedToken The token, encoded in Base64.
+   */
+  boolean checkToken(String encodedToken) {
+    try {
+      return MessageDigest.isEqual(token, Base64.getDecoder().decode(encodedToken));
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Start tracking the slots written for a new connection with a client.
+   */
+  synchronized Connection openConnection() {
+    final Connection connection = new Connection();
+    connections.add(connection);
+    return connection;
+  }
+
+  /**
+   * Copy buffers into a new slot, each padded to a multiple of 8 bytes as in the IPC format.
+   *
+   * @return The slot, or null if the body is too small to be worth it, does not fit in the free space, or the
+   *     connection is closed.
+   */
+  private Slot write(List<ArrowBuf> bufs, Connection connection) {
+    long length = 0;
+    for (ArrowBuf buf : bufs) {
+      length += (buf.readableBytes() + 7) & ~7L;
+    }
+    if (length < MIN_BODY_SIZE) {
+      return null;
+    }
+    final Slot slot = allocate(length, connection);
+    if (slot == null) {
+      return null;
+    }
+    long position = address + slot.offset + SLOT_HEADER_SIZE;
+    for (ArrowBuf buf : bufs) {
+      final long readable = buf.readableBytes();
+      final long padded = (readable + 7) & ~7L;
+      MemoryUtil.UNSAFE.copyMemory(buf.memoryAddress() + buf.readerIndex(), position, readable);
+      MemoryUtil.UNSAFE.setMemory(position + readable, padded - readable, (byte) 0);
+      position += padded;
+    }
+    return finishWrite(slot) ? slot : null;
+  }
+
+  /**
+   * Find room for a slot, first reclaiming the slots released by clients.
+   *
+   * @param length The length of the body.
+   * @return The slot, or null if there is no room or the connection is closed.
+   */
+  private synchronized Slot allocate(long length, Connection connection) {
+    if (!connections.contains(connection)) {
+      return null;
+    }
+    final long slotSize = SLOT_HEADER_SIZE + length;
+    slots.entrySet().removeIf(slot -> MemoryUtil.UNSAFE.getLongVolatile(null, address + slot.getKey()) == SLOT_FREE);
+    // First fit, after the token
+    long offset = REGION_HEADER_SIZE;
+    for (Map.Entry<Long, SlotEntry> slot : slots.entrySet()) {
+      if (slot.getKey() - offset >= slotSize) {
+        break;
+      }
+      offset = slot.getKey() + slot.getValue().size;
+    }
+    final Long next = slots.ceilingKey(offset);
+    if ((next == null ? size : next) - offset < slotSize) {
+      return null;
+    }
+    final long id = nextSlotId++;
+    slots.put(offset, new SlotEntry(slotSize, connection));
+    MemoryUtil.UNSAFE.putLongVolatile(null, address + offset, id);
+    return new Slot(offset, length, id);
+  }
+
+  /**
+   * Mark a slot as written, or free it if its connection closed while writing it.
+   *
+   * @return Whether the slot can be sent.
+   */
+  private synchronized boolean finishWrite(Slot slot) {
+    final SlotEntry entry = slots.get(slot.offset);
+    entry.written = true;
+    if (connections.contains(entry.connection)) {
+      return true;
+    }
+    slots.remove(slot.offset);
+    MemoryUtil.UNSAFE.putLongVolatile(null, address + slot.offset, SLOT_FREE);
+    return false;
+  }
+
+  /**
+   * Stop writing slots for a connection, and free the slots written for it. The client is gone, or at least can no
+   * longer tell which slots it still uses. Slots still being written are freed once written.
+   */
+  private synchronized void closeConnection(Connection connection) {
+    connections.remove(connection);
+    slots.entrySet().removeIf(slot -> {
+      if (slot.getValue().connection != connection || !slot.getValue().written) {
+        return false;
+      }
+      MemoryUtil.UNSAFE.putLongVolatile(null, address + slot.getKey(), SLOT_FREE);
+      return true;
+    });
+  }
+
+  /**
+   * Count the slots not released by clients yet.
+   */
+  @VisibleForTesting
+  int getSlotsInUse() {
+    int inUse = 0;
+    for (long offset : getSlotOffsets()) {
+      if (MemoryUtil.UNSAFE.getLongVolatile(null, address + offset) != SLOT_FREE) {
+        inUse++;
+      }
+    }
+    return inUse;
+  }
+
+  private synchronized List<Long> getSlotOffsets() {
+    return new ArrayList<>(slots.keySet());
+  }
+
+  /**
+   * Delete the backing file. Mappings, and so slots already sent to clients, stay valid.
+   */
+  @Override
+  public void close() {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Could not delete shared memory region {}", path, e);
+    }
+  }
+
+  /**
+   * A slot in use, and the connection it was written for.
+   */
+  private static final class SlotEntry {
+    private final long size;
+    private final Connection connection;
+    // Whether the body was copied in. Guarded by the region.
+    private boolean written = false;
+
+    private SlotEntry(long size, Connection connection) {
+      this.size = size;
+      this.connection = connection;
+    }
+  }
+
+  /**
+   * A connection with a client, which the slots sent to the client are tracked by.
+   */
+  final class Connection {
+    // The probe the client advertised first, and whether it runs on this host. Guarded by this.
+    private String probe = null;
+    private boolean accessible = false;
+
+    private Connection() {
+    }
+
+    /**
+     * Check whether the client advertising the given probe runs on this host. The probe is only checked for the
+     * first call of the connection: clients advertise the same probe on every call, so any other probe is rejected.
+     */
+    synchronized boolean isAccessibleFrom(String probe) {
+      if (this.probe == null) {
+        this.probe = probe;
+        accessible = SharedMemoryTransport.checkProbe(getDirectory(), probe);
+      }
+      return accessible && this.probe.equals(probe);
+    }
+
+    /**
+     * Copy buffers into a new slot for this connection. See {@link SharedMemoryRegion#write(List, Connection)}.
+     */
+    Slot write(List<ArrowBuf> bufs) {
+      return SharedMemoryRegion.this.write(bufs, this);
+    }
+
+    /**
+     * Free the slots written for this connection, and stop writing new ones.
+     */
+    void close() {
+      closeConnection(this);
+    }
+  }
+
+  /**
+   * A slot of the region holding a message body.
+   */
+  final class Slot {
+    private final long offset;
+    private final long length;
+    private final long id;
+
+    private Slot(long offset, long length, long id) {
+      this.offset = offset;
+      this.length = length;
+      this.id = id;
+    }
+
+    /**
+     * Encode the location of this slot for the client.
+     */
+    byte[] encode() {
+      final ByteBuffer encoded = ByteBuffer.allocate(24 + encodedPath.length);
+      encoded.putLong(offset).putLong(length).putLong(id).put(encodedPath);
+      return encoded.array();
+    }
+
+    /**
+     * Free the slot, if it was never sent to a client.
+     */
+    void release() {
+      MemoryUtil.UNSAFE.compareAndSwapLong(null, address + offset, id, SLOT_FREE);
+    }
+  }
+}
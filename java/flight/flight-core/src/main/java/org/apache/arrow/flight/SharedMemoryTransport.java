@@ -0,0 +1,476 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.arrow.flight.grpc.MetadataAdapter;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.ForeignAllocation;
+import org.apache.arrow.memory.util.MemoryUtil;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.util.VisibleForTesting;
+
+import io.grpc.Attributes;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerTransportFilter;
+
+/**
+ * Helpers for sending message bodies through shared memory between a client and a server on the same host.
+ *
+ * <p>A server at a {@link LocationSchemes#GRPC_SHARED_MEMORY} location creates a {@link SharedMemoryRegion}. A client
+ * connecting to such a location writes a probe file with a random token, and advertises its path and token in the
+ * {@link FlightConstants#SHARED_MEMORY_HEADER} header of every call. If the server finds the probe next to its
+ * region, the client runs on the same host, and the server sends the path of the region in the
+ * {@link FlightConstants#SHARED_MEMORY_REGION_HEADER} response header. The client then maps the region, and echoes
+ * the token stored at its start in the {@link FlightConstants#SHARED_MEMORY_TOKEN_HEADER} header of its next calls,
+ * proving it can map the region, e.g. that it runs as a user allowed to open it. Only then are the bodies of large
+ * record batches sent by DoGet copied into the region, with only their position travelling over gRPC. In every
+ * other case, e.g. when the client is remote, cannot map the region, or the region is full, data is sent over gRPC
+ * as usual.
+ *
+ * <p>The client wraps the bodies into buffers without copying them. When the last reference to a body is released,
+ * its slot is marked free, so the server can reuse it. The client keeps a region mapped while a call to the server
+ * is in progress or a body is still referenced, and unmaps it afterwards.
+ *
+ * <p>The server tracks the slots sent over each connection, and reclaims the slots a client did not free when its
+ * connection closes, e.g. after the client was killed. So bodies received through shared memory must not be used
+ * after the connection to the server, i.e. the channel of the client, is closed.
+ *
+ * <p>The directory for regions and probes is {@code /dev/shm} if available, or the temporary directory. It can be
+ * set with the {@value #DIRECTORY_PROPERTY} system property, and must then be the same for client and server.
+ */
+final class SharedMemoryTransport {
+  static final String DIRECTORY_PROPERTY = "arrow.flight.shm.directory";
+  static final String FILE_PREFIX = "arrow-flight-shm-";
+  static final String REGION_SUFFIX = ".arrow";
+
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SharedMemoryTransport.class);
+
+  // Regions mapped by this process as a client, while referenced. Guarded by itself.
+  private static final Map<String, MappedRegion> MAPPED_REGIONS = new HashMap<>();
+  private static String probe; // null until created, empty if it could not be created
+  private static Path probeDirectory; // the directory of the probe, null unless it was created
+
+  private SharedMemoryTransport() {
+  }
+
+  /**
+   * Get the directory for regions and probes.
+   */
+  static Path getDirectory() {
+    final String directory = System.getProperty(DIRECTORY_PROPERTY);
+    if (directory != null) {
+      return Paths.get(directory).toAbsolutePath();
+    }
+    final Path shm = Paths.get("/dev/shm");
+    if (Files.isDirectory(shm) && Files.isWritable(shm)) {
+      return shm;
+    }
+    return Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath();
+  }
+
+  /**
+   * Get the probe advertised by this process, creating it on first use.
+   *
+   * @return The header value, or null if no probe could be created.
+   */
+  static synchronized String getProbe() {
+    if (probe == null) {
+      final String token = UUID.randomUUID().toString();
+      try {
+        final Path directory = getDirectory();
+        final Path path = directory.resolve(FILE_PREFIX + "probe-" + token);
+        Files.write(path, token.getBytes(StandardCharsets.UTF_8));
+        path.toFile().deleteOnExit();
+        probe = path + ";" + token;
+        probeDirectory = directory;
+      } catch (IOException e) {
+        logger.debug("Could not create shared memory probe, falling back to gRPC", e);
+        probe = "";
+      }
+    }
+    return probe.isEmpty() ? null : probe;
+  }
+
+  /**
+   * Get the directory this process advertised to servers, in which it accepts regions.
+   *
+   * @return The directory, or null if this process never advertised shared memory.
+   */
+  private static synchronized Path getProbeDirectory() {
+    return probeDirectory;
+  }
+
+  /**
+   * Check that a probe was created in the given directory by a client on this host.
+   */
+  static boolean checkProbe(Path directory, String probe) {
+    final int separator = probe.lastIndexOf(';');
+    if (separator < 0) {
+      return false;
+    }
+    try {
+      final Path path = Paths.get(probe.substring(0, separator));
+      if (!directory.equals(path.getParent()) || !path.getFileName().toString().startsWith(FILE_PREFIX)) {
+        return false;
+      }
+      final byte[] token = probe.substring(separator + 1).getBytes(StandardCharsets.UTF_8);
+      return Arrays.equals(token, Files.readAllBytes(path));
+    } catch (IOException | InvalidPathException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Check whether a client runs on the same host as the server, based on the probe it advertises.
+   */
+  private static boolean isOnSameHost(SharedMemoryRegion.Connection connection, CallHeaders headers) {
+    return connection != null && headers != null && headers.containsKey(FlightConstants.SHARED_MEMORY_HEADER) &&
+        connection.isAccessibleFrom(headers.get(FlightConstants.SHARED_MEMORY_HEADER));
+  }
+
+  /**
+   * Get the connection of the current call to send its data through, if the client proved it can map the region.
+   *
+   * @param region The region of the server. May be null.
+   * @param headers The headers of the incoming call. May be null.
+   * @return The connection, or null to send the data over gRPC.
+   */
+  static SharedMemoryRegion.Connection negotiate(SharedMemoryRegion region, CallHeaders headers) {
+    final SharedMemoryRegion.Connection connection = ConnectionTracker.CONNECTION_CONTEXT_KEY.get();
+    if (region == null || !isOnSameHost(connection, headers) ||
+        !headers.containsKey(FlightConstants.SHARED_MEMORY_TOKEN_HEADER)) {
+      return null;
+    }
+    return region.checkToken(headers.get(FlightConstants.SHARED_MEMORY_TOKEN_HEADER)) ? connection : null;
+  }
+
+  /**
+   * Wrap a body received as a slot of a region into a buffer, mapping the region if needed.
+   *
+   * <p>The location comes from the server, so it is validated: only regions in the directory this process
+   * advertised can be mapped, and the slot must lie within the region.
+   *
+   * @param encodedSlot The location of the slot, as encoded by {@link SharedMemoryRegion.Slot#encode()}.
+   * @param allocator The allocator to account the body to.
+   */
+  static ArrowBuf wrapSlot(byte[] encodedSlot, BufferAllocator allocator) {
+    Preconditions.checkArgument(encodedSlot.length > 24, "Invalid shared memory slot");
+    final ByteBuffer encoded = ByteBuffer.wrap(encodedSlot);
+    final long offset = encoded.getLong();
+    final long length = encoded.getLong();
+    final long id = encoded.getLong();
+    final String path = new String(encodedSlot, encoded.position(), encoded.remaining(), StandardCharsets.UTF_8);
+    final MappedRegion region = acquireRegion(path);
+    try {
+      // Written to avoid overflows: the state of the slot must be aligned and after the token, and the slot must
+      // fit in the region
+      final long maxLength = region.size - SharedMemoryRegion.SLOT_HEADER_SIZE;
+      Preconditions.checkArgument(offset >= SharedMemoryRegion.REGION_HEADER_SIZE && offset % 8 == 0 &&
+          length >= 0 && offset <= maxLength && length <= maxLength - offset && id != SharedMemoryRegion.SLOT_FREE,
+          "Invalid slot for region %s", path);
+      return allocator.wrapForeignAllocation(new SlotAllocation(region, offset, length, id));
+    } catch (RuntimeException e) {
+      region.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Map a region, or get the existing mapping, and add a reference to it.
+   *
+   * @throws IllegalArgumentException if the path does not name a region in the directory this process advertised.
+   * @throws UncheckedIOException if the region cannot be mapped.
+   */
+  static MappedRegion acquireRegion(String path) {
+    checkRegionPath(path);
+    synchronized (MAPPED_REGIONS) {
+      MappedRegion region = MAPPED_REGIONS.get(path);
+      if (region == null) {
+        region = MappedRegion.open(path);
+        MAPPED_REGIONS.put(path, region);
+      }
+      region.references++;
+      return region;
+    }
+  }
+
+  /**
+   * Count the regions mapped by this process.
+   */
+  @VisibleForTesting
+  static int getMappedRegionCount() {
+    synchronized (MAPPED_REGIONS) {
+      return MAPPED_REGIONS.size();
+    }
+  }
+
+  /**
+   * Check that a path sent by a server names a region in the directory this process advertised.
+   */
+  private static void checkRegionPath(String path) {
+    final Path directory = getProbeDirectory();
+    final Path region = Paths.get(path);
+    final String name = String.valueOf(region.getFileName());
+    Preconditions.checkArgument(directory != null && directory.equals(region.getParent()) &&
+        name.startsWith(FILE_PREFIX) && name.endsWith(REGION_SUFFIX), "Not a shared memory region: %s", path);
+  }
+
+  /**
+   * A region mapped by a client, unmapped once the last reference to it is released.
+   */
+  static final class MappedRegion {
+    private final String path;
+    // Keeps the mapping alive
+    private final MappedByteBuffer buffer;
+    private final long address;
+    private final long size;
+    private int references; // guarded by MAPPED_REGIONS
+
+    private MappedRegion(String path, MappedByteBuffer buffer) {
+      this.path = path;
+      this.buffer = buffer;
+      this.address = MemoryUtil.getByteBufferAddress(buffer);
+      this.size = buffer.capacity();
+    }
+
+    static MappedRegion open(String path) {
+      try (final FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        final long size = channel.size();
+        Preconditions.checkArgument(size > SharedMemoryRegion.REGION_HEADER_SIZE + SharedMemoryRegion.SLOT_HEADER_SIZE,
+            "Shared memory region %s is too small", path);
+        return new MappedRegion(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not map shared memory region " + path, e);
+      }
+    }
+
+    /**
+     * Get the token at the start of the region, encoded in Base64.
+     */
+    String getToken() {
+      final byte[] token = new byte[SharedMemoryRegion.TOKEN_SIZE];
+      buffer.duplicate().get(token);
+      return Base64.getEncoder().encodeToString(token);
+    }
+
+    /**
+     * Release a reference to the region, unmapping it if it was the last one.
+     */
+    void release() {
+      synchronized (MAPPED_REGIONS) {
+        Preconditions.checkState(references > 0, "Shared memory region %s already released", path);
+        if (--references > 0) {
+          return;
+        }
+        MAPPED_REGIONS.remove(path);
+      }
+      unmap(buffer);
+    }
+  }
+
+  /**
+   * Unmap a buffer now, instead of whenever it is garbage collected. It must not be accessed anymore.
+   */
+  private static void unmap(MappedByteBuffer buffer) {
+    try {
+      try {
+        // JDK 9+
+        final Method invokeCleaner = MemoryUtil.UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        invokeCleaner.invoke(MemoryUtil.UNSAFE, buffer);
+      } catch (NoSuchMethodException e) {
+        // JDK 8
+        final Method getCleaner = buffer.getClass().getMethod("cleaner");
+        getCleaner.setAccessible(true);
+        final Object cleaner = getCleaner.invoke(buffer);
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      logger.debug("Could not unmap shared memory region, leaving it to the garbage collector", e);
+    }
+  }
+
+  /**
+   * A body in a mapped region, which frees its slot when released.
+   */
+  private static final class SlotAllocation extends ForeignAllocation {
+    private final MappedRegion region;
+    private final long offset;
+    private final long id;
+
+    SlotAllocation(MappedRegion region, long offset, long length, long id) {
+      super(length, region.address + offset + SharedMemoryRegion.SLOT_HEADER_SIZE);
+      this.region = region;
+      this.offset = offset;
+      this.id = id;
+    }
+
+    @Override
+    protected void release0() {
+      // Unless the server reclaimed the slot meanwhile
+      MemoryUtil.UNSAFE.compareAndSwapLong(null, region.address + offset, id, SharedMemoryRegion.SLOT_FREE);
+      region.release();
+    }
+  }
+
+  /**
+   * Client middleware advertising that the client can read data from shared memory.
+   *
+   * <p>When the server sends the path of its region, the middleware maps it until the call completes, and records
+   * its token for the next calls.
+   */
+  static class AdvertiseMiddleware implements FlightClientMiddleware {
+    private final Factory factory;
+    private final String probe; // null if shared memory is unavailable
+    private MappedRegion region; // mapped for the duration of the call
+
+    AdvertiseMiddleware(Factory factory, String probe) {
+      this.factory = factory;
+      this.probe = probe;
+    }
+
+    @Override
+    public void onBeforeSendingHeaders(CallHeaders outgoingHeaders) {
+      if (probe != null) {
+        outgoingHeaders.insert(FlightConstants.SHARED_MEMORY_HEADER, probe);
+        final String token = factory.token;
+        if (token != null) {
+          outgoingHeaders.insert(FlightConstants.SHARED_MEMORY_TOKEN_HEADER, token);
+        }
+      }
+    }
+
+    @Override
+    public void onHeadersReceived(CallHeaders incomingHeaders) {
+      if (probe == null || region != null ||
+          !incomingHeaders.containsKey(FlightConstants.SHARED_MEMORY_REGION_HEADER)) {
+        return;
+      }
+      final String path = incomingHeaders.get(FlightConstants.SHARED_MEMORY_REGION_HEADER);
+      try {
+        region = acquireRegion(path);
+        factory.token = region.getToken();
+      } catch (IllegalArgumentException | UncheckedIOException e) {
+        logger.debug("Could not map shared memory region {}, falling back to gRPC", path, e);
+        factory.token = null;
+      }
+    }
+
+    @Override
+    public void onCallCompleted(CallStatus status) {
+      if (region != null) {
+        region.release();
+        region = null;
+      }
+    }
+
+    /**
+     * A factory for the middleware.
+     */
+    static class Factory implements FlightClientMiddleware.Factory {
+      // The token of the region of the server, once mapped
+      private volatile String token;
+
+      @Override
+      public FlightClientMiddleware onCallStarted(CallInfo info) {
+        return new AdvertiseMiddleware(this, getProbe());
+      }
+    }
+  }
+
+  /**
+   * Tracks the connections of a server with a region, so the slots of a connection are reclaimed when it closes, and
+   * makes the connection of each call available to it. Also sends the path of the region to clients on the same
+   * host, so they can prove they can map it.
+   */
+  static class ConnectionTracker extends ServerTransportFilter implements ServerInterceptor {
+    private static final Metadata.Key<String> REGION_KEY =
+        Metadata.Key.of(FlightConstants.SHARED_MEMORY_REGION_HEADER, Metadata.ASCII_STRING_MARSHALLER);
+    private static final Attributes.Key<SharedMemoryRegion.Connection> CONNECTION_KEY =
+        Attributes.Key.create("arrow-flight-shared-memory-connection");
+    static final Context.Key<SharedMemoryRegion.Connection> CONNECTION_CONTEXT_KEY =
+        Context.key("arrow-flight-shared-memory-connection");
+
+    private final SharedMemoryRegion region;
+
+    ConnectionTracker(SharedMemoryRegion region) {
+      this.region = Preconditions.checkNotNull(region);
+    }
+
+    @Override
+    public Attributes transportReady(Attributes transportAttrs) {
+      return transportAttrs.toBuilder().set(CONNECTION_KEY, region.openConnection()).build();
+    }
+
+    @Override
+    public void transportTerminated(Attributes transportAttrs) {
+      final SharedMemoryRegion.Connection connection = transportAttrs.get(CONNECTION_KEY);
+      if (connection != null) {
+        connection.close();
+      }
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+        ServerCallHandler<ReqT, RespT> next) {
+      final SharedMemoryRegion.Connection connection = call.getAttributes().get(CONNECTION_KEY);
+      if (connection == null) {
+        return next.startCall(call, headers);
+      }
+      ServerCall<ReqT, RespT> advertisingCall = call;
+      if (isOnSameHost(connection, new MetadataAdapter(headers))) {
+        final String path = region.getPath().toString();
+        advertisingCall = new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+          @Override
+          public void sendHeaders(Metadata responseHeaders) {
+            responseHeaders.put(REGION_KEY, path);
+            super.sendHeaders(responseHeaders);
+          }
+        };
+      }
+      return Contexts.interceptCall(Context.current().withValue(CONNECTION_CONTEXT_KEY, connection), advertisingCall,
+          headers, next);
+    }
+  }
+}
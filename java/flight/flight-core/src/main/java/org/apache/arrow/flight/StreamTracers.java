@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.arrow.flight.grpc.ClientInterceptorAdapter;
+import org.apache.arrow.flight.grpc.ServerInterceptorAdapter;
+
+import io.grpc.CallOptions;
+
+/**
+ * Utilities to connect the {@link FlightStreamTracer} middleware of a call to its streams.
+ */
+final class StreamTracers {
+  private StreamTracers() {
+  }
+
+  /**
+   * Combine the middleware implementing {@link FlightStreamTracer}.
+   *
+   * @param middleware The middleware of a call, may be null.
+   */
+  static FlightStreamTracer of(Collection<?> middleware) {
+    if (middleware == null) {
+      return FlightStreamTracer.NO_OP;
+    }
+    final List<FlightStreamTracer> tracers = new ArrayList<>();
+    for (Object m : middleware) {
+      if (m instanceof FlightStreamTracer) {
+        tracers.add((FlightStreamTracer) m);
+      }
+    }
+    if (tracers.isEmpty()) {
+      return FlightStreamTracer.NO_OP;
+    } else if (tracers.size() == 1) {
+      return tracers.get(0);
+    }
+    return new CompositeTracer(tracers);
+  }
+
+  /**
+   * Get the tracer of the server call being handled by the current thread.
+   */
+  static FlightStreamTracer forServerCall() {
+    final Map<FlightServerMiddleware.Key<?>, FlightServerMiddleware> middleware =
+        ServerInterceptorAdapter.SERVER_MIDDLEWARE_KEY.get();
+    return of(middleware == null ? null : middleware.values());
+  }
+
+  /**
+   * Get the tracer a listener reports to, if it is one of ours.
+   */
+  static FlightStreamTracer forListener(OutboundStreamListener listener) {
+    if (listener instanceof OutboundStreamListenerImpl) {
+      return ((OutboundStreamListenerImpl) listener).tracer;
+    }
+    return FlightStreamTracer.NO_OP;
+  }
+
+  /**
+   * Also report the batches a listener sends to the given tracer, if it is one of ours.
+   *
+   * @return Whether the tracer was attached, i.e. the listener is one of ours.
+   */
+  static boolean attach(OutboundStreamListener listener, FlightStreamTracer tracer) {
+    if (listener instanceof OutboundStreamListenerImpl) {
+      final OutboundStreamListenerImpl impl = (OutboundStreamListenerImpl) listener;
+      impl.setTracer(impl.tracer == FlightStreamTracer.NO_OP ? tracer :
+          new CompositeTracer(Arrays.asList(impl.tracer, tracer)));
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Captures the tracer of a client call as the call is created.
+   */
+  static final class ClientCallTracer implements Consumer<List<FlightClientMiddleware>> {
+    private FlightStreamTracer tracer = FlightStreamTracer.NO_OP;
+
+    /**
+     * Add the option capturing the middleware of the call to the options it is created with.
+     */
+    CallOptions attach(CallOptions callOptions) {
+      return callOptions.withOption(ClientInterceptorAdapter.CLIENT_MIDDLEWARE_KEY, this);
+    }
+
+    @Override
+    public void accept(List<FlightClientMiddleware> middleware) {
+      tracer = of(middleware);
+    }
+
+    /**
+     * Get the tracer of the call, once it was created.
+     */
+    FlightStreamTracer get() {
+      return tracer;
+    }
+  }
+
+  /**
+   * A tracer forwarding to several tracers.
+   */
+  private static final class CompositeTracer implements FlightStreamTracer {
+    private final List<FlightStreamTracer> tracers;
+
+    CompositeTracer(List<FlightStreamTracer> tracers) {
+      this.tracers = tracers;
+    }
+
+    @Override
+    public void onBatchSent(long rowCount, long bodyBytes, long serializationNanos) {
+      tracers.forEach(t -> t.onBatchSent(rowCount, bodyBytes, serializationNanos));
+    }
+
+    @Override
+    public void onBatchReceived(long rowCount, long bodyBytes) {
+      tracers.forEach(t -> t.onBatchReceived(rowCount, bodyBytes));
+    }
+
+    @Override
+    public void onBackpressureWait(long nanos) {
+      tracers.forEach(t -> t.onBackpressureWait(nanos));
+    }
+
+    @Override
+    public void onReadWait(long nanos) {
+      tracers.forEach(t -> t.onReadWait(nanos));
+    }
+
+    @Override
+    public void onExecutorWait(long nanos) {
+      tracers.forEach(t -> t.onExecutorWait(nanos));
+    }
+  }
+}
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.arrow.flight.CallOption;
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightClient;
+import org.apache.arrow.flight.FlightEndpoint;
+import org.apache.arrow.flight.FlightInfo;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.flight.FlightStream;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.flight.grpc.StatusUtils;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * Reads all endpoints of a {@link FlightInfo} in parallel, as a single stream of batches.
+ *
+ * <p>At most a given number of endpoints are fetched at a time, each on its own thread, and each fetcher buffers a
+ * bounded number of batches ahead of the reader. Batches are either returned in the order of the endpoints, or in the
+ * order they arrive. One client is created per location and shared by all endpoints at that location.
+ *
+ * <p>An endpoint that fails before returning any data is retried, cycling through its locations. Once data of an
+ * endpoint has been returned, a failure cannot be retried without duplicating data, so it fails the whole read.
+ *
+ * <p>All endpoints must return the same schema. Dictionary-encoded data is not supported, as every endpoint has its
+ * own dictionaries.
+ */
+public class ParallelFlightReader implements AutoCloseable {
+  private static final Object END = new Object();
+  private static final Set<FlightStatusCode> RETRYABLE_CODES =
+      EnumSet.of(FlightStatusCode.UNAVAILABLE, FlightStatusCode.TIMED_OUT, FlightStatusCode.UNKNOWN);
+
+  private final BufferAllocator allocator;
+  private final List<FlightEndpoint> endpoints;
+  private final Function<Location, FlightClient> clientFactory;
+  private final ConcurrentMap<Location, FlightClient> clients = new ConcurrentHashMap<>();
+  private final Location defaultLocation;
+  private final CallOption[] options;
+  private final int maxRetries;
+  private final boolean ordered;
+  // One queue per endpoint if ordered, otherwise a single queue shared by all endpoints.
+  private final List<BlockingQueue<Object>> queues;
+  private final ExecutorService executor;
+
+  private volatile boolean closed;
+  private int finishedEndpoints;
+  private FlightRuntimeException failure;
+  private VectorSchemaRoot root;
+  private VectorLoader loader;
+
+  private ParallelFlightReader(Builder builder) {
+    this.allocator = builder.allocator;
+    this.endpoints = builder.info.getEndpoints();
+    this.clientFactory = builder.clientFactory != null ? builder.clientFactory :
+        location -> FlightClient.builder(builder.allocator, location).build();
+    this.defaultLocation = builder.defaultLocation;
+    this.options = builder.options;
+    this.maxRetries = builder.maxRetries;
+    this.ordered = builder.ordered;
+    for (FlightEndpoint endpoint : endpoints) {
+      Preconditions.checkArgument(!endpoint.getLocations().isEmpty() || defaultLocation != null,
+          "An endpoint has no location, and no default location was given");
+    }
+
+    final int queueCount = ordered ? endpoints.size() : 1;
+    final int capacity = ordered ? builder.maxQueuedBatches : builder.maxQueuedBatches * builder.maxConcurrency;
+    this.queues = new ArrayList<>(queueCount);
+    for (int i = 0; i < queueCount; i++) {
+      queues.add(new ArrayBlockingQueue<>(capacity));
+    }
+
+    this.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(builder.maxConcurrency, endpoints.size())));
+    for (int i = 0; i < endpoints.size(); i++) {
+      final FlightEndpoint endpoint = endpoints.get(i);
+      final BlockingQueue<Object> queue = queues.get(ordered ? i : 0);
+      executor.submit(() -> fetch(endpoint, queue));
+    }
+    executor.shutdown();
+  }
+
+  /**
+   * Create a builder for a reader.
+   *
+   * @param allocator The allocator for the data.
+   * @param info The flight to read.
+   */
+  public static Builder builder(BufferAllocator allocator, FlightInfo info) {
+    return new Builder(allocator, info);
+  }
+
+  /**
+   * Load the next batch into the root. Blocks until a batch is available.
+   *
+   * @return false if all endpoints have been read.
+   * @throws FlightRuntimeException if an endpoint could not be read.
+   */
+  public boolean next() {
+    Preconditions.checkState(!closed, "The reader is closed");
+    if (failure != null) {
+      throw failure;
+    }
+    while (finishedEndpoints < endpoints.size()) {
+      final Object item;
+      try {
+        item = queues.get(ordered ? finishedEndpoints : 0).take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw CallStatus.INTERNAL.withCause(e).withDescription("Interrupted").toRuntimeException();
+      }
+      if (item == END) {
+        finishedEndpoints++;
+      } else if (item instanceof Throwable) {
+        failure = StatusUtils.fromThrowable((Throwable) item);
+        throw failure;
+      } else {
+        try (final Batch batch = (Batch) item) {
+          load(batch);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the root holding the current batch, or null if no batch has been read yet. The root is reused for every
+   * batch, and is owned by the reader.
+   */
+  public VectorSchemaRoot getRoot() {
+    return root;
+  }
+
+  private void load(Batch batch) {
+    if (root == null) {
+      root = VectorSchemaRoot.create(batch.schema, allocator);
+      loader = new VectorLoader(root);
+    } else if (!root.getSchema().equals(batch.schema)) {
+      throw CallStatus.INVALID_ARGUMENT
+          .withDescription("Endpoints returned different schemas: " + root.getSchema() + " and " + batch.schema)
+          .toRuntimeException();
+    }
+    loader.load(batch.recordBatch);
+  }
+
+  private void fetch(FlightEndpoint endpoint, BlockingQueue<Object> queue) {
+    final List<Location> locations = endpoint.getLocations().isEmpty() ?
+        Collections.singletonList(defaultLocation) : endpoint.getLocations();
+    boolean returnedData = false;
+    for (int attempt = 0; !closed; attempt++) {
+      final Location location = locations.get(attempt % locations.size());
+      try {
+        try (final FlightStream stream = getClient(location).getStream(endpoint.getTicket(), options)) {
+          final VectorSchemaRoot streamRoot = stream.getRoot();
+          checkNoDictionaries(streamRoot.getSchema().getFields());
+          final VectorUnloader unloader = new VectorUnloader(streamRoot);
+          while (stream.next()) {
+            returnedData = true;
+            final Batch batch = new Batch(streamRoot.getSchema(), unloader.getRecordBatch());
+            try {
+              queue.put(batch);
+            } catch (InterruptedException e) {
+              batch.close();
+              throw e;
+            }
+          }
+        }
+        queue.put(END);
+        return;
+      } catch (InterruptedException e) {
+        // The reader was closed.
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        if (closed) {
+          return;
+        }
+        if (returnedData || attempt >= maxRetries || !isRetryable(e)) {
+          try {
+            queue.put(e);
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+          }
+          return;
+        }
+      }
+    }
+  }
+
+  private FlightClient getClient(Location location) {
+    return clients.computeIfAbsent(location, clientFactory);
+  }
+
+  private static boolean isRetryable(Exception e) {
+    return e instanceof FlightRuntimeException &&
+        RETRYABLE_CODES.contains(((FlightRuntimeException) e).status().code());
+  }
+
+  private static void checkNoDictionaries(List<Field> fields) {
+    for (Field field : fields) {
+      if (field.getDictionary() != null) {
+        throw CallStatus.INVALID_ARGUMENT
+            .withDescription("Dictionary-encoded field is not supported: " + field.getName())
+            .toRuntimeException();
+      }
+      checkNoDictionaries(field.getChildren());
+    }
+  }
+
+  /**
+   * Cancel any endpoints still being read, and release all resources, including the clients created by the reader.
+   */
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    for (BlockingQueue<Object> queue : queues) {
+      for (Object item : queue) {
+        if (item instanceof Batch) {
+          closeables.add((Batch) item);
+        }
+      }
+      queue.clear();
+    }
+    closeables.add(root);
+    closeables.addAll(clients.values());
+    clients.clear();
+    AutoCloseables.close(closeables);
+  }
+
+  /** A batch unloaded from an endpoint, along with its schema. */
+  private static class Batch implements AutoCloseable {
+    private final Schema schema;
+    private final ArrowRecordBatch recordBatch;
+
+    Batch(Schema schema, ArrowRecordBatch recordBatch) {
+      this.schema = schema;
+      this.recordBatch = recordBatch;
+    }
+
+    @Override
+    public void close() {
+      recordBatch.close();
+    }
+  }
+
+  /**
+   * A builder for {@link ParallelFlightReader}.
+   */
+  public static final class Builder {
+    private final BufferAllocator allocator;
+    private final FlightInfo info;
+    private Function<Location, FlightClient> clientFactory;
+    private Location defaultLocation;
+    private CallOption[] options = new CallOption[0];
+    private int maxConcurrency = 4;
+    private int maxQueuedBatches = 4;
+    private int maxRetries = 2;
+    private boolean ordered = false;
+
+    private Builder(BufferAllocator allocator, FlightInfo info) {
+      this.allocator = Preconditions.checkNotNull(allocator);
+      this.info = Preconditions.checkNotNull(info);
+    }
+
+    /**
+     * Set how clients are created for a location. Each location gets one client, which is closed with the reader.
+     * By default, an insecure client without middleware is created.
+     */
+    public Builder clientFactory(Function<Location, FlightClient> clientFactory) {
+      this.clientFactory = Preconditions.checkNotNull(clientFactory);
+      return this;
+    }
+
+    /** Set the location to read endpoints without any location from, i.e. the service the flight came from. */
+    public Builder defaultLocation(Location defaultLocation) {
+      this.defaultLocation = Preconditions.checkNotNull(defaultLocation);
+      return this;
+    }
+
+    /** Set the options for every DoGet call. */
+    public Builder callOptions(CallOption... options) {
+      this.options = Preconditions.checkNotNull(options);
+      return this;
+    }
+
+    /** Set the maximum number of endpoints read at the same time. */
+    public Builder maxConcurrency(int maxConcurrency) {
+      Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be positive");
+      this.maxConcurrency = maxConcurrency;
+      return this;
+    }
+
+    /** Set the number of batches each endpoint may buffer ahead of the reader. */
+    public Builder maxQueuedBatches(int maxQueuedBatches) {
+      Preconditions.checkArgument(maxQueuedBatches > 0, "maxQueuedBatches must be positive");
+      this.maxQueuedBatches = maxQueuedBatches;
+      return this;
+    }
+
+    /** Set how many times an endpoint is retried when it fails before returning data. */
+    public Builder maxRetries(int maxRetries) {
+      Preconditions.checkArgument(maxRetries >= 0, "maxRetries must not be negative");
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    /** Set whether batches are returned in the order of the endpoints, or as soon as they arrive. */
+    public Builder ordered(boolean ordered) {
+      this.ordered = ordered;
+      return this;
+    }
+
+    /** Start reading the endpoints. */
+    public ParallelFlightReader build() {
+      return new ParallelFlightReader(this);
+    }
+  }
+}
@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.apache.arrow.flight.CallOption;
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightClient;
+import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.IngestingFlightProducer;
+import org.apache.arrow.flight.PutResult;
+import org.apache.arrow.flight.grpc.StatusUtils;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * Uploads data over several concurrent DoPut calls.
+ *
+ * <p>The data written is split into a fixed number of partitions, each uploaded by its own DoPut call on its own
+ * thread. Batches are either dealt to the partitions round-robin, or split row by row by the hash of key columns, so
+ * that all rows with the same key go to the same partition. Each partition buffers a bounded number of batches ahead
+ * of its upload, after which {@link #write(VectorSchemaRoot)} blocks.
+ *
+ * <p>Against a server acknowledging persisted batches like {@link IngestingFlightProducer}, each partition can also
+ * bound the bytes it sent but that were not acknowledged yet, so that a slow server holds back the client instead of
+ * buffering the data.
+ *
+ * <p>Dictionary-encoded data is not supported.
+ */
+public class ParallelFlightWriter implements AutoCloseable {
+  private static final Object END = new Object();
+
+  private final BufferAllocator allocator;
+  private final FlightClient client;
+  private final Schema schema;
+  private final List<String> keyColumns;
+  private final long maxUnacknowledgedBytes;
+  private final CallOption[] options;
+  private final List<Partition> partitions;
+  private final ExecutorService executor;
+
+  private volatile boolean closed;
+  private volatile FlightRuntimeException failure;
+  private boolean completed;
+  private int nextPartition;
+
+  private ParallelFlightWriter(Builder builder) {
+    this.allocator = builder.allocator;
+    this.client = builder.client;
+    this.schema = builder.schema;
+    this.keyColumns = builder.keyColumns;
+    this.maxUnacknowledgedBytes = builder.maxUnacknowledgedBytes;
+    this.options = builder.options;
+    for (String keyColumn : keyColumns) {
+      Preconditions.checkArgument(schema.findField(keyColumn) != null, "Key column not in schema: %s", keyColumn);
+    }
+    schema.getFields().forEach(field -> Preconditions.checkArgument(field.getDictionary() == null,
+        "Dictionary-encoded field is not supported: %s", field.getName()));
+
+    this.partitions = new ArrayList<>(builder.partitions);
+    for (int i = 0; i < builder.partitions; i++) {
+      partitions.add(new Partition(builder.descriptors.apply(i), builder.maxQueuedBatches));
+    }
+    this.executor = Executors.newFixedThreadPool(builder.partitions);
+    for (Partition partition : partitions) {
+      executor.submit(() -> upload(partition));
+    }
+    executor.shutdown();
+  }
+
+  /**
+   * Create a builder for a writer.
+   *
+   * @param allocator The allocator for the data.
+   * @param client The client to upload with. It is not closed by the writer.
+   * @param descriptor The descriptor of every upload.
+   * @param schema The schema of the data.
+   */
+  public static Builder builder(BufferAllocator allocator, FlightClient client, FlightDescriptor descriptor,
+      Schema schema) {
+    return new Builder(allocator, client, descriptor, schema);
+  }
+
+  /**
+   * Write the data of a root. The data is moved to the writer, leaving the root empty: its vectors must be allocated
+   * again before it is filled with the next batch.
+   *
+   * @throws FlightRuntimeException if an upload failed.
+   */
+  public void write(VectorSchemaRoot root) {
+    Preconditions.checkState(!closed && !completed, "The writer is closed");
+    Preconditions.checkArgument(root.getSchema().equals(schema), "Expected schema %s, got %s", schema,
+        root.getSchema());
+    checkFailure();
+    try {
+      if (keyColumns.isEmpty()) {
+        enqueue(partitions.get(nextPartition), unload(root));
+        nextPartition = (nextPartition + 1) % partitions.size();
+      } else {
+        writePartitioned(root);
+      }
+    } finally {
+      root.clear();
+    }
+  }
+
+  /**
+   * Split a root by the hash of its key columns, copying each row to the batch of its partition.
+   */
+  private void writePartitioned(VectorSchemaRoot root) {
+    final List<FieldVector> keys = new ArrayList<>(keyColumns.size());
+    for (String keyColumn : keyColumns) {
+      keys.add(root.getVector(keyColumn));
+    }
+    final List<VectorSchemaRoot> parts = new ArrayList<>(partitions.size());
+    try {
+      for (int i = 0; i < partitions.size(); i++) {
+        final VectorSchemaRoot part = VectorSchemaRoot.create(schema, allocator);
+        parts.add(part);
+        part.allocateNew();
+      }
+      final int[] rowCounts = new int[partitions.size()];
+      final List<FieldVector> vectors = root.getFieldVectors();
+      for (int row = 0; row < root.getRowCount(); row++) {
+        final int index = partitionOf(keys, row);
+        final List<FieldVector> partVectors = parts.get(index).getFieldVectors();
+        for (int column = 0; column < vectors.size(); column++) {
+          partVectors.get(column).copyFromSafe(row, rowCounts[index], vectors.get(column));
+        }
+        rowCounts[index]++;
+      }
+      for (int i = 0; i < partitions.size(); i++) {
+        if (rowCounts[i] > 0) {
+          parts.get(i).setRowCount(rowCounts[i]);
+          enqueue(partitions.get(i), unload(parts.get(i)));
+        }
+      }
+    } finally {
+      parts.forEach(VectorSchemaRoot::close);
+    }
+  }
+
+  private int partitionOf(List<FieldVector> keys, int row) {
+    int hash = 0;
+    for (FieldVector key : keys) {
+      hash = 31 * hash + key.hashCode(row);
+    }
+    // Spread the high bits, as the hash of a single integer column is the value itself
+    hash ^= hash >>> 16;
+    return Math.floorMod(hash, partitions.size());
+  }
+
+  private static ArrowRecordBatch unload(VectorSchemaRoot root) {
+    // The batch retains the buffers, so they outlive the root
+    return new VectorUnloader(root).getRecordBatch();
+  }
+
+  private void enqueue(Partition partition, ArrowRecordBatch batch) {
+    try {
+      partition.queue.put(batch);
+    } catch (InterruptedException e) {
+      batch.close();
+      Thread.currentThread().interrupt();
+      throw CallStatus.INTERNAL.withCause(e).withDescription("Interrupted").toRuntimeException();
+    }
+  }
+
+  /**
+   * Finish the uploads and wait for the server to complete them.
+   *
+   * @throws FlightRuntimeException if an upload failed.
+   */
+  public void completed() {
+    Preconditions.checkState(!closed, "The writer is closed");
+    if (!completed) {
+      completed = true;
+      for (Partition partition : partitions) {
+        try {
+          partition.queue.put(END);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw CallStatus.INTERNAL.withCause(e).withDescription("Interrupted").toRuntimeException();
+        }
+      }
+    }
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw CallStatus.INTERNAL.withCause(e).withDescription("Interrupted").toRuntimeException();
+    }
+    checkFailure();
+  }
+
+  private void checkFailure() {
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void upload(Partition partition) {
+    boolean ended = false;
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+      final VectorLoader loader = new VectorLoader(root);
+      final FlightClient.ClientStreamListener stream = client.startPut(partition.descriptor, root, partition, options);
+      try {
+        // Stop early if the server ended the call
+        while (!partition.isCancelled()) {
+          final Object item = partition.queue.take();
+          if (item == END) {
+            ended = true;
+            break;
+          }
+          try (final ArrowRecordBatch batch = (ArrowRecordBatch) item) {
+            partition.awaitRoom(batch.computeBodyLength());
+            loader.load(batch);
+          }
+          stream.putNext();
+        }
+      } catch (InterruptedException | RuntimeException e) {
+        stream.error(CallStatus.CANCELLED.withCause(e).withDescription("Upload cancelled").toRuntimeException());
+        throw e;
+      }
+      stream.completed();
+      stream.getResult();
+    } catch (InterruptedException e) {
+      // The writer was closed.
+      Thread.currentThread().interrupt();
+      return;
+    } catch (Exception e) {
+      if (failure == null) {
+        failure = StatusUtils.fromThrowable(e);
+      }
+    }
+    if (!ended) {
+      discardUntilEnd(partition.queue);
+    }
+  }
+
+  /**
+   * Release the batches written to a failed partition, so that the writer never blocks on it.
+   */
+  private void discardUntilEnd(BlockingQueue<Object> queue) {
+    try {
+      for (Object item = queue.take(); item != END; item = queue.take()) {
+        ((ArrowRecordBatch) item).close();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Cancel any uploads not completed, and release all resources.
+   */
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    for (Partition partition : partitions) {
+      for (Object item : partition.queue) {
+        if (item instanceof ArrowRecordBatch) {
+          closeables.add((ArrowRecordBatch) item);
+        }
+      }
+      partition.queue.clear();
+    }
+    AutoCloseables.close(closeables);
+  }
+
+  /** The queue and the acknowledgements of one upload. */
+  private final class Partition implements FlightClient.PutListener {
+    private final FlightDescriptor descriptor;
+    private final BlockingQueue<Object> queue;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    // The sizes of the batches sent and not acknowledged yet, oldest first
+    private final ArrayDeque<Long> unacknowledged = new ArrayDeque<>();
+    private long unacknowledgedBytes;
+    private long acknowledgedBatches;
+
+    Partition(FlightDescriptor descriptor, int maxQueuedBatches) {
+      this.descriptor = descriptor;
+      // Leave room for the end marker
+      this.queue = new ArrayBlockingQueue<>(maxQueuedBatches + 1);
+    }
+
+    /**
+     * Wait until a batch can be sent without exceeding the unacknowledged bytes.
+     */
+    synchronized void awaitRoom(long bytes) throws InterruptedException {
+      if (maxUnacknowledgedBytes == Long.MAX_VALUE) {
+        return;
+      }
+      while (unacknowledgedBytes > 0 && unacknowledgedBytes + bytes > maxUnacknowledgedBytes && !isCancelled()) {
+        wait();
+      }
+      unacknowledged.add(bytes);
+      unacknowledgedBytes += bytes;
+    }
+
+    @Override
+    public synchronized void onNext(PutResult val) {
+      final long persisted = IngestingFlightProducer.getPersistedBatches(val);
+      // Batches may be persisted out of order: count the oldest ones as acknowledged
+      while (acknowledgedBatches < persisted && !unacknowledged.isEmpty()) {
+        unacknowledgedBytes -= unacknowledged.poll();
+        acknowledgedBatches++;
+      }
+      notifyAll();
+    }
+
+    @Override
+    public synchronized void onError(Throwable t) {
+      result.completeExceptionally(StatusUtils.fromThrowable(t));
+      notifyAll();
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+      result.complete(null);
+      notifyAll();
+    }
+
+    @Override
+    public void getResult() {
+      try {
+        result.get();
+      } catch (ExecutionException e) {
+        throw StatusUtils.fromThrowable(e.getCause());
+      } catch (InterruptedException e) {
+        throw StatusUtils.fromThrowable(e);
+      }
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return closed || result.isDone();
+    }
+  }
+
+  /**
+   * A builder for {@link ParallelFlightWriter}.
+   */
+  public static final class Builder {
+    private final BufferAllocator allocator;
+    private final FlightClient client;
+    private final Schema schema;
+    private IntFunction<FlightDescriptor> descriptors;
+    private List<String> keyColumns = new ArrayList<>();
+    private CallOption[] options = new CallOption[0];
+    private int partitions = 4;
+    private int maxQueuedBatches = 4;
+    private long maxUnacknowledgedBytes = Long.MAX_VALUE;
+
+    private Builder(BufferAllocator allocator, FlightClient client, FlightDescriptor descriptor, Schema schema) {
+      this.allocator = Preconditions.checkNotNull(allocator);
+      this.client = Preconditions.checkNotNull(client);
+      this.schema = Preconditions.checkNotNull(schema);
+      Preconditions.checkNotNull(descriptor);
+      this.descriptors = partition -> descriptor;
+    }
+
+    /** Set the descriptor of the upload of each partition, by partition index. */
+    public Builder descriptors(IntFunction<FlightDescriptor> descriptors) {
+      this.descriptors = Preconditions.checkNotNull(descriptors);
+      return this;
+    }
+
+    /** Split batches by the hash of the given columns, instead of dealing them round-robin. */
+    public Builder keyColumns(String... keyColumns) {
+      this.keyColumns = new ArrayList<>();
+      for (String keyColumn : keyColumns) {
+        this.keyColumns.add(Preconditions.checkNotNull(keyColumn));
+      }
+      return this;
+    }
+
+    /** Set the options for every DoPut call. */
+    public Builder callOptions(CallOption... options) {
+      this.options = Preconditions.checkNotNull(options);
+      return this;
+    }
+
+    /** Set the number of concurrent uploads. */
+    public Builder partitions(int partitions) {
+      Preconditions.checkArgument(partitions > 0, "partitions must be positive");
+      this.partitions = partitions;
+      return this;
+    }
+
+    /** Set the number of batches each upload may buffer before writes block. */
+    public Builder maxQueuedBatches(int maxQueuedBatches) {
+      Preconditions.checkArgument(maxQueuedBatches > 0, "maxQueuedBatches must be positive");
+      this.maxQueuedBatches = maxQueuedBatches;
+      return this;
+    }
+
+    /**
+     * Set the maximum size of the bodies each upload sent without an acknowledgement from the server. Only use this
+     * against servers acknowledging batches like {@link IngestingFlightProducer}, otherwise uploads stall. Unbounded
+     * by default.
+     */
+    public Builder maxUnacknowledgedBytes(long maxUnacknowledgedBytes) {
+      Preconditions.checkArgument(maxUnacknowledgedBytes > 0, "maxUnacknowledgedBytes must be positive");
+      this.maxUnacknowledgedBytes = maxUnacknowledgedBytes;
+      return this;
+    }
+
+    /** Start the uploads. */
+    public ParallelFlightWriter build() {
+      return new ParallelFlightWriter(this);
+    }
+  }
+}
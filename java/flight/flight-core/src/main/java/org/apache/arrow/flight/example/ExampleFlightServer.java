@@ -18,6 +18,7 @@
 package org.apache.arrow.flight.example;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 import org.apache.arrow.flight.FlightServer;
 import org.apache.arrow.flight.Location;
@@ -48,6 +49,17 @@ public class ExampleFlightServer implements AutoCloseable {
     this.flightServer = FlightServer.builder(allocator, location, mem).build();
   }
 
+  /**
+   * Constructs a new instance that spills streams to the given directory once they hold more than
+   * <code>memoryLimit</code> bytes.
+   */
+  public ExampleFlightServer(BufferAllocator allocator, Location location, Path spillDirectory, long memoryLimit) {
+    this.allocator = allocator.newChildAllocator("flight-server", 0, Long.MAX_VALUE);
+    this.location = location;
+    this.mem = new InMemoryStore(this.allocator, location, spillDirectory, memoryLimit);
+    this.flightServer = FlightServer.builder(allocator, location, mem).build();
+  }
+
   public Location getLocation() {
     return location;
   }
@@ -18,6 +18,7 @@
 package org.apache.arrow.flight.example;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -88,11 +89,39 @@ public class FlightHolder implements AutoCloseable {
     });
   }
 
+  /**
+   * Returns the streams that were completed so far.
+   */
+  public List<Stream> getStreams() {
+    return Collections.unmodifiableList(streams);
+  }
+
+  /**
+   * Returns a snapshot of the statistics of the streams.
+   */
+  public Statistics getStatistics() {
+    int spilledStreams = 0;
+    long spilledBytes = 0;
+    long memoryReads = 0;
+    long diskReads = 0;
+    for (Stream s : streams) {
+      if (s.isSpilled()) {
+        spilledStreams++;
+      }
+      spilledBytes += s.getSpilledBytes();
+      memoryReads += s.getMemoryReads();
+      diskReads += s.getDiskReads();
+    }
+    return new Statistics(streams.size(), spilledStreams, allocator.getAllocatedMemory(), spilledBytes,
+        memoryReads, diskReads);
+  }
+
   /**
    * List all available streams as being available at <code>l</code>.
    */
   public FlightInfo getFlightInfo(final Location l) {
-    final long bytes = allocator.getAllocatedMemory();
+    final long bytes = allocator.getAllocatedMemory() +
+        streams.stream().collect(Collectors.summingLong(Stream::getSpilledBytes));
     final long records = streams.stream().collect(Collectors.summingLong(t -> t.getRecordCount()));
 
     final List<FlightEndpoint> endpoints = new ArrayList<>();
@@ -128,4 +157,65 @@ public class FlightHolder implements AutoCloseable {
 
     AutoCloseables.close(Iterables.concat(streams, ImmutableList.of(allocator), dictionaries));
   }
+
+  /**
+   * Statistics of the streams of a descriptor.
+   */
+  public static class Statistics {
+    private final int streamCount;
+    private final int spilledStreamCount;
+    private final long memoryBytes;
+    private final long spilledBytes;
+    private final long memoryReads;
+    private final long diskReads;
+
+    Statistics(int streamCount, int spilledStreamCount, long memoryBytes, long spilledBytes,
+        long memoryReads, long diskReads) {
+      this.streamCount = streamCount;
+      this.spilledStreamCount = spilledStreamCount;
+      this.memoryBytes = memoryBytes;
+      this.spilledBytes = spilledBytes;
+      this.memoryReads = memoryReads;
+      this.diskReads = diskReads;
+    }
+
+    public int getStreamCount() {
+      return streamCount;
+    }
+
+    public int getSpilledStreamCount() {
+      return spilledStreamCount;
+    }
+
+    /**
+     * Returns the memory held by the streams still in memory and by the dictionaries.
+     */
+    public long getMemoryBytes() {
+      return memoryBytes;
+    }
+
+    public long getSpilledBytes() {
+      return spilledBytes;
+    }
+
+    public long getMemoryReads() {
+      return memoryReads;
+    }
+
+    public long getDiskReads() {
+      return diskReads;
+    }
+
+    @Override
+    public String toString() {
+      return "Statistics{" +
+          "streamCount=" + streamCount +
+          ", spilledStreamCount=" + spilledStreamCount +
+          ", memoryBytes=" + memoryBytes +
+          ", spilledBytes=" + spilledBytes +
+          ", memoryReads=" + memoryReads +
+          ", diskReads=" + diskReads +
+          '}';
+    }
+  }
 }
@@ -17,6 +17,11 @@
 
 package org.apache.arrow.flight.example;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -35,16 +40,24 @@ import org.apache.arrow.flight.Ticket;
 import org.apache.arrow.flight.example.Stream.StreamCreator;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.VectorUnloader;
 
 /**
  * A FlightProducer that hosts an in memory store of Arrow buffers. Used for integration testing.
+ *
+ * <p>If given a spill directory, the store keeps the memory it holds under a limit by writing the least recently
+ * used streams to Arrow IPC files in that directory, and serves them from there afterwards.
  */
 public class InMemoryStore implements FlightProducer, AutoCloseable {
 
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(InMemoryStore.class);
+
   private final ConcurrentMap<FlightDescriptor, FlightHolder> holders = new ConcurrentHashMap<>();
   private final BufferAllocator allocator;
+  private final Path spillDirectory;
+  private final long memoryLimit;
   private Location location;
 
   /**
@@ -57,6 +70,24 @@ public class InMemoryStore implements FlightProducer, AutoCloseable {
     super();
     this.allocator = allocator;
     this.location = location;
+    this.spillDirectory = null;
+    this.memoryLimit = Long.MAX_VALUE;
+  }
+
+  /**
+   * Constructs a new instance spilling streams to disk.
+   *
+   * @param allocator The allocator for creating new Arrow buffers.
+   * @param location The location of the storage.
+   * @param spillDirectory The directory to write spilled streams to.
+   * @param memoryLimit The number of bytes of <code>allocator</code> above which streams are spilled.
+   */
+  public InMemoryStore(BufferAllocator allocator, Location location, Path spillDirectory, long memoryLimit) {
+    Preconditions.checkArgument(memoryLimit >= 0, "Memory limit must be non-negative");
+    this.allocator = allocator;
+    this.location = location;
+    this.spillDirectory = Preconditions.checkNotNull(spillDirectory);
+    this.memoryLimit = memoryLimit;
   }
 
   /**
@@ -110,6 +141,18 @@ public class InMemoryStore implements FlightProducer, AutoCloseable {
     return h.getFlightInfo(location);
   }
 
+  /**
+   * Returns the statistics of the streams of a descriptor.
+   */
+  public FlightHolder.Statistics getStatistics(FlightDescriptor descriptor) {
+    FlightHolder h = holders.get(descriptor);
+    if (h == null) {
+      throw new IllegalStateException("Unknown descriptor.");
+    }
+
+    return h.getStatistics();
+  }
+
   @Override
   public Runnable acceptPut(CallContext context,
       final FlightStream flightStream, final StreamListener<PutResult> ackStream) {
@@ -127,11 +170,13 @@ public class InMemoryStore implements FlightProducer, AutoCloseable {
         while (flightStream.next()) {
           ackStream.onNext(PutResult.metadata(flightStream.getLatestMetadata()));
           creator.add(unloader.getRecordBatch());
+          spillIfNeeded();
         }
         // Closing the stream will release the dictionaries
         flightStream.takeDictionaryOwnership();
         creator.complete();
         success = true;
+        spillIfNeeded();
       } finally {
         if (!success) {
           creator.drop();
@@ -142,6 +187,36 @@ public class InMemoryStore implements FlightProducer, AutoCloseable {
 
   }
 
+  /**
+   * Spill the least recently used streams until the memory held by the store is under the limit.
+   */
+  private synchronized void spillIfNeeded() {
+    if (spillDirectory == null || allocator.getAllocatedMemory() <= memoryLimit) {
+      return;
+    }
+    final List<Stream> candidates = new ArrayList<>();
+    for (FlightHolder h : holders.values()) {
+      for (Stream s : h.getStreams()) {
+        if (!s.isSpilled()) {
+          candidates.add(s);
+        }
+      }
+    }
+    candidates.sort(Comparator.comparingLong(Stream::getLastAccessNanos));
+    for (Stream s : candidates) {
+      if (allocator.getAllocatedMemory() <= memoryLimit) {
+        return;
+      }
+      try {
+        s.spill(spillDirectory, allocator);
+      } catch (IOException e) {
+        // The stream is still served from memory
+        logger.warn("Could not spill stream {}", s.getUuid(), e);
+        return;
+      }
+    }
+  }
+
   @Override
   public void doAction(CallContext context, Action action,
       StreamListener<Result> listener) {
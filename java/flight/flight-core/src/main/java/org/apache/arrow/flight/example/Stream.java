@@ -17,20 +17,31 @@
 
 package org.apache.arrow.flight.example;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
 import org.apache.arrow.flight.FlightProducer.ServerStreamListener;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.util.Preconditions;
 import org.apache.arrow.vector.VectorLoader;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.types.pojo.Schema;
 
@@ -39,14 +50,25 @@ import com.google.common.collect.ImmutableList;
 
 /**
  * A collection of Arrow record batches.
+ *
+ * <p>The batches are held in memory until the stream is {@link #spill(Path, BufferAllocator) spilled} to an Arrow
+ * IPC file, after which the stream is served from that file.
  */
 public class Stream implements AutoCloseable, Iterable<ArrowRecordBatch> {
 
   private final String uuid = UUID.randomUUID().toString();
   private final DictionaryProvider dictionaryProvider;
-  private final List<ArrowRecordBatch> batches;
   private final Schema schema;
   private final long recordCount;
+  // Guards the transition from memory to disk: sending from memory holds the read lock, spilling the write lock.
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicLong memoryReads = new AtomicLong();
+  private final AtomicLong diskReads = new AtomicLong();
+  private volatile long lastAccessNanos = System.nanoTime();
+  // null once the stream was spilled
+  private List<ArrowRecordBatch> batches;
+  private volatile Path spillFile;
+  private long spilledBytes;
 
   /**
    * Create a new instance.
@@ -70,8 +92,15 @@ public class Stream implements AutoCloseable, Iterable<ArrowRecordBatch> {
     return schema;
   }
 
+  /**
+   * Iterate over the batches of the stream.
+   *
+   * @throws IllegalStateException if the stream was spilled to disk.
+   */
   @Override
   public Iterator<ArrowRecordBatch> iterator() {
+    final List<ArrowRecordBatch> batches = this.batches;
+    Preconditions.checkState(batches != null, "Stream was spilled to disk.");
     return batches.iterator();
   }
 
@@ -83,10 +112,63 @@ public class Stream implements AutoCloseable, Iterable<ArrowRecordBatch> {
     return uuid;
   }
 
+  public boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  /**
+   * Returns the size of the spill file, or 0 if the stream is in memory.
+   */
+  public long getSpilledBytes() {
+    lock.readLock().lock();
+    try {
+      return spilledBytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of times the stream was sent from memory.
+   */
+  public long getMemoryReads() {
+    return memoryReads.get();
+  }
+
+  /**
+   * Returns the number of times the stream was sent from its spill file.
+   */
+  public long getDiskReads() {
+    return diskReads.get();
+  }
+
+  /**
+   * Returns the {@link System#nanoTime()} of the last time the stream was created or sent.
+   */
+  public long getLastAccessNanos() {
+    return lastAccessNanos;
+  }
+
   /**
    * Sends that data from this object to the given listener.
    */
   public void sendTo(BufferAllocator allocator, ServerStreamListener listener) {
+    lastAccessNanos = System.nanoTime();
+    lock.readLock().lock();
+    try {
+      if (batches != null) {
+        memoryReads.incrementAndGet();
+        sendFromMemory(allocator, listener);
+        return;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    diskReads.incrementAndGet();
+    sendFromFile(allocator, listener);
+  }
+
+  private void sendFromMemory(BufferAllocator allocator, ServerStreamListener listener) {
     try (VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
       listener.start(root, dictionaryProvider);
       final VectorLoader loader = new VectorLoader(root);
@@ -106,6 +188,66 @@ public class Stream implements AutoCloseable, Iterable<ArrowRecordBatch> {
     }
   }
 
+  private void sendFromFile(BufferAllocator allocator, ServerStreamListener listener) {
+    try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ);
+         ArrowFileReader reader = new ArrowFileReader(channel, allocator)) {
+      // The dictionaries of the file are a copy of the ones held by the provider
+      listener.start(reader.getVectorSchemaRoot(), dictionaryProvider);
+      int counter = 0;
+      while (reader.loadNextBatch()) {
+        final byte[] rawMetadata = Integer.toString(counter).getBytes(StandardCharsets.UTF_8);
+        final ArrowBuf metadata = allocator.buffer(rawMetadata.length);
+        metadata.writeBytes(rawMetadata);
+        listener.putNext(metadata);
+        counter++;
+      }
+      listener.completed();
+    } catch (Exception ex) {
+      listener.error(ex);
+    }
+  }
+
+  /**
+   * Writes the batches to a file in the given directory and releases their memory.
+   *
+   * @param directory The directory to create the file in.
+   * @param allocator The allocator used while writing the batches.
+   * @return false if the stream was already spilled or is being sent from memory.
+   * @throws IOException if the file could not be written, in which case the stream stays in memory.
+   */
+  public boolean spill(Path directory, BufferAllocator allocator) throws IOException {
+    if (!lock.writeLock().tryLock()) {
+      return false;
+    }
+    try {
+      if (batches == null) {
+        return false;
+      }
+      final Path file = Files.createTempFile(directory, "stream-" + uuid, ".arrow");
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+           VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+           ArrowFileWriter writer = new ArrowFileWriter(root, dictionaryProvider, channel)) {
+        final VectorLoader loader = new VectorLoader(root);
+        writer.start();
+        for (ArrowRecordBatch batch : batches) {
+          loader.load(batch);
+          writer.writeBatch();
+        }
+        writer.end();
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(file);
+        throw e;
+      }
+      spilledBytes = Files.size(file);
+      spillFile = file;
+      batches.forEach(ArrowRecordBatch::close);
+      batches = null;
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
   /**
    * Throws an IllegalStateException if the given ticket doesn't correspond to this stream.
    */
@@ -117,7 +259,17 @@ public class Stream implements AutoCloseable, Iterable<ArrowRecordBatch> {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(batches);
+    lock.writeLock().lock();
+    try {
+      if (batches != null) {
+        AutoCloseables.close(batches);
+      }
+      if (spillFile != null) {
+        Files.deleteIfExists(spillFile);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
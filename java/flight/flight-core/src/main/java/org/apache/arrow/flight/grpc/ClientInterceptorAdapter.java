@@ -18,7 +18,9 @@
 package org.apache.arrow.flight.grpc;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.arrow.flight.CallInfo;
 import org.apache.arrow.flight.CallStatus;
@@ -46,6 +48,15 @@ import io.grpc.StatusRuntimeException;
  */
 public class ClientInterceptorAdapter implements ClientInterceptor {
 
+  /**
+   * The key of a call option receiving the middleware instances of a call, for the client to connect them to the
+   * streams of the call.
+   *
+   * <p>Applications should not use this directly.
+   */
+  public static final CallOptions.Key<Consumer<List<FlightClientMiddleware>>> CLIENT_MIDDLEWARE_KEY =
+      CallOptions.Key.createWithDefault("arrow.flight.client_middleware", null);
+
   private final List<Factory> factories;
 
   public ClientInterceptorAdapter(List<Factory> factories) {
@@ -70,6 +81,10 @@ public class ClientInterceptorAdapter implements ClientInterceptor {
     } catch (RuntimeException e) {
       throw StatusUtils.fromThrowable(e);
     }
+    final Consumer<List<FlightClientMiddleware>> middlewareConsumer = callOptions.getOption(CLIENT_MIDDLEWARE_KEY);
+    if (middlewareConsumer != null) {
+      middlewareConsumer.accept(Collections.unmodifiableList(middleware));
+    }
     return new FlightClientCall<>(next.newCall(method, callOptions), middleware);
   }
 
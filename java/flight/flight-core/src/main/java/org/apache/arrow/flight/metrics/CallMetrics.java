@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.metrics;
+
+import org.apache.arrow.flight.FlightMethod;
+import org.apache.arrow.flight.FlightStatusCode;
+
+/**
+ * The metrics of a single Flight call, as seen from one end.
+ *
+ * <p>Times are in nanoseconds. The data counters only cover record batches written with
+ * {@link org.apache.arrow.flight.OutboundStreamListener#putNext()} and read from a
+ * {@link org.apache.arrow.flight.FlightStream}.
+ */
+public final class CallMetrics {
+  /**
+   * The end of the call the metrics were recorded at.
+   */
+  public enum Side {
+    CLIENT,
+    SERVER
+  }
+
+  private final Side side;
+  private final FlightMethod method;
+  private final FlightStatusCode status;
+  private final long durationNanos;
+  private final long batchesSent;
+  private final long rowsSent;
+  private final long bytesSent;
+  private final long serializationNanos;
+  private final long backpressureNanos;
+  private final long batchesReceived;
+  private final long rowsReceived;
+  private final long bytesReceived;
+  private final long readWaitNanos;
+  private final long executorWaitNanos;
+
+  CallMetrics(Side side, FlightMethod method, FlightStatusCode status, long durationNanos, CallRecorder recorder) {
+    this.side = side;
+    this.method = method;
+    this.status = status;
+    this.durationNanos = durationNanos;
+    this.batchesSent = recorder.batchesSent.sum();
+    this.rowsSent = recorder.rowsSent.sum();
+    this.bytesSent = recorder.bytesSent.sum();
+    this.serializationNanos = recorder.serializationNanos.sum();
+    this.backpressureNanos = recorder.backpressureNanos.sum();
+    this.batchesReceived = recorder.batchesReceived.sum();
+    this.rowsReceived = recorder.rowsReceived.sum();
+    this.bytesReceived = recorder.bytesReceived.sum();
+    this.readWaitNanos = recorder.readWaitNanos.sum();
+    this.executorWaitNanos = recorder.executorWaitNanos.sum();
+  }
+
+  public Side getSide() {
+    return side;
+  }
+
+  public FlightMethod getMethod() {
+    return method;
+  }
+
+  /**
+   * Get the status the call completed with, or null if it is still running.
+   */
+  public FlightStatusCode getStatus() {
+    return status;
+  }
+
+  /**
+   * Get the time from the start of the call to its completion, or to now if it is still running.
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public long getBatchesSent() {
+    return batchesSent;
+  }
+
+  public long getRowsSent() {
+    return rowsSent;
+  }
+
+  /**
+   * Get the size of the bodies of the batches sent, before compression.
+   */
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  /**
+   * Get the time spent unloading batches and handing them to gRPC.
+   */
+  public long getSerializationNanos() {
+    return serializationNanos;
+  }
+
+  /**
+   * Get the time spent waiting for the other end to accept more data.
+   */
+  public long getBackpressureNanos() {
+    return backpressureNanos;
+  }
+
+  public long getBatchesReceived() {
+    return batchesReceived;
+  }
+
+  public long getRowsReceived() {
+    return rowsReceived;
+  }
+
+  /**
+   * Get the size of the bodies of the batches received, as sent.
+   */
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  /**
+   * Get the time spent in {@link org.apache.arrow.flight.FlightStream#next()} waiting for data to arrive.
+   */
+  public long getReadWaitNanos() {
+    return readWaitNanos;
+  }
+
+  /**
+   * Get the time a streaming call waited for a thread of the server executor before running.
+   */
+  public long getExecutorWaitNanos() {
+    return executorWaitNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "CallMetrics{" +
+        "side=" + side +
+        ", method=" + method +
+        ", status=" + status +
+        ", durationNanos=" + durationNanos +
+        ", batchesSent=" + batchesSent +
+        ", rowsSent=" + rowsSent +
+        ", bytesSent=" + bytesSent +
+        ", serializationNanos=" + serializationNanos +
+        ", backpressureNanos=" + backpressureNanos +
+        ", batchesReceived=" + batchesReceived +
+        ", rowsReceived=" + rowsReceived +
+        ", bytesReceived=" + bytesReceived +
+        ", readWaitNanos=" + readWaitNanos +
+        ", executorWaitNanos=" + executorWaitNanos +
+        '}';
+  }
+}
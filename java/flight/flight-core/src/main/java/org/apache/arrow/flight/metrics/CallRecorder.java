@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightMethod;
+import org.apache.arrow.flight.FlightStreamTracer;
+
+/**
+ * Accumulates the metrics of a call, shared by the client and server middleware.
+ */
+abstract class CallRecorder implements FlightStreamTracer {
+  private final CallMetrics.Side side;
+  private final FlightMethod method;
+  private final FlightMetricsRegistry registry;
+  private final long startNanos = System.nanoTime();
+  private final AtomicBoolean recorded = new AtomicBoolean();
+
+  final LongAdder batchesSent = new LongAdder();
+  final LongAdder rowsSent = new LongAdder();
+  final LongAdder bytesSent = new LongAdder();
+  final LongAdder serializationNanos = new LongAdder();
+  final LongAdder backpressureNanos = new LongAdder();
+  final LongAdder batchesReceived = new LongAdder();
+  final LongAdder rowsReceived = new LongAdder();
+  final LongAdder bytesReceived = new LongAdder();
+  final LongAdder readWaitNanos = new LongAdder();
+  final LongAdder executorWaitNanos = new LongAdder();
+
+  CallRecorder(CallMetrics.Side side, FlightMethod method, FlightMetricsRegistry registry) {
+    this.side = side;
+    this.method = method;
+    this.registry = registry;
+  }
+
+  /**
+   * Get the metrics of the call so far.
+   */
+  public CallMetrics getCallMetrics() {
+    return new CallMetrics(side, method, null, System.nanoTime() - startNanos, this);
+  }
+
+  /**
+   * Hand the metrics of the call to the registry, the first time the call is reported as completed.
+   */
+  void complete(CallStatus status) {
+    if (recorded.compareAndSet(false, true)) {
+      registry.recordCall(new CallMetrics(side, method, status.code(), System.nanoTime() - startNanos, this));
+    }
+  }
+
+  @Override
+  public void onBatchSent(long rowCount, long bodyBytes, long serializationNanos) {
+    batchesSent.increment();
+    rowsSent.add(rowCount);
+    bytesSent.add(bodyBytes);
+    this.serializationNanos.add(serializationNanos);
+  }
+
+  @Override
+  public void onBatchReceived(long rowCount, long bodyBytes) {
+    batchesReceived.increment();
+    rowsReceived.add(rowCount);
+    bytesReceived.add(bodyBytes);
+  }
+
+  @Override
+  public void onBackpressureWait(long nanos) {
+    backpressureNanos.add(nanos);
+  }
+
+  @Override
+  public void onReadWait(long nanos) {
+    readWaitNanos.add(nanos);
+  }
+
+  @Override
+  public void onExecutorWait(long nanos) {
+    executorWaitNanos.add(nanos);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.metrics;
+
+import org.apache.arrow.flight.CallHeaders;
+import org.apache.arrow.flight.CallInfo;
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightClientMiddleware;
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * Client middleware recording the metrics of each call into a {@link FlightMetricsRegistry}.
+ *
+ * <p>Register it with {@link org.apache.arrow.flight.FlightClient.Builder#intercept(FlightClientMiddleware.Factory)}.
+ */
+public final class ClientMetricsMiddleware extends CallRecorder implements FlightClientMiddleware {
+  private ClientMetricsMiddleware(CallInfo info, FlightMetricsRegistry registry) {
+    super(CallMetrics.Side.CLIENT, info.method(), registry);
+  }
+
+  @Override
+  public void onBeforeSendingHeaders(CallHeaders outgoingHeaders) {
+  }
+
+  @Override
+  public void onHeadersReceived(CallHeaders incomingHeaders) {
+  }
+
+  @Override
+  public void onCallCompleted(CallStatus status) {
+    complete(status);
+  }
+
+  /**
+   * A factory for the metrics middleware.
+   */
+  public static final class Factory implements FlightClientMiddleware.Factory {
+    private final FlightMetricsRegistry registry;
+
+    public Factory(FlightMetricsRegistry registry) {
+      this.registry = Preconditions.checkNotNull(registry, "registry must not be null");
+    }
+
+    @Override
+    public ClientMetricsMiddleware onCallStarted(CallInfo info) {
+      return new ClientMetricsMiddleware(info, registry);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.metrics;
+
+/**
+ * Receives the metrics of completed Flight calls, from a {@link ServerMetricsMiddleware} or a
+ * {@link ClientMetricsMiddleware}.
+ *
+ * <p>Implementations may aggregate the calls in process, like {@link InMemoryMetricsRegistry}, or forward them to a
+ * metrics library. They must be thread-safe, and should not block, as they are called from gRPC threads.
+ */
+@FunctionalInterface
+public interface FlightMetricsRegistry {
+  /**
+   * Record a completed call.
+   */
+  void recordCall(CallMetrics metrics);
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.arrow.flight.FlightMethod;
+import org.apache.arrow.flight.FlightStatusCode;
+
+/**
+ * A registry aggregating the metrics of calls in process, per side and {@link FlightMethod}.
+ */
+public class InMemoryMetricsRegistry implements FlightMetricsRegistry {
+  private final Map<CallMetrics.Side, ConcurrentMap<FlightMethod, MethodMetrics>> metrics =
+      new EnumMap<>(CallMetrics.Side.class);
+
+  /**
+   * Create an empty registry.
+   */
+  public InMemoryMetricsRegistry() {
+    for (CallMetrics.Side side : CallMetrics.Side.values()) {
+      metrics.put(side, new ConcurrentHashMap<>());
+    }
+  }
+
+  @Override
+  public void recordCall(CallMetrics call) {
+    metrics.get(call.getSide()).computeIfAbsent(call.getMethod(), m -> new MethodMetrics()).add(call);
+  }
+
+  /**
+   * Get the aggregated metrics of a method, or null if no call of the method completed.
+   */
+  public MethodMetrics getMetrics(CallMetrics.Side side, FlightMethod method) {
+    return metrics.get(side).get(method);
+  }
+
+  /**
+   * Get the aggregated metrics of all methods called on one side.
+   */
+  public Map<FlightMethod, MethodMetrics> getMetrics(CallMetrics.Side side) {
+    return Collections.unmodifiableMap(metrics.get(side));
+  }
+
+  /**
+   * Forget all calls recorded so far.
+   */
+  public void reset() {
+    metrics.values().forEach(Map::clear);
+  }
+
+  /**
+   * The metrics of the calls of a method, summed over the calls.
+   */
+  public static final class MethodMetrics {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder durationNanos = new LongAdder();
+    private final LongAccumulator maxDurationNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder rowsSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder();
+    private final LongAdder backpressureNanos = new LongAdder();
+    private final LongAdder batchesReceived = new LongAdder();
+    private final LongAdder rowsReceived = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder readWaitNanos = new LongAdder();
+    private final LongAdder executorWaitNanos = new LongAdder();
+
+    private MethodMetrics() {
+    }
+
+    private void add(CallMetrics call) {
+      calls.increment();
+      if (call.getStatus() != FlightStatusCode.OK) {
+        failedCalls.increment();
+      }
+      durationNanos.add(call.getDurationNanos());
+      maxDurationNanos.accumulate(call.getDurationNanos());
+      batchesSent.add(call.getBatchesSent());
+      rowsSent.add(call.getRowsSent());
+      bytesSent.add(call.getBytesSent());
+      serializationNanos.add(call.getSerializationNanos());
+      backpressureNanos.add(call.getBackpressureNanos());
+      batchesReceived.add(call.getBatchesReceived());
+      rowsReceived.add(call.getRowsReceived());
+      bytesReceived.add(call.getBytesReceived());
+      readWaitNanos.add(call.getReadWaitNanos());
+      executorWaitNanos.add(call.getExecutorWaitNanos());
+    }
+
+    public long getCalls() {
+      return calls.sum();
+    }
+
+    /**
+     * Get the number of calls which did not complete with {@link FlightStatusCode#OK}.
+     */
+    public long getFailedCalls() {
+      return failedCalls.sum();
+    }
+
+    public long getDurationNanos() {
+      return durationNanos.sum();
+    }
+
+    public long getMaxDurationNanos() {
+      return maxDurationNanos.get();
+    }
+
+    public long getBatchesSent() {
+      return batchesSent.sum();
+    }
+
+    public long getRowsSent() {
+      return rowsSent.sum();
+    }
+
+    public long getBytesSent() {
+      return bytesSent.sum();
+    }
+
+    public long getSerializationNanos() {
+      return serializationNanos.sum();
+    }
+
+    public long getBackpressureNanos() {
+      return backpressureNanos.sum();
+    }
+
+    public long getBatchesReceived() {
+      return batchesReceived.sum();
+    }
+
+    public long getRowsReceived() {
+      return rowsReceived.sum();
+    }
+
+    public long getBytesReceived() {
+      return bytesReceived.sum();
+    }
+
+    public long getReadWaitNanos() {
+      return readWaitNanos.sum();
+    }
+
+    public long getExecutorWaitNanos() {
+      return executorWaitNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "MethodMetrics{" +
+          "calls=" + getCalls() +
+          ", failedCalls=" + getFailedCalls() +
+          ", durationNanos=" + getDurationNanos() +
+          ", maxDurationNanos=" + getMaxDurationNanos() +
+          ", batchesSent=" + getBatchesSent() +
+          ", rowsSent=" + getRowsSent() +
+          ", bytesSent=" + getBytesSent() +
+          ", serializationNanos=" + getSerializationNanos() +
+          ", backpressureNanos=" + getBackpressureNanos() +
+          ", batchesReceived=" + getBatchesReceived() +
+          ", rowsReceived=" + getRowsReceived() +
+          ", bytesReceived=" + getBytesReceived() +
+          ", readWaitNanos=" + getReadWaitNanos() +
+          ", executorWaitNanos=" + getExecutorWaitNanos() +
+          '}';
+    }
+  }
+}
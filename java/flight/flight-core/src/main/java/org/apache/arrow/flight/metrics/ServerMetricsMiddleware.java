@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.metrics;
+
+import org.apache.arrow.flight.CallHeaders;
+import org.apache.arrow.flight.CallInfo;
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightServerMiddleware;
+import org.apache.arrow.flight.RequestContext;
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * Server middleware recording the metrics of each call into a {@link FlightMetricsRegistry}.
+ *
+ * <p>Register it with {@link org.apache.arrow.flight.FlightServer.Builder#middleware(FlightServerMiddleware.Key,
+ * FlightServerMiddleware.Factory)}. Producers can inspect the metrics of the current call through
+ * {@link org.apache.arrow.flight.FlightProducer.CallContext#getMiddleware(FlightServerMiddleware.Key)}.
+ */
+public final class ServerMetricsMiddleware extends CallRecorder implements FlightServerMiddleware {
+  /** The key to register the middleware with. */
+  public static final Key<ServerMetricsMiddleware> KEY = Key.of("arrow.flight.metrics");
+
+  private ServerMetricsMiddleware(CallInfo info, FlightMetricsRegistry registry) {
+    super(CallMetrics.Side.SERVER, info.method(), registry);
+  }
+
+  @Override
+  public void onBeforeSendingHeaders(CallHeaders outgoingHeaders) {
+  }
+
+  @Override
+  public void onCallCompleted(CallStatus status) {
+    complete(status);
+  }
+
+  @Override
+  public void onCallErrored(Throwable err) {
+  }
+
+  /**
+   * A factory for the metrics middleware.
+   */
+  public static final class Factory implements FlightServerMiddleware.Factory<ServerMetricsMiddleware> {
+    private final FlightMetricsRegistry registry;
+
+    public Factory(FlightMetricsRegistry registry) {
+      this.registry = Preconditions.checkNotNull(registry, "registry must not be null");
+    }
+
+    @Override
+    public ServerMetricsMiddleware onCallStarted(CallInfo info, CallHeaders incomingHeaders,
+                                                 RequestContext context) {
+      return new ServerMetricsMiddleware(info, registry);
+    }
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestAsyncClient {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+  private static final int BATCHES = 10;
+  private static final Ticket TICKET_DATA = new Ticket("data".getBytes(StandardCharsets.UTF_8));
+  private static final Ticket TICKET_ERROR = new Ticket("error".getBytes(StandardCharsets.UTF_8));
+
+  private BufferAllocator allocator;
+  private FlightServer server;
+  private FlightClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Integer.MAX_VALUE);
+    final Location serverLocation = Location.forGrpcInsecure(FlightTestUtil.LOCALHOST, 0);
+    server = FlightServer.builder(allocator, serverLocation, new Producer(allocator)).build();
+    server.start();
+    final Location clientLocation = Location.forGrpcInsecure(FlightTestUtil.LOCALHOST, server.getPort());
+    client = FlightClient.builder(allocator, clientLocation).build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(client, server, allocator);
+  }
+
+  @Test
+  public void testGetInfoAsync() throws Exception {
+    final FlightInfo info = client.getInfoAsync(FlightDescriptor.path("test")).get(5, TimeUnit.SECONDS);
+    assertEquals(SCHEMA, info.getSchema());
+    assertEquals(BATCHES, info.getRecords());
+
+    final SchemaResult schema = client.getSchemaAsync(FlightDescriptor.path("test")).get(5, TimeUnit.SECONDS);
+    assertEquals(SCHEMA, schema.getSchema());
+  }
+
+  @Test
+  public void testGetInfoAsyncError() throws Exception {
+    final ExecutionException e = assertThrowsExecution(client.getInfoAsync(FlightDescriptor.path("missing")));
+    assertEquals(FlightStatusCode.NOT_FOUND, ((FlightRuntimeException) e.getCause()).status().code());
+  }
+
+  @Test
+  public void testDoActionAsync() throws Exception {
+    final CollectingListener<Result> listener = new CollectingListener<>();
+    client.doActionAsync(new Action("echo", new byte[] {1, 2, 3}), listener);
+    final List<Result> results = listener.completed.get(5, TimeUnit.SECONDS);
+    assertEquals(1, results.size());
+    assertEquals(3, results.get(0).getBody().length);
+
+    final CollectingListener<FlightInfo> flights = new CollectingListener<>();
+    client.listFlightsAsync(Criteria.ALL, flights);
+    assertEquals(1, flights.completed.get(5, TimeUnit.SECONDS).size());
+  }
+
+  @Test
+  public void testGetStreamAsync() throws Exception {
+    final RequestingListener listener = new RequestingListener(BATCHES);
+    client.getStreamAsync(TICKET_DATA, listener);
+    listener.completed.get(5, TimeUnit.SECONDS);
+    assertEquals(SCHEMA, listener.schema);
+    assertEquals(BATCHES, listener.values.size());
+    for (int i = 0; i < BATCHES; i++) {
+      assertEquals(Integer.valueOf(i), listener.values.get(i));
+    }
+  }
+
+  @Test
+  public void testGetStreamAsyncCancel() throws Exception {
+    final RequestingListener listener = new RequestingListener(2);
+    client.getStreamAsync(TICKET_DATA, listener);
+    final ExecutionException e = assertThrowsExecution(listener.completed);
+    assertEquals(FlightStatusCode.CANCELLED, ((FlightRuntimeException) e.getCause()).status().code());
+    assertEquals(2, listener.values.size());
+  }
+
+  @Test
+  public void testGetStreamAsyncError() throws Exception {
+    final RequestingListener listener = new RequestingListener(BATCHES);
+    client.getStreamAsync(TICKET_ERROR, listener);
+    final ExecutionException e = assertThrowsExecution(listener.completed);
+    assertEquals(FlightStatusCode.INVALID_ARGUMENT, ((FlightRuntimeException) e.getCause()).status().code());
+  }
+
+  private static ExecutionException assertThrowsExecution(CompletableFuture<?> future) throws Exception {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof FlightRuntimeException);
+      return e;
+    }
+    throw new AssertionError("Expected the future to fail");
+  }
+
+  /** Requests one batch at a time, and cancels the stream after a given number of batches. */
+  static class RequestingListener implements FlightStreamListener {
+    final CompletableFuture<Void> completed = new CompletableFuture<>();
+    final List<Integer> values = new ArrayList<>();
+    final int limit;
+    Schema schema;
+    StreamSubscription subscription;
+
+    RequestingListener(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void onStart(StreamSubscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onSchema(VectorSchemaRoot root, DictionaryProvider dictionaries) {
+      schema = root.getSchema();
+    }
+
+    @Override
+    public void onNext(VectorSchemaRoot root, ArrowBuf metadata) {
+      values.add(((IntVector) root.getVector(0)).get(0));
+      if (values.size() < limit) {
+        subscription.request(1);
+      } else {
+        subscription.cancel("Enough data", null);
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      completed.completeExceptionally(t);
+    }
+
+    @Override
+    public void onCompleted() {
+      completed.complete(null);
+    }
+  }
+
+  static class CollectingListener<T> implements FlightProducer.StreamListener<T> {
+    final CompletableFuture<List<T>> completed = new CompletableFuture<>();
+    final List<T> results = new ArrayList<>();
+
+    @Override
+    public void onNext(T val) {
+      results.add(val);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      completed.completeExceptionally(t);
+    }
+
+    @Override
+    public void onCompleted() {
+      completed.complete(results);
+    }
+  }
+
+  static class Producer extends NoOpFlightProducer {
+    private final BufferAllocator allocator;
+
+    Producer(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      if (ticket.equals(TICKET_ERROR)) {
+        listener.error(CallStatus.INVALID_ARGUMENT.withDescription("Bad ticket").toRuntimeException());
+        return;
+      }
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        final IntVector vector = (IntVector) root.getVector(0);
+        listener.start(root);
+        for (int i = 0; i < BATCHES; i++) {
+          if (listener.isCancelled()) {
+            break;
+          }
+          vector.setSafe(0, i);
+          root.setRowCount(1);
+          listener.putNext();
+        }
+        listener.completed();
+      }
+    }
+
+    @Override
+    public FlightInfo getFlightInfo(CallContext context, FlightDescriptor descriptor) {
+      if (!descriptor.equals(FlightDescriptor.path("test"))) {
+        throw CallStatus.NOT_FOUND.withDescription("Unknown descriptor").toRuntimeException();
+      }
+      return new FlightInfo(SCHEMA, descriptor, Collections.singletonList(new FlightEndpoint(TICKET_DATA)),
+          -1, BATCHES);
+    }
+
+    @Override
+    public void listFlights(CallContext context, Criteria criteria, StreamListener<FlightInfo> listener) {
+      listener.onNext(getFlightInfo(context, FlightDescriptor.path("test")));
+      listener.onCompleted();
+    }
+
+    @Override
+    public void doAction(CallContext context, Action action, StreamListener<Result> listener) {
+      listener.onNext(new Result(action.getBody()));
+      listener.onCompleted();
+    }
+  }
+}
@@ -17,16 +17,25 @@
 
 package org.apache.arrow.flight;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.apache.arrow.flight.perf.PerformanceTestServer;
 import org.apache.arrow.flight.perf.TestPerf;
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.message.IpcOption;
 import org.apache.arrow.vector.types.Types.MinorType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -78,6 +87,112 @@ public class TestBackPressure {
     ensureWaitUntilProceed(new RecordingCallbackBackpressureStrategy(), true);
   }
 
+  /**
+   * Make sure that streams waiting on the client don't hold on to the threads of the producer.
+   */
+  @Test
+  public void asyncStreamsShareThreads() throws Exception {
+    serveAsyncStreams(0);
+  }
+
+  /**
+   * Same as {@link #asyncStreamsShareThreads()}, letting the producer get ahead of gRPC.
+   */
+  @Test
+  public void asyncStreamsWithWatermark() throws Exception {
+    serveAsyncStreams(1024 * 1024);
+  }
+
+  /**
+   * A high watermark can't be enforced on a listener whose bytes can't be counted.
+   */
+  @Test
+  public void asyncWatermarkRequiresMeteredListener() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertThrows(IllegalArgumentException.class,
+          () -> new BackpressureStrategy.AsyncBackpressureStrategy(executor, 1024).register(new WrappingListener()));
+      new BackpressureStrategy.AsyncBackpressureStrategy(executor).register(new WrappingListener());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void serveAsyncStreams(long highWatermark) throws Exception {
+    final int streams = 16;
+    final int batches = 100;
+    final Schema pojoSchema = new Schema(ImmutableList.of(Field.nullable("a", MinorType.BIGINT.getType())));
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE)) {
+      final FlightProducer producer = new NoOpFlightProducer() {
+        @Override
+        public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+          final BackpressureStrategy.AsyncBackpressureStrategy bpStrategy =
+              new BackpressureStrategy.AsyncBackpressureStrategy(executor, highWatermark);
+          bpStrategy.register(listener);
+          final VectorSchemaRoot root = VectorSchemaRoot.create(pojoSchema, allocator);
+          listener.start(root);
+          bpStrategy.whenReady(new Consumer<BackpressureStrategy.WaitResult>() {
+            private int sent = 0;
+
+            @Override
+            public void accept(BackpressureStrategy.WaitResult result) {
+              if (result != BackpressureStrategy.WaitResult.READY) {
+                root.close();
+                return;
+              }
+              while (bpStrategy.isReady()) {
+                if (sent == batches) {
+                  listener.completed();
+                  root.close();
+                  return;
+                }
+                root.allocateNew();
+                root.setRowCount(BATCH_SIZE);
+                listener.putNext();
+                sent++;
+              }
+              bpStrategy.whenReady(this);
+            }
+          });
+        }
+      };
+
+      try (
+          BufferAllocator serverAllocator = allocator.newChildAllocator("server", 0, Long.MAX_VALUE);
+          FlightServer server =
+              FlightTestUtil.getStartedServer((location) -> FlightServer.builder(serverAllocator, location, producer)
+                  .build());
+          BufferAllocator clientAllocator = allocator.newChildAllocator("client", 0, Long.MAX_VALUE);
+          FlightClient client = FlightClient.builder(clientAllocator, server.getLocation()).build()
+      ) {
+        final List<FlightStream> flightStreams = new ArrayList<>();
+        try {
+          for (int i = 0; i < streams; i++) {
+            flightStreams.add(client.getStream(new Ticket(new byte[1])));
+          }
+          // A producer blocking its threads would never get to the streams opened last
+          for (int i = streams - 1; i >= 0; i--) {
+            int count = 0;
+            final FlightStream stream = flightStreams.get(i);
+            while (stream.next()) {
+              stream.getRoot().clear();
+              count++;
+            }
+            Assert.assertEquals(batches, count);
+          }
+        } finally {
+          for (FlightStream stream : flightStreams) {
+            stream.close();
+          }
+        }
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
   /**
    * Make sure that failing to consume one stream doesn't block other streams.
    */
@@ -259,4 +374,45 @@ public class TestBackPressure {
       return result;
     }
   }
+
+  /** A listener standing for one wrapping the listener Flight passes to the producer. */
+  private static class WrappingListener implements FlightProducer.ServerStreamListener {
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable handler) {
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void start(VectorSchemaRoot root, DictionaryProvider dictionaries, IpcOption option) {
+    }
+
+    @Override
+    public void putNext() {
+    }
+
+    @Override
+    public void putNext(ArrowBuf metadata) {
+    }
+
+    @Override
+    public void putMetadata(ArrowBuf metadata) {
+    }
+
+    @Override
+    public void error(Throwable ex) {
+    }
+
+    @Override
+    public void completed() {
+    }
+  }
 }
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test caching the streams of a producer.
+ */
+public class TestCachingFlightProducer {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+
+  private BufferAllocator allocator;
+  private Producer producer;
+  private CachingFlightProducer cache;
+  private FlightServer server;
+  private FlightClient client;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    producer = new Producer(allocator);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(client, server, cache, allocator);
+  }
+
+  private void start(CachingFlightProducer cache) throws Exception {
+    AutoCloseables.close(client, server, this.cache);
+    this.cache = cache;
+    server = FlightTestUtil.getStartedServer(location -> FlightServer.builder(allocator, location, cache).build());
+    client = FlightClient.builder(allocator, server.getLocation()).build();
+  }
+
+  @Test
+  public void testHit() throws Exception {
+    start(new CachingFlightProducer(producer, allocator, Long.MAX_VALUE));
+    final List<String> first = read("a");
+    assertEquals(first, read("a"));
+    assertEquals(first, read("a"));
+    assertEquals(1, producer.getCalls("a"));
+
+    final CachingFlightProducer.Stats stats = cache.getStats();
+    assertEquals(1, stats.getEntries());
+    assertEquals(2, stats.getHits());
+    assertEquals(1, stats.getMisses());
+    assertEquals(0, stats.getEvictions());
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    start(new CachingFlightProducer(producer, allocator, Long.MAX_VALUE, 50, TimeUnit.MILLISECONDS));
+    final List<String> first = read("a");
+    Thread.sleep(100);
+    assertEquals(first, read("a"));
+    assertEquals(2, producer.getCalls("a"));
+    assertEquals(1, cache.getStats().getEvictions());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    start(new CachingFlightProducer(producer, allocator, Long.MAX_VALUE));
+    read("a");
+    final long size = cache.getStats().getBytes();
+
+    // Room for one stream only
+    start(new CachingFlightProducer(producer, allocator, size + size / 2));
+    read("a");
+    read("b");
+    read("b");
+    read("a");
+    assertEquals(3, producer.getCalls("a"));
+    assertEquals(1, producer.getCalls("b"));
+    final CachingFlightProducer.Stats stats = cache.getStats();
+    assertEquals(1, stats.getEntries());
+    assertEquals(2, stats.getEvictions());
+    assertEquals(size, stats.getBytes());
+
+    // Too large to be cached at all
+    start(new CachingFlightProducer(producer, allocator, size / 2));
+    read("a");
+    read("a");
+    assertEquals(5, producer.getCalls("a"));
+    assertEquals(0, cache.getStats().getEntries());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    start(new CachingFlightProducer(producer, allocator, Long.MAX_VALUE));
+    final List<String> first = read("a");
+    read("b");
+
+    // A put changes the data of every ticket
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final FlightClient.ClientStreamListener stream =
+          client.startPut(FlightDescriptor.path("put"), root, new AsyncPutListener());
+      stream.completed();
+      stream.getResult();
+    }
+    assertEquals(0, cache.getStats().getEntries());
+    assertNotEquals(first, read("a"));
+    assertEquals(2, producer.getCalls("a"));
+
+    cache.invalidate(new Ticket("a".getBytes(StandardCharsets.UTF_8)));
+    read("a");
+    read("b");
+    assertEquals(3, producer.getCalls("a"));
+    assertEquals(2, producer.getCalls("b"));
+    assertEquals(2, cache.getStats().getEntries());
+  }
+
+  @Test
+  public void testInvalidateWhileRecording() throws Exception {
+    start(new CachingFlightProducer(producer, allocator, Long.MAX_VALUE));
+    // The stream is recorded before the invalidation, but completes after it
+    producer.beforeCompleted = () -> cache.invalidateAll();
+    read("a");
+    assertEquals(0, cache.getStats().getEntries());
+
+    producer.beforeCompleted = () -> cache.invalidate(new Ticket("b".getBytes(StandardCharsets.UTF_8)));
+    read("a");
+    assertEquals(0, cache.getStats().getEntries());
+
+    producer.beforeCompleted = null;
+    read("a");
+    read("a");
+    assertEquals(3, producer.getCalls("a"));
+    assertEquals(1, cache.getStats().getEntries());
+  }
+
+  @Test
+  public void testKeyFunction() throws Exception {
+    // Stands for the identity of the caller
+    final AtomicInteger peer = new AtomicInteger();
+    start(new CachingFlightProducer(producer, allocator, Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS,
+        (context, ticket) -> Arrays.asList(peer.get(), ticket)));
+    final List<String> first = read("a");
+    peer.set(1);
+    assertEquals(first, read("a"));
+    assertEquals(2, producer.getCalls("a"));
+    peer.set(0);
+    read("a");
+    assertEquals(2, producer.getCalls("a"));
+    assertEquals(2, cache.getStats().getEntries());
+
+    // Invalidating a ticket removes the entries of all callers
+    cache.invalidate(new Ticket("a".getBytes(StandardCharsets.UTF_8)));
+    assertEquals(0, cache.getStats().getEntries());
+  }
+
+  /** Read a stream into a list of its rows and metadata. */
+  private List<String> read(String ticket) throws Exception {
+    final List<String> contents = new ArrayList<>();
+    try (final FlightStream stream = client.getStream(new Ticket(ticket.getBytes(StandardCharsets.UTF_8)))) {
+      while (stream.next()) {
+        final StringBuilder builder = new StringBuilder();
+        final IntVector vector = (IntVector) stream.getRoot().getVector(0);
+        for (int i = 0; i < stream.getRoot().getRowCount(); i++) {
+          builder.append(vector.get(i)).append(',');
+        }
+        if (stream.getLatestMetadata() != null) {
+          builder.append(stream.getLatestMetadata().getInt(0));
+        }
+        contents.add(builder.toString());
+      }
+    }
+    return contents;
+  }
+
+  /**
+   * Serves a few batches per ticket, whose values change after each DoPut.
+   */
+  private static class Producer extends NoOpFlightProducer {
+    private final BufferAllocator allocator;
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile Runnable beforeCompleted;
+
+    Producer(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    int getCalls(String ticket) {
+      return calls.computeIfAbsent(ticket, k -> new AtomicInteger()).get();
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      final String key = new String(ticket.getBytes(), StandardCharsets.UTF_8);
+      calls.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+      final int base = version.get() * 100 + key.hashCode();
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        listener.start(root);
+        final IntVector vector = (IntVector) root.getVector(0);
+        for (int batch = 0; batch < 3; batch++) {
+          vector.allocateNew(10);
+          for (int i = 0; i < 10; i++) {
+            vector.set(i, base + batch * 10 + i);
+          }
+          root.setRowCount(10);
+          final ArrowBuf metadata = allocator.buffer(4);
+          metadata.writeInt(batch);
+          listener.putNext(metadata);
+        }
+        final ArrowBuf metadata = allocator.buffer(4);
+        metadata.writeInt(-1);
+        listener.putMetadata(metadata);
+        final Runnable beforeCompleted = this.beforeCompleted;
+        if (beforeCompleted != null) {
+          beforeCompleted.run();
+        }
+        listener.completed();
+      }
+    }
+
+    @Override
+    public Runnable acceptPut(CallContext context, FlightStream flightStream, StreamListener<PutResult> ackStream) {
+      return () -> {
+        while (flightStream.next()) {
+          // Ignore the data
+        }
+        version.incrementAndGet();
+        ackStream.onCompleted();
+      };
+    }
+  }
+}
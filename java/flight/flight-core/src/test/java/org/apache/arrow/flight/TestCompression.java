@@ -0,0 +1,327 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.MetadataVersion;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test compression of IPC message bodies in Flight calls.
+ */
+public class TestCompression {
+  private static final int ROW_COUNT = 1024;
+  private static final Schema SCHEMA = new Schema(Arrays.asList(
+      Field.nullable("ints", new ArrowType.Int(32, true)),
+      Field.nullable("strings", new ArrowType.Utf8())));
+
+  private BufferAllocator allocator;
+  private CountingCodecFactory serverFactory;
+  private CountingCodecFactory clientFactory;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    serverFactory = new CountingCodecFactory();
+    clientFactory = new CountingCodecFactory();
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testGetCompressed() throws Exception {
+    try (final FlightServer server = startServer(CompressionUtil.CodecType.LZ4_FRAME);
+         final FlightClient client = connect(server, CompressionUtil.CodecType.LZ4_FRAME);
+         final FlightStream stream = client.getStream(new Ticket(new byte[0]))) {
+      assertTrue(stream.next());
+      validateRoot(stream.getRoot());
+      assertFalse(stream.next());
+    }
+    assertTrue(serverFactory.compressed.get() > 0);
+    assertTrue(clientFactory.decompressed.get() > 0);
+  }
+
+  @Test
+  public void testGetClientWithoutCompression() throws Exception {
+    // The client does not advertise any codec, so the server must not compress.
+    try (final FlightServer server = startServer(CompressionUtil.CodecType.ZSTD);
+         final FlightClient client = connect(server, CompressionUtil.CodecType.NO_COMPRESSION);
+         final FlightStream stream = client.getStream(new Ticket(new byte[0]))) {
+      assertTrue(stream.next());
+      validateRoot(stream.getRoot());
+      assertFalse(stream.next());
+    }
+    assertEquals(0, serverFactory.compressed.get());
+  }
+
+  @Test
+  public void testGetCodecMismatch() throws Exception {
+    // The client accepts a different codec, so the server must not compress.
+    try (final FlightServer server = startServer(CompressionUtil.CodecType.ZSTD);
+         final FlightClient client = connect(server, CompressionUtil.CodecType.LZ4_FRAME);
+         final FlightStream stream = client.getStream(new Ticket(new byte[0]))) {
+      assertTrue(stream.next());
+      validateRoot(stream.getRoot());
+      assertFalse(stream.next());
+    }
+    assertEquals(0, serverFactory.compressed.get());
+  }
+
+  @Test
+  public void testGetV4() throws Exception {
+    // Body compression is not available with V4 metadata.
+    try (final FlightServer server = startServer(CompressionUtil.CodecType.LZ4_FRAME);
+         final FlightClient client = connect(server, CompressionUtil.CodecType.LZ4_FRAME);
+         final FlightStream stream = client.getStream(new Ticket("v4".getBytes(StandardCharsets.UTF_8)))) {
+      assertTrue(stream.next());
+      validateRoot(stream.getRoot());
+      assertFalse(stream.next());
+    }
+    assertEquals(0, serverFactory.compressed.get());
+  }
+
+  @Test
+  public void testPutCompressed() throws Exception {
+    try (final FlightServer server = startServer(CompressionUtil.CodecType.ZSTD);
+         final FlightClient client = connect(server, CompressionUtil.CodecType.ZSTD)) {
+      // The server has not advertised its codec yet, so the first upload is not compressed.
+      put(client);
+      assertEquals(0, clientFactory.compressed.get());
+      put(client);
+    }
+    assertTrue(clientFactory.compressed.get() > 0);
+    assertTrue(serverFactory.decompressed.get() > 0);
+  }
+
+  @Test
+  public void testPutServerWithoutCompression() throws Exception {
+    // The server cannot decompress data, so the client must not compress.
+    try (final FlightServer server = FlightTestUtil.getStartedServer(
+            location -> FlightServer.builder(allocator, location, new CompressionProducer(allocator)).build());
+         final FlightClient client = connect(server, CompressionUtil.CodecType.ZSTD)) {
+      get(client);
+      put(client);
+    }
+    assertEquals(0, clientFactory.compressed.get());
+  }
+
+  @Test
+  public void testPutCodecMismatch() throws Exception {
+    // The server accepts a different codec, so the client must not compress.
+    try (final FlightServer server = startServer(CompressionUtil.CodecType.LZ4_FRAME);
+         final FlightClient client = connect(server, CompressionUtil.CodecType.ZSTD)) {
+      get(client);
+      put(client);
+    }
+    assertEquals(0, clientFactory.compressed.get());
+  }
+
+  @Test
+  public void testExchangeCompressed() throws Exception {
+    try (final FlightServer server = startServer(CompressionUtil.CodecType.LZ4_FRAME);
+         final FlightClient client = connect(server, CompressionUtil.CodecType.LZ4_FRAME)) {
+      // Learn that the server accepts the codec before uploading.
+      get(client);
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator);
+           final FlightClient.ExchangeReaderWriter stream =
+               client.doExchange(FlightDescriptor.command(new byte[0]))) {
+        stream.getWriter().start(root);
+        generateData(root);
+        stream.getWriter().putNext();
+        stream.getWriter().completed();
+        assertTrue(stream.getReader().next());
+        validateRoot(stream.getReader().getRoot());
+        assertFalse(stream.getReader().next());
+      }
+    }
+    assertTrue(clientFactory.compressed.get() > 0);
+    assertTrue(clientFactory.decompressed.get() > 0);
+    assertTrue(serverFactory.compressed.get() > 0);
+    assertTrue(serverFactory.decompressed.get() > 0);
+  }
+
+  private static void get(FlightClient client) throws Exception {
+    try (final FlightStream stream = client.getStream(new Ticket(new byte[0]))) {
+      assertTrue(stream.next());
+      validateRoot(stream.getRoot());
+      assertFalse(stream.next());
+    }
+  }
+
+  private void put(FlightClient client) {
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final SyncPutListener reader = new SyncPutListener();
+      final FlightClient.ClientStreamListener listener =
+          client.startPut(FlightDescriptor.command(new byte[0]), root, reader);
+      generateData(root);
+      listener.putNext();
+      listener.completed();
+      listener.getResult();
+    }
+  }
+
+  private static void generateData(VectorSchemaRoot root) {
+    final IntVector ints = (IntVector) root.getVector("ints");
+    final VarCharVector strings = (VarCharVector) root.getVector("strings");
+    for (int i = 0; i < ROW_COUNT; i++) {
+      ints.setSafe(i, i % 16);
+      strings.setSafe(i, ("value" + (i % 16)).getBytes(StandardCharsets.UTF_8));
+    }
+    root.setRowCount(ROW_COUNT);
+  }
+
+  private static void validateRoot(VectorSchemaRoot root) {
+    assertEquals(SCHEMA, root.getSchema());
+    assertEquals(ROW_COUNT, root.getRowCount());
+    final IntVector ints = (IntVector) root.getVector("ints");
+    final VarCharVector strings = (VarCharVector) root.getVector("strings");
+    for (int i = 0; i < ROW_COUNT; i++) {
+      assertEquals(i % 16, ints.get(i));
+      assertEquals("value" + (i % 16), new String(strings.get(i), StandardCharsets.UTF_8));
+    }
+  }
+
+  private FlightServer startServer(CompressionUtil.CodecType codecType) throws Exception {
+    final FlightServer server = FlightTestUtil.getStartedServer(
+        location -> FlightServer.builder(allocator, location, new CompressionProducer(allocator))
+            .compression(codecType, serverFactory)
+            .build());
+    return server;
+  }
+
+  private FlightClient connect(FlightServer server, CompressionUtil.CodecType codecType) {
+    final Location location = Location.forGrpcInsecure(FlightTestUtil.LOCALHOST, server.getPort());
+    return FlightClient.builder(allocator, location).compression(codecType, clientFactory).build();
+  }
+
+  /** A codec factory counting the buffers compressed and decompressed by its codecs. */
+  static final class CountingCodecFactory implements CompressionCodec.Factory {
+    final AtomicInteger compressed = new AtomicInteger();
+    final AtomicInteger decompressed = new AtomicInteger();
+
+    @Override
+    public CompressionCodec createCodec(CompressionUtil.CodecType codecType) {
+      final CompressionCodec codec = CommonsCompressionFactory.INSTANCE.createCodec(codecType);
+      return new CompressionCodec() {
+        @Override
+        public ArrowBuf compress(BufferAllocator allocator, ArrowBuf uncompressedBuffer) {
+          compressed.incrementAndGet();
+          return codec.compress(allocator, uncompressedBuffer);
+        }
+
+        @Override
+        public ArrowBuf decompress(BufferAllocator allocator, ArrowBuf compressedBuffer) {
+          decompressed.incrementAndGet();
+          return codec.decompress(allocator, compressedBuffer);
+        }
+
+        @Override
+        public CompressionUtil.CodecType getCodecType() {
+          return codec.getCodecType();
+        }
+      };
+    }
+  }
+
+  static final class CompressionProducer extends NoOpFlightProducer {
+    private final BufferAllocator allocator;
+
+    CompressionProducer(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      final IpcOption option = Arrays.equals("v4".getBytes(StandardCharsets.UTF_8), ticket.getBytes()) ?
+          new IpcOption(false, MetadataVersion.V4) : IpcOption.DEFAULT;
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        listener.start(root, null, option);
+        generateData(root);
+        listener.putNext();
+        listener.completed();
+      }
+    }
+
+    @Override
+    public Runnable acceptPut(CallContext context, FlightStream flightStream, StreamListener<PutResult> ackStream) {
+      return () -> {
+        try {
+          assertTrue(flightStream.next());
+          validateRoot(flightStream.getRoot());
+          assertFalse(flightStream.next());
+        } catch (AssertionError | RuntimeException err) {
+          // gRPC doesn't propagate stack traces across the wire.
+          err.printStackTrace();
+          ackStream.onError(CallStatus.INVALID_ARGUMENT
+              .withCause(err)
+              .withDescription("Server assertion failed: " + err)
+              .toRuntimeException());
+          return;
+        }
+        ackStream.onCompleted();
+      };
+    }
+
+    @Override
+    public void doExchange(CallContext context, FlightStream reader, ServerStreamListener writer) {
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        try {
+          assertTrue(reader.next());
+          validateRoot(reader.getRoot());
+          assertFalse(reader.next());
+        } catch (AssertionError | RuntimeException err) {
+          err.printStackTrace();
+          writer.error(CallStatus.INVALID_ARGUMENT
+              .withCause(err)
+              .withDescription("Server assertion failed: " + err)
+              .toRuntimeException());
+          return;
+        }
+        writer.start(root);
+        generateData(root);
+        writer.putNext();
+        writer.completed();
+      }
+    }
+  }
+}
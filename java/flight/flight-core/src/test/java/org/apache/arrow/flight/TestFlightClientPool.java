@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFlightClientPool {
+  private BufferAllocator allocator;
+  private FlightServer server;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    server = FlightTestUtil.getStartedServer(location -> FlightServer.builder(allocator, location,
+        new NoOpFlightProducer() {
+          @Override
+          public void doAction(CallContext context, Action action, StreamListener<Result> listener) {
+            listener.onNext(new Result(action.getBody()));
+            listener.onCompleted();
+          }
+        }).build());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(server, allocator);
+  }
+
+  @Test
+  public void testShareChannel() throws Exception {
+    try (final FlightClientPool pool = FlightClientPool.builder(allocator).build()) {
+      try (final FlightClient client1 = pool.acquire(server.getLocation());
+           final FlightClient client2 = pool.acquire(server.getLocation())) {
+        assertEcho(client1);
+        assertEcho(client2);
+        assertEquals(1, pool.getStats().getChannels());
+        assertEquals(2, pool.getStats().getClients());
+      }
+      assertEquals(0, pool.getStats().getClients());
+
+      // The channel is reused by later clients.
+      try (final FlightClient client = pool.acquire(server.getLocation())) {
+        assertEcho(client);
+      }
+      final FlightClientPool.Stats stats = pool.getStats();
+      assertEquals(1, stats.getChannels());
+      assertEquals(1, stats.getChannelsCreated());
+      assertEquals(3, stats.getAcquired());
+    }
+  }
+
+  @Test
+  public void testSubchannels() throws Exception {
+    try (final FlightClientPool pool = FlightClientPool.builder(allocator)
+        .maxChannelsPerKey(2)
+        .maxClientsPerChannel(1)
+        .build()) {
+      try (final FlightClient client1 = pool.acquire(server.getLocation());
+           final FlightClient client2 = pool.acquire(server.getLocation());
+           final FlightClient client3 = pool.acquire(server.getLocation())) {
+        assertEcho(client1);
+        assertEcho(client2);
+        assertEcho(client3);
+        assertEquals(2, pool.getStats().getChannels());
+        assertEquals(3, pool.getStats().getClients());
+      }
+    }
+  }
+
+  @Test
+  public void testCredentials() throws Exception {
+    try (final FlightClientPool pool = FlightClientPool.builder(allocator).build()) {
+      try (final FlightClient client1 = pool.acquire(server.getLocation(), "user1");
+           final FlightClient client2 = pool.acquire(server.getLocation(), "user2");
+           final FlightClient client3 = pool.acquire(server.getLocation(), "user1")) {
+        assertEcho(client1);
+        assertEcho(client2);
+        assertEcho(client3);
+        assertEquals(2, pool.getStats().getChannels());
+      }
+    }
+  }
+
+  @Test
+  public void testIdleTimeout() throws Exception {
+    try (final FlightClientPool pool = FlightClientPool.builder(allocator)
+        .idleTimeout(1, TimeUnit.HOURS)
+        .build()) {
+      final FlightClient client = pool.acquire(server.getLocation());
+      assertEcho(client);
+      pool.closeIdleChannels();
+      assertEquals(1, pool.getStats().getChannels());
+      client.close();
+      pool.closeIdleChannels();
+      assertEquals(1, pool.getStats().getChannels());
+    }
+
+    try (final FlightClientPool pool = FlightClientPool.builder(allocator)
+        .idleTimeout(1, TimeUnit.MILLISECONDS)
+        .build()) {
+      try (final FlightClient client = pool.acquire(server.getLocation())) {
+        assertEcho(client);
+      }
+      Thread.sleep(10);
+      pool.closeIdleChannels();
+      assertEquals(0, pool.getStats().getChannels());
+      assertEquals(1, pool.getStats().getChannelsClosed());
+    }
+  }
+
+  @Test
+  public void testDoubleClose() throws Exception {
+    try (final FlightClientPool pool = FlightClientPool.builder(allocator).build()) {
+      final FlightClient client1 = pool.acquire(server.getLocation());
+      final FlightClient client2 = pool.acquire(server.getLocation());
+      client1.close();
+      client1.close();
+      assertEquals(1, pool.getStats().getClients());
+      client2.close();
+    }
+  }
+
+  @Test
+  public void testFailedAcquire() throws Exception {
+    final BufferAllocator poolAllocator = allocator.newChildAllocator("pool", 0, Long.MAX_VALUE);
+    try (final FlightClientPool pool = FlightClientPool.builder(poolAllocator)
+        .idleTimeout(1, TimeUnit.MILLISECONDS)
+        .build()) {
+      pool.acquire(server.getLocation()).close();
+      // creating the allocator of the client fails
+      poolAllocator.close();
+      assertThrows(IllegalStateException.class, () -> pool.acquire(server.getLocation()));
+      assertEquals(0, pool.getStats().getClients());
+      Thread.sleep(10);
+      pool.closeIdleChannels();
+      assertEquals(0, pool.getStats().getChannels());
+    }
+  }
+
+  private static void assertEcho(FlightClient client) {
+    final byte[] body = new byte[] {1, 2, 3};
+    final Iterator<Result> results = client.doAction(new Action("echo", body));
+    assertArrayEquals(body, results.next().getBody());
+    assertFalse(results.hasNext());
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFlowControlWindow {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testGrowWhenStarved() {
+    final FlowControlWindow window = new FlowControlWindow(allocator, 2, 16);
+    assertEquals(2, window.getEffectiveTarget());
+    for (int i = 0; i < 10; i++) {
+      window.onEnqueue(100);
+      window.onDequeue(100, /* starved */ true);
+    }
+    assertEquals(16, window.getTarget());
+    assertEquals(16, window.getEffectiveTarget());
+    assertEquals(0, window.getQueuedMessages());
+    assertEquals(0, window.getQueuedBytes());
+  }
+
+  @Test
+  public void testShrinkWhenBacklogged() {
+    final FlowControlWindow window = new FlowControlWindow(allocator, 8, 16);
+    for (int i = 0; i < 8; i++) {
+      window.onEnqueue(100);
+    }
+    assertEquals(8, window.getQueuedMessages());
+    assertEquals(800, window.getQueuedBytes());
+    // The consumer never waits, so the window shrinks until the backlog is drained.
+    for (int i = 0; i < 8; i++) {
+      window.onDequeue(100, /* starved */ false);
+    }
+    assertEquals(2, window.getTarget());
+    assertEquals(0, window.getQueuedBytes());
+  }
+
+  @Test
+  public void testByteBudget() {
+    final FlowControlWindow window = new FlowControlWindow(allocator, 16, 16);
+    window.setMaxBytesBuffered(1000);
+    window.onEnqueue(200);
+    // 1000 bytes fit about 5 messages of 200 bytes.
+    assertEquals(5, window.getEffectiveTarget());
+    for (int i = 0; i < 4; i++) {
+      window.onEnqueue(200);
+    }
+    // The budget is used up, but one message is always allowed.
+    assertEquals(1, window.getEffectiveTarget());
+  }
+
+  @Test
+  public void testAllocatorHeadroom() {
+    try (final BufferAllocator limited = allocator.newChildAllocator("limited", 0, 4096)) {
+      final FlowControlWindow window = new FlowControlWindow(limited, 16, 16);
+      assertEquals(2048, window.getByteBudget());
+      window.onEnqueue(1024);
+      assertEquals(3, window.getEffectiveTarget());
+    }
+  }
+}
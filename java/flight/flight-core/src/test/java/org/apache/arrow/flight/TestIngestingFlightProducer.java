@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test ingesting DoPut streams on worker threads.
+ */
+public class TestIngestingFlightProducer {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+  private static final int BATCHES = 20;
+  private static final int ROWS = 100;
+  private static final FlightDescriptor DESCRIPTOR = FlightDescriptor.path("test");
+
+  private BufferAllocator allocator;
+  private RecordingSink sink;
+  private IngestingFlightProducer producer;
+  private FlightServer server;
+  private FlightClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    sink = new RecordingSink();
+    // Room for about two batches at a time
+    producer = new IngestingFlightProducer(new NoOpFlightProducer(), allocator, sink, 4, 1000);
+    server = FlightTestUtil.getStartedServer(location -> FlightServer.builder(allocator, location, producer).build());
+    client = FlightClient.builder(allocator, server.getLocation()).build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(client, server, producer, allocator);
+  }
+
+  @Test
+  public void testIngest() throws Exception {
+    final List<Long> acks = new ArrayList<>();
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final SyncPutListener listener = new SyncPutListener();
+      final FlightClient.ClientStreamListener writer = client.startPut(DESCRIPTOR, root, listener);
+      for (int batch = 0; batch < BATCHES; batch++) {
+        fill(root, batch);
+        writer.putNext();
+      }
+      writer.completed();
+      writer.getResult();
+      PutResult result;
+      while ((result = listener.read()) != null) {
+        try (final PutResult ack = result) {
+          acks.add(IngestingFlightProducer.getPersistedBatches(ack));
+        }
+      }
+      listener.close();
+    }
+
+    assertEquals(BATCHES * ROWS, sink.rows.get());
+    // The sum of all values, as every batch was persisted once
+    final long n = BATCHES * ROWS;
+    assertEquals(n * (n - 1) / 2, sink.sum.get());
+    assertEquals(1, sink.completedStreams.get());
+    // One acknowledgement per batch, counting up
+    assertEquals(BATCHES, acks.size());
+    for (int i = 0; i < BATCHES; i++) {
+      assertEquals(i + 1, (long) acks.get(i));
+    }
+    assertTrue(sink.maxConcurrency.get() <= 4);
+    assertEquals(0, producer.getBytesInFlight());
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    sink.failAt = 5;
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final SyncPutListener listener = new SyncPutListener();
+      final FlightClient.ClientStreamListener writer = client.startPut(DESCRIPTOR, root, listener);
+      for (int batch = 0; batch < BATCHES && !listener.isCancelled(); batch++) {
+        fill(root, batch);
+        writer.putNext();
+      }
+      writer.completed();
+      final CallStatus status = FlightTestUtil.assertCode(FlightStatusCode.UNKNOWN, writer::getResult);
+      assertTrue(status.description(), status.description().contains("Cannot persist"));
+      listener.close();
+    }
+    assertEquals(0, sink.completedStreams.get());
+    assertEquals(0, producer.getBytesInFlight());
+  }
+
+  private static void fill(VectorSchemaRoot root, int batch) {
+    final IntVector vector = (IntVector) root.getVector(0);
+    vector.allocateNew(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      vector.set(i, batch * ROWS + i);
+    }
+    root.setRowCount(ROWS);
+  }
+
+  /**
+   * Sums the values it receives.
+   */
+  private class RecordingSink implements IngestingFlightProducer.BatchSink {
+    final AtomicLong rows = new AtomicLong();
+    final AtomicLong sum = new AtomicLong();
+    final AtomicInteger completedStreams = new AtomicInteger();
+    final AtomicInteger concurrency = new AtomicInteger();
+    final AtomicInteger maxConcurrency = new AtomicInteger();
+    final AtomicInteger batches = new AtomicInteger();
+    volatile int failAt = -1;
+
+    @Override
+    public void accept(FlightProducer.CallContext context, FlightDescriptor descriptor, Schema schema,
+                       ArrowRecordBatch batch) throws Exception {
+      assertEquals(DESCRIPTOR, descriptor);
+      if (batches.getAndIncrement() == failAt) {
+        throw new IllegalStateException("Cannot persist");
+      }
+      maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+        new VectorLoader(root).load(batch);
+        final IntVector vector = (IntVector) root.getVector(0);
+        for (int i = 0; i < root.getRowCount(); i++) {
+          sum.addAndGet(vector.get(i));
+        }
+        rows.addAndGet(root.getRowCount());
+        Thread.sleep(1);
+      } finally {
+        concurrency.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void onStreamCompleted(FlightProducer.CallContext context, FlightDescriptor descriptor) {
+      completedStreams.incrementAndGet();
+    }
+  }
+}
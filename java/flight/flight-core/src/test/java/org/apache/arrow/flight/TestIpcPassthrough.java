@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test sending and receiving pre-serialized IPC messages.
+ */
+public class TestIpcPassthrough {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+  private static final int BATCHES = 4;
+  private static final int ROWS = 16;
+
+  private BufferAllocator allocator;
+  private byte[] ipcStream;
+  private FlightServer server;
+  private FlightServer proxy;
+  private FlightClient client;
+  private FlightClient proxyClient;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    ipcStream = writeStream(allocator);
+    server = FlightTestUtil.getStartedServer(
+        location -> FlightServer.builder(allocator, location, new FileProducer(allocator, ipcStream)).build());
+    client = FlightClient.builder(allocator, server.getLocation()).build();
+    proxy = FlightTestUtil.getStartedServer(
+        location -> FlightServer.builder(allocator, location, new ProxyProducer(client)).build());
+    proxyClient = FlightClient.builder(allocator, proxy.getLocation()).build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(proxyClient, proxy, client, server, allocator);
+  }
+
+  @Test
+  public void testGetFromIpcBytes() throws Exception {
+    try (final FlightStream stream = client.getStream(new Ticket("file".getBytes(StandardCharsets.UTF_8)))) {
+      assertEquals(SCHEMA, stream.getSchema());
+      checkBatches(stream);
+    }
+  }
+
+  @Test
+  public void testRelay() throws Exception {
+    try (final FlightStream stream = proxyClient.getStream(new Ticket("file".getBytes(StandardCharsets.UTF_8)))) {
+      assertEquals(SCHEMA, stream.getSchema());
+      checkBatches(stream);
+    }
+  }
+
+  @Test
+  public void testTakeIpcMessages() throws Exception {
+    final List<Byte> types = new ArrayList<>();
+    try (final FlightStream stream = client.getStream(new Ticket("file".getBytes(StandardCharsets.UTF_8)))) {
+      IpcMessage message;
+      while ((message = stream.takeNextIpcMessage()) != null) {
+        try (final IpcMessage m = message) {
+          types.add(m.getHeaderType());
+          if (m.getHeaderType() == MessageHeader.RecordBatch) {
+            assertEquals(m.getMessage().getMessageBodyLength(), m.getBody().readableBytes());
+          }
+        }
+      }
+      assertNull(stream.takeNextIpcMessage());
+    }
+    assertEquals(1 + BATCHES, types.size());
+    assertEquals(MessageHeader.Schema, (byte) types.get(0));
+    for (int i = 1; i < types.size(); i++) {
+      assertEquals(MessageHeader.RecordBatch, (byte) types.get(i));
+    }
+  }
+
+  @Test
+  public void testPutIpcMessages() throws Exception {
+    final SyncPutListener listener = new SyncPutListener();
+    final FlightClient.ClientStreamListener writer = client.startPut(FlightDescriptor.path("put"), listener);
+    for (IpcMessage message : readMessages(allocator, ipcStream)) {
+      writer.putIpcMessage(message);
+    }
+    writer.completed();
+    try (final PutResult result = listener.read()) {
+      assertEquals(BATCHES * ROWS, result.getApplicationMetadata().getLong(0));
+    }
+    writer.getResult();
+  }
+
+  private static void checkBatches(FlightStream stream) {
+    int batches = 0;
+    while (stream.next()) {
+      final IntVector vector = (IntVector) stream.getRoot().getVector(0);
+      assertEquals(ROWS, stream.getRoot().getRowCount());
+      for (int i = 0; i < ROWS; i++) {
+        assertEquals(batches * ROWS + i, vector.get(i));
+      }
+      batches++;
+    }
+    assertEquals(BATCHES, batches);
+  }
+
+  private static byte[] writeStream(BufferAllocator allocator) throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator);
+         final ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(out))) {
+      writer.start();
+      final IntVector vector = (IntVector) root.getVector(0);
+      for (int batch = 0; batch < BATCHES; batch++) {
+        vector.allocateNew(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+          vector.set(i, batch * ROWS + i);
+        }
+        root.setRowCount(ROWS);
+        writer.writeBatch();
+      }
+      writer.end();
+    }
+    return out.toByteArray();
+  }
+
+  /** Read the raw messages of an IPC stream. */
+  private static List<IpcMessage> readMessages(BufferAllocator allocator, byte[] ipcStream) throws Exception {
+    final List<IpcMessage> messages = new ArrayList<>();
+    final ReadChannel channel = new ReadChannel(new ByteArrayReadableSeekableByteChannel(ipcStream));
+    MessageMetadataResult result;
+    while ((result = MessageSerializer.readMessage(channel)) != null) {
+      final ArrowBuf body = result.messageHasBody() ?
+          MessageSerializer.readMessageBody(channel, result.getMessageBodyLength(), allocator) : null;
+      messages.add(new IpcMessage(result, body, null));
+    }
+    return messages;
+  }
+
+  /**
+   * Serves a stream from IPC bytes, and sums the rows uploaded.
+   */
+  private static class FileProducer extends NoOpFlightProducer {
+    private final BufferAllocator allocator;
+    private final byte[] ipcStream;
+
+    FileProducer(BufferAllocator allocator, byte[] ipcStream) {
+      this.allocator = allocator;
+      this.ipcStream = ipcStream;
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      try {
+        for (IpcMessage message : readMessages(allocator, ipcStream)) {
+          listener.putIpcMessage(message);
+        }
+        listener.completed();
+      } catch (Exception e) {
+        listener.error(e);
+      }
+    }
+
+    @Override
+    public Runnable acceptPut(CallContext context, FlightStream flightStream, StreamListener<PutResult> ackStream) {
+      return () -> {
+        long rows = 0;
+        while (flightStream.next()) {
+          rows += flightStream.getRoot().getRowCount();
+        }
+        try (final ArrowBuf metadata = allocator.buffer(8)) {
+          metadata.writeLong(rows);
+          ackStream.onNext(PutResult.metadata(metadata));
+        }
+        ackStream.onCompleted();
+      };
+    }
+  }
+
+  /**
+   * Relays streams from another server without decoding them.
+   */
+  private static class ProxyProducer extends NoOpFlightProducer {
+    private final FlightClient client;
+
+    ProxyProducer(FlightClient client) {
+      this.client = client;
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      try (final FlightStream stream = client.getStream(ticket)) {
+        IpcMessage message;
+        while ((message = stream.takeNextIpcMessage()) != null) {
+          listener.putIpcMessage(message);
+        }
+        listener.completed();
+      } catch (Exception e) {
+        listener.error(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.protobuf.CodedOutputStream;
+
+import io.grpc.Context;
+import io.grpc.netty.NettyServerBuilder;
+
+/**
+ * Test sending data through shared memory to clients on the same host.
+ */
+public class TestSharedMemory {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+  private static final int BATCHES = 4;
+  // Large enough for the bodies to go through shared memory
+  private static final int ROWS = 100_000;
+  private static final Ticket TICKET = new Ticket("data".getBytes(StandardCharsets.UTF_8));
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private BufferAllocator allocator;
+  private FlightServer server;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(server, allocator);
+  }
+
+  private void startServer(long sharedMemorySize) throws Exception {
+    server = FlightTestUtil.getStartedServer(location ->
+        FlightServer.builder(allocator, Location.forGrpcSharedMemory(location.getUri().getHost(),
+            location.getUri().getPort()), new Producer(allocator))
+            .sharedMemorySize(sharedMemorySize)
+            .build());
+    assertNotNull(server.sharedMemory);
+  }
+
+  @Test
+  public void testGet() throws Exception {
+    startServer(SharedMemoryRegion.DEFAULT_SIZE);
+    try (final FlightClient client = FlightClient.builder(allocator, server.getLocation()).build()) {
+      negotiate(client);
+      final List<ArrowRecordBatch> batches = takeAll(client);
+      try {
+        // The client holds on to the bodies, in place
+        assertEquals(BATCHES, server.sharedMemory.getSlotsInUse());
+        assertEquals(1, SharedMemoryTransport.getMappedRegionCount());
+        check(batches);
+      } finally {
+        AutoCloseables.close(batches);
+      }
+      // Releasing the batches frees the slots, and unmaps the region
+      assertEquals(0, server.sharedMemory.getSlotsInUse());
+      assertEquals(0, SharedMemoryTransport.getMappedRegionCount());
+
+      // Regular reads work too, and release each body once the next one is loaded
+      try (final FlightStream stream = client.getStream(TICKET)) {
+        int batch = 0;
+        while (stream.next()) {
+          checkBatch(stream.getRoot(), batch++);
+        }
+        assertEquals(BATCHES, batch);
+      }
+      assertEquals(0, server.sharedMemory.getSlotsInUse());
+      assertEquals(0, SharedMemoryTransport.getMappedRegionCount());
+    }
+  }
+
+  @Test
+  public void testRegionFull() throws Exception {
+    // Room for two bodies only: the others are sent over gRPC
+    startServer(1024 * 1024);
+    try (final FlightClient client = FlightClient.builder(allocator, server.getLocation()).build()) {
+      negotiate(client);
+      final List<ArrowRecordBatch> batches = takeAll(client);
+      try {
+        assertEquals(2, server.sharedMemory.getSlotsInUse());
+        check(batches);
+      } finally {
+        AutoCloseables.close(batches);
+      }
+      assertEquals(0, server.sharedMemory.getSlotsInUse());
+    }
+  }
+
+  @Test
+  public void testFallback() throws Exception {
+    startServer(SharedMemoryRegion.DEFAULT_SIZE);
+    // A client which does not ask for shared memory
+    final Location location = Location.forGrpcInsecure(server.getLocation().getUri().getHost(), server.getPort());
+    try (final FlightClient client = FlightClient.builder(allocator, location).build()) {
+      final List<ArrowRecordBatch> batches = takeAll(client);
+      try {
+        assertEquals(0, server.sharedMemory.getSlotsInUse());
+        check(batches);
+      } finally {
+        AutoCloseables.close(batches);
+      }
+    }
+  }
+
+  @Test
+  public void testConnectionClosed() throws Exception {
+    startServer(SharedMemoryRegion.DEFAULT_SIZE);
+    final List<ArrowRecordBatch> batches;
+    try (final FlightClient client = FlightClient.builder(allocator, server.getLocation()).build()) {
+      negotiate(client);
+      batches = takeAll(client);
+    }
+    try {
+      assertEquals(BATCHES, batches.size());
+      // The client did not release the bodies, but its connection is gone
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (server.sharedMemory.getSlotsInUse() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, server.sharedMemory.getSlotsInUse());
+
+      try (final FlightClient client = FlightClient.builder(allocator, server.getLocation()).build()) {
+        negotiate(client);
+        final List<ArrowRecordBatch> reused = takeAll(client);
+        try {
+          assertEquals(BATCHES, server.sharedMemory.getSlotsInUse());
+          // Releasing the old bodies late does not free the slots reused for another connection
+          AutoCloseables.close(batches);
+          batches.clear();
+          assertEquals(BATCHES, server.sharedMemory.getSlotsInUse());
+          check(reused);
+        } finally {
+          AutoCloseables.close(reused);
+        }
+        assertEquals(0, server.sharedMemory.getSlotsInUse());
+      }
+    } finally {
+      AutoCloseables.close(batches);
+    }
+    assertEquals(0, SharedMemoryTransport.getMappedRegionCount());
+  }
+
+  @Test
+  public void testFailedBuild() throws Exception {
+    assertNotNull(SharedMemoryTransport.getProbe());
+    final List<Path> regions = listRegions();
+    final Consumer<NettyServerBuilder> fail = nettyBuilder -> {
+      throw new IllegalStateException("Expected");
+    };
+    final FlightServer.Builder builder = FlightServer.builder(allocator, Location.forGrpcSharedMemory("localhost", 0),
+        new Producer(allocator)).transportHint("grpc.builderConsumer", fail);
+    assertThrows(IllegalStateException.class, builder::build);
+    // The region created by the failed build was deleted
+    assertEquals(regions, listRegions());
+  }
+
+  @Test
+  public void testToken() throws Exception {
+    startServer(SharedMemoryRegion.DEFAULT_SIZE);
+    final String probe = SharedMemoryTransport.getProbe();
+    assertNotNull(probe);
+    final SharedMemoryRegion.Connection connection = server.sharedMemory.openConnection();
+    try {
+      final ErrorFlightMetadata headers = new ErrorFlightMetadata();
+      headers.insert(FlightConstants.SHARED_MEMORY_HEADER, probe);
+      // A client on the same host must still prove it can map the region
+      assertNull(negotiate(connection, headers));
+      headers.insert(FlightConstants.SHARED_MEMORY_TOKEN_HEADER, "not a token");
+      assertNull(negotiate(connection, headers));
+
+      final SharedMemoryTransport.MappedRegion region =
+          SharedMemoryTransport.acquireRegion(server.sharedMemory.getPath().toString());
+      try {
+        final ErrorFlightMetadata proven = new ErrorFlightMetadata();
+        proven.insert(FlightConstants.SHARED_MEMORY_HEADER, probe);
+        proven.insert(FlightConstants.SHARED_MEMORY_TOKEN_HEADER, region.getToken());
+        assertSame(connection, negotiate(connection, proven));
+        // Only calls over a tracked connection can use shared memory
+        assertNull(SharedMemoryTransport.negotiate(server.sharedMemory, proven));
+      } finally {
+        region.release();
+      }
+      assertEquals(0, SharedMemoryTransport.getMappedRegionCount());
+    } finally {
+      connection.close();
+    }
+  }
+
+  @Test
+  public void testProbeCheckedOncePerConnection() throws Exception {
+    startServer(SharedMemoryRegion.DEFAULT_SIZE);
+    final String probe = SharedMemoryTransport.getProbe();
+    assertNotNull(probe);
+    final SharedMemoryRegion.Connection connection = server.sharedMemory.openConnection();
+    try {
+      assertTrue(connection.isAccessibleFrom(probe));
+      assertTrue(connection.isAccessibleFrom(probe));
+      // Other probes are not checked again
+      assertFalse(connection.isAccessibleFrom(probe + "x"));
+    } finally {
+      connection.close();
+    }
+    final SharedMemoryRegion.Connection other = server.sharedMemory.openConnection();
+    try {
+      assertFalse(other.isAccessibleFrom(probe + "x"));
+      assertFalse(other.isAccessibleFrom(probe));
+    } finally {
+      other.close();
+    }
+  }
+
+  @Test
+  public void testProbe() throws Exception {
+    final String probe = SharedMemoryTransport.getProbe();
+    assertNotNull(probe);
+    assertTrue(SharedMemoryTransport.checkProbe(SharedMemoryTransport.getDirectory(), probe));
+    assertFalse(SharedMemoryTransport.checkProbe(SharedMemoryTransport.getDirectory(), probe + "x"));
+    assertFalse(SharedMemoryTransport.checkProbe(SharedMemoryTransport.getDirectory(), "/etc/passwd;x"));
+  }
+
+  @Test
+  public void testInvalidSlot() throws Exception {
+    assertNotNull(SharedMemoryTransport.getProbe());
+    final Path region = Files.createTempFile(SharedMemoryTransport.getDirectory(), SharedMemoryTransport.FILE_PREFIX,
+        SharedMemoryTransport.REGION_SUFFIX);
+    try {
+      try (final RandomAccessFile file = new RandomAccessFile(region.toFile(), "rw")) {
+        file.setLength(1024);
+      }
+      try (final ArrowBuf body = SharedMemoryTransport.wrapSlot(encodeSlot(64, 952, region), allocator)) {
+        assertEquals(952, body.capacity());
+      }
+      // Out of bounds, including through overflows
+      assertThrows(IllegalArgumentException.class,
+          () -> SharedMemoryTransport.wrapSlot(encodeSlot(64, 953, region), allocator));
+      assertThrows(IllegalArgumentException.class,
+          () -> SharedMemoryTransport.wrapSlot(encodeSlot(Long.MAX_VALUE & ~7L, 16, region), allocator));
+      assertThrows(IllegalArgumentException.class,
+          () -> SharedMemoryTransport.wrapSlot(encodeSlot(64, Long.MAX_VALUE, region), allocator));
+      assertThrows(IllegalArgumentException.class,
+          () -> SharedMemoryTransport.wrapSlot(encodeSlot(-8, 16, region), allocator));
+      // Over the token
+      assertThrows(IllegalArgumentException.class,
+          () -> SharedMemoryTransport.wrapSlot(encodeSlot(8, 16, region), allocator));
+      // Unaligned
+      assertThrows(IllegalArgumentException.class,
+          () -> SharedMemoryTransport.wrapSlot(encodeSlot(68, 16, region), allocator));
+      // Not in use
+      final byte[] free = encodeSlot(64, 16, region);
+      ByteBuffer.wrap(free).putLong(16, SharedMemoryRegion.SLOT_FREE);
+      assertThrows(IllegalArgumentException.class, () -> SharedMemoryTransport.wrapSlot(free, allocator));
+      // Rejected slots do not keep the region mapped
+      assertEquals(0, SharedMemoryTransport.getMappedRegionCount());
+    } finally {
+      Files.delete(region);
+    }
+
+    // Only regions in the advertised directory can be mapped
+    final Path elsewhere = Files.createTempFile(temporaryFolder.getRoot().toPath(), SharedMemoryTransport.FILE_PREFIX,
+        SharedMemoryTransport.REGION_SUFFIX);
+    assertThrows(IllegalArgumentException.class,
+        () -> SharedMemoryTransport.wrapSlot(encodeSlot(0, 0, elsewhere), allocator));
+    final Path probe = SharedMemoryTransport.getDirectory().resolve(SharedMemoryTransport.FILE_PREFIX + "x");
+    assertThrows(IllegalArgumentException.class,
+        () -> SharedMemoryTransport.wrapSlot(encodeSlot(0, 0, probe), allocator));
+  }
+
+  @Test
+  public void testSharedBodyNotAccepted() throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    // The field number of shared memory bodies, see ArrowMessage
+    output.writeByteArray(100000, encodeSlot(0, 0, SharedMemoryTransport.getDirectory().resolve("x")));
+    output.flush();
+    assertThrows(RuntimeException.class,
+        () -> ArrowMessage.createMarshaller(allocator).parse(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  private static byte[] encodeSlot(long offset, long length, Path region) {
+    final byte[] path = region.toString().getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(24 + path.length).putLong(offset).putLong(length).putLong(1).put(path).array();
+  }
+
+  private static List<Path> listRegions() throws IOException {
+    try (final Stream<Path> files = Files.list(SharedMemoryTransport.getDirectory())) {
+      return files.filter(path -> path.getFileName().toString().endsWith(SharedMemoryTransport.REGION_SUFFIX))
+          .sorted().collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Negotiate shared memory for a call over the given connection.
+   */
+  private SharedMemoryRegion.Connection negotiate(SharedMemoryRegion.Connection connection, CallHeaders headers)
+      throws Exception {
+    return Context.current().withValue(SharedMemoryTransport.ConnectionTracker.CONNECTION_CONTEXT_KEY, connection)
+        .call(() -> SharedMemoryTransport.negotiate(server.sharedMemory, headers));
+  }
+
+  /**
+   * Make a first call, over gRPC, for the client to prove it can map the region of the server.
+   */
+  private void negotiate(FlightClient client) throws Exception {
+    final List<ArrowRecordBatch> batches = takeAll(client);
+    try {
+      assertEquals(0, server.sharedMemory.getSlotsInUse());
+      check(batches);
+    } finally {
+      AutoCloseables.close(batches);
+    }
+  }
+
+  private List<ArrowRecordBatch> takeAll(FlightClient client) throws Exception {
+    final List<ArrowRecordBatch> batches = new ArrayList<>();
+    try (final FlightStream stream = client.getStream(TICKET)) {
+      ArrowRecordBatch batch;
+      while ((batch = stream.takeNextBatch()) != null) {
+        batches.add(batch);
+      }
+    } catch (Exception e) {
+      AutoCloseables.close(e, batches);
+      throw e;
+    }
+    return batches;
+  }
+
+  private void check(List<ArrowRecordBatch> batches) {
+    assertEquals(BATCHES, batches.size());
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final VectorLoader loader = new VectorLoader(root);
+      for (int i = 0; i < batches.size(); i++) {
+        loader.load(batches.get(i));
+        checkBatch(root, i);
+      }
+    }
+  }
+
+  private static void checkBatch(VectorSchemaRoot root, int batch) {
+    final IntVector vector = (IntVector) root.getVector(0);
+    assertEquals(ROWS, root.getRowCount());
+    for (int i = 0; i < ROWS; i += 997) {
+      assertEquals(batch * ROWS + i, vector.get(i));
+    }
+  }
+
+  /**
+   * Serves a few large batches.
+   */
+  private static class Producer extends NoOpFlightProducer {
+    private final BufferAllocator allocator;
+
+    Producer(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        listener.start(root);
+        final IntVector vector = (IntVector) root.getVector(0);
+        for (int batch = 0; batch < BATCHES; batch++) {
+          vector.allocateNew(ROWS);
+          for (int i = 0; i < ROWS; i++) {
+            vector.set(i, batch * ROWS + i);
+          }
+          root.setRowCount(ROWS);
+          listener.putNext();
+        }
+        listener.completed();
+      }
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test taking ownership of received batches instead of loading them into the root of the stream.
+ */
+public class TestTakeBatches {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+  private static final int BATCHES = 8;
+
+  private BufferAllocator allocator;
+  private ExecutorService executor;
+  private FlightServer server;
+  private FlightClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    executor = Executors.newSingleThreadExecutor();
+    server = FlightTestUtil.getStartedServer(
+        location -> FlightServer.builder(allocator, location, new Producer(allocator, executor)).build());
+    client = FlightClient.builder(allocator, server.getLocation()).build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdown();
+    AutoCloseables.close(client, server, allocator);
+  }
+
+  @Test
+  public void testPutTakeRoots() throws Exception {
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final SyncPutListener listener = new SyncPutListener();
+      final FlightClient.ClientStreamListener stream = client.startPut(FlightDescriptor.path("put"), root, listener);
+      for (int i = 0; i < BATCHES; i++) {
+        fill(root, i);
+        stream.putNext();
+      }
+      stream.completed();
+      // The server sums each batch on another thread, after the batches were all received.
+      try (final PutResult result = listener.read()) {
+        assertEquals(expectedSum(), result.getApplicationMetadata().getLong(0));
+      }
+      stream.getResult();
+    }
+  }
+
+  @Test
+  public void testGetTakeBatches() throws Exception {
+    final List<ArrowRecordBatch> batches = new ArrayList<>();
+    try (final FlightStream stream = client.getStream(new Ticket("get".getBytes(StandardCharsets.UTF_8)))) {
+      ArrowRecordBatch batch;
+      while ((batch = stream.takeNextBatch()) != null) {
+        batches.add(batch);
+      }
+      assertNull(stream.takeNextBatch());
+    }
+    // The batches outlive the stream.
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final VectorLoader loader = new VectorLoader(root);
+      long sum = 0;
+      for (ArrowRecordBatch batch : batches) {
+        loader.load(batch);
+        sum += sum(root);
+      }
+      assertEquals(expectedSum(), sum);
+    } finally {
+      AutoCloseables.close(batches);
+    }
+  }
+
+  private static void fill(VectorSchemaRoot root, int batch) {
+    final IntVector vector = (IntVector) root.getVector(0);
+    vector.allocateNew(batch + 1);
+    for (int i = 0; i <= batch; i++) {
+      vector.set(i, i);
+    }
+    root.setRowCount(batch + 1);
+  }
+
+  private static long sum(VectorSchemaRoot root) {
+    final IntVector vector = (IntVector) root.getVector(0);
+    long sum = 0;
+    for (int i = 0; i < root.getRowCount(); i++) {
+      sum += vector.get(i);
+    }
+    return sum;
+  }
+
+  private static long expectedSum() {
+    long sum = 0;
+    for (int i = 0; i < BATCHES; i++) {
+      sum += (long) i * (i + 1) / 2;
+    }
+    return sum;
+  }
+
+  static class Producer extends NoOpFlightProducer {
+    private final BufferAllocator allocator;
+    private final ExecutorService executor;
+
+    Producer(BufferAllocator allocator, ExecutorService executor) {
+      this.allocator = allocator;
+      this.executor = executor;
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        listener.start(root);
+        for (int i = 0; i < BATCHES; i++) {
+          fill(root, i);
+          listener.putNext();
+        }
+        listener.completed();
+      }
+    }
+
+    @Override
+    public Runnable acceptPut(CallContext context, FlightStream flightStream, StreamListener<PutResult> ackStream) {
+      return () -> {
+        final List<VectorSchemaRoot> roots = new ArrayList<>();
+        try {
+          VectorSchemaRoot root;
+          while ((root = flightStream.takeNextRoot()) != null) {
+            roots.add(root);
+          }
+          final Future<Long> sum = executor.submit(() -> {
+            long total = 0;
+            for (VectorSchemaRoot owned : roots) {
+              total += sum(owned);
+            }
+            return total;
+          });
+          try (final ArrowBuf metadata = allocator.buffer(8)) {
+            metadata.setLong(0, sum.get());
+            ackStream.onNext(PutResult.metadata(metadata));
+          }
+          ackStream.onCompleted();
+        } catch (Exception e) {
+          ackStream.onError(e);
+        } finally {
+          AutoCloseables.closeNoChecked(() -> AutoCloseables.close(roots));
+        }
+      };
+    }
+  }
+}
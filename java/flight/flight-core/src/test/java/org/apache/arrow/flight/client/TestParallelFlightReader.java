@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.arrow.flight.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightEndpoint;
+import org.apache.arrow.flight.FlightInfo;
+import org.apache.arrow.flight.FlightServer;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.flight.FlightTestUtil;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.flight.NoOpFlightProducer;
+import org.apache.arrow.flight.Ticket;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestParallelFlightReader {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+  private static final int ENDPOINTS = 6;
+  private static final int BATCHES = 5;
+
+  private BufferAllocator allocator;
+  private Producer producer;
+  private FlightServer server1;
+  private FlightServer server2;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    producer = new Producer(allocator);
+    server1 = FlightTestUtil.getStartedServer(location -> FlightServer.builder(allocator, location, producer).build());
+    server2 = FlightTestUtil.getStartedServer(location -> FlightServer.builder(allocator, location, producer).build());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(server1, server2, allocator);
+  }
+
+  @Test
+  public void testOrdered() throws Exception {
+    final FlightInfo info = makeInfo("data");
+    try (final ParallelFlightReader reader = ParallelFlightReader.builder(allocator, info)
+        .maxConcurrency(3)
+        .maxQueuedBatches(1)
+        .ordered(true)
+        .build()) {
+      final List<Integer> values = readAll(reader);
+      final List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < ENDPOINTS; i++) {
+        for (int j = 0; j < BATCHES; j++) {
+          expected.add(i * 100 + j);
+        }
+      }
+      assertEquals(expected, values);
+    }
+  }
+
+  @Test
+  public void testUnordered() throws Exception {
+    final FlightInfo info = makeInfo("data");
+    try (final ParallelFlightReader reader = ParallelFlightReader.builder(allocator, info).build()) {
+      final List<Integer> values = readAll(reader);
+      assertEquals(ENDPOINTS * BATCHES, values.size());
+      Collections.sort(values);
+      assertEquals(0, (int) values.get(0));
+      assertEquals((ENDPOINTS - 1) * 100 + BATCHES - 1, (int) values.get(values.size() - 1));
+    }
+  }
+
+  @Test
+  public void testRetry() throws Exception {
+    final FlightInfo info = makeInfo("flaky");
+    try (final ParallelFlightReader reader = ParallelFlightReader.builder(allocator, info).maxRetries(1).build()) {
+      assertEquals(ENDPOINTS * BATCHES, readAll(reader).size());
+    }
+    for (int i = 0; i < ENDPOINTS; i++) {
+      assertEquals(2, producer.attempts.get("flaky-" + i).get());
+    }
+  }
+
+  @Test
+  public void testNonRetryableError() throws Exception {
+    final FlightInfo info = makeInfo("invalid");
+    try (final ParallelFlightReader reader = ParallelFlightReader.builder(allocator, info).build()) {
+      FlightTestUtil.assertCode(FlightStatusCode.INVALID_ARGUMENT, reader::next);
+    }
+    assertEquals(1, producer.attempts.get("invalid-0").get());
+  }
+
+  @Test
+  public void testCloseEarly() throws Exception {
+    final FlightInfo info = makeInfo("data");
+    try (final ParallelFlightReader reader = ParallelFlightReader.builder(allocator, info).build()) {
+      reader.next();
+    }
+    // Closing the reader must release all buffered batches, which the allocator checks when it is closed.
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    final FlightInfo info = new FlightInfo(SCHEMA, FlightDescriptor.path("empty"), Collections.emptyList(), -1, -1);
+    try (final ParallelFlightReader reader = ParallelFlightReader.builder(allocator, info).build()) {
+      assertFalse(reader.next());
+    }
+  }
+
+  private FlightInfo makeInfo(String kind) {
+    final List<Location> locations = Arrays.asList(server1.getLocation(), server2.getLocation());
+    final List<FlightEndpoint> endpoints = new ArrayList<>();
+    for (int i = 0; i < ENDPOINTS; i++) {
+      final Ticket ticket = new Ticket((kind + "-" + i).getBytes(StandardCharsets.UTF_8));
+      endpoints.add(new FlightEndpoint(ticket, locations.get(i % locations.size())));
+    }
+    return new FlightInfo(SCHEMA, FlightDescriptor.path(kind), endpoints, -1, -1);
+  }
+
+  private static List<Integer> readAll(ParallelFlightReader reader) {
+    final List<Integer> values = new ArrayList<>();
+    while (reader.next()) {
+      final IntVector vector = (IntVector) reader.getRoot().getVector(0);
+      for (int i = 0; i < reader.getRoot().getRowCount(); i++) {
+        values.add(vector.get(i));
+      }
+    }
+    return values;
+  }
+
+  static class Producer extends NoOpFlightProducer {
+    private final BufferAllocator allocator;
+    final ConcurrentMap<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    Producer(BufferAllocator allocator) {
+      this.allocator = allocator;
+    }
+
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      final String name = new String(ticket.getBytes(), StandardCharsets.UTF_8);
+      final int attempt = attempts.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+      if (name.startsWith("invalid")) {
+        listener.error(CallStatus.INVALID_ARGUMENT.withDescription("Invalid ticket").toRuntimeException());
+        return;
+      } else if (name.startsWith("flaky") && attempt == 1) {
+        listener.error(CallStatus.UNAVAILABLE.withDescription("Try again").toRuntimeException());
+        return;
+      }
+      final int index = Integer.parseInt(name.substring(name.indexOf('-') + 1));
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        final IntVector vector = (IntVector) root.getVector(0);
+        listener.start(root);
+        for (int i = 0; i < BATCHES; i++) {
+          vector.setSafe(0, index * 100 + i);
+          root.setRowCount(1);
+          listener.putNext();
+        }
+        listener.completed();
+      }
+    }
+  }
+}
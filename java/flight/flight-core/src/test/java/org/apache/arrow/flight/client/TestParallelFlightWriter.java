@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightClient;
+import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.flight.FlightServer;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.flight.FlightTestUtil;
+import org.apache.arrow.flight.IngestingFlightProducer;
+import org.apache.arrow.flight.NoOpFlightProducer;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test uploading over several DoPut calls at once.
+ */
+public class TestParallelFlightWriter {
+  private static final Schema SCHEMA = new Schema(Arrays.asList(
+      Field.nullable("key", new ArrowType.Int(32, true)),
+      Field.nullable("value", ArrowType.Utf8.INSTANCE)));
+  private static final int BATCHES = 16;
+  private static final int ROWS = 100;
+  private static final int KEYS = 37;
+
+  private BufferAllocator allocator;
+  private RecordingSink sink;
+  private IngestingFlightProducer producer;
+  private FlightServer server;
+  private FlightClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    sink = new RecordingSink();
+    producer = new IngestingFlightProducer(new NoOpFlightProducer(), allocator, sink, 4, 64 * 1024);
+    server = FlightTestUtil.getStartedServer(location -> FlightServer.builder(allocator, location, producer).build());
+    client = FlightClient.builder(allocator, server.getLocation()).build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(client, server, producer, allocator);
+  }
+
+  @Test
+  public void testRoundRobin() throws Exception {
+    try (final ParallelFlightWriter writer = ParallelFlightWriter.builder(allocator, client,
+        FlightDescriptor.path("test"), SCHEMA)
+        .descriptors(partition -> FlightDescriptor.path("test", Integer.toString(partition)))
+        .partitions(4)
+        .build()) {
+      write(writer);
+      writer.completed();
+    }
+    assertEquals(BATCHES * ROWS, sink.rows.get());
+    assertEquals(4, sink.completedStreams.get());
+    // Every partition got a quarter of the batches
+    assertEquals(4, sink.rowsByPartition.size());
+    sink.rowsByPartition.values().forEach(rows -> assertEquals(BATCHES * ROWS / 4, rows.get()));
+  }
+
+  @Test
+  public void testHashPartitioning() throws Exception {
+    try (final ParallelFlightWriter writer = ParallelFlightWriter.builder(allocator, client,
+        FlightDescriptor.path("test"), SCHEMA)
+        .descriptors(partition -> FlightDescriptor.path("test", Integer.toString(partition)))
+        .keyColumns("key")
+        .partitions(3)
+        // Small enough to wait for acknowledgements
+        .maxUnacknowledgedBytes(4096)
+        .build()) {
+      write(writer);
+      writer.completed();
+    }
+    assertEquals(BATCHES * ROWS, sink.rows.get());
+    assertEquals(3, sink.completedStreams.get());
+    // Every key went to a single partition
+    assertEquals(KEYS, sink.partitionsByKey.size());
+    sink.partitionsByKey.forEach((key, partitions) -> assertEquals("Key " + key, 1, partitions.size()));
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    sink.failAt = 3;
+    try (final ParallelFlightWriter writer = ParallelFlightWriter.builder(allocator, client,
+        FlightDescriptor.path("test"), SCHEMA).build()) {
+      final CallStatus status = FlightTestUtil.assertCode(FlightStatusCode.UNKNOWN, () -> {
+        write(writer);
+        writer.completed();
+      });
+      assertTrue(status.description(), status.description().contains("Cannot persist"));
+    }
+  }
+
+  private void write(ParallelFlightWriter writer) {
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final IntVector keys = (IntVector) root.getVector("key");
+      final VarCharVector values = (VarCharVector) root.getVector("value");
+      for (int batch = 0; batch < BATCHES; batch++) {
+        root.allocateNew();
+        for (int i = 0; i < ROWS; i++) {
+          final int row = batch * ROWS + i;
+          keys.setSafe(i, row % KEYS);
+          values.setSafe(i, ("value" + row).getBytes(StandardCharsets.UTF_8));
+        }
+        root.setRowCount(ROWS);
+        writer.write(root);
+        assertEquals(0, root.getRowCount());
+      }
+    }
+  }
+
+  /**
+   * Records which partition each key went to.
+   */
+  private class RecordingSink implements IngestingFlightProducer.BatchSink {
+    final AtomicLong rows = new AtomicLong();
+    final AtomicInteger completedStreams = new AtomicInteger();
+    final AtomicInteger batches = new AtomicInteger();
+    final Map<String, AtomicLong> rowsByPartition = new ConcurrentHashMap<>();
+    final Map<Integer, Set<String>> partitionsByKey = new ConcurrentHashMap<>();
+    volatile int failAt = -1;
+
+    @Override
+    public void accept(FlightProducer.CallContext context, FlightDescriptor descriptor, Schema schema,
+                       ArrowRecordBatch batch) {
+      if (batches.getAndIncrement() == failAt) {
+        throw new IllegalStateException("Cannot persist");
+      }
+      final String partition = String.join("/", descriptor.getPath());
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+        new VectorLoader(root).load(batch);
+        final IntVector keys = (IntVector) root.getVector("key");
+        final VarCharVector values = (VarCharVector) root.getVector("value");
+        for (int i = 0; i < root.getRowCount(); i++) {
+          partitionsByKey.computeIfAbsent(keys.get(i), k -> ConcurrentHashMap.newKeySet()).add(partition);
+          final String value = new String(values.get(i), StandardCharsets.UTF_8);
+          assertTrue(value, value.startsWith("value"));
+        }
+        rowsByPartition.computeIfAbsent(partition, p -> new AtomicLong()).addAndGet(root.getRowCount());
+        rows.addAndGet(root.getRowCount());
+      }
+    }
+
+    @Override
+    public void onStreamCompleted(FlightProducer.CallContext context, FlightDescriptor descriptor) {
+      completedStreams.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.example;
+
+import java.io.File;
+
+import org.apache.arrow.flight.FlightClient;
+import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightInfo;
+import org.apache.arrow.flight.FlightServer;
+import org.apache.arrow.flight.FlightStream;
+import org.apache.arrow.flight.FlightTestUtil;
+import org.apache.arrow.flight.SyncPutListener;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test spilling streams of the {@link InMemoryStore} to disk.
+ */
+public class TestInMemoryStore {
+
+  private static final int ROWS = 10_000;
+  private static final int BATCHES = 2;
+  // Each stream holds about 128 KiB, so only two of them fit
+  private static final long MEMORY_LIMIT = 300 * 1024;
+
+  @Rule
+  public TemporaryFolder spillFolder = new TemporaryFolder();
+
+  @Test
+  public void spillLeastRecentlyUsed() throws Exception {
+    try (final BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+         final BufferAllocator storeAllocator = allocator.newChildAllocator("store", 0, Long.MAX_VALUE);
+         final InMemoryStore store = new InMemoryStore(storeAllocator, null, spillFolder.getRoot().toPath(),
+             MEMORY_LIMIT);
+         final FlightServer server = FlightTestUtil.getStartedServer(
+             location -> FlightServer.builder(allocator, location, store).build());
+         final FlightClient client = FlightClient.builder(allocator, server.getLocation()).build()) {
+      store.setLocation(server.getLocation());
+
+      put(client, allocator, "a", 0);
+      put(client, allocator, "b", 1);
+      put(client, allocator, "c", 2);
+
+      final FlightHolder.Statistics a = store.getStatistics(FlightDescriptor.path("a"));
+      Assert.assertEquals(1, a.getStreamCount());
+      Assert.assertEquals(1, a.getSpilledStreamCount());
+      Assert.assertTrue(a.getSpilledBytes() > 0);
+      Assert.assertEquals(0, store.getStatistics(FlightDescriptor.path("c")).getSpilledStreamCount());
+      Assert.assertTrue(storeAllocator.getAllocatedMemory() <= MEMORY_LIMIT);
+
+      check(client, "a", 0);
+      check(client, "c", 2);
+      Assert.assertEquals(1, store.getStatistics(FlightDescriptor.path("a")).getDiskReads());
+      Assert.assertEquals(0, store.getStatistics(FlightDescriptor.path("a")).getMemoryReads());
+      Assert.assertEquals(1, store.getStatistics(FlightDescriptor.path("c")).getMemoryReads());
+
+      final FlightInfo info = client.getInfo(FlightDescriptor.path("a"));
+      Assert.assertEquals(BATCHES * ROWS, info.getRecords());
+      Assert.assertTrue(info.getBytes() >= a.getSpilledBytes());
+    }
+    final File[] remaining = spillFolder.getRoot().listFiles();
+    Assert.assertNotNull(remaining);
+    Assert.assertEquals(0, remaining.length);
+  }
+
+  private static void put(FlightClient client, BufferAllocator allocator, String path, int seed) {
+    try (final VectorSchemaRoot root = VectorSchemaRoot.of(new IntVector("ints", allocator));
+         final SyncPutListener reader = new SyncPutListener()) {
+      final FlightClient.ClientStreamListener listener = client.startPut(FlightDescriptor.path(path), root, reader);
+      final IntVector vector = (IntVector) root.getVector(0);
+      for (int batch = 0; batch < BATCHES; batch++) {
+        vector.allocateNew(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+          vector.set(i, seed + batch * ROWS + i);
+        }
+        root.setRowCount(ROWS);
+        listener.putNext();
+      }
+      listener.completed();
+      listener.getResult();
+    }
+  }
+
+  private static void check(FlightClient client, String path, int seed) throws Exception {
+    final FlightInfo info = client.getInfo(FlightDescriptor.path(path));
+    try (final FlightStream stream = client.getStream(info.getEndpoints().get(0).getTicket())) {
+      int batch = 0;
+      while (stream.next()) {
+        final IntVector vector = (IntVector) stream.getRoot().getVector(0);
+        Assert.assertEquals(ROWS, vector.getValueCount());
+        for (int i = 0; i < ROWS; i++) {
+          Assert.assertEquals(seed + batch * ROWS + i, vector.get(i));
+        }
+        batch++;
+      }
+      Assert.assertEquals(BATCHES, batch);
+    }
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.flight.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.flight.BackpressureStrategy;
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightClient;
+import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightMethod;
+import org.apache.arrow.flight.FlightServer;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.flight.FlightStream;
+import org.apache.arrow.flight.FlightStreamListener;
+import org.apache.arrow.flight.FlightTestUtil;
+import org.apache.arrow.flight.NoOpFlightProducer;
+import org.apache.arrow.flight.PutResult;
+import org.apache.arrow.flight.SyncPutListener;
+import org.apache.arrow.flight.Ticket;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.util.AutoCloseables;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the metrics middleware on both ends of a call.
+ */
+public class TestMetricsMiddleware {
+  private static final Schema SCHEMA = new Schema(
+      Collections.singletonList(Field.nullable("a", new ArrowType.Int(32, true))));
+  private static final int BATCHES = 5;
+  private static final int ROWS = 1000;
+  // Four bytes per value and the validity buffer, both padded to 8 bytes
+  private static final long BODY_BYTES = 4 * ROWS + 128;
+
+  private BufferAllocator allocator;
+  private InMemoryMetricsRegistry serverMetrics;
+  private InMemoryMetricsRegistry clientMetrics;
+  private FlightServer server;
+  private FlightClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    serverMetrics = new InMemoryMetricsRegistry();
+    clientMetrics = new InMemoryMetricsRegistry();
+    server = FlightTestUtil.getStartedServer(location -> FlightServer.builder(allocator, location, new Producer())
+        .middleware(ServerMetricsMiddleware.KEY, new ServerMetricsMiddleware.Factory(serverMetrics))
+        .build());
+    client = FlightClient.builder(allocator, server.getLocation())
+        .intercept(new ClientMetricsMiddleware.Factory(clientMetrics))
+        .build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(client, server, allocator);
+  }
+
+  @Test
+  public void testGet() throws Exception {
+    try (final FlightStream stream = client.getStream(new Ticket(new byte[0]))) {
+      int rows = 0;
+      while (stream.next()) {
+        rows += stream.getRoot().getRowCount();
+      }
+      assertEquals(BATCHES * ROWS, rows);
+    }
+
+    final InMemoryMetricsRegistry.MethodMetrics client = clientMetrics.getMetrics(CallMetrics.Side.CLIENT,
+        FlightMethod.DO_GET);
+    assertNotNull(client);
+    assertEquals(1, client.getCalls());
+    assertEquals(0, client.getFailedCalls());
+    assertEquals(BATCHES, client.getBatchesReceived());
+    assertEquals(BATCHES * ROWS, client.getRowsReceived());
+    assertEquals(BATCHES * BODY_BYTES, client.getBytesReceived());
+    assertEquals(0, client.getBatchesSent());
+    assertTrue(client.getDurationNanos() > 0);
+
+    final InMemoryMetricsRegistry.MethodMetrics server = awaitServerMetrics(FlightMethod.DO_GET);
+    assertEquals(1, server.getCalls());
+    assertEquals(BATCHES, server.getBatchesSent());
+    assertEquals(BATCHES * ROWS, server.getRowsSent());
+    assertEquals(BATCHES * BODY_BYTES, server.getBytesSent());
+    assertTrue(server.getSerializationNanos() > 0);
+    assertEquals(0, server.getBatchesReceived());
+    assertNull(serverMetrics.getMetrics(CallMetrics.Side.CLIENT, FlightMethod.DO_GET));
+  }
+
+  @Test
+  public void testGetAsync() throws Exception {
+    final CompletableFuture<Integer> rows = new CompletableFuture<>();
+    client.getStreamAsync(new Ticket(new byte[0]), new FlightStreamListener() {
+      private StreamSubscription subscription;
+      private int count = 0;
+
+      @Override
+      public void onStart(StreamSubscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(VectorSchemaRoot root, ArrowBuf metadata) {
+        count += root.getRowCount();
+        subscription.request(1);
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        rows.completeExceptionally(t);
+      }
+
+      @Override
+      public void onCompleted() {
+        rows.complete(count);
+      }
+    });
+    assertEquals(BATCHES * ROWS, (int) rows.get(5, TimeUnit.SECONDS));
+
+    final InMemoryMetricsRegistry.MethodMetrics client = clientMetrics.getMetrics(CallMetrics.Side.CLIENT,
+        FlightMethod.DO_GET);
+    assertNotNull(client);
+    assertEquals(1, client.getCalls());
+    assertEquals(0, client.getFailedCalls());
+    assertEquals(BATCHES, client.getBatchesReceived());
+    assertEquals(BATCHES * ROWS, client.getRowsReceived());
+    assertEquals(BATCHES * BODY_BYTES, client.getBytesReceived());
+  }
+
+  @Test
+  public void testPut() throws Exception {
+    try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+      final SyncPutListener listener = new SyncPutListener();
+      final FlightClient.ClientStreamListener writer = client.startPut(FlightDescriptor.path("test"), root, listener);
+      for (int batch = 0; batch < BATCHES; batch++) {
+        fill(root, batch);
+        writer.putNext();
+      }
+      writer.completed();
+      writer.getResult();
+      listener.close();
+    }
+
+    final InMemoryMetricsRegistry.MethodMetrics client = clientMetrics.getMetrics(CallMetrics.Side.CLIENT,
+        FlightMethod.DO_PUT);
+    assertEquals(1, client.getCalls());
+    assertEquals(BATCHES, client.getBatchesSent());
+    assertEquals(BATCHES * ROWS, client.getRowsSent());
+    assertEquals(BATCHES * BODY_BYTES, client.getBytesSent());
+
+    final InMemoryMetricsRegistry.MethodMetrics server = awaitServerMetrics(FlightMethod.DO_PUT);
+    assertEquals(1, server.getCalls());
+    assertEquals(BATCHES, server.getBatchesReceived());
+    assertEquals(BATCHES * ROWS, server.getRowsReceived());
+    assertEquals(BATCHES * BODY_BYTES, server.getBytesReceived());
+  }
+
+  @Test
+  public void testError() throws Exception {
+    FlightTestUtil.assertCode(FlightStatusCode.UNIMPLEMENTED, () -> client.listActions().iterator().next());
+    final InMemoryMetricsRegistry.MethodMetrics client = clientMetrics.getMetrics(CallMetrics.Side.CLIENT,
+        FlightMethod.LIST_ACTIONS);
+    assertEquals(1, client.getCalls());
+    assertEquals(1, client.getFailedCalls());
+    assertEquals(1, awaitServerMetrics(FlightMethod.LIST_ACTIONS).getFailedCalls());
+
+    serverMetrics.reset();
+    assertFalse(serverMetrics.getMetrics(CallMetrics.Side.SERVER).containsKey(FlightMethod.LIST_ACTIONS));
+  }
+
+  /**
+   * The server records calls once they completed, which may be after the client saw them complete.
+   */
+  private InMemoryMetricsRegistry.MethodMetrics awaitServerMetrics(FlightMethod method) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    InMemoryMetricsRegistry.MethodMetrics metrics;
+    while ((metrics = serverMetrics.getMetrics(CallMetrics.Side.SERVER, method)) == null) {
+      assertTrue("Call was not recorded", System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+    return metrics;
+  }
+
+  private static void fill(VectorSchemaRoot root, int batch) {
+    final IntVector vector = (IntVector) root.getVector(0);
+    vector.allocateNew(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      vector.set(i, batch * ROWS + i);
+    }
+    root.setRowCount(ROWS);
+  }
+
+  /**
+   * Serves a few batches, and accepts uploads.
+   */
+  private class Producer extends NoOpFlightProducer {
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      final ServerMetricsMiddleware middleware = context.getMiddleware(ServerMetricsMiddleware.KEY);
+      final BackpressureStrategy backpressure = new BackpressureStrategy.CallbackBackpressureStrategy();
+      backpressure.register(listener);
+      try (final VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator)) {
+        listener.start(root);
+        for (int batch = 0; batch < BATCHES; batch++) {
+          if (backpressure.waitForListener(0) != BackpressureStrategy.WaitResult.READY) {
+            listener.error(CallStatus.CANCELLED.toRuntimeException());
+            return;
+          }
+          fill(root, batch);
+          listener.putNext();
+        }
+        // The producer can look at the metrics of its own call
+        if (middleware.getCallMetrics().getBatchesSent() != BATCHES) {
+          listener.error(CallStatus.INTERNAL.withDescription("Batches were not counted").toRuntimeException());
+          return;
+        }
+        listener.completed();
+      }
+    }
+
+    @Override
+    public Runnable acceptPut(CallContext context, FlightStream flightStream, StreamListener<PutResult> ackStream) {
+      return () -> {
+        while (flightStream.next()) {
+          // Drain the stream
+        }
+        ackStream.onCompleted();
+      };
+    }
+  }
+}
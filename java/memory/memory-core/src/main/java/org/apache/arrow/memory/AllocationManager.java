@@ -18,6 +18,7 @@
 package org.apache.arrow.memory;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.apache.arrow.util.Preconditions;
 
@@ -35,8 +36,10 @@ import org.apache.arrow.util.Preconditions;
  *
  * <p>Threading: AllocationManager manages thread-safety internally. Operations within the context
  * of a single BufferLedger
- * are lockless in nature and can be leveraged by multiple threads. Operations that cross the
- * context of two ledgers
+ * are lockless in nature and can be leveraged by multiple threads. Transfers of the ownership
+ * between two ledgers are done by atomically swapping the owning ledger, together with the telemetry the memory
+ * is accounted to. Only associating a ledger
+ * with an allocator and releasing the last reference of a ledger
  * will acquire a lock on the AllocationManager instance. Important note, there is one
  * AllocationManager per
  * UnsafeDirectLittleEndian buffer allocation. As such, there will be thousands of these in a
@@ -46,6 +49,8 @@ import org.apache.arrow.util.Preconditions;
 public abstract class AllocationManager {
 
   private static final AtomicLong MANAGER_ID_GENERATOR = new AtomicLong(0);
+  private static final AtomicReferenceFieldUpdater<AllocationManager, Owner> OWNER_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(AllocationManager.class, Owner.class, "owner");
 
   private final BufferAllocator root;
   private final long allocatorManagerId = MANAGER_ID_GENERATOR.incrementAndGet();
@@ -57,8 +62,10 @@ public abstract class AllocationManager {
   // The ReferenceManager created at the time of creation of this AllocationManager
   // is treated as the owning reference manager for the underlying chunk of memory
   // managed by this allocation manager
-  private volatile BufferLedger owningLedger;
+  private volatile Owner owner;
   private volatile long amDestructionTime = 0;
+  // Set if the allocation was sampled by the leak detector
+  private LeakDetector.Record leakRecord;
 
   protected AllocationManager(BufferAllocator accountingAllocator) {
     Preconditions.checkNotNull(accountingAllocator);
@@ -68,15 +75,46 @@ public abstract class AllocationManager {
 
     // we do a no retain association since our creator will want to retrieve the newly created
     // ledger and will create a reference count at that point
-    this.owningLedger = associate(accountingAllocator, false);
+    this.owner = new Owner(associate(accountingAllocator, false), null);
   }
 
   BufferLedger getOwningLedger() {
-    return owningLedger;
+    final Owner current = owner;
+    return current == null ? null : current.ledger;
   }
 
-  void setOwningLedger(final BufferLedger ledger) {
-    this.owningLedger = ledger;
+  /**
+   * Atomically change the owning ledger, if it is still the expected one, and move the memory from the telemetry
+   * of the previous owner to the one of the new owner, if any.
+   *
+   * @return whether the owning ledger was changed.
+   */
+  boolean transferOwningLedger(final BufferLedger expected, final BufferLedger ledger) {
+    final Owner current = owner;
+    if (current == null || current.ledger != expected) {
+      return false;
+    }
+    final Owner next = new Owner(ledger, ledger.getAllocator().getTelemetry());
+    if (!OWNER_UPDATER.compareAndSet(this, current, next)) {
+      return false;
+    }
+    // The counters only add up, so they can be updated after the swap
+    if (current.telemetry != null) {
+      current.telemetry.recordTransfer(getSize(), false);
+    }
+    if (next.telemetry != null) {
+      next.telemetry.recordTransfer(getSize(), true);
+    }
+    return true;
+  }
+
+  void setLeakRecord(final LeakDetector.Record leakRecord) {
+    this.leakRecord = leakRecord;
+  }
+
+  void setTelemetry(final AllocatorTelemetry telemetry) {
+    // Only called while allocating, before the buffer is published
+    owner = new Owner(owner.ledger, telemetry);
   }
 
   /**
@@ -151,18 +189,25 @@ public abstract class AllocationManager {
       ((BaseAllocator) oldAllocator).dissociateLedger(oldLedger);
     }
 
-    if (oldLedger == owningLedger) {
+    final Owner current = owner;
+    if (current != null && oldLedger == current.ledger) {
       // the release call was made by the owning reference manager
       if (map.isEmpty()) {
         // the only <allocator, reference manager> mapping was for the owner
         // which now has been removed, it implies we can safely destroy the
         // underlying memory chunk as it is no longer being referenced
         oldAllocator.releaseBytes(getSize());
+        if (current.telemetry != null) {
+          current.telemetry.recordRelease(getSize());
+        }
+        if (leakRecord != null) {
+          leakRecord.release();
+        }
         // free the memory chunk associated with the allocation manager
         release0();
         oldAllocator.getListener().onRelease(getSize());
         amDestructionTime = System.nanoTime();
-        owningLedger = null;
+        owner = null;
       } else {
         // since the refcount dropped to 0 for the owning reference manager and allocation
         // manager will no longer keep a mapping for it, we need to change the owning
@@ -218,4 +263,18 @@ public abstract class AllocationManager {
 
     ArrowBuf empty();
   }
+
+  /**
+   * The owning ledger, and the telemetry of its allocator if the buffer was allocated while telemetry was enabled.
+   * Immutable, so both change together.
+   */
+  private static final class Owner {
+    private final BufferLedger ledger;
+    private final AllocatorTelemetry telemetry;
+
+    Owner(BufferLedger ledger, AllocatorTelemetry telemetry) {
+      this.ledger = ledger;
+      this.telemetry = telemetry;
+    }
+  }
 }
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Allocation statistics of a single allocator, recorded while telemetry is enabled on it.
+ *
+ * <p>Unlike the historical log kept in debug mode, recording only updates a few striped counters per allocation,
+ * so it can be enabled in production. See {@link BufferAllocator#setTelemetryEnabled(boolean)}.
+ *
+ * <p>Only buffers allocated while telemetry is enabled are tracked. A buffer is counted as outstanding on the
+ * allocator owning its memory: transferring the ownership of a buffer moves it to the target allocator.
+ */
+public final class AllocatorTelemetry {
+  /**
+   * The number of buckets of the allocation size histogram.
+   */
+  public static final int HISTOGRAM_BUCKETS = Long.SIZE;
+
+  private final long enabledNanos = System.nanoTime();
+  private final LongAdder allocationCount = new LongAdder();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LongAdder releaseCount = new LongAdder();
+  private final LongAdder outstandingBuffers = new LongAdder();
+  private final LongAdder outstandingBytes = new LongAdder();
+  private final LongAdder allocateNanos = new LongAdder();
+  private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+  AllocatorTelemetry() {
+  }
+
+  /**
+   * Record a buffer allocated by this allocator.
+   *
+   * @param manager The allocation manager of the buffer, whose release is reported to this object.
+   * @param size The size of the buffer.
+   * @param nanos The time spent reserving and allocating the memory.
+   */
+  void recordAllocation(AllocationManager manager, long size, long nanos) {
+    manager.setTelemetry(this);
+    allocationCount.increment();
+    allocatedBytes.add(size);
+    allocateNanos.add(nanos);
+    histogram.incrementAndGet(getHistogramBucket(size));
+    acquire(size);
+  }
+
+  /**
+   * Record the release of a buffer owned by this allocator.
+   */
+  void recordRelease(long size) {
+    releaseCount.increment();
+    outstandingBuffers.decrement();
+    outstandingBytes.add(-size);
+  }
+
+  /**
+   * Record a buffer that moved to or from this allocator.
+   */
+  void recordTransfer(long size, boolean in) {
+    if (in) {
+      acquire(size);
+    } else {
+      outstandingBuffers.decrement();
+      outstandingBytes.add(-size);
+    }
+  }
+
+  private void acquire(long size) {
+    outstandingBuffers.increment();
+    outstandingBytes.add(size);
+  }
+
+  /**
+   * Get the histogram bucket of an allocation size: bucket <code>i</code> counts the sizes in
+   * [2<sup>i</sup>, 2<sup>i + 1</sup>).
+   */
+  public static int getHistogramBucket(long size) {
+    return size <= 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(size);
+  }
+
+  public long getAllocationCount() {
+    return allocationCount.sum();
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  public long getReleaseCount() {
+    return releaseCount.sum();
+  }
+
+  /**
+   * Get the number of buffers owned by the allocator.
+   */
+  public long getOutstandingBuffers() {
+    return outstandingBuffers.sum();
+  }
+
+  /**
+   * Get the size of the buffers owned by the allocator.
+   */
+  public long getOutstandingBytes() {
+    return outstandingBytes.sum();
+  }
+
+  /**
+   * Get the total time spent reserving and allocating memory, in nanoseconds.
+   */
+  public long getAllocateNanos() {
+    return allocateNanos.sum();
+  }
+
+  /**
+   * Get the number of allocations by size, see {@link #getHistogramBucket(long)}.
+   */
+  public long[] getAllocationSizeHistogram() {
+    final long[] result = new long[HISTOGRAM_BUCKETS];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = histogram.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * Get the time since telemetry was enabled, in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return System.nanoTime() - enabledNanos;
+  }
+
+  /**
+   * Get the average number of bytes allocated per second since telemetry was enabled.
+   */
+  public double getAllocationRate() {
+    final long elapsed = getElapsedNanos();
+    return elapsed <= 0 ? 0 : getAllocatedBytes() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+}
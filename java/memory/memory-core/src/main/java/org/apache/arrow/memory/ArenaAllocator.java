@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * An allocator that carves buffers out of large chunks with a bump pointer.
+ *
+ * <p>It is intended for short-lived scratch buffers, e.g. those allocated while processing one
+ * batch. Such buffers do not go through the accounting and allocation manager machinery one by one:
+ * chunks are allocated from the parent allocator, which only sees allocations at chunk granularity,
+ * and the memory of all buffers is freed at once by {@link #reset()} or {@link #close()}.
+ * Buffers larger than a quarter of the chunk size are allocated from the parent directly, but they are
+ * freed along with the chunks as well.
+ *
+ * <p>Closing a buffer of the arena does not free its memory. Buffers must not be used after the
+ * arena is reset: their reference count then drops to 0, so that accessing them fails when bounds
+ * checking is enabled. Buffers of the arena cannot be transferred or retained to other allocators.
+ *
+ * <p>The arena is not listed by {@link BufferAllocator#getChildAllocators()} of its parent, and
+ * cannot have child allocators itself. It must be closed before its parent, as its chunks are buffers
+ * of the parent.
+ */
+public final class ArenaAllocator implements BufferAllocator {
+
+  /**
+   * The default chunk size.
+   */
+  public static final long DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+  /**
+   * The alignment of the buffers carved out of a chunk.
+   */
+  private static final long ALIGNMENT = 8;
+
+  private final BufferAllocator parent;
+  private final String name;
+  private final long chunkSize;
+  private final List<ArrowBuf> chunks = new ArrayList<>();
+  // buffers too large to be carved out of a chunk
+  private final List<ArrowBuf> largeBuffers = new ArrayList<>();
+
+  private volatile long limit;
+  private long allocatedMemory;
+  private long peakMemory;
+  // the number of bytes handed out since the last reset
+  private long usedMemory;
+  // the offset of the free space in the last chunk
+  private long cursor;
+  // incremented on each reset, which invalidates all the buffers handed out before
+  private volatile int epoch;
+  private boolean closed;
+
+  /**
+   * Constructs an arena with the default chunk size, and no limit.
+   * @param parent the allocator of the chunks.
+   * @param name the name of the arena.
+   */
+  public ArenaAllocator(BufferAllocator parent, String name) {
+    this(parent, name, DEFAULT_CHUNK_SIZE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Constructs an arena.
+   * @param parent the allocator of the chunks.
+   * @param name the name of the arena.
+   * @param chunkSize the size of the chunks. It should be a power of 2, as it is not rounded.
+   * @param limit the maximum number of bytes allocated from the parent at any time.
+   */
+  public ArenaAllocator(BufferAllocator parent, String name, long chunkSize, long limit) {
+    Preconditions.checkNotNull(parent);
+    Preconditions.checkArgument(chunkSize >= ALIGNMENT, "The chunk size must be at least %s", ALIGNMENT);
+    parent.assertOpen();
+    this.parent = parent;
+    this.name = name;
+    this.chunkSize = chunkSize;
+    this.limit = limit;
+  }
+
+  @Override
+  public ArrowBuf buffer(long size) {
+    return buffer(size, null);
+  }
+
+  @Override
+  public synchronized ArrowBuf buffer(long size, BufferManager manager) {
+    assertOpen();
+    Preconditions.checkArgument(size >= 0, "the requested size must be non-negative");
+    if (size == 0) {
+      return getEmpty();
+    }
+
+    final long alignedSize = (size + ALIGNMENT - 1) & -ALIGNMENT;
+    final long address;
+    if (alignedSize > chunkSize / 4) {
+      ArrowBuf largeBuffer = allocateFromParent(size);
+      largeBuffers.add(largeBuffer);
+      address = largeBuffer.memoryAddress();
+    } else {
+      if (chunks.isEmpty() || cursor + alignedSize > chunkSize) {
+        chunks.add(allocateFromParent(chunkSize));
+        cursor = 0;
+      }
+      address = chunks.get(chunks.size() - 1).memoryAddress() + cursor;
+      cursor += alignedSize;
+    }
+    usedMemory += size;
+    return new ArrowBuf(new ArenaReferenceManager(size, epoch), manager, size, address);
+  }
+
+  private ArrowBuf allocateFromParent(long size) {
+    if (allocatedMemory + size > limit) {
+      throw new OutOfMemoryException(String.format(
+          "Unable to allocate %s bytes for arena %s (limit: %s, allocated: %s)", size, name, limit, allocatedMemory));
+    }
+    ArrowBuf buffer = parent.buffer(size);
+    allocatedMemory += buffer.capacity();
+    peakMemory = Math.max(peakMemory, allocatedMemory);
+    return buffer;
+  }
+
+  /**
+   * Frees the memory of all the buffers allocated from the arena. The first chunk is kept for reuse.
+   */
+  public synchronized void reset() {
+    assertOpen();
+    epoch++;
+    for (ArrowBuf largeBuffer : largeBuffers) {
+      allocatedMemory -= largeBuffer.capacity();
+      largeBuffer.close();
+    }
+    largeBuffers.clear();
+    while (chunks.size() > 1) {
+      ArrowBuf chunk = chunks.remove(chunks.size() - 1);
+      allocatedMemory -= chunk.capacity();
+      chunk.close();
+    }
+    cursor = 0;
+    usedMemory = 0;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    reset();
+    for (ArrowBuf chunk : chunks) {
+      allocatedMemory -= chunk.capacity();
+      chunk.close();
+    }
+    chunks.clear();
+    closed = true;
+    // only buffers of other allocators transferred to the arena may remain
+    if (allocatedMemory != 0) {
+      throw new IllegalStateException(String.format(
+          "Memory was leaked by arena %s: %s bytes of transferred buffers remain", name, allocatedMemory));
+    }
+  }
+
+  /**
+   * Gets the number of bytes handed out since the last reset.
+   * @return the number of bytes used.
+   */
+  public synchronized long getUsedMemory() {
+    return usedMemory;
+  }
+
+  public long getChunkSize() {
+    return chunkSize;
+  }
+
+  @Override
+  public BufferAllocator getRoot() {
+    return parent.getRoot();
+  }
+
+  @Override
+  public BufferAllocator newChildAllocator(String name, long initReservation, long maxAllocation) {
+    throw new UnsupportedOperationException("An arena cannot have child allocators");
+  }
+
+  @Override
+  public BufferAllocator newChildAllocator(String name, AllocationListener listener, long initReservation,
+      long maxAllocation) {
+    throw new UnsupportedOperationException("An arena cannot have child allocators");
+  }
+
+  /**
+   * Returns the number of bytes allocated from the parent, including the free space of the chunks.
+   */
+  @Override
+  public synchronized long getAllocatedMemory() {
+    return allocatedMemory;
+  }
+
+  @Override
+  public long getLimit() {
+    return limit;
+  }
+
+  @Override
+  public long getInitReservation() {
+    return 0;
+  }
+
+  @Override
+  public void setLimit(long newLimit) {
+    this.limit = newLimit;
+  }
+
+  @Override
+  public synchronized long getPeakMemoryAllocation() {
+    return peakMemory;
+  }
+
+  @Override
+  public synchronized long getHeadroom() {
+    final long freeInChunk = chunks.isEmpty() ? 0 : chunkSize - cursor;
+    return Math.min(limit - allocatedMemory, parent.getHeadroom()) + freeInChunk;
+  }
+
+  /**
+   * Accounts a buffer of another allocator transferred to the arena.
+   */
+  @Override
+  public synchronized boolean forceAllocate(long size) {
+    allocatedMemory += size;
+    peakMemory = Math.max(peakMemory, allocatedMemory);
+    return parent.forceAllocate(size) && allocatedMemory <= limit;
+  }
+
+  @Override
+  public synchronized void releaseBytes(long size) {
+    allocatedMemory -= size;
+    parent.releaseBytes(size);
+  }
+
+  @Override
+  public AllocationListener getListener() {
+    return AllocationListener.NOOP;
+  }
+
+  @Override
+  public BufferAllocator getParentAllocator() {
+    return parent;
+  }
+
+  @Override
+  public Collection<BufferAllocator> getChildAllocators() {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public AllocationReservation newReservation() {
+    throw new UnsupportedOperationException("An arena does not support reservations");
+  }
+
+  @Override
+  public ArrowBuf getEmpty() {
+    return parent.getEmpty();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public synchronized boolean isOverLimit() {
+    return allocatedMemory > limit || parent.isOverLimit();
+  }
+
+  @Override
+  public synchronized String toVerboseString() {
+    return String.format("Arena[%s] chunks: %s, large buffers: %s, allocated: %s, used: %s, limit: %s",
+        name, chunks.size(), largeBuffers.size(), allocatedMemory, usedMemory, limit);
+  }
+
+  @Override
+  public synchronized void assertOpen() {
+    if (closed) {
+      throw new IllegalStateException("Attempting operation on arena " + name + " when it is closed.");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toVerboseString();
+  }
+
+  /**
+   * The reference manager of a buffer carved out of the arena, and of the buffers derived from it.
+   * Its memory is only freed when the arena is reset, so it merely counts references, to catch
+   * the buffers used after being released.
+   */
+  private final class ArenaReferenceManager implements ReferenceManager {
+    private final AtomicInteger bufRefCnt = new AtomicInteger(1);
+    private final long size;
+    private final int bufEpoch;
+
+    ArenaReferenceManager(long size, int bufEpoch) {
+      this.size = size;
+      this.bufEpoch = bufEpoch;
+    }
+
+    private boolean isReset() {
+      return bufEpoch != epoch;
+    }
+
+    @Override
+    public int getRefCount() {
+      return isReset() ? 0 : bufRefCnt.get();
+    }
+
+    @Override
+    public boolean release() {
+      return release(1);
+    }
+
+    @Override
+    public boolean release(int decrement) {
+      Preconditions.checkState(decrement >= 1,
+          "ref count decrement should be greater than or equal to 1");
+      if (isReset()) {
+        // the memory was already freed by the reset of the arena
+        return true;
+      }
+      final int refCnt = bufRefCnt.addAndGet(-decrement);
+      Preconditions.checkState(refCnt >= 0, "RefCnt has gone negative");
+      return refCnt == 0;
+    }
+
+    @Override
+    public void retain() {
+      retain(1);
+    }
+
+    @Override
+    public void retain(int increment) {
+      Preconditions.checkArgument(increment > 0, "retain(%s) argument is not positive", increment);
+      Preconditions.checkState(!isReset(), "The buffer was freed by the reset of arena %s", name);
+      final int originalReferenceCount = bufRefCnt.getAndAdd(increment);
+      Preconditions.checkArgument(originalReferenceCount > 0,
+          "retain called but buffer was already released");
+    }
+
+    @Override
+    public ArrowBuf retain(ArrowBuf srcBuffer, BufferAllocator targetAllocator) {
+      checkTarget(targetAllocator);
+      retain();
+      ArrowBuf targetArrowBuf = deriveBuffer(srcBuffer, 0, srcBuffer.capacity());
+      targetArrowBuf.readerIndex(srcBuffer.readerIndex());
+      targetArrowBuf.writerIndex(srcBuffer.writerIndex());
+      return targetArrowBuf;
+    }
+
+    @Override
+    public ArrowBuf deriveBuffer(ArrowBuf sourceBuffer, long index, long length) {
+      return new ArrowBuf(this, null, length, sourceBuffer.memoryAddress() + index);
+    }
+
+    @Override
+    public OwnershipTransferResult transferOwnership(ArrowBuf sourceBuffer, BufferAllocator targetAllocator) {
+      return new OwnershipTransferNOOP(retain(sourceBuffer, targetAllocator));
+    }
+
+    private void checkTarget(BufferAllocator targetAllocator) {
+      if (targetAllocator != ArenaAllocator.this) {
+        throw new UnsupportedOperationException(
+            "A buffer of arena " + name + " cannot be moved to allocator " + targetAllocator.getName());
+      }
+    }
+
+    @Override
+    public BufferAllocator getAllocator() {
+      return ArenaAllocator.this;
+    }
+
+    @Override
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * The memory is accounted by the arena at chunk granularity.
+     */
+    @Override
+    public long getAccountedSize() {
+      return 0;
+    }
+  }
+}
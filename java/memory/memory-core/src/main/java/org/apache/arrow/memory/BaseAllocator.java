@@ -76,6 +76,7 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
   private final AllocationManager.Factory allocationManagerFactory;
 
   private volatile boolean isClosed = false; // the allocator has been closed
+  private volatile AllocatorTelemetry telemetry; // null unless telemetry is enabled
 
   /**
    * Initialize an allocator.
@@ -122,6 +123,9 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
       childLedgers = null;
     }
     this.roundingPolicy = config.getRoundingPolicy();
+    if (parentAllocator != null && parentAllocator.telemetry != null) {
+      this.telemetry = new AllocatorTelemetry();
+    }
   }
 
   @Override
@@ -259,6 +263,8 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
 
     listener.onPreAllocation(actualRequestSize);
 
+    final AllocatorTelemetry telemetry = this.telemetry;
+    final long start = telemetry == null ? 0 : System.nanoTime();
     AllocationOutcome outcome = this.allocateBytes(actualRequestSize);
     if (!outcome.isOk()) {
       if (listener.onFailedAllocation(actualRequestSize, outcome)) {
@@ -275,6 +281,9 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
     try {
       ArrowBuf buffer = bufferWithoutReservation(actualRequestSize, manager);
       success = true;
+      if (telemetry != null) {
+        telemetry.recordAllocation(getAllocationManager(buffer), actualRequestSize, System.nanoTime() - start);
+      }
       listener.onAllocation(actualRequestSize);
       return buffer;
     } catch (OutOfMemoryError e) {
@@ -286,6 +295,45 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
     }
   }
 
+  @Override
+  public ArrowBuf wrapForeignAllocation(ForeignAllocation allocation) {
+    assertOpen();
+    final long size = allocation.getSize();
+    listener.onPreAllocation(size);
+    AllocationOutcome outcome = this.allocateBytes(size);
+    if (!outcome.isOk()) {
+      if (listener.onFailedAllocation(size, outcome)) {
+        // Second try, in case the listener can do something about it
+        outcome = this.allocateBytes(size);
+      }
+      if (!outcome.isOk()) {
+        allocation.release0();
+        throw new OutOfMemoryException(createErrorMsg(this, size, size), outcome.getDetails());
+      }
+    }
+
+    boolean success = false;
+    try {
+      final AllocationManager manager = new ForeignAllocationManager(this, allocation);
+      LeakDetector.track(manager, size);
+      final BufferLedger ledger = manager.associate(this); // +1 ref cnt (required)
+      final ArrowBuf buffer = ledger.newArrowBuf(size, null);
+      buffer.writerIndex(size);
+      success = true;
+      final AllocatorTelemetry telemetry = this.telemetry;
+      if (telemetry != null) {
+        telemetry.recordAllocation(manager, size, 0);
+      }
+      listener.onAllocation(size);
+      return buffer;
+    } finally {
+      if (!success) {
+        releaseBytes(size);
+        allocation.release0();
+      }
+    }
+  }
+
   /**
    * Used by usual allocation as well as for allocating a pre-reserved buffer.
    * Skips the typical accounting associated with creating a new buffer.
@@ -296,6 +344,7 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
     assertOpen();
 
     final AllocationManager manager = newAllocationManager(size);
+    LeakDetector.track(manager, size);
     final BufferLedger ledger = manager.associate(this); // +1 ref cnt (required)
     final ArrowBuf buffer = ledger.newArrowBuf(size, bufferManager);
 
@@ -306,6 +355,10 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
     return buffer;
   }
 
+  private static AllocationManager getAllocationManager(ArrowBuf buffer) {
+    return ((BufferLedger) buffer.getReferenceManager()).getAllocationManager();
+  }
+
   private AllocationManager newAllocationManager(long size) {
     return newAllocationManager(this, size);
   }
@@ -359,6 +412,25 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
     return childAllocator;
   }
 
+  @Override
+  public void setTelemetryEnabled(boolean enabled) {
+    synchronized (childAllocators) {
+      if (!enabled) {
+        telemetry = null;
+      } else if (telemetry == null) {
+        telemetry = new AllocatorTelemetry();
+      }
+      for (BaseAllocator child : childAllocators.keySet()) {
+        child.setTelemetryEnabled(enabled);
+      }
+    }
+  }
+
+  @Override
+  public AllocatorTelemetry getTelemetry() {
+    return telemetry;
+  }
+
   @Override
   public AllocationReservation newReservation() {
     assertOpen();
@@ -913,6 +985,11 @@ abstract class BaseAllocator extends Accountant implements BufferAllocator {
       try {
         final ArrowBuf arrowBuf = BaseAllocator.this.bufferWithoutReservation(nBytes, null);
 
+        final AllocatorTelemetry telemetry = BaseAllocator.this.telemetry;
+        if (telemetry != null) {
+          // the memory was reserved beforehand
+          telemetry.recordAllocation(getAllocationManager(arrowBuf), nBytes, 0);
+        }
         listener.onAllocation(nBytes);
         if (DEBUG) {
           historicalLog.recordEvent("allocate() => %s", String.format("ArrowBuf[%d]", arrowBuf
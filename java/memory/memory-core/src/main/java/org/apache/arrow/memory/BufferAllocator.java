@@ -49,6 +49,41 @@ public interface BufferAllocator extends AutoCloseable {
    */
   ArrowBuf buffer(long size, BufferManager manager);
 
+  /**
+   * Wrap memory allocated outside of Arrow into a buffer, without copying it. The memory is accounted to this
+   * allocator, subject to its limit, and is released through {@link ForeignAllocation#release0()} once the buffer
+   * and all buffers derived from it are released.
+   *
+   * @param allocation The memory to wrap. If this call fails, the allocation is released.
+   * @return a new ArrowBuf of the size of the allocation
+   * @throws OutOfMemoryException if the allocation exceeds the limit of this allocator
+   */
+  default ArrowBuf wrapForeignAllocation(ForeignAllocation allocation) {
+    allocation.release0();
+    throw new UnsupportedOperationException("This allocator cannot wrap foreign allocations");
+  }
+
+  /**
+   * Enable or disable telemetry for this allocator and all of its descendants. Child allocators created later
+   * inherit the setting of their parent. Enabling telemetry again on an allocator keeps its recorded statistics,
+   * while disabling it discards them.
+   *
+   * @param enabled whether allocations should be recorded
+   * @see AllocatorTelemetry
+   */
+  default void setTelemetryEnabled(boolean enabled) {
+    throw new UnsupportedOperationException("This allocator does not support telemetry");
+  }
+
+  /**
+   * Get the allocation statistics of this allocator.
+   *
+   * @return the statistics, or null if telemetry is not enabled
+   */
+  default AllocatorTelemetry getTelemetry() {
+    return null;
+  }
+
   /**
    * Get the root allocator of this allocator. If this allocator is already a root, return
    * this directly.
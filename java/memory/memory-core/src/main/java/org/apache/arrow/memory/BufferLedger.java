@@ -17,7 +17,8 @@
 
 package org.apache.arrow.memory;
 
-import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -32,8 +33,8 @@ import org.apache.arrow.util.Preconditions;
  * fate (same reference count).
  */
 public class BufferLedger implements ValueWithKeyIncluded<BufferAllocator>, ReferenceManager {
-  private final IdentityHashMap<ArrowBuf, Object> buffers =
-          BaseAllocator.DEBUG ? new IdentityHashMap<>() : null;
+  // ArrowBuf compares by identity
+  private final Set<ArrowBuf> buffers = BaseAllocator.DEBUG ? ConcurrentHashMap.newKeySet() : null;
   private static final AtomicLong LEDGER_ID_GENERATOR = new AtomicLong(0);
   // unique ID assigned to each ledger
   private final long ledgerId = LEDGER_ID_GENERATOR.incrementAndGet();
@@ -146,6 +147,16 @@ public class BufferLedger implements ValueWithKeyIncluded<BufferAllocator>, Refe
    */
   private int decrement(int decrement) {
     allocator.assertOpen();
+    // Fast path: as long as the count stays positive, the allocation manager is not involved
+    int current = bufRefCnt.get();
+    while (current > decrement) {
+      if (bufRefCnt.compareAndSet(current, current - decrement)) {
+        return current - decrement;
+      }
+      current = bufRefCnt.get();
+    }
+    // The count may drop to zero, which removes this ledger from the allocation manager: do it under its lock, so
+    // that the ledger cannot be handed out by associate() at the same time.
     final int outcome;
     synchronized (allocationManager) {
       outcome = bufRefCnt.addAndGet(-decrement);
@@ -241,9 +252,7 @@ public class BufferLedger implements ValueWithKeyIncluded<BufferAllocator>, Refe
               allocator.getName(), System.identityHashCode(derivedBuf), derivedBuf.toString(),
               System.identityHashCode(this));
 
-      synchronized (buffers) {
-        buffers.put(derivedBuf, null);
-      }
+      buffers.add(derivedBuf);
     }
 
     return derivedBuf;
@@ -278,9 +287,7 @@ public class BufferLedger implements ValueWithKeyIncluded<BufferAllocator>, Refe
           allocator.getName(), System.identityHashCode(buf), buf.toString(),
           System.identityHashCode(this));
 
-      synchronized (buffers) {
-        buffers.put(buf, null);
-      }
+      buffers.add(buf);
     }
 
     return buf;
@@ -348,30 +355,32 @@ public class BufferLedger implements ValueWithKeyIncluded<BufferAllocator>, Refe
       return true;
     }
 
-    // since two balance transfers out from the allocation manager could cause incorrect
-    // accounting, we need to ensure
-    // that this won't happen by synchronizing on the allocation manager instance.
-    synchronized (allocationManager) {
-      if (allocationManager.getOwningLedger() != this) {
-        // since the calling reference manager is not the owning
-        // reference manager for the underlying memory, transfer is
-        // a NO-OP
-        return true;
-      }
+    // since the calling reference manager is not the owning
+    // reference manager for the underlying memory, transfer is
+    // a NO-OP
+    if (!isOwningLedger()) {
+      return true;
+    }
 
-      if (BaseAllocator.DEBUG) {
-        this.historicalLog.recordEvent("transferBalance(%s)",
-            targetReferenceManager.getAllocator().getName());
-      }
+    // Only the owning ledger can transfer the ownership, and swapping the owner atomically ensures that of two
+    // concurrent transfers only one moves the accounting. The target is charged before it becomes the owner, so
+    // that a subsequent transfer out of it never releases bytes it has not been charged yet. The owner cannot be
+    // released meanwhile, as the caller holds a reference to it.
+    final long size = allocationManager.getSize();
+    final boolean overlimit = targetAllocator.forceAllocate(size);
+    if (!allocationManager.transferOwningLedger(this, (BufferLedger) targetReferenceManager)) {
+      // a concurrent transfer moved the ownership first
+      targetAllocator.releaseBytes(size);
+      return true;
+    }
 
-      boolean overlimit = targetAllocator.forceAllocate(allocationManager.getSize());
-      allocator.releaseBytes(allocationManager.getSize());
-      // since the transfer can only happen from the owning reference manager,
-      // we need to set the target ref manager as the new owning ref manager
-      // for the chunk of memory in allocation manager
-      allocationManager.setOwningLedger((BufferLedger) targetReferenceManager);
-      return overlimit;
+    if (BaseAllocator.DEBUG) {
+      this.historicalLog.recordEvent("transferBalance(%s)",
+          targetReferenceManager.getAllocator().getName());
     }
+
+    allocator.releaseBytes(size);
+    return overlimit;
   }
 
   /**
@@ -465,13 +474,7 @@ public class BufferLedger implements ValueWithKeyIncluded<BufferAllocator>, Refe
    */
   @Override
   public long getAccountedSize() {
-    synchronized (allocationManager) {
-      if (allocationManager.getOwningLedger() == this) {
-        return allocationManager.getSize();
-      } else {
-        return 0;
-      }
-    }
+    return isOwningLedger() ? allocationManager.getSize() : 0;
   }
 
   /**
@@ -501,14 +504,12 @@ public class BufferLedger implements ValueWithKeyIncluded<BufferAllocator>, Refe
     if (!BaseAllocator.DEBUG) {
       sb.append("]\n");
     } else {
-      synchronized (buffers) {
-        sb.append("] holds ")
-          .append(buffers.size())
-          .append(" buffers. \n");
-        for (ArrowBuf buf : buffers.keySet()) {
-          buf.print(sb, indent + 2, verbosity);
-          sb.append('\n');
-        }
+      sb.append("] holds ")
+        .append(buffers.size())
+        .append(" buffers. \n");
+      for (ArrowBuf buf : buffers) {
+        buf.print(sb, indent + 2, verbosity);
+        sb.append('\n');
       }
     }
   }
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+/**
+ * Memory allocated outside of Arrow, e.g. by native code or by mapping a file, which can be wrapped into an
+ * {@link ArrowBuf} with {@link BufferAllocator#wrapForeignAllocation(ForeignAllocation)}.
+ *
+ * <p>The memory is accounted to the allocator it is wrapped with, and {@link #release0()} is called once the last
+ * reference to the buffer is released.
+ */
+public abstract class ForeignAllocation {
+  private final long memoryAddress;
+  private final long size;
+
+  /**
+   * Create a new allocation.
+   *
+   * @param size The size of the allocated memory, in bytes.
+   * @param memoryAddress The address of the first byte of the allocated memory.
+   */
+  protected ForeignAllocation(long size, long memoryAddress) {
+    this.memoryAddress = memoryAddress;
+    this.size = size;
+  }
+
+  /**
+   * Get the size of this allocation.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Get the address of this allocation.
+   */
+  protected long memoryAddress() {
+    return memoryAddress;
+  }
+
+  /**
+   * Free the allocation. Called at most once, when the buffer wrapping it is no longer referenced.
+   */
+  protected abstract void release0();
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.arrow.util.Preconditions;
+import org.apache.arrow.util.VisibleForTesting;
+
+/**
+ * A sampling detector of buffers that are garbage collected without being closed.
+ *
+ * <p>Unlike the debug mode of {@link BaseAllocator}, which records the history of every buffer, the detector only
+ * captures the stack trace of one allocation out of every <code>N</code>, so it can run in production. The memory
+ * of a sampled allocation is watched with a phantom reference: if it becomes unreachable while its buffers were
+ * not released, the allocation is reported as a leak, grouped by allocation site.
+ *
+ * <p>In debug mode, allocators keep a reference to every buffer until it is released, so leaks are only reported
+ * when the allocator is closed, as before.
+ *
+ * <p>Sampling is off by default. It can be turned on with the system property
+ * "arrow.memory.leak_detection.sampling_interval", or at runtime with {@link #setSamplingInterval(int)}. When it
+ * is off, the only cost is a volatile read per allocation.
+ */
+public final class LeakDetector {
+  public static final String SAMPLING_INTERVAL_PROPERTY = "arrow.memory.leak_detection.sampling_interval";
+
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LeakDetector.class);
+
+  private static final ReferenceQueue<AllocationManager> QUEUE = new ReferenceQueue<>();
+  // Keeps the references of the tracked allocations reachable until they are enqueued
+  private static final Set<Record> TRACKED = ConcurrentHashMap.newKeySet();
+  private static final ConcurrentMap<Site, Leak> LEAKS = new ConcurrentHashMap<>();
+
+  private static volatile int samplingInterval = Integer.getInteger(SAMPLING_INTERVAL_PROPERTY, 0);
+
+  private LeakDetector() {
+  }
+
+  /**
+   * Set how many allocations there are for each sampled allocation on average.
+   *
+   * @param interval The sampling interval: 1 to track every allocation, 0 to turn sampling off.
+   */
+  public static void setSamplingInterval(int interval) {
+    Preconditions.checkArgument(interval >= 0, "The sampling interval must be non-negative");
+    samplingInterval = interval;
+  }
+
+  public static int getSamplingInterval() {
+    return samplingInterval;
+  }
+
+  /**
+   * Start tracking an allocation, if it is sampled.
+   */
+  static void track(AllocationManager manager, long size) {
+    final int interval = samplingInterval;
+    if (interval <= 0 || (interval > 1 && ThreadLocalRandom.current().nextInt(interval) != 0)) {
+      return;
+    }
+    checkForLeaks();
+    final Record record = new Record(manager, size, new Throwable().getStackTrace());
+    TRACKED.add(record);
+    manager.setLeakRecord(record);
+  }
+
+  /**
+   * Process the tracked allocations that were garbage collected since the last call. This is done on every sampled
+   * allocation, so only needs to be called explicitly to get up-to-date results from {@link #getLeaks()}.
+   *
+   * @return the number of leaked allocations found.
+   */
+  public static int checkForLeaks() {
+    int found = 0;
+    Record record;
+    while ((record = (Record) QUEUE.poll()) != null) {
+      if (!TRACKED.remove(record)) {
+        // released
+        continue;
+      }
+      found++;
+      recordLeak(record.stackTrace, record.size);
+    }
+    return found;
+  }
+
+  @VisibleForTesting
+  static void recordLeak(StackTraceElement[] stackTrace, long size) {
+    final Site site = new Site(stackTrace);
+    final Leak leak = LEAKS.computeIfAbsent(site, Leak::new);
+    leak.count.increment();
+    leak.bytes.add(size);
+    if (leak.reported.compareAndSet(false, true)) {
+      logger.warn("Buffer of {} bytes was garbage collected without being released, allocated at:\n{}",
+          size, site);
+    }
+  }
+
+  /**
+   * Get the sites of the leaked allocations found so far, the most frequent first.
+   */
+  public static List<Leak> getLeaks() {
+    final List<Leak> leaks = new ArrayList<>(LEAKS.values());
+    leaks.sort(Comparator.comparingLong(Leak::getCount).reversed());
+    return leaks;
+  }
+
+  /**
+   * Forget the leaks found so far.
+   */
+  public static void reset() {
+    LEAKS.clear();
+  }
+
+  /**
+   * A tracked allocation.
+   */
+  static final class Record extends PhantomReference<AllocationManager> {
+    private final long size;
+    private final StackTraceElement[] stackTrace;
+
+    Record(AllocationManager manager, long size, StackTraceElement[] stackTrace) {
+      super(manager, QUEUE);
+      this.size = size;
+      this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Stop tracking the allocation, as its memory was released.
+     */
+    void release() {
+      TRACKED.remove(this);
+      clear();
+    }
+  }
+
+  /**
+   * An allocation site, i.e. the stack trace of an allocation without the frames of the allocator.
+   */
+  private static final class Site {
+    private final StackTraceElement[] frames;
+
+    Site(StackTraceElement[] stackTrace) {
+      int start = 0;
+      while (start < stackTrace.length && isAllocatorFrame(stackTrace[start])) {
+        start++;
+      }
+      this.frames = Arrays.copyOfRange(stackTrace, start, stackTrace.length);
+    }
+
+    private static boolean isAllocatorFrame(StackTraceElement frame) {
+      return frame.getClassName().startsWith(LeakDetector.class.getName()) ||
+          frame.getClassName().startsWith(BaseAllocator.class.getName());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Site && Arrays.equals(frames, ((Site) o).frames);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(frames);
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder sb = new StringBuilder();
+      for (StackTraceElement frame : frames) {
+        sb.append("  at ").append(frame).append('\n');
+      }
+      return sb.toString();
+    }
+  }
+
+  /**
+   * The leaks of an allocation site.
+   */
+  public static final class Leak {
+    private final Site site;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    private Leak(Site site) {
+      this.site = site;
+    }
+
+    /**
+     * Get the stack trace of the allocation site, innermost frame first.
+     */
+    public StackTraceElement[] getStackTrace() {
+      return site.frames.clone();
+    }
+
+    /**
+     * Get the number of leaked allocations found, among the sampled ones.
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * Get the size of the leaked allocations found, among the sampled ones.
+     */
+    public long getBytes() {
+      return bytes.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "Leak{count=" + getCount() + ", bytes=" + getBytes() + ", site=\n" + site + '}';
+    }
+  }
+}
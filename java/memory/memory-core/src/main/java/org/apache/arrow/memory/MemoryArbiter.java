@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.arrow.memory.util.CommonUtil;
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * Shares the memory of an allocator between operators, by granting each of them a quota.
+ *
+ * <p>Each operator registers a {@link Quota} and allocates from its child allocator, whose limit is the quota.
+ * When an allocation exceeds the quota, or when the operator {@link Quota#request(long) requests} more memory
+ * up front, the quota grows by taking free memory of the pool. When there is not enough, the arbiter first takes
+ * back the unused part of the quotas of lower priority operators, then asks them to spill or shrink through their
+ * {@link MemoryReclaimer}, in ascending order of priority, and takes back the memory they released. Operators of
+ * the same or a higher priority are never asked to release memory, so a request fails like an allocation over a
+ * limit when they hold the memory.
+ *
+ * <pre>
+ *   MemoryArbiter arbiter = new MemoryArbiter(rootAllocator);
+ *   try (MemoryArbiter.Quota sort = arbiter.register("sort", 10, 0, sorter::spill)) {
+ *     ArrowBuf buffer = sort.getAllocator().buffer(size);
+ *     ...
+ *   }
+ * </pre>
+ *
+ * <p>The arbiter assumes that the pool is only allocated from through the quotas: the free memory is the limit of
+ * the pool minus the quotas granted.
+ */
+public class MemoryArbiter {
+
+  private final BufferAllocator pool;
+  private final List<Quota> quotas = new ArrayList<>();
+  private final AtomicLong spillRequests = new AtomicLong();
+  private final AtomicLong spilledBytes = new AtomicLong();
+  // the sum of the limits of the quota allocators, guarded by this
+  private long grantedMemory;
+
+  /**
+   * Create an arbiter.
+   *
+   * @param pool The allocator whose memory is shared, usually a {@link RootAllocator}.
+   */
+  public MemoryArbiter(BufferAllocator pool) {
+    this.pool = Preconditions.checkNotNull(pool);
+  }
+
+  /**
+   * Register an operator.
+   *
+   * @param name The name of the operator, used for its allocator.
+   * @param priority The priority of the operator. Operators of lower priorities are asked to release memory for
+   *     those of higher priorities.
+   * @param initialQuota The number of bytes to grant up front.
+   * @param reclaimer Called to spill or shrink the operator for a higher priority one, or null if the operator
+   *     cannot release memory.
+   * @return The quota, which releases the granted memory when closed.
+   * @throws OutOfMemoryException if the initial quota cannot be granted.
+   */
+  public Quota register(String name, int priority, long initialQuota, MemoryReclaimer reclaimer) {
+    Preconditions.checkArgument(initialQuota >= 0, "The initial quota must be non-negative");
+    final Quota quota = new Quota(Preconditions.checkNotNull(name), priority, reclaimer);
+    synchronized (this) {
+      quotas.add(quota);
+    }
+    if (!quota.request(initialQuota)) {
+      quota.close();
+      throw new OutOfMemoryException(String.format("Unable to grant a quota of %s bytes to %s (free: %s)",
+          initialQuota, name, getFreeMemory()));
+    }
+    return quota;
+  }
+
+  private boolean grant(Quota requester, long bytes, int priority) {
+    final List<Quota> victims = new ArrayList<>();
+    synchronized (this) {
+      if (tryGrant(requester, bytes)) {
+        return true;
+      }
+      // unused quotas of lower priority operators are taken back first, as this costs them nothing
+      for (Quota quota : quotas) {
+        if (quota != requester && quota.priority < priority) {
+          shrink(quota);
+          if (quota.reclaimer != null) {
+            victims.add(quota);
+          }
+        }
+      }
+      if (tryGrant(requester, bytes)) {
+        return true;
+      }
+    }
+
+    // spill the lowest priorities first, and the largest operators of a priority first
+    victims.sort(Comparator.<Quota>comparingInt(quota -> quota.priority)
+        .thenComparing(Comparator.comparingLong((Quota quota) -> quota.allocator.getAllocatedMemory()).reversed()));
+    for (Quota victim : victims) {
+      final long needed;
+      synchronized (this) {
+        if (tryGrant(requester, bytes)) {
+          return true;
+        }
+        needed = bytes - getFreeMemory();
+      }
+      // reclaimers must be called without holding the lock, as they may allocate while spilling
+      spillRequests.incrementAndGet();
+      final long released = victim.reclaimer.reclaim(needed);
+      if (released > 0) {
+        spilledBytes.addAndGet(released);
+      }
+      synchronized (this) {
+        shrink(victim);
+      }
+    }
+    synchronized (this) {
+      return tryGrant(requester, bytes);
+    }
+  }
+
+  private boolean tryGrant(Quota quota, long bytes) {
+    if (quota.closed || getFreeMemory() < bytes) {
+      return false;
+    }
+    grantedMemory += bytes;
+    quota.allocator.setLimit(quota.allocator.getLimit() + bytes);
+    return true;
+  }
+
+  /**
+   * Take back the unused part of a quota.
+   */
+  private void shrink(Quota quota) {
+    if (quota.closed) {
+      return;
+    }
+    final long limit = quota.allocator.getLimit();
+    final long allocated = quota.allocator.getAllocatedMemory();
+    if (allocated < limit) {
+      quota.allocator.setLimit(allocated);
+      grantedMemory -= limit - allocated;
+    }
+  }
+
+  /**
+   * Get the memory of the pool not granted to any quota.
+   */
+  public synchronized long getFreeMemory() {
+    return pool.getLimit() - grantedMemory;
+  }
+
+  /**
+   * Get the sum of all quotas.
+   */
+  public synchronized long getGrantedMemory() {
+    return grantedMemory;
+  }
+
+  /**
+   * Get the number of times an operator was asked to release memory.
+   */
+  public long getSpillRequests() {
+    return spillRequests.get();
+  }
+
+  /**
+   * Get the number of bytes operators reported as released when asked to.
+   */
+  public long getSpilledBytes() {
+    return spilledBytes.get();
+  }
+
+  /**
+   * The memory granted to an operator.
+   */
+  public final class Quota implements AutoCloseable {
+    private final String name;
+    private final int priority;
+    private final MemoryReclaimer reclaimer;
+    private final BufferAllocator allocator;
+    // guarded by the arbiter
+    private boolean closed;
+
+    private Quota(String name, int priority, MemoryReclaimer reclaimer) {
+      this.name = name;
+      this.priority = priority;
+      this.reclaimer = reclaimer;
+      this.allocator = pool.newChildAllocator(name, new AllocationListener() {
+        @Override
+        public boolean onFailedAllocation(long size, AllocationOutcome outcome) {
+          final long needed = allocator.getAllocatedMemory() + size - allocator.getLimit();
+          // otherwise, the allocation failed because of the pool itself
+          return needed > 0 && request(needed);
+        }
+      }, 0, 0);
+    }
+
+    /**
+     * Grow the quota with the priority of the operator.
+     *
+     * @param bytes The number of bytes to add to the quota.
+     * @return Whether the quota was grown.
+     */
+    public boolean request(long bytes) {
+      return request(bytes, priority);
+    }
+
+    /**
+     * Grow the quota, asking operators of a lower priority than the given one to release memory if needed.
+     *
+     * @param bytes The number of bytes to add to the quota.
+     * @param priority The priority of the request, which may differ from the one of the operator, e.g. to finish
+     *     a nearly complete operation.
+     * @return Whether the quota was grown.
+     */
+    public boolean request(long bytes, int priority) {
+      Preconditions.checkArgument(bytes >= 0, "The requested size must be non-negative");
+      return bytes == 0 || grant(this, bytes, priority);
+    }
+
+    /**
+     * Create a reservation of the given size from the allocator of the quota, growing the quota as needed.
+     *
+     * @param nBytes The number of bytes to reserve.
+     * @return The reservation, which is not used yet.
+     * @throws OutOfMemoryException if the quota cannot be grown enough.
+     */
+    public AllocationReservation reserve(int nBytes) {
+      // reservations are rounded to powers of two
+      final long needed = allocator.getAllocatedMemory() + CommonUtil.nextPowerOfTwo(nBytes) - allocator.getLimit();
+      if (needed > 0 && !request(needed)) {
+        throw new OutOfMemoryException(String.format("Unable to grow the quota of %s by %s bytes (free: %s)",
+            name, needed, getFreeMemory()));
+      }
+      final AllocationReservation reservation = allocator.newReservation();
+      if (!reservation.add(nBytes)) {
+        reservation.close();
+        throw new OutOfMemoryException(String.format("Unable to reserve %s bytes for %s", nBytes, name));
+      }
+      return reservation;
+    }
+
+    /**
+     * Get the allocator to allocate the memory of the operator from.
+     */
+    public BufferAllocator getAllocator() {
+      return allocator;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getPriority() {
+      return priority;
+    }
+
+    /**
+     * Get the number of bytes currently granted.
+     */
+    public long getQuota() {
+      return allocator.getLimit();
+    }
+
+    /**
+     * Close the allocator of the quota and return the granted memory to the pool.
+     */
+    @Override
+    public void close() {
+      synchronized (MemoryArbiter.this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        quotas.remove(this);
+        grantedMemory -= allocator.getLimit();
+      }
+      allocator.close();
+    }
+  }
+}
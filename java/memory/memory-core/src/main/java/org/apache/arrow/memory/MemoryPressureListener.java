@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * An {@link AllocationListener} that asks registered {@link MemoryReclaimer}s to release memory before an
+ * allocator reaches its limit.
+ *
+ * <p>Once the memory allocated from the attached allocator exceeds a soft limit, a fraction of
+ * {@link BufferAllocator#getLimit()}, a background thread calls the reclaimers until the allocated memory is back
+ * under a lower target. Reclaimers are called in ascending order of priority, so that data which is cheap to
+ * recreate can be shed first. When an allocation fails anyway, the reclaimers are called on the allocating thread
+ * and the allocation is retried if they released anything.
+ *
+ * <p>The listener has to be attached to the allocator it was given to:
+ * <pre>
+ *   MemoryPressureListener pressure = new MemoryPressureListener(0.8, 0.6);
+ *   BufferAllocator allocator = new RootAllocator(pressure, limit);
+ *   pressure.attach(allocator);
+ *   pressure.register("result-cache", 0, cache);
+ * </pre>
+ */
+public class MemoryPressureListener implements AllocationListener, AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryPressureListener.class);
+
+  private final double softLimit;
+  private final double targetLimit;
+  private final ExecutorService executor;
+  private final AtomicBoolean reclaiming = new AtomicBoolean();
+  private final AtomicLong reclaimedBytes = new AtomicLong();
+  private final AtomicLong backgroundReclaims = new AtomicLong();
+  private final AtomicLong failedAllocationReclaims = new AtomicLong();
+  private final List<Registration> registrations = new ArrayList<>();
+  private volatile Registration[] sortedRegistrations = new Registration[0];
+  private volatile BufferAllocator allocator;
+
+  /**
+   * Create a listener.
+   *
+   * @param softLimit The fraction of the allocator limit above which memory is reclaimed, in (0, 1].
+   * @param targetLimit The fraction of the allocator limit to reclaim memory down to, in [0, softLimit].
+   */
+  public MemoryPressureListener(double softLimit, double targetLimit) {
+    Preconditions.checkArgument(softLimit > 0 && softLimit <= 1, "The soft limit must be in (0, 1]");
+    Preconditions.checkArgument(targetLimit >= 0 && targetLimit <= softLimit,
+        "The target limit must be in [0, softLimit]");
+    this.softLimit = softLimit;
+    this.targetLimit = targetLimit;
+    this.executor = Executors.newSingleThreadExecutor(r -> {
+      final Thread thread = new Thread(r, "arrow-memory-reclaimer");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Set the allocator whose memory usage is watched, usually the allocator this listener was given to.
+   */
+  public void attach(BufferAllocator allocator) {
+    this.allocator = Preconditions.checkNotNull(allocator);
+  }
+
+  /**
+   * Register a reclaimer.
+   *
+   * @param name The name of the reclaimer, used in statistics.
+   * @param priority The lower the priority, the earlier the reclaimer is called.
+   * @param reclaimer The reclaimer.
+   * @return A registration, which unregisters the reclaimer when closed.
+   */
+  public Registration register(String name, int priority, MemoryReclaimer reclaimer) {
+    final Registration registration = new Registration(Preconditions.checkNotNull(name), priority,
+        Preconditions.checkNotNull(reclaimer));
+    synchronized (registrations) {
+      registrations.add(registration);
+      updateSortedRegistrations();
+    }
+    return registration;
+  }
+
+  private void updateSortedRegistrations() {
+    final List<Registration> sorted = new ArrayList<>(registrations);
+    // stable, so reclaimers of the same priority are called in registration order
+    sorted.sort((a, b) -> Integer.compare(a.priority, b.priority));
+    sortedRegistrations = sorted.toArray(new Registration[0]);
+  }
+
+  @Override
+  public void onAllocation(long size) {
+    final BufferAllocator allocator = this.allocator;
+    if (allocator == null || allocator.getAllocatedMemory() <= getSoftLimitBytes(allocator)) {
+      return;
+    }
+    if (reclaiming.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::reclaimInBackground);
+      } catch (RuntimeException e) {
+        // the listener was closed
+        reclaiming.set(false);
+      }
+    }
+  }
+
+  @Override
+  public boolean onFailedAllocation(long size, AllocationOutcome outcome) {
+    failedAllocationReclaims.incrementAndGet();
+    return reclaim(size) > 0;
+  }
+
+  private void reclaimInBackground() {
+    try {
+      final BufferAllocator allocator = this.allocator;
+      final long excess = allocator.getAllocatedMemory() - (long) (allocator.getLimit() * targetLimit);
+      if (excess > 0) {
+        backgroundReclaims.incrementAndGet();
+        reclaim(excess);
+      }
+    } finally {
+      reclaiming.set(false);
+    }
+  }
+
+  /**
+   * Call the reclaimers in order until the given number of bytes was released.
+   *
+   * @param bytes The number of bytes to release.
+   * @return The number of bytes released.
+   */
+  public long reclaim(long bytes) {
+    long released = 0;
+    for (Registration registration : sortedRegistrations) {
+      if (released >= bytes) {
+        break;
+      }
+      if (registration.closed) {
+        continue;
+      }
+      try {
+        final long n = Math.max(0, registration.reclaimer.reclaim(bytes - released));
+        registration.reclaimedBytes.addAndGet(n);
+        released += n;
+      } catch (RuntimeException e) {
+        logger.warn("Memory reclaimer {} failed", registration.name, e);
+      }
+    }
+    reclaimedBytes.addAndGet(released);
+    return released;
+  }
+
+  private long getSoftLimitBytes(BufferAllocator allocator) {
+    return (long) (allocator.getLimit() * softLimit);
+  }
+
+  /**
+   * Get the total number of bytes released by the reclaimers.
+   */
+  public long getReclaimedBytes() {
+    return reclaimedBytes.get();
+  }
+
+  /**
+   * Get the number of bytes released by each registered reclaimer, by name.
+   */
+  public Map<String, Long> getReclaimedBytesByReclaimer() {
+    final Map<String, Long> result = new LinkedHashMap<>();
+    for (Registration registration : sortedRegistrations) {
+      result.merge(registration.name, registration.reclaimedBytes.get(), Long::sum);
+    }
+    return result;
+  }
+
+  /**
+   * Get the number of times memory was reclaimed because the soft limit was exceeded.
+   */
+  public long getBackgroundReclaimCount() {
+    return backgroundReclaims.get();
+  }
+
+  /**
+   * Get the number of times memory was reclaimed because an allocation failed.
+   */
+  public long getFailedAllocationReclaimCount() {
+    return failedAllocationReclaims.get();
+  }
+
+  /**
+   * Stop reclaiming memory in the background. Reclaimers are still called when an allocation fails.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * A registered reclaimer.
+   */
+  public final class Registration implements AutoCloseable {
+    private final String name;
+    private final int priority;
+    private final MemoryReclaimer reclaimer;
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private volatile boolean closed;
+
+    private Registration(String name, int priority, MemoryReclaimer reclaimer) {
+      this.name = name;
+      this.priority = priority;
+      this.reclaimer = reclaimer;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Get the number of bytes released by this reclaimer.
+     */
+    public long getReclaimedBytes() {
+      return reclaimedBytes.get();
+    }
+
+    /**
+     * Unregister the reclaimer. It may still be called by a reclaim that is in progress.
+     */
+    @Override
+    public void close() {
+      closed = true;
+      synchronized (registrations) {
+        registrations.remove(this);
+        updateSortedRegistrations();
+      }
+    }
+  }
+}
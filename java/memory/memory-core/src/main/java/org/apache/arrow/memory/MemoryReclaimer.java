@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+/**
+ * Something holding memory it can give back when the allocator it uses comes under pressure, like a cache.
+ *
+ * @see MemoryPressureListener#register(String, int, MemoryReclaimer)
+ * @see MemoryArbiter#register(String, int, long, MemoryReclaimer)
+ */
+@FunctionalInterface
+public interface MemoryReclaimer {
+
+  /**
+   * Release memory, for instance by evicting cache entries.
+   *
+   * <p>This may be called from a background thread or from a thread whose allocation just failed, so it must not
+   * wait on locks that are held while allocating.
+   *
+   * @param bytes The number of bytes the caller would like to be released.
+   * @return The number of bytes actually released, which may be more or less than requested.
+   */
+  long reclaim(long bytes);
+}
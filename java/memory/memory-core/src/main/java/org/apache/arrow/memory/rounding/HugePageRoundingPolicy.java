@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory.rounding;
+
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * The rounding policy for allocation managers backing large buffers by huge pages.
+ * Buffers of at least the threshold size are rounded to a multiple of the huge page size,
+ * so that no huge page is shared with another buffer. Smaller buffers are rounded by the
+ * {@link DefaultRoundingPolicy}.
+ */
+public class HugePageRoundingPolicy implements RoundingPolicy {
+
+  /**
+   * The size of a transparent huge page on x86-64 and most aarch64 kernels.
+   */
+  public static final long HUGE_PAGE_SIZE = 2L * 1024 * 1024;
+
+  /**
+   * The minimal size of buffers rounded to the huge page size.
+   */
+  private final long threshold;
+
+  /**
+   * Constructor for the huge page rounding policy.
+   * @param threshold the minimal size of buffers rounded to the huge page size.
+   * @throws IllegalArgumentException if the threshold is smaller than {@link #HUGE_PAGE_SIZE}.
+   */
+  public HugePageRoundingPolicy(long threshold) {
+    Preconditions.checkArgument(threshold >= HUGE_PAGE_SIZE,
+        "The threshold cannot be smaller than %s", HUGE_PAGE_SIZE);
+    this.threshold = threshold;
+  }
+
+  @Override
+  public long getRoundedSize(long requestSize) {
+    if (requestSize < threshold) {
+      return DefaultRoundingPolicy.DEFAULT_ROUNDING_POLICY.getRoundedSize(requestSize);
+    }
+    return (requestSize + (HUGE_PAGE_SIZE - 1)) / HUGE_PAGE_SIZE * HUGE_PAGE_SIZE;
+  }
+
+  public long getThreshold() {
+    return threshold;
+  }
+}
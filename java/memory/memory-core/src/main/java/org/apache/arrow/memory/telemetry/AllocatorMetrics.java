@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory.telemetry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.AllocatorTelemetry;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * A snapshot of the state and the {@link AllocatorTelemetry} of an allocator.
+ */
+public final class AllocatorMetrics {
+  private final String path;
+  private final String name;
+  private final long allocatedMemory;
+  private final long peakMemoryAllocation;
+  private final long limit;
+  private final long allocationCount;
+  private final long allocatedBytes;
+  private final long releaseCount;
+  private final long outstandingBuffers;
+  private final long outstandingBytes;
+  private final long allocateNanos;
+  private final double allocationRate;
+  private final long[] allocationSizeHistogram;
+
+  private AllocatorMetrics(String path, BufferAllocator allocator, AllocatorTelemetry telemetry) {
+    this.path = path;
+    this.name = allocator.getName();
+    this.allocatedMemory = allocator.getAllocatedMemory();
+    this.peakMemoryAllocation = allocator.getPeakMemoryAllocation();
+    this.limit = allocator.getLimit();
+    this.allocationCount = telemetry.getAllocationCount();
+    this.allocatedBytes = telemetry.getAllocatedBytes();
+    this.releaseCount = telemetry.getReleaseCount();
+    this.outstandingBuffers = telemetry.getOutstandingBuffers();
+    this.outstandingBytes = telemetry.getOutstandingBytes();
+    this.allocateNanos = telemetry.getAllocateNanos();
+    this.allocationRate = telemetry.getAllocationRate();
+    this.allocationSizeHistogram = telemetry.getAllocationSizeHistogram();
+  }
+
+  /**
+   * Take a snapshot of the allocators with telemetry enabled in the tree rooted at the given allocator.
+   *
+   * @param allocator The root of the tree.
+   * @return The snapshots, parents before their children.
+   */
+  public static List<AllocatorMetrics> collect(BufferAllocator allocator) {
+    final List<AllocatorMetrics> result = new ArrayList<>();
+    collect(allocator, allocator.getName(), result, new HashMap<>());
+    return result;
+  }
+
+  private static void collect(BufferAllocator allocator, String path, List<AllocatorMetrics> result,
+      Map<String, Integer> paths) {
+    // allocator names are not unique, so number the siblings sharing a name
+    final int count = paths.merge(path, 1, Integer::sum);
+    final String uniquePath = count == 1 ? path : path + "#" + count;
+    final AllocatorTelemetry telemetry = allocator.getTelemetry();
+    if (telemetry != null) {
+      result.add(new AllocatorMetrics(uniquePath, allocator, telemetry));
+    }
+    for (BufferAllocator child : allocator.getChildAllocators()) {
+      collect(child, uniquePath + "/" + child.getName(), result, paths);
+    }
+  }
+
+  /**
+   * Get the names of the allocators from the root of the collected tree down to this allocator, separated by
+   * slashes. Allocators with the same path are told apart by a numeric suffix.
+   */
+  public String getPath() {
+    return path;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getAllocatedMemory() {
+    return allocatedMemory;
+  }
+
+  public long getPeakMemoryAllocation() {
+    return peakMemoryAllocation;
+  }
+
+  public long getLimit() {
+    return limit;
+  }
+
+  public long getAllocationCount() {
+    return allocationCount;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public long getReleaseCount() {
+    return releaseCount;
+  }
+
+  public long getOutstandingBuffers() {
+    return outstandingBuffers;
+  }
+
+  public long getOutstandingBytes() {
+    return outstandingBytes;
+  }
+
+  public long getAllocateNanos() {
+    return allocateNanos;
+  }
+
+  /**
+   * Get the average number of bytes allocated per second since telemetry was enabled.
+   */
+  public double getAllocationRate() {
+    return allocationRate;
+  }
+
+  /**
+   * Get the number of allocations by size, see {@link AllocatorTelemetry#getHistogramBucket(long)}.
+   */
+  public long[] getAllocationSizeHistogram() {
+    return allocationSizeHistogram.clone();
+  }
+
+  @Override
+  public String toString() {
+    return "AllocatorMetrics{" +
+        "path='" + path + '\'' +
+        ", allocatedMemory=" + allocatedMemory +
+        ", peakMemoryAllocation=" + peakMemoryAllocation +
+        ", limit=" + limit +
+        ", allocationCount=" + allocationCount +
+        ", allocatedBytes=" + allocatedBytes +
+        ", releaseCount=" + releaseCount +
+        ", outstandingBuffers=" + outstandingBuffers +
+        ", outstandingBytes=" + outstandingBytes +
+        ", allocateNanos=" + allocateNanos +
+        ", allocationRate=" + allocationRate +
+        '}';
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory.telemetry;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * Periodically reports the metrics of a tree of allocators to a sink, from a background thread.
+ *
+ * <p>Only allocators with telemetry enabled are reported, see
+ * {@link BufferAllocator#setTelemetryEnabled(boolean)}.
+ */
+public class AllocatorMetricsReporter implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AllocatorMetricsReporter.class);
+
+  private final BufferAllocator allocator;
+  private final AllocatorMetricsSink sink;
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Start reporting.
+   *
+   * @param allocator The root of the tree of allocators to report.
+   * @param sink The sink to report to.
+   * @param period The time between two reports.
+   * @param unit The unit of period.
+   */
+  public AllocatorMetricsReporter(BufferAllocator allocator, AllocatorMetricsSink sink, long period,
+      TimeUnit unit) {
+    Preconditions.checkArgument(period > 0, "The period must be positive");
+    this.allocator = Preconditions.checkNotNull(allocator);
+    this.sink = Preconditions.checkNotNull(sink);
+    this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, "arrow-allocator-metrics");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(this::reportSafely, period, period, unit);
+  }
+
+  /**
+   * Report the current metrics now, on the calling thread.
+   */
+  public synchronized void report() {
+    sink.report(AllocatorMetrics.collect(allocator));
+  }
+
+  private void reportSafely() {
+    try {
+      report();
+    } catch (RuntimeException e) {
+      // Keep reporting, the sink may recover
+      logger.warn("Could not report allocator metrics", e);
+    }
+  }
+
+  /**
+   * Stop reporting. The sink is not closed.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
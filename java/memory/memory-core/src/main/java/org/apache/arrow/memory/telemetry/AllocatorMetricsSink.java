@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory.telemetry;
+
+import java.util.List;
+
+/**
+ * Receives the allocator metrics collected by an {@link AllocatorMetricsReporter}, e.g. to forward them to a
+ * metrics library.
+ */
+@FunctionalInterface
+public interface AllocatorMetricsSink {
+
+  /**
+   * Report the metrics of the allocators of a tree. Allocators that are not reported anymore have been closed or
+   * have had their telemetry disabled.
+   *
+   * <p>Calls are not concurrent.
+   *
+   * @param metrics The metrics of each allocator with telemetry enabled, parents before their children.
+   */
+  void report(List<AllocatorMetrics> metrics);
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory.telemetry;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A sink exposing each reported allocator as an {@link AllocatorMXBean}, named
+ * <code>org.apache.arrow.memory:type=BufferAllocator,name="path"</code>.
+ *
+ * <p>Beans are registered the first time an allocator is reported, and unregistered once it is not reported
+ * anymore or the sink is closed.
+ */
+public class JmxAllocatorMetricsSink implements AllocatorMetricsSink, AutoCloseable {
+  /**
+   * The domain of the registered beans.
+   */
+  public static final String DOMAIN = "org.apache.arrow.memory";
+
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JmxAllocatorMetricsSink.class);
+
+  private final MBeanServer server;
+  private final Map<String, Bean> beans = new HashMap<>();
+
+  /**
+   * Create a sink registering beans with the platform MBean server.
+   */
+  public JmxAllocatorMetricsSink() {
+    this(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  public JmxAllocatorMetricsSink(MBeanServer server) {
+    this.server = server;
+  }
+
+  /**
+   * Get the name of the bean of an allocator.
+   *
+   * @param path The path of the allocator, see {@link AllocatorMetrics#getPath()}.
+   */
+  public static ObjectName getObjectName(String path) throws JMException {
+    return new ObjectName(DOMAIN + ":type=BufferAllocator,name=" + ObjectName.quote(path));
+  }
+
+  @Override
+  public synchronized void report(List<AllocatorMetrics> metrics) {
+    final Map<String, Bean> previous = new HashMap<>(beans);
+    for (AllocatorMetrics m : metrics) {
+      final Bean bean = previous.remove(m.getPath());
+      if (bean != null) {
+        bean.metrics = m;
+        continue;
+      }
+      final Bean newBean = new Bean(m);
+      try {
+        server.registerMBean(newBean, getObjectName(m.getPath()));
+        beans.put(m.getPath(), newBean);
+      } catch (JMException e) {
+        logger.warn("Could not register allocator bean {}", m.getPath(), e);
+      }
+    }
+    for (String path : previous.keySet()) {
+      unregister(path);
+    }
+  }
+
+  private void unregister(String path) {
+    beans.remove(path);
+    try {
+      server.unregisterMBean(getObjectName(path));
+    } catch (JMException e) {
+      logger.warn("Could not unregister allocator bean {}", path, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    for (String path : new ArrayList<>(beans.keySet())) {
+      unregister(path);
+    }
+  }
+
+  /**
+   * The bean of an allocator, showing its last reported metrics.
+   */
+  private static final class Bean implements AllocatorMXBean {
+    private volatile AllocatorMetrics metrics;
+
+    Bean(AllocatorMetrics metrics) {
+      this.metrics = metrics;
+    }
+
+    @Override
+    public String getPath() {
+      return metrics.getPath();
+    }
+
+    @Override
+    public long getAllocatedMemory() {
+      return metrics.getAllocatedMemory();
+    }
+
+    @Override
+    public long getPeakMemoryAllocation() {
+      return metrics.getPeakMemoryAllocation();
+    }
+
+    @Override
+    public long getLimit() {
+      return metrics.getLimit();
+    }
+
+    @Override
+    public long getAllocationCount() {
+      return metrics.getAllocationCount();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+      return metrics.getAllocatedBytes();
+    }
+
+    @Override
+    public long getReleaseCount() {
+      return metrics.getReleaseCount();
+    }
+
+    @Override
+    public long getOutstandingBuffers() {
+      return metrics.getOutstandingBuffers();
+    }
+
+    @Override
+    public long getOutstandingBytes() {
+      return metrics.getOutstandingBytes();
+    }
+
+    @Override
+    public long getAllocateNanos() {
+      return metrics.getAllocateNanos();
+    }
+
+    @Override
+    public double getAllocationRate() {
+      return metrics.getAllocationRate();
+    }
+
+    @Override
+    public long[] getAllocationSizeHistogram() {
+      return metrics.getAllocationSizeHistogram();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestAllocatorTelemetry {
+
+  @Test
+  public void testEnableSubtree() {
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE);
+         final BufferAllocator a = root.newChildAllocator("a", 0, Long.MAX_VALUE);
+         final BufferAllocator a1 = a.newChildAllocator("a1", 0, Long.MAX_VALUE);
+         final BufferAllocator b = root.newChildAllocator("b", 0, Long.MAX_VALUE)) {
+      assertNull(root.getTelemetry());
+      a.setTelemetryEnabled(true);
+      assertNull(root.getTelemetry());
+      assertNotNull(a.getTelemetry());
+      assertNotNull(a1.getTelemetry());
+      assertNull(b.getTelemetry());
+
+      try (final BufferAllocator a2 = a.newChildAllocator("a2", 0, Long.MAX_VALUE)) {
+        assertNotNull(a2.getTelemetry());
+      }
+
+      final AllocatorTelemetry telemetry = a.getTelemetry();
+      a.setTelemetryEnabled(true);
+      assertSame(telemetry, a.getTelemetry());
+
+      a.setTelemetryEnabled(false);
+      assertNull(a.getTelemetry());
+      assertNull(a1.getTelemetry());
+    }
+  }
+
+  @Test
+  public void testRecordAllocations() {
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE)) {
+      root.setTelemetryEnabled(true);
+      final AllocatorTelemetry telemetry = root.getTelemetry();
+      try (final ArrowBuf buf1 = root.buffer(100);
+           final ArrowBuf buf2 = root.buffer(1024)) {
+        try (final ArrowBuf buf3 = root.buffer(1024)) {
+          assertEquals(3, telemetry.getAllocationCount());
+          assertEquals(3, telemetry.getOutstandingBuffers());
+          assertEquals(buf1.capacity() + buf2.capacity() + buf3.capacity(), telemetry.getOutstandingBytes());
+          assertEquals(telemetry.getOutstandingBytes(), telemetry.getAllocatedBytes());
+        }
+        assertEquals(1, telemetry.getReleaseCount());
+        assertEquals(2, telemetry.getOutstandingBuffers());
+        assertTrue(telemetry.getAllocateNanos() > 0);
+        assertTrue(telemetry.getAllocationRate() > 0);
+
+        final long[] histogram = telemetry.getAllocationSizeHistogram();
+        assertEquals(1, histogram[AllocatorTelemetry.getHistogramBucket(buf1.capacity())]);
+        assertEquals(2, histogram[10]);
+      }
+      assertEquals(0, telemetry.getOutstandingBuffers());
+      assertEquals(0, telemetry.getOutstandingBytes());
+    }
+  }
+
+  @Test
+  public void testBuffersAllocatedBeforeAreNotTracked() {
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE)) {
+      final ArrowBuf buf = root.buffer(1024);
+      root.setTelemetryEnabled(true);
+      buf.close();
+      assertEquals(0, root.getTelemetry().getReleaseCount());
+      assertEquals(0, root.getTelemetry().getOutstandingBuffers());
+    }
+  }
+
+  @Test
+  public void testTransfer() {
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE);
+         final BufferAllocator a = root.newChildAllocator("a", 0, Long.MAX_VALUE);
+         final BufferAllocator b = root.newChildAllocator("b", 0, Long.MAX_VALUE)) {
+      root.setTelemetryEnabled(true);
+      final ArrowBuf buf = a.buffer(1024);
+      final OwnershipTransferResult result = buf.getReferenceManager().transferOwnership(buf, b);
+      buf.close();
+      assertEquals(1, a.getTelemetry().getAllocationCount());
+      assertEquals(0, a.getTelemetry().getOutstandingBuffers());
+      assertEquals(1, b.getTelemetry().getOutstandingBuffers());
+      assertEquals(1024, b.getTelemetry().getOutstandingBytes());
+
+      result.getTransferredBuffer().close();
+      assertEquals(0, b.getTelemetry().getOutstandingBuffers());
+      assertEquals(1, b.getTelemetry().getReleaseCount());
+      assertEquals(0, a.getTelemetry().getReleaseCount());
+    }
+  }
+}
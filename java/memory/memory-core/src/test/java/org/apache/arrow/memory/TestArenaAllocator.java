@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link ArenaAllocator}.
+ */
+public class TestArenaAllocator {
+
+  private static final long CHUNK_SIZE = 1024;
+
+  private BufferAllocator allocator;
+
+  private ArenaAllocator arena;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(16 * CHUNK_SIZE);
+    arena = new ArenaAllocator(allocator, "arena", CHUNK_SIZE, 4 * CHUNK_SIZE);
+  }
+
+  @After
+  public void tearDown() {
+    arena.close();
+    allocator.close();
+  }
+
+  @Test
+  public void testCarveBuffers() {
+    ArrowBuf buf1 = arena.buffer(100);
+    ArrowBuf buf2 = arena.buffer(100);
+    assertEquals(100, buf1.capacity());
+    assertSame(arena, buf1.getReferenceManager().getAllocator());
+
+    // both buffers are carved out of one chunk, aligned to 8 bytes
+    assertEquals(CHUNK_SIZE, allocator.getAllocatedMemory());
+    assertEquals(CHUNK_SIZE, arena.getAllocatedMemory());
+    assertEquals(buf1.memoryAddress() + 104, buf2.memoryAddress());
+    assertEquals(200, arena.getUsedMemory());
+
+    buf1.setLong(0, 1L);
+    buf2.setLong(0, 2L);
+    assertEquals(1L, buf1.getLong(0));
+    assertEquals(2L, buf2.getLong(0));
+
+    // closing a buffer does not free its memory
+    buf1.close();
+    buf2.close();
+    assertEquals(CHUNK_SIZE, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testNewChunks() {
+    for (int i = 0; i < 5; i++) {
+      arena.buffer(CHUNK_SIZE / 4);
+    }
+    assertEquals(2 * CHUNK_SIZE, arena.getAllocatedMemory());
+
+    // large buffers are allocated from the parent directly
+    ArrowBuf large = arena.buffer(CHUNK_SIZE + 1);
+    assertEquals(CHUNK_SIZE + 1, large.capacity());
+    // the parent rounds the large buffer to a power of 2
+    assertEquals(4 * CHUNK_SIZE, allocator.getAllocatedMemory());
+    assertEquals(4 * CHUNK_SIZE, arena.getAllocatedMemory());
+
+    // the first chunk is kept for reuse
+    arena.reset();
+    assertEquals(CHUNK_SIZE, allocator.getAllocatedMemory());
+    assertEquals(0, arena.getUsedMemory());
+    assertEquals(4 * CHUNK_SIZE, arena.getPeakMemoryAllocation());
+  }
+
+  @Test
+  public void testReset() {
+    ArrowBuf buf = arena.buffer(64);
+    ArrowBuf slice = buf.slice(8, 8);
+    assertEquals(1, slice.refCnt());
+
+    arena.reset();
+    assertEquals(0, buf.refCnt());
+    assertEquals(0, slice.refCnt());
+    assertThrows(IllegalStateException.class, () -> buf.getReferenceManager().retain());
+    buf.close();
+
+    // the memory is reused
+    ArrowBuf reused = arena.buffer(64);
+    assertEquals(buf.memoryAddress(), reused.memoryAddress());
+    assertEquals(1, reused.refCnt());
+  }
+
+  @Test
+  public void testLimit() {
+    arena.buffer(2 * CHUNK_SIZE);
+    arena.buffer(CHUNK_SIZE);
+    assertThrows(OutOfMemoryException.class, () -> arena.buffer(2 * CHUNK_SIZE));
+    assertEquals(3 * CHUNK_SIZE, arena.getAllocatedMemory());
+  }
+
+  @Test
+  public void testTransfer() {
+    ArrowBuf buf = arena.buffer(64);
+    ArrowBuf transferred = buf.getReferenceManager().transferOwnership(buf, arena).getTransferredBuffer();
+    buf.close();
+    assertEquals(1, transferred.refCnt());
+    transferred.close();
+
+    ArrowBuf other = arena.buffer(64);
+    assertThrows(UnsupportedOperationException.class,
+        () -> other.getReferenceManager().transferOwnership(other, allocator));
+    assertThrows(UnsupportedOperationException.class, () -> other.getReferenceManager().retain(other, allocator));
+  }
+
+  @Test
+  public void testClose() {
+    arena.buffer(64);
+    arena.close();
+    assertEquals(0, allocator.getAllocatedMemory());
+    assertThrows(IllegalStateException.class, () -> arena.buffer(64));
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.arrow.util.AutoCloseables;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test reference counting and ownership transfers of a buffer shared between threads.
+ */
+public class TestBufferLedgerConcurrency {
+  private static final int THREADS = 4;
+  private static final int ITERATIONS = 10_000;
+  private static final long SIZE = 4096;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testConcurrentRetainRelease() throws Exception {
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE)) {
+      final BufferAllocator child = root.newChildAllocator("child", 0, Long.MAX_VALUE);
+      final ArrowBuf buf = child.buffer(SIZE);
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < ITERATIONS; j++) {
+            buf.getReferenceManager().retain();
+            buf.getReferenceManager().release();
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      assertEquals(1, buf.refCnt());
+      assertEquals(SIZE, child.getAllocatedMemory());
+      buf.close();
+      assertEquals(0, child.getAllocatedMemory());
+      // Throws if anything leaked
+      child.close();
+      assertEquals(0, root.getAllocatedMemory());
+    }
+  }
+
+  @Test
+  public void testConcurrentChainedTransfers() throws Exception {
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE)) {
+      final List<BufferAllocator> allocators = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        allocators.add(root.newChildAllocator("child" + i, 0, Long.MAX_VALUE));
+      }
+      root.setTelemetryEnabled(true);
+      final ArrowBuf original = allocators.get(0).buffer(SIZE);
+      // Each thread holds a view of the same memory, and keeps moving it, and so possibly the ownership, along
+      // the allocators, racing with the others
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<ArrowBuf>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        final int thread = i;
+        final ArrowBuf view = original.getReferenceManager().retain(original, allocators.get(i));
+        futures.add(executor.submit(() -> {
+          start.await();
+          ArrowBuf current = view;
+          for (int j = 0; j < ITERATIONS; j++) {
+            final BufferAllocator target = allocators.get((thread + j + 1) % THREADS);
+            final ArrowBuf next = current.getReferenceManager().transferOwnership(current, target)
+                .getTransferredBuffer();
+            current.close();
+            current = next;
+          }
+          return current;
+        }));
+      }
+      start.countDown();
+      final List<ArrowBuf> views = new ArrayList<>();
+      for (Future<ArrowBuf> future : futures) {
+        views.add(future.get());
+      }
+
+      // Exactly one allocator is charged for the memory, and its telemetry accounts for it
+      long allocated = 0;
+      long outstanding = 0;
+      for (BufferAllocator allocator : allocators) {
+        allocated += allocator.getAllocatedMemory();
+        outstanding += allocator.getTelemetry().getOutstandingBytes();
+        assertEquals(allocator.getAllocatedMemory(), allocator.getTelemetry().getOutstandingBytes());
+      }
+      assertEquals(SIZE, allocated);
+      assertEquals(SIZE, outstanding);
+
+      original.close();
+      AutoCloseables.close(views);
+      for (BufferAllocator allocator : allocators) {
+        assertEquals(0, allocator.getAllocatedMemory());
+        assertEquals(0, allocator.getTelemetry().getOutstandingBytes());
+      }
+      // Throws if anything leaked
+      AutoCloseables.close(allocators);
+      assertEquals(0, root.getAllocatedMemory());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.arrow.memory.util.MemoryUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test wrapping memory allocated outside of Arrow.
+ */
+public class TestForeignAllocation {
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(1024);
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testWrap() {
+    final UnsafeAllocation allocation = new UnsafeAllocation(64);
+    try (final ArrowBuf buf = allocator.wrapForeignAllocation(allocation)) {
+      assertEquals(64, buf.capacity());
+      assertEquals(64, buf.writerIndex());
+      assertEquals(64, allocator.getAllocatedMemory());
+      buf.setLong(0, 42L);
+      assertEquals(42L, MemoryUtil.UNSAFE.getLong(allocation.memoryAddress()));
+
+      // Slices share the allocation
+      final ArrowBuf slice = buf.slice(8, 8);
+      slice.getReferenceManager().retain();
+      buf.close();
+      assertEquals(0, allocation.releaseCount);
+      slice.getReferenceManager().release();
+    }
+    assertEquals(1, allocation.releaseCount);
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testTransfer() {
+    final UnsafeAllocation allocation = new UnsafeAllocation(64);
+    try (final BufferAllocator child = allocator.newChildAllocator("child", 0, Long.MAX_VALUE)) {
+      final ArrowBuf buf = child.wrapForeignAllocation(allocation);
+      final ArrowBuf transferred = buf.getReferenceManager().transferOwnership(buf, allocator).getTransferredBuffer();
+      buf.close();
+      assertEquals(0, child.getAllocatedMemory());
+      transferred.close();
+    }
+    assertEquals(1, allocation.releaseCount);
+  }
+
+  @Test
+  public void testLimit() {
+    final UnsafeAllocation allocation = new UnsafeAllocation(2048);
+    assertThrows(OutOfMemoryException.class, () -> allocator.wrapForeignAllocation(allocation));
+    assertEquals(1, allocation.releaseCount);
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  private static class UnsafeAllocation extends ForeignAllocation {
+    int releaseCount = 0;
+
+    UnsafeAllocation(long size) {
+      super(size, MemoryUtil.UNSAFE.allocateMemory(size));
+    }
+
+    @Override
+    protected void release0() {
+      MemoryUtil.UNSAFE.freeMemory(memoryAddress());
+      releaseCount++;
+    }
+  }
+}
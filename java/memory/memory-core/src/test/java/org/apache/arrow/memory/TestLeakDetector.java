@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestLeakDetector {
+
+  @Before
+  public void setUp() {
+    LeakDetector.reset();
+  }
+
+  @After
+  public void tearDown() {
+    LeakDetector.setSamplingInterval(0);
+    LeakDetector.reset();
+  }
+
+  @Test
+  public void testLeakedBufferIsReported() throws Exception {
+    // In debug mode, the allocator keeps leaked buffers reachable
+    Assume.assumeFalse(BaseAllocator.DEBUG);
+    LeakDetector.setSamplingInterval(1);
+    // The allocator is not closed, as it would complain about the leak
+    final BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+    leak(allocator);
+
+    int found = 0;
+    for (int i = 0; i < 50 && found == 0; i++) {
+      System.gc();
+      Thread.sleep(100);
+      found = LeakDetector.checkForLeaks();
+    }
+    assertEquals(1, found);
+    final List<LeakDetector.Leak> leaks = LeakDetector.getLeaks();
+    assertEquals(1, leaks.size());
+    assertEquals(1, leaks.get(0).getCount());
+    assertEquals(1024, leaks.get(0).getBytes());
+    assertEquals("leak", leaks.get(0).getStackTrace()[0].getMethodName());
+  }
+
+  private static void leak(BufferAllocator allocator) {
+    allocator.buffer(1024);
+  }
+
+  @Test
+  public void testLeaksAreGroupedBySite() {
+    final StackTraceElement caller = new StackTraceElement("org.example.Cache", "load", "Cache.java", 42);
+    final StackTraceElement other = new StackTraceElement("org.example.Cache", "reload", "Cache.java", 84);
+    final StackTraceElement allocator =
+        new StackTraceElement(BaseAllocator.class.getName(), "buffer", "BaseAllocator.java", 1);
+    LeakDetector.recordLeak(new StackTraceElement[] {allocator, caller}, 64);
+    LeakDetector.recordLeak(new StackTraceElement[] {allocator, allocator, caller}, 128);
+    LeakDetector.recordLeak(new StackTraceElement[] {allocator, other}, 64);
+
+    final List<LeakDetector.Leak> leaks = LeakDetector.getLeaks();
+    assertEquals(2, leaks.size());
+    assertEquals(2, leaks.get(0).getCount());
+    assertEquals(192, leaks.get(0).getBytes());
+    assertEquals(caller, leaks.get(0).getStackTrace()[0]);
+    assertEquals(1, leaks.get(0).getStackTrace().length);
+    assertEquals(other, leaks.get(1).getStackTrace()[0]);
+  }
+
+  @Test
+  public void testReleasedBuffersAreNotReported() throws Exception {
+    LeakDetector.setSamplingInterval(1);
+    try (final BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE)) {
+      for (int i = 0; i < 100; i++) {
+        allocator.buffer(1024).close();
+      }
+    }
+    System.gc();
+    Thread.sleep(100);
+    assertEquals(0, LeakDetector.checkForLeaks());
+    assertTrue(LeakDetector.getLeaks().isEmpty());
+  }
+}
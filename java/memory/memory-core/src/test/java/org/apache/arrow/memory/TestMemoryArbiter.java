@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.junit.Test;
+
+public class TestMemoryArbiter {
+  private static final long BUFFER_SIZE = 128 * 1024;
+
+  @Test
+  public void testQuotaGrowsOnAllocation() {
+    try (final RootAllocator allocator = new RootAllocator(8 * BUFFER_SIZE)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(allocator);
+      try (final MemoryArbiter.Quota quota = arbiter.register("sort", 0, 0, null)) {
+        assertEquals(0, quota.getQuota());
+        try (final ArrowBuf buf = quota.getAllocator().buffer(BUFFER_SIZE)) {
+          assertEquals(BUFFER_SIZE, quota.getQuota());
+          assertEquals(BUFFER_SIZE, arbiter.getGrantedMemory());
+          assertEquals(7 * BUFFER_SIZE, arbiter.getFreeMemory());
+        }
+      }
+      assertEquals(0, arbiter.getGrantedMemory());
+    }
+  }
+
+  @Test
+  public void testSpillLowerPriority() {
+    try (final RootAllocator allocator = new RootAllocator(8 * BUFFER_SIZE)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(allocator);
+      final BufferCache cache = new BufferCache();
+      try (final MemoryArbiter.Quota low = arbiter.register("cache", 0, 0, cache);
+           final MemoryArbiter.Quota high = arbiter.register("join", 10, 0, null)) {
+        for (int i = 0; i < 6; i++) {
+          cache.add(low.getAllocator().buffer(BUFFER_SIZE));
+        }
+
+        final BufferCache join = new BufferCache();
+        for (int i = 0; i < 4; i++) {
+          join.add(high.getAllocator().buffer(BUFFER_SIZE));
+        }
+        assertEquals(4, cache.size());
+        assertEquals(4 * BUFFER_SIZE, low.getQuota());
+        assertEquals(4 * BUFFER_SIZE, high.getQuota());
+        assertEquals(2, arbiter.getSpillRequests());
+        assertEquals(2 * BUFFER_SIZE, arbiter.getSpilledBytes());
+
+        // the join has a higher priority, so it is not asked to spill for the cache
+        assertThrows(OutOfMemoryException.class, () -> low.getAllocator().buffer(BUFFER_SIZE));
+        assertEquals(2, arbiter.getSpillRequests());
+
+        join.reclaim(Long.MAX_VALUE);
+        cache.reclaim(Long.MAX_VALUE);
+      }
+    }
+  }
+
+  @Test
+  public void testRequestWithPriority() {
+    try (final RootAllocator allocator = new RootAllocator(8 * BUFFER_SIZE)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(allocator);
+      final BufferCache cache = new BufferCache();
+      try (final MemoryArbiter.Quota first = arbiter.register("first", 5, 0, cache);
+           final MemoryArbiter.Quota second = arbiter.register("second", 5, 0, null)) {
+        for (int i = 0; i < 8; i++) {
+          cache.add(first.getAllocator().buffer(BUFFER_SIZE));
+        }
+        assertFalse(second.request(BUFFER_SIZE));
+        assertTrue(second.request(BUFFER_SIZE, 6));
+        assertEquals(BUFFER_SIZE, second.getQuota());
+        assertEquals(7, cache.size());
+        cache.reclaim(Long.MAX_VALUE);
+      }
+    }
+  }
+
+  @Test
+  public void testUnusedQuotaTakenBack() {
+    try (final RootAllocator allocator = new RootAllocator(8 * BUFFER_SIZE)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(allocator);
+      try (final MemoryArbiter.Quota low = arbiter.register("low", 0, 6 * BUFFER_SIZE, null);
+           final MemoryArbiter.Quota high = arbiter.register("high", 10, 0, null)) {
+        try (final ArrowBuf buf = low.getAllocator().buffer(BUFFER_SIZE)) {
+          assertTrue(high.request(4 * BUFFER_SIZE));
+          assertEquals(BUFFER_SIZE, low.getQuota());
+          assertEquals(4 * BUFFER_SIZE, high.getQuota());
+          assertEquals(0, arbiter.getSpillRequests());
+        }
+      }
+      assertThrows(OutOfMemoryException.class, () -> arbiter.register("huge", 0, 9 * BUFFER_SIZE, null));
+      assertEquals(0, arbiter.getGrantedMemory());
+    }
+  }
+
+  @Test
+  public void testReserve() {
+    try (final RootAllocator allocator = new RootAllocator(8 * BUFFER_SIZE)) {
+      final MemoryArbiter arbiter = new MemoryArbiter(allocator);
+      try (final MemoryArbiter.Quota quota = arbiter.register("sort", 0, 0, null);
+           final AllocationReservation reservation = quota.reserve(1000)) {
+        assertEquals(1024, reservation.getSize());
+        assertEquals(1024, quota.getQuota());
+        try (final ArrowBuf buf = reservation.allocateBuffer()) {
+          assertEquals(1024, buf.capacity());
+        }
+      }
+    }
+  }
+
+  /**
+   * A spillable operator holding buffers, releasing the oldest first.
+   */
+  private static final class BufferCache implements MemoryReclaimer {
+    private final Deque<ArrowBuf> buffers = new ArrayDeque<>();
+
+    synchronized void add(ArrowBuf buf) {
+      buffers.addLast(buf);
+    }
+
+    synchronized int size() {
+      return buffers.size();
+    }
+
+    @Override
+    public synchronized long reclaim(long bytes) {
+      long released = 0;
+      while (released < bytes && !buffers.isEmpty()) {
+        final ArrowBuf buf = buffers.removeFirst();
+        released += buf.capacity();
+        buf.close();
+      }
+      return released;
+    }
+  }
+}
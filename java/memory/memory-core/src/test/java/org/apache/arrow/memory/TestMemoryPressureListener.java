@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestMemoryPressureListener {
+  private static final long BUFFER_SIZE = 128 * 1024;
+
+  @Test
+  public void testReclaimAboveSoftLimit() throws Exception {
+    try (final MemoryPressureListener listener = new MemoryPressureListener(0.5, 0.25);
+         final RootAllocator allocator = new RootAllocator(listener, 8 * BUFFER_SIZE)) {
+      listener.attach(allocator);
+      final BufferCache cache = new BufferCache();
+      listener.register("cache", 0, cache);
+      for (int i = 0; i < 4; i++) {
+        cache.add(allocator.buffer(BUFFER_SIZE));
+      }
+      assertEquals(0, listener.getBackgroundReclaimCount());
+
+      try (final ArrowBuf buf = allocator.buffer(BUFFER_SIZE)) {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (allocator.getAllocatedMemory() > 2 * BUFFER_SIZE && System.currentTimeMillis() < deadline) {
+          Thread.sleep(10);
+        }
+        assertEquals(2 * BUFFER_SIZE, allocator.getAllocatedMemory());
+        assertEquals(1, cache.size());
+        assertEquals(1, listener.getBackgroundReclaimCount());
+        assertEquals(3 * BUFFER_SIZE, listener.getReclaimedBytes());
+        assertEquals(3 * BUFFER_SIZE, (long) listener.getReclaimedBytesByReclaimer().get("cache"));
+      }
+      cache.reclaim(Long.MAX_VALUE);
+    }
+  }
+
+  @Test
+  public void testReclaimOnFailedAllocation() {
+    try (final MemoryPressureListener listener = new MemoryPressureListener(1, 1);
+         final RootAllocator allocator = new RootAllocator(listener, 2 * BUFFER_SIZE)) {
+      listener.attach(allocator);
+      final BufferCache cache = new BufferCache();
+      listener.register("cache", 0, cache);
+      cache.add(allocator.buffer(BUFFER_SIZE));
+      cache.add(allocator.buffer(BUFFER_SIZE));
+
+      try (final ArrowBuf buf = allocator.buffer(BUFFER_SIZE)) {
+        assertEquals(BUFFER_SIZE, buf.capacity());
+        assertEquals(1, cache.size());
+        assertEquals(1, listener.getFailedAllocationReclaimCount());
+        assertEquals(0, listener.getBackgroundReclaimCount());
+      }
+      cache.reclaim(Long.MAX_VALUE);
+    }
+  }
+
+  @Test
+  public void testReclaimerOrder() {
+    try (final MemoryPressureListener listener = new MemoryPressureListener(0.5, 0.25)) {
+      final List<String> calls = new ArrayList<>();
+      final MemoryPressureListener.Registration expensive = listener.register("expensive", 10, bytes -> {
+        calls.add("expensive");
+        return 60;
+      });
+      listener.register("cheap", 0, bytes -> {
+        calls.add("cheap");
+        return 60;
+      });
+      listener.register("unused", 20, bytes -> {
+        calls.add("unused");
+        return 60;
+      });
+
+      assertEquals(120, listener.reclaim(100));
+      assertEquals(Arrays.asList("cheap", "expensive"), calls);
+      assertEquals(60, expensive.getReclaimedBytes());
+
+      calls.clear();
+      expensive.close();
+      assertEquals(120, listener.reclaim(100));
+      assertEquals(Arrays.asList("cheap", "unused"), calls);
+      assertTrue(listener.getReclaimedBytesByReclaimer().containsKey("unused"));
+      assertEquals(240, listener.getReclaimedBytes());
+    }
+  }
+
+  /**
+   * A cache of buffers, releasing the oldest first.
+   */
+  private static final class BufferCache implements MemoryReclaimer {
+    private final Deque<ArrowBuf> buffers = new ArrayDeque<>();
+
+    synchronized void add(ArrowBuf buf) {
+      buffers.addLast(buf);
+    }
+
+    synchronized int size() {
+      return buffers.size();
+    }
+
+    @Override
+    public synchronized long reclaim(long bytes) {
+      long released = 0;
+      while (released < bytes && !buffers.isEmpty()) {
+        final ArrowBuf buf = buffers.removeFirst();
+        released += buf.capacity();
+        buf.close();
+      }
+      return released;
+    }
+  }
+}
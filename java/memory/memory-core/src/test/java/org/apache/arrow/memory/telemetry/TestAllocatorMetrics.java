@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.management.MBeanServer;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.Test;
+
+public class TestAllocatorMetrics {
+
+  @Test
+  public void testCollect() {
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE);
+         final BufferAllocator first = root.newChildAllocator("child", 0, Long.MAX_VALUE);
+         final BufferAllocator second = root.newChildAllocator("child", 0, Long.MAX_VALUE);
+         final BufferAllocator untracked = root.newChildAllocator("untracked", 0, Long.MAX_VALUE)) {
+      first.setTelemetryEnabled(true);
+      second.setTelemetryEnabled(true);
+      try (final ArrowBuf buf = first.buffer(1024)) {
+        final List<AllocatorMetrics> metrics = AllocatorMetrics.collect(root);
+        assertEquals(Arrays.asList("ROOT/child", "ROOT/child#2"),
+            metrics.stream().map(AllocatorMetrics::getPath).sorted().collect(Collectors.toList()));
+        final long allocations = metrics.stream().mapToLong(AllocatorMetrics::getAllocationCount).sum();
+        assertEquals(1, allocations);
+      }
+    }
+  }
+
+  @Test
+  public void testJmx() throws Exception {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE);
+         final JmxAllocatorMetricsSink sink = new JmxAllocatorMetricsSink(server)) {
+      root.setTelemetryEnabled(true);
+      final BufferAllocator child = root.newChildAllocator("jmx-child", 0, Long.MAX_VALUE);
+      try (final ArrowBuf buf = child.buffer(1024)) {
+        sink.report(AllocatorMetrics.collect(root));
+        assertEquals(1L, server.getAttribute(JmxAllocatorMetricsSink.getObjectName("ROOT/jmx-child"),
+            "AllocationCount"));
+        assertEquals(1024L, server.getAttribute(JmxAllocatorMetricsSink.getObjectName("ROOT"),
+            "AllocatedMemory"));
+      }
+      child.close();
+      sink.report(AllocatorMetrics.collect(root));
+      assertFalse(server.isRegistered(JmxAllocatorMetricsSink.getObjectName("ROOT/jmx-child")));
+      assertTrue(server.isRegistered(JmxAllocatorMetricsSink.getObjectName("ROOT")));
+    }
+    assertFalse(server.isRegistered(JmxAllocatorMetricsSink.getObjectName("ROOT")));
+  }
+
+  @Test
+  public void testReporter() throws Exception {
+    final BlockingQueue<List<AllocatorMetrics>> reports = new ArrayBlockingQueue<>(16);
+    try (final BufferAllocator root = new RootAllocator(Long.MAX_VALUE)) {
+      root.setTelemetryEnabled(true);
+      try (final AllocatorMetricsReporter reporter = new AllocatorMetricsReporter(root, reports::offer, 10,
+          TimeUnit.MILLISECONDS)) {
+        final List<AllocatorMetrics> report = reports.poll(10, TimeUnit.SECONDS);
+        assertEquals(1, report.size());
+        assertEquals("ROOT", report.get(0).getPath());
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.apache.arrow.memory.rounding.HugePageRoundingPolicy.HUGE_PAGE_SIZE;
+
+import org.apache.arrow.memory.util.MemoryUtil;
+import org.apache.arrow.util.Preconditions;
+
+/**
+ * Allocation manager for large buffers, whose memory is aligned to huge page boundaries.
+ *
+ * <p>Large allocations are served by the C library from dedicated anonymous mappings.
+ * This manager aligns the start of each buffer to {@link
+ * org.apache.arrow.memory.rounding.HugePageRoundingPolicy#HUGE_PAGE_SIZE}, so that, when transparent
+ * huge pages are enabled (the "always" mode, or the "madvise" mode with the glibc tunable
+ * glibc.malloc.hugetlb=1), the kernel can back the whole buffer by huge pages, reducing TLB
+ * misses when scanning it. It is intended to be used with a {@link
+ * org.apache.arrow.memory.rounding.HugePageRoundingPolicy} of the same threshold, so that buffer sizes
+ * are multiples of the huge page size as well.
+ *
+ * <p>Optionally, the pages are touched by the allocating thread. With the default first-touch NUMA
+ * policy of Linux, this places the memory on the NUMA node of the allocating thread, rather than on
+ * the node of whichever thread first writes it, and moves the cost of page faults out of the scans.
+ *
+ * <p>Buffers smaller than the threshold are allocated by an {@link UnsafeAllocationManager}.
+ */
+public final class HugePageAllocationManager extends AllocationManager {
+
+  /**
+   * The default minimal size of buffers aligned to huge pages.
+   * Aligning wastes up to one huge page per buffer, which is negligible for buffers of this size.
+   */
+  public static final long DEFAULT_THRESHOLD = 16 * HUGE_PAGE_SIZE;
+
+  public static final AllocationManager.Factory FACTORY = newFactory(DEFAULT_THRESHOLD, false);
+
+  private static final long OS_PAGE_SIZE = MemoryUtil.UNSAFE.pageSize();
+
+  private final long allocatedSize;
+
+  private final long allocatedAddress;
+
+  private final long reservedAddress;
+
+  /**
+   * Creates a factory of huge page aligned allocation managers.
+   *
+   * @param threshold the minimal size of buffers aligned to huge pages.
+   * @param firstTouch whether the pages of a new buffer are touched by the allocating thread.
+   * @return the factory.
+   */
+  public static AllocationManager.Factory newFactory(long threshold, boolean firstTouch) {
+    Preconditions.checkArgument(threshold >= HUGE_PAGE_SIZE,
+        "The threshold cannot be smaller than %s", HUGE_PAGE_SIZE);
+    return new Factory() {
+      @Override
+      public AllocationManager create(BufferAllocator accountingAllocator, long size) {
+        if (size < threshold) {
+          return new UnsafeAllocationManager(accountingAllocator, size);
+        }
+        return new HugePageAllocationManager(accountingAllocator, size, firstTouch);
+      }
+
+      @Override
+      public ArrowBuf empty() {
+        return UnsafeAllocationManager.FACTORY.empty();
+      }
+    };
+  }
+
+  HugePageAllocationManager(BufferAllocator accountingAllocator, long requestedSize, boolean firstTouch) {
+    super(accountingAllocator);
+    // over-allocate by a huge page, so that an aligned region of the requested size fits in any case
+    reservedAddress = MemoryUtil.UNSAFE.allocateMemory(requestedSize + HUGE_PAGE_SIZE);
+    allocatedAddress = (reservedAddress + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+    allocatedSize = requestedSize;
+    if (firstTouch) {
+      for (long offset = 0; offset < allocatedSize; offset += OS_PAGE_SIZE) {
+        MemoryUtil.UNSAFE.putByte(allocatedAddress + offset, (byte) 0);
+      }
+    }
+  }
+
+  @Override
+  public long getSize() {
+    return allocatedSize;
+  }
+
+  @Override
+  protected long memoryAddress() {
+    return allocatedAddress;
+  }
+
+  @Override
+  protected void release0() {
+    MemoryUtil.UNSAFE.freeMemory(reservedAddress);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.arrow.memory;
+
+import static org.apache.arrow.memory.rounding.HugePageRoundingPolicy.HUGE_PAGE_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.rounding.HugePageRoundingPolicy;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link HugePageAllocationManager}.
+ */
+public class TestHugePageAllocationManager {
+
+  private BaseAllocator createHugePageAllocator(boolean firstTouch) {
+    return new RootAllocator(BaseAllocator.configBuilder()
+        .allocationManagerFactory(HugePageAllocationManager.newFactory(HUGE_PAGE_SIZE, firstTouch))
+        .roundingPolicy(new HugePageRoundingPolicy(HUGE_PAGE_SIZE))
+        .build());
+  }
+
+  private AllocationManager getAllocationManager(ArrowBuf buffer) {
+    return ((BufferLedger) buffer.getReferenceManager()).getAllocationManager();
+  }
+
+  private void readWriteArrowBuf(ArrowBuf buffer) {
+    for (long i = 0; i < buffer.capacity() / 8; i++) {
+      buffer.setLong(i * 8, i);
+    }
+
+    for (long i = 0; i < buffer.capacity() / 8; i++) {
+      assertEquals(i, buffer.getLong(i * 8));
+    }
+  }
+
+  @Test
+  public void testLargeBufferAllocation() {
+    for (boolean firstTouch : new boolean[] {false, true}) {
+      try (BaseAllocator allocator = createHugePageAllocator(firstTouch);
+           ArrowBuf buffer = allocator.buffer(HUGE_PAGE_SIZE + 1)) {
+        AllocationManager allocMgr = getAllocationManager(buffer);
+        assertTrue(allocMgr instanceof HugePageAllocationManager);
+
+        // the size is rounded, and the address aligned, to huge pages
+        assertEquals(2 * HUGE_PAGE_SIZE, buffer.capacity());
+        assertEquals(2 * HUGE_PAGE_SIZE, allocMgr.getSize());
+        assertEquals(0, buffer.memoryAddress() % HUGE_PAGE_SIZE);
+        assertEquals(2 * HUGE_PAGE_SIZE, allocator.getAllocatedMemory());
+        readWriteArrowBuf(buffer);
+      }
+    }
+  }
+
+  @Test
+  public void testSmallBufferAllocation() {
+    try (BaseAllocator allocator = createHugePageAllocator(false);
+         ArrowBuf buffer = allocator.buffer(1000)) {
+      assertTrue(getAllocationManager(buffer) instanceof UnsafeAllocationManager);
+      assertEquals(1024, buffer.capacity());
+      readWriteArrowBuf(buffer);
+    }
+  }
+}
@@ -21,6 +21,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.algorithm.sort.DefaultVectorComparators;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.IntVector;
@@ -40,12 +41,14 @@ import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
- * Benchmarks for {@link ParallelSearcher}.
+ * Benchmarks for {@link ParallelSearcher} and {@link ChunkedParallelSearcher}.
  */
 public class ParallelSearcherBenchmarks {
 
   private static final int VECTOR_LENGTH = 1024 * 1024;
 
+  private static final int BATCH_KEY_COUNT = 16;
+
   /**
    * State object for the benchmarks.
    */
@@ -63,8 +66,16 @@ public class ParallelSearcherBenchmarks {
 
     IntVector keyVector;
 
+    IntVector batchKeyVector;
+
+    IntVector resultVector;
+
     ParallelSearcher<IntVector> searcher;
 
+    ChunkedParallelSearcher<IntVector> chunkedSearcher;
+
+    ChunkedParallelSearcher<IntVector> sortedSearcher;
+
     @Setup(Level.Trial)
     public void prepare() {
       allocator = new RootAllocator(Integer.MAX_VALUE);
@@ -81,6 +92,20 @@ public class ParallelSearcherBenchmarks {
 
       keyVector.set(0, VECTOR_LENGTH / 3);
       keyVector.setValueCount(1);
+
+      batchKeyVector = new IntVector("batch key vector", allocator);
+      batchKeyVector.allocateNew(BATCH_KEY_COUNT);
+      for (int i = 0; i < BATCH_KEY_COUNT; i++) {
+        batchKeyVector.set(i, (int) ((long) VECTOR_LENGTH * i / BATCH_KEY_COUNT));
+      }
+      batchKeyVector.setValueCount(BATCH_KEY_COUNT);
+      resultVector = new IntVector("result vector", allocator);
+
+      // the chunked searchers are reusable, so they are created once for all invocations
+      chunkedSearcher = new ChunkedParallelSearcher<>(targetVector, threadPool, numThreads);
+      sortedSearcher = new ChunkedParallelSearcher<>(targetVector, threadPool, numThreads,
+          ChunkedParallelSearcher.DEFAULT_CHUNK_SIZE, DefaultVectorComparators.createDefaultComparator(targetVector),
+          true);
     }
 
     @Setup(Level.Invocation)
@@ -92,6 +117,8 @@ public class ParallelSearcherBenchmarks {
     public void tearDownState() {
       targetVector.close();
       keyVector.close();
+      batchKeyVector.close();
+      resultVector.close();
       allocator.close();
       threadPool.shutdown();
     }
@@ -104,6 +131,34 @@ public class ParallelSearcherBenchmarks {
     state.searcher.search(state.keyVector, 0);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int chunkedSearchFirstBenchmark(SearchState state) throws Exception {
+    return state.chunkedSearcher.searchFirst(state.keyVector, 0);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int chunkedSearchAllBenchmark(SearchState state) throws Exception {
+    return state.chunkedSearcher.searchAll(state.keyVector, 0, state.resultVector);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void chunkedBatchSearchBenchmark(SearchState state) throws Exception {
+    state.chunkedSearcher.searchFirst(state.batchKeyVector, state.resultVector);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void sortedBatchSearchBenchmark(SearchState state) throws Exception {
+    state.sortedSearcher.searchFirst(state.batchKeyVector, state.resultVector);
+  }
+
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
             .include(ParallelSearcherBenchmarks.class.getSimpleName())
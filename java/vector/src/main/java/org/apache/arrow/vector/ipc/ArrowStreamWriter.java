@@ -65,6 +65,29 @@ public class ArrowStreamWriter extends ArrowWriter {
     super(root, provider, out, option);
   }
 
+  /**
+   * Construct an ArrowStreamWriter with an optional DictionaryProvider for the WritableByteChannel.
+   * <p>
+   * When delta dictionaries are enabled, the dictionaries are allowed to grow while the stream is
+   * being written (e.g. by encoding each batch with a streaming dictionary encoder). Before each
+   * record batch, the entries appended to a dictionary since it was last written are sent as a delta
+   * dictionary batch, so the full dictionary never needs to be known a priori or sent again.
+   * Dictionary entries already written must not be modified or removed.
+   * </p>
+   *
+   * @param root Existing VectorSchemaRoot with vectors to be written.
+   * @param provider DictionaryProvider for any vectors that are dictionary encoded.
+   *                 (Optional, can be null)
+   * @param option IPC write options
+   * @param out WritableByteChannel for writing.
+   * @param deltaDictionaries whether to write the entries appended to the dictionaries
+   *                          as delta dictionary batches.
+   */
+  public ArrowStreamWriter(VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out,
+      IpcOption option, boolean deltaDictionaries) {
+    super(root, provider, out, option, deltaDictionaries);
+  }
+
   /**
    * Write an EOS identifier to the WriteChannel.
    *
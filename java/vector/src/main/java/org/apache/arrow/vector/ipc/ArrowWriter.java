@@ -22,7 +22,9 @@ import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.arrow.util.AutoCloseables;
@@ -39,6 +41,7 @@ import org.apache.arrow.vector.ipc.message.MessageSerializer;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.arrow.vector.util.DictionaryUtility;
+import org.apache.arrow.vector.util.TransferPair;
 import org.apache.arrow.vector.validate.MetadataV4UnionChecker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +60,13 @@ public abstract class ArrowWriter implements AutoCloseable {
   private final VectorUnloader unloader;
   private final List<ArrowDictionaryBatch> dictionaries;
 
+  private final DictionaryProvider provider;
+
+  // the number of dictionary entries written so far, for each dictionary id.
+  private final Map<Long, Integer> dictionaryValueCounts;
+
+  private final boolean deltaDictionaries;
+
   private boolean started = false;
   private boolean ended = false;
 
@@ -77,6 +87,21 @@ public abstract class ArrowWriter implements AutoCloseable {
    * @param option   IPC write options
    */
   protected ArrowWriter(VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out, IpcOption option) {
+    this(root, provider, out, option, false);
+  }
+
+  /**
+   * Note: fields are not closed when the writer is closed.
+   *
+   * @param root     the vectors to write to the output
+   * @param provider where to find the dictionaries
+   * @param out      the output where to write
+   * @param option   IPC write options
+   * @param deltaDictionaries if entries appended to the dictionaries after the writer is created
+   *                          should be written as delta dictionary batches
+   */
+  protected ArrowWriter(VectorSchemaRoot root, DictionaryProvider provider, WritableByteChannel out, IpcOption option,
+      boolean deltaDictionaries) {
     this.unloader = new VectorUnloader(root);
     this.out = new WriteChannel(out);
     this.option = option;
@@ -92,10 +117,12 @@ public abstract class ArrowWriter implements AutoCloseable {
 
     // Create a record batch for each dictionary
     this.dictionaries = new ArrayList<>(dictionaryIdsUsed.size());
+    this.dictionaryValueCounts = new LinkedHashMap<>();
     for (long id : dictionaryIdsUsed) {
       Dictionary dictionary = provider.lookup(id);
       FieldVector vector = dictionary.getVector();
       int count = vector.getValueCount();
+      dictionaryValueCounts.put(id, count);
       VectorSchemaRoot dictRoot = new VectorSchemaRoot(
           Collections.singletonList(vector.getField()),
           Collections.singletonList(vector),
@@ -105,6 +132,8 @@ public abstract class ArrowWriter implements AutoCloseable {
       this.dictionaries.add(new ArrowDictionaryBatch(id, batch));
     }
 
+    this.provider = provider;
+    this.deltaDictionaries = deltaDictionaries;
     this.schema = new Schema(fields, root.getSchema().getCustomMetadata());
   }
 
@@ -118,6 +147,9 @@ public abstract class ArrowWriter implements AutoCloseable {
   public void writeBatch() throws IOException {
     ensureStarted();
     ensureDictionariesWritten();
+    if (deltaDictionaries) {
+      writeDeltaDictionaries();
+    }
     try (ArrowRecordBatch batch = unloader.getRecordBatch()) {
       writeRecordBatch(batch);
     }
@@ -182,6 +214,40 @@ public abstract class ArrowWriter implements AutoCloseable {
     }
   }
 
+  /**
+   * Write the entries appended to each dictionary since it was last written, as a delta
+   * dictionary batch. Entries already written must not be modified, as they are not written again.
+   */
+  private void writeDeltaDictionaries() throws IOException {
+    for (Map.Entry<Long, Integer> entry : dictionaryValueCounts.entrySet()) {
+      long id = entry.getKey();
+      FieldVector vector = provider.lookup(id).getVector();
+      int writtenCount = entry.getValue();
+      int count = vector.getValueCount();
+      if (count < writtenCount) {
+        throw new IllegalStateException("Dictionary " + id + " has " + count +
+            " entries, but " + writtenCount + " entries have been written");
+      }
+      if (count == writtenCount) {
+        continue;
+      }
+
+      TransferPair transferPair = vector.getTransferPair(vector.getAllocator());
+      transferPair.splitAndTransfer(writtenCount, count - writtenCount);
+      try (FieldVector deltaVector = (FieldVector) transferPair.getTo()) {
+        VectorSchemaRoot deltaRoot = new VectorSchemaRoot(
+            Collections.singletonList(deltaVector.getField()),
+            Collections.singletonList(deltaVector),
+            deltaVector.getValueCount());
+        VectorUnloader deltaUnloader = new VectorUnloader(deltaRoot);
+        try (ArrowDictionaryBatch batch = new ArrowDictionaryBatch(id, deltaUnloader.getRecordBatch(), true)) {
+          writeDictionaryBatch(batch);
+        }
+      }
+      entry.setValue(count);
+    }
+  }
+
   private void ensureEnded() throws IOException {
     if (!ended) {
       ended = true;
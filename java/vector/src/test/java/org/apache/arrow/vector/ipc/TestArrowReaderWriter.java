@@ -611,6 +611,66 @@ public class TestArrowReaderWriter {
 
   }
 
+  @Test
+  public void testWriteDeltaDictionaries() throws Exception {
+    DictionaryEncoding encoding = new DictionaryEncoding(10L, false, null);
+    try (VarCharVector dictVector = newVarCharVector("dict", allocator);
+         IntVector encodedVector = new IntVector("encoded",
+             new FieldType(true, new ArrowType.Int(32, true), encoding), allocator)) {
+      setVector(dictVector,
+          "foo".getBytes(StandardCharsets.UTF_8),
+          "bar".getBytes(StandardCharsets.UTF_8));
+      DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+      provider.put(new Dictionary(dictVector, encoding));
+
+      VectorSchemaRoot root = new VectorSchemaRoot(Collections.singletonList(encodedVector));
+      ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+      try (ArrowStreamWriter writer = new ArrowStreamWriter(
+          root, provider, newChannel(outStream), IpcOption.DEFAULT, /*deltaDictionaries*/ true)) {
+        writer.start();
+
+        // the first batch only uses the initial entries
+        setVector(encodedVector, 1, 0, 1);
+        root.setRowCount(3);
+        writer.writeBatch();
+
+        // the second batch appends one entry to the dictionary
+        dictVector.setSafe(2, "baz".getBytes(StandardCharsets.UTF_8));
+        dictVector.setValueCount(3);
+        setVector(encodedVector, 2, 1);
+        root.setRowCount(2);
+        writer.writeBatch();
+
+        // the third batch appends no entries
+        setVector(encodedVector, 0);
+        root.setRowCount(1);
+        writer.writeBatch();
+
+        // the fourth batch appends two entries
+        dictVector.setSafe(3, "aa".getBytes(StandardCharsets.UTF_8));
+        dictVector.setSafe(4, "bb".getBytes(StandardCharsets.UTF_8));
+        dictVector.setValueCount(5);
+        setVector(encodedVector, 4, 3, 2);
+        root.setRowCount(3);
+        writer.writeBatch();
+        writer.end();
+      }
+
+      try (ArrowStreamReader reader = new ArrowStreamReader(
+          new ByteArrayInputStream(outStream.toByteArray()), allocator)) {
+        int[] expectedDictionarySizes = {2, 3, 3, 5};
+        for (int expectedSize : expectedDictionarySizes) {
+          assertTrue(reader.loadNextBatch());
+          FieldVector readDictionary = reader.getDictionaryVectors().get(10L).getVector();
+          assertEquals(expectedSize, readDictionary.getValueCount());
+          assertTrue(new RangeEqualsVisitor(readDictionary, dictVector)
+              .rangeEquals(new Range(0, 0, expectedSize)));
+        }
+        assertFalse(reader.loadNextBatch());
+      }
+    }
+  }
+
   private void serializeDictionaryBatch(
       WriteChannel out,
       Dictionary dictionary,